@@ -216,6 +216,7 @@ public class SparkBatchJobDeployFactory implements ILogger {
         }
 
         //TODO:use httpobservable to replace sparkbathsubmission and deprecate the old constructor.
-        return jobDeploy;
+        // Skip uploading the same artifact into the same destination again
+        return jobDeploy == null ? null : new DeduplicatedDeploy(jobDeploy);
     }
 }
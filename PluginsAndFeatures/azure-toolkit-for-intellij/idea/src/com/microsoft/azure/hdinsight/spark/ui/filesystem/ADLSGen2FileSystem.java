@@ -28,13 +28,26 @@ import com.microsoft.azure.hdinsight.sdk.storage.adlsgen2.ADLSGen2FSOperation;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 
+import org.apache.commons.lang3.tuple.Pair;
+import rx.Observable;
+import rx.schedulers.Schedulers;
+
 import java.io.IOException;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 public class ADLSGen2FileSystem extends AzureStorageVirtualFileSystem {
     public static final String myProtocol = "abfs";
+    public static final int DEFAULT_MAX_CACHED_ENTRIES = 500000;
+    public static final long DEFAULT_CACHE_TTL_MS = TimeUnit.MINUTES.toMillis(5);
+    private static final int MAX_PREFETCH_SIBLINGS = 8;
+    private static final int PREFETCH_CONCURRENCY = 2;
 
     @Nullable
     private HttpObservable http;
@@ -46,6 +59,18 @@ public class ADLSGen2FileSystem extends AzureStorageVirtualFileSystem {
     // https://account_name.dfs.core.windows.net/file_system
     private String restApiRoot;
 
+    private long cacheTtlMs = DEFAULT_CACHE_TTL_MS;
+
+    private int maxCachedEntries = DEFAULT_MAX_CACHED_ENTRIES;
+
+    // The listed children of directories with the listed time, in LRU order, bounded by the total entries
+    private final LinkedHashMap<URI, Pair<VirtualFile[], Long>> directoryCache = new LinkedHashMap<>(16, 0.75f, true);
+
+    private int cachedEntries = 0;
+
+    // The directory listings in progress, shared by the concurrent listings of the same directory
+    private final Map<URI, Observable<VirtualFile[]>> listings = new ConcurrentHashMap<>();
+
     public ADLSGen2FileSystem(@NotNull HttpObservable http, @NotNull String restApiRoot) {
         this.http = http;
         this.op = new ADLSGen2FSOperation(this.http);
@@ -61,18 +86,155 @@ public class ADLSGen2FileSystem extends AzureStorageVirtualFileSystem {
 
     public URI getRoot() {return root;}
 
+    public ADLSGen2FileSystem setCacheTtl(long ttl, @NotNull TimeUnit unit) {
+        this.cacheTtlMs = unit.toMillis(ttl);
+        return this;
+    }
+
+    public ADLSGen2FileSystem setMaxCachedEntries(int maxCachedEntries) {
+        this.maxCachedEntries = maxCachedEntries;
+        return this;
+    }
+
     @NotNull
     public VirtualFile[] listFiles(AdlsGen2VirtualFile vf) {
-        List<AdlsGen2VirtualFile> childrenList = new ArrayList<>();
-        if (vf.isDirectory()) {
-            childrenList = this.op.list(this.restApiRoot, this.op.getDirectoryParam(vf.getUri()))
-                    .map(path -> new AdlsGen2VirtualFile(this.root.resolve(path.getName()),
-                            path.isDirectory(), this))
-                    .doOnNext(file -> file.setParent(vf))
-                    .toList().toBlocking().lastOrDefault(new ArrayList<>());
+        if (!vf.isDirectory()) {
+            return new VirtualFile[0];
+        }
+
+        VirtualFile[] children = getOrListChildren(vf).toBlocking().lastOrDefault(new VirtualFile[0]);
+        prefetchSiblings(vf);
+
+        return children;
+    }
+
+    /**
+     * List the directory page by page, the first entries are emitted without waiting for the whole listing.
+     * The listing doesn't go through the directory cache.
+     *
+     * @param vf the directory to list
+     * @return the pages of the directory children
+     */
+    @NotNull
+    public Observable<List<AdlsGen2VirtualFile>> listFilesInPages(@NotNull AdlsGen2VirtualFile vf) {
+        if (!vf.isDirectory()) {
+            return Observable.empty();
         }
 
-        return childrenList.toArray(new VirtualFile[0]);
+        return this.op.listPages(this.restApiRoot, this.op.getDirectoryParam(vf.getUri()))
+                .map(page -> {
+                    List<AdlsGen2VirtualFile> files = new ArrayList<>(page.size());
+                    page.forEach(path -> {
+                        AdlsGen2VirtualFile file = new AdlsGen2VirtualFile(this.root.resolve(path.getName()),
+                                path.isDirectory(), this);
+                        file.setParent(vf);
+                        files.add(file);
+                    });
+
+                    return files;
+                });
+    }
+
+    /**
+     * Drop the cached children of the directory, and of all the cached sub directories if recursive
+     *
+     * @param vf the directory to refresh
+     * @param recursive whether to refresh the sub directories
+     */
+    public void refreshDirectory(@NotNull AdlsGen2VirtualFile vf, boolean recursive) {
+        String dirPath = vf.getUri().getPath();
+        String subPathPrefix = dirPath.endsWith("/") ? dirPath : dirPath + "/";
+
+        synchronized (directoryCache) {
+            Iterator<Map.Entry<URI, Pair<VirtualFile[], Long>>> it = directoryCache.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<URI, Pair<VirtualFile[], Long>> entry = it.next();
+                if (entry.getKey().equals(vf.getUri()) ||
+                        (recursive && entry.getKey().getPath().startsWith(subPathPrefix))) {
+                    cachedEntries -= entry.getValue().getLeft().length;
+                    it.remove();
+                }
+            }
+        }
+    }
+
+    // Get the cached children, or join the listing in progress, or start a new listing
+    private Observable<VirtualFile[]> getOrListChildren(@NotNull AdlsGen2VirtualFile vf) {
+        VirtualFile[] cached = getCachedChildren(vf.getUri());
+        if (cached != null) {
+            return Observable.just(cached);
+        }
+
+        return listings.computeIfAbsent(vf.getUri(), uri -> listFilesInPages(vf)
+                .collect(() -> new ArrayList<VirtualFile>(), List::addAll)
+                .map(children -> children.toArray(new VirtualFile[0]))
+                .doOnNext(children -> putCachedChildren(uri, children))
+                .doOnTerminate(() -> listings.remove(uri))
+                .cache());
+    }
+
+    // Warm up the cache for the sibling directories, which are likely to be expanded next
+    private void prefetchSiblings(@NotNull AdlsGen2VirtualFile vf) {
+        if (!(vf.getParent() instanceof AdlsGen2VirtualFile)) {
+            return;
+        }
+
+        VirtualFile[] siblings = getCachedChildren(((AdlsGen2VirtualFile) vf.getParent()).getUri());
+        if (siblings == null) {
+            return;
+        }
+
+        List<AdlsGen2VirtualFile> toPrefetch = new ArrayList<>();
+        for (VirtualFile sibling : siblings) {
+            if (toPrefetch.size() >= MAX_PREFETCH_SIBLINGS) {
+                break;
+            }
+
+            if (sibling != vf && sibling.isDirectory() && sibling instanceof AdlsGen2VirtualFile &&
+                    getCachedChildren(((AdlsGen2VirtualFile) sibling).getUri()) == null) {
+                toPrefetch.add((AdlsGen2VirtualFile) sibling);
+            }
+        }
+
+        Observable.from(toPrefetch)
+                .flatMap(sibling -> getOrListChildren(sibling)
+                        .subscribeOn(Schedulers.io())
+                        .onErrorResumeNext(Observable.empty()), PREFETCH_CONCURRENCY)
+                .subscribe();
+    }
+
+    @Nullable
+    private VirtualFile[] getCachedChildren(@NotNull URI dir) {
+        synchronized (directoryCache) {
+            Pair<VirtualFile[], Long> cached = directoryCache.get(dir);
+            if (cached == null) {
+                return null;
+            }
+
+            if (System.currentTimeMillis() - cached.getRight() >= cacheTtlMs) {
+                directoryCache.remove(dir);
+                cachedEntries -= cached.getLeft().length;
+
+                return null;
+            }
+
+            return cached.getLeft();
+        }
+    }
+
+    private void putCachedChildren(@NotNull URI dir, @NotNull VirtualFile[] children) {
+        synchronized (directoryCache) {
+            Pair<VirtualFile[], Long> replaced = directoryCache.put(dir, Pair.of(children, System.currentTimeMillis()));
+            cachedEntries += children.length - (replaced == null ? 0 : replaced.getLeft().length);
+
+            // Evict the least recently used directories, but keep the one just listed
+            Iterator<Map.Entry<URI, Pair<VirtualFile[], Long>>> it = directoryCache.entrySet().iterator();
+            while (cachedEntries > maxCachedEntries && directoryCache.size() > 1 && it.hasNext()) {
+                Map.Entry<URI, Pair<VirtualFile[], Long>> eldest = it.next();
+                cachedEntries -= eldest.getValue().getLeft().length;
+                it.remove();
+            }
+        }
     }
 
     @Nullable
@@ -83,7 +245,10 @@ public class ADLSGen2FileSystem extends AzureStorageVirtualFileSystem {
 
     @Override
     public void refresh(boolean asynchronous) {
-
+        synchronized (directoryCache) {
+            directoryCache.clear();
+            cachedEntries = 0;
+        }
     }
 
     @Nullable
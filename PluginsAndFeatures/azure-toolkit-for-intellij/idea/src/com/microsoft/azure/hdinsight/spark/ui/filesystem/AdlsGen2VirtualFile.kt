@@ -27,13 +27,15 @@ open class AdlsGen2VirtualFile(val uri: URI, private val myIsDirectory: Boolean,
         this.parent = parent
     }
 
-    override fun getChildren(): Array<VirtualFile>? = myLazyChildren
+    // The children are cached by the file system with TTL, which can be dropped by refresh
+    override fun getChildren(): Array<VirtualFile>? = (myFileSystem as? ADLSGen2FileSystem)?.listFiles(this)
 
     override fun getUrl(): String {
         return uri.toString()
     }
 
-    private val myLazyChildren: Array<VirtualFile>? by lazy {
-        (myFileSystem as? ADLSGen2FileSystem)?.listFiles(this)
+    override fun refresh(asynchronous: Boolean, recursive: Boolean, postRunnable: Runnable?) {
+        (myFileSystem as? ADLSGen2FileSystem)?.refreshDirectory(this, recursive)
+        postRunnable?.run()
     }
 }
\ No newline at end of file
@@ -25,6 +25,8 @@ package com.microsoft.intellij.helpers.deploy
 import com.jetbrains.rider.util.idea.getLogger
 import com.microsoft.azure.management.appservice.PublishingProfile
 import com.microsoft.azure.management.appservice.WebAppBase
+import com.microsoft.azuretools.utils.AppServiceDeltaDeployer
+import com.microsoft.azuretools.utils.IProgressIndicator
 import com.microsoft.intellij.helpers.UiConstants
 import com.microsoft.intellij.runner.RunProcessHandler
 import com.microsoft.intellij.runner.utils.AppDeploySession
@@ -116,6 +118,32 @@ object KuduClient {
         }
     }
 
+    /**
+     * Method to publish the content of a folder to Azure server incrementally. Only the files changed since the last
+     * deploy are uploaded, it falls back to the full ZIP deploy by [fullDeploy] for the first deploy,
+     * or when too many files differ.
+     *
+     * @param contentDir - folder with the content of wwwroot
+     * @param app - web app to publish to
+     * @param processHandler - a process handler to show a process message
+     * @param fullDeploy - the full deploy of the folder content
+     *
+     * @throws [RuntimeException] in case REST request was not succeed
+     */
+    fun kuduDeltaDeploy(contentDir: File, app: WebAppBase, processHandler: RunProcessHandler, fullDeploy: () -> Unit) {
+        val progressIndicator = object : IProgressIndicator {
+            override fun setText(text: String?) { if (text != null) processHandler.setText(text) }
+            override fun setText2(text2: String?) {}
+            override fun setFraction(fraction: Double) {}
+            override fun isCanceled() = processHandler.isProcessTerminating || processHandler.isProcessTerminated
+            override fun notifyComplete() {}
+        }
+
+        val result = AppServiceDeltaDeployer.forApp(app).deploy(contentDir, { fullDeploy() }, progressIndicator)
+        if (result != AppServiceDeltaDeployer.Result.FULL)
+            processHandler.setText(UiConstants.ZIP_DEPLOY_PUBLISH_SUCCESS)
+    }
+
     /**
      * Sleep for [timeout] ms
      */
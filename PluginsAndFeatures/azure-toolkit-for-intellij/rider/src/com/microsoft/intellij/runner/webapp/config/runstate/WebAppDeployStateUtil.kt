@@ -194,16 +194,24 @@ object WebAppDeployStateUtil {
             // Note: we need to do it only for Linux Azure instances (we might add this check to speed up)
             projectAssemblyRelativePath = getAssemblyRelativePath(publishableProject, outDir)
 
-            processHandler.setText(String.format(UiConstants.ZIP_FILE_CREATE_FOR_PROJECT, publishableProject.projectName))
-            val zipFile = zipProjectArtifacts(outDir, processHandler)
-
             webAppStop(webApp, processHandler)
 
-            KuduClient.kuduZipDeploy(zipFile, webApp, processHandler)
-
-            if (zipFile.exists()) {
-                processHandler.setText(String.format(UiConstants.ZIP_FILE_DELETING, zipFile.path))
-                FileUtil.delete(zipFile)
+            try {
+                KuduClient.kuduDeltaDeploy(outDir, webApp, processHandler) {
+                    processHandler.setText(String.format(UiConstants.ZIP_FILE_CREATE_FOR_PROJECT, publishableProject.projectName))
+                    val zipFile = zipProjectArtifacts(outDir, processHandler, false)
+
+                    try {
+                        KuduClient.kuduZipDeploy(zipFile, webApp, processHandler)
+                    } finally {
+                        if (zipFile.exists()) {
+                            processHandler.setText(String.format(UiConstants.ZIP_FILE_DELETING, zipFile.path))
+                            FileUtil.delete(zipFile)
+                        }
+                    }
+                }
+            } finally {
+                FileUtil.delete(outDir)
             }
         } catch (e: Throwable) {
             logger.error(e)
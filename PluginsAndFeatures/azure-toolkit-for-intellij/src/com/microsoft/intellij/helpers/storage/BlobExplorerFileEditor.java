@@ -40,6 +40,7 @@ import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.Key;
 import com.intellij.openapi.vfs.LocalFileSystem;
 import com.intellij.openapi.vfs.VirtualFileWrapper;
+import com.microsoft.azure.storage.ResultContinuation;
 import com.microsoft.azuretools.authmanage.AuthMethodManager;
 import com.microsoft.azuretools.authmanage.ISubscriptionSelectionListener;
 import com.microsoft.azuretools.azurecommons.helpers.AzureCmdException;
@@ -52,10 +53,12 @@ import com.microsoft.intellij.util.PluginUtil;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
 import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
 import com.microsoft.tooling.msservices.helpers.azure.sdk.StorageClientSDKManager;
+import com.microsoft.tooling.msservices.helpers.collections.PagedWindow;
 import com.microsoft.tooling.msservices.model.storage.BlobContainer;
 import com.microsoft.tooling.msservices.model.storage.BlobDirectory;
 import com.microsoft.tooling.msservices.model.storage.BlobFile;
 import com.microsoft.tooling.msservices.model.storage.BlobItem;
+import com.microsoft.tooling.msservices.model.storage.StoragePage;
 import com.microsoft.tooling.msservices.serviceexplorer.NodeActionEvent;
 import com.microsoft.tooling.msservices.serviceexplorer.NodeActionListener;
 import org.apache.commons.io.IOUtils;
@@ -92,6 +95,12 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
     static final String UPLOAD = "Upload";
     static final String QUERY = "Query";
 
+    private static final int PAGE_SIZE = 500;
+    // Keep at most this many pages of rows; scrolling past them loads the next or the previous page again
+    private static final int MAX_PAGES = 4;
+    // Start loading the next page when the view is within this many rows of the end
+    private static final int LOAD_AHEAD_ROWS = 50;
+
     private JPanel mainPanel;
     private JTextField queryTextField;
     private JTable blobListTable;
@@ -111,6 +120,8 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
 
     private LinkedList<BlobDirectory> directoryQueue = new LinkedList<BlobDirectory>();
     private List<BlobItem> blobItems;
+    private PagedWindow<BlobItem> blobItemWindow;
+    private boolean loadingPage = false;
 
     private ISubscriptionSelectionListener subscriptionListener;
     private FileEditorVirtualNode fileEditorVirtualNode;
@@ -217,6 +228,18 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
         sorter.setSortKeys(sortKeys);
         sorter.sort();
 
+        final JScrollPane scrollPane = (JScrollPane) SwingUtilities.getAncestorOfClass(JScrollPane.class, blobListTable);
+        if (scrollPane != null) {
+            scrollPane.getVerticalScrollBar().addAdjustmentListener(new AdjustmentListener() {
+                @Override
+                public void adjustmentValueChanged(AdjustmentEvent adjustmentEvent) {
+                    if (!adjustmentEvent.getValueIsAdjusting()) {
+                        loadPageOnScroll(scrollPane.getVerticalScrollBar());
+                    }
+                }
+            });
+        }
+
         backButton.setIcon(CommonIcons.INSTANCE.getOpenParent());
         backButton.addActionListener(new ActionListener() {
             @Override
@@ -328,6 +351,8 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
     public void fillGrid() {
         setUIState(true);
 
+        final String prefix = queryTextField.getText();
+
         ProgressManager.getInstance().run(new Task.Backgroundable(project, "Loading blobs...", false) {
             @Override
             public void run(@NotNull ProgressIndicator progressIndicator) {
@@ -338,52 +363,25 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
                         directoryQueue.addLast(StorageClientSDKManager.getManager().getRootDirectory(connectionString, blobContainer));
                     }
 
-                    blobItems = StorageClientSDKManager.getManager().getBlobItems(connectionString, directoryQueue.peekLast());
-
-                    if (!queryTextField.getText().isEmpty()) {
-                        for (int i = blobItems.size() - 1; i >= 0; i--) {
-                            BlobItem blobItem = blobItems.get(i);
-
-                            if (blobItem instanceof BlobFile && !blobItem.getName().startsWith(queryTextField.getText())) {
-                                blobItems.remove(i);
-                            }
+                    final BlobDirectory directory = directoryQueue.peekLast();
+                    final PagedWindow<BlobItem> window = new PagedWindow<BlobItem>(new PagedWindow.PageLoader<BlobItem>() {
+                        @NotNull
+                        @Override
+                        public StoragePage<BlobItem> load(@Nullable ResultContinuation continuationToken) throws AzureCmdException {
+                            return StorageClientSDKManager.getManager().getBlobItemsPage(
+                                    connectionString, directory, prefix, continuationToken, PAGE_SIZE);
                         }
-                    }
+                    }, MAX_PAGES);
+                    window.reset();
 
                     ApplicationManager.getApplication().invokeLater(new Runnable() {
                         @Override
                         public void run() {
+                            blobItemWindow = window;
+                            loadingPage = false;
 
-                            pathLabel.setText(directoryQueue.peekLast().getPath());
-                            DefaultTableModel model = (DefaultTableModel) blobListTable.getModel();
-
-                            while (model.getRowCount() > 0) {
-                                model.removeRow(0);
-                            }
-
-                            for (BlobItem blobItem : blobItems) {
-                                if (blobItem instanceof BlobDirectory) {
-                                    model.addRow(new Object[]{
-                                            AllIcons.Nodes.Folder,
-                                            blobItem.getName(),
-                                            "",
-                                            "",
-                                            "",
-                                            blobItem.getUri()
-                                    });
-                                } else {
-                                    BlobFile blobFile = (BlobFile) blobItem;
-
-                                    model.addRow(new Object[]{
-                                            AllIcons.FileTypes.Any_type,
-                                            blobFile.getName(),
-                                            UIHelperImpl.readableFileSize(blobFile.getSize()),
-                                            new SimpleDateFormat().format(blobFile.getLastModified().getTime()),
-                                            blobFile.getContentType(),
-                                            blobFile.getUri()
-                                    });
-                                }
-                            }
+                            pathLabel.setText(directory.getPath());
+                            showBlobItems(0);
 
                             setUIState(false);
 
@@ -398,6 +396,99 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
         });
     }
 
+    private void loadPageOnScroll(@NotNull JScrollBar scrollBar) {
+        final PagedWindow<BlobItem> window = blobItemWindow;
+
+        if (window == null || loadingPage) {
+            return;
+        }
+
+        int margin = blobListTable.getRowHeight() * LOAD_AHEAD_ROWS;
+        final boolean next;
+
+        if (scrollBar.getValue() + scrollBar.getVisibleAmount() >= scrollBar.getMaximum() - margin && window.hasNext()) {
+            next = true;
+        } else if (scrollBar.getValue() <= margin && window.hasPrevious()) {
+            next = false;
+        } else {
+            return;
+        }
+
+        loadingPage = true;
+
+        ProgressManager.getInstance().run(new Task.Backgroundable(project, "Loading blobs...", false) {
+            @Override
+            public void run(@NotNull ProgressIndicator progressIndicator) {
+                progressIndicator.setIndeterminate(true);
+
+                try {
+                    // Rows move up when the window drops its first page, and down when a page is added before them
+                    final int shiftedRows = next ? -window.loadNext() : window.loadPrevious();
+
+                    ApplicationManager.getApplication().invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (window == blobItemWindow) {
+                                loadingPage = false;
+                                showBlobItems(shiftedRows);
+                            }
+                        }
+                    });
+                } catch (AzureCmdException ex) {
+                    ApplicationManager.getApplication().invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            loadingPage = false;
+                        }
+                    });
+
+                    String msg = "An error occurred while attempting to query blob list." + "\n" + String.format(message("webappExpMsg"), ex.getMessage());
+                    PluginUtil.displayErrorDialogAndLog(message("errTtl"), msg, ex);
+                }
+            }
+        });
+    }
+
+    private void showBlobItems(int shiftedRows) {
+        JScrollPane scrollPane = (JScrollPane) SwingUtilities.getAncestorOfClass(JScrollPane.class, blobListTable);
+        int scrollPosition = scrollPane == null ? 0 : scrollPane.getVerticalScrollBar().getValue();
+
+        blobItems = blobItemWindow.getItems();
+        DefaultTableModel model = (DefaultTableModel) blobListTable.getModel();
+        model.setRowCount(0);
+
+        for (BlobItem blobItem : blobItems) {
+            if (blobItem instanceof BlobDirectory) {
+                model.addRow(new Object[]{
+                        AllIcons.Nodes.Folder,
+                        blobItem.getName(),
+                        "",
+                        "",
+                        "",
+                        blobItem.getUri()
+                });
+            } else {
+                BlobFile blobFile = (BlobFile) blobItem;
+
+                model.addRow(new Object[]{
+                        AllIcons.FileTypes.Any_type,
+                        blobFile.getName(),
+                        UIHelperImpl.readableFileSize(blobFile.getSize()),
+                        new SimpleDateFormat().format(blobFile.getLastModified().getTime()),
+                        blobFile.getContentType(),
+                        blobFile.getUri()
+                });
+            }
+        }
+
+        if (scrollPane != null && shiftedRows != 0) {
+            // Lay out the new rows first, otherwise the scroll bar clamps the position to the old height
+            scrollPane.validate();
+            scrollPane.getVerticalScrollBar().setValue(
+                    Math.max(0, scrollPosition + shiftedRows * blobListTable.getRowHeight()));
+        }
+    }
+
     private void setUIState(boolean loading) {
         if (loading) {
             blobListTable.setEnabled(false);
@@ -715,108 +806,93 @@ public class BlobExplorerFileEditor implements FileEditor, TelemetryProperties {
         ProgressManager.getInstance().run(new Task.Backgroundable(project, "Uploading blob...", true) {
             @Override
             public void run(@NotNull final ProgressIndicator progressIndicator) {
-                try {
-                    final BlobDirectory blobDirectory = directoryQueue.peekLast();
-
-                    final BufferedInputStream bufferedInputStream = new BufferedInputStream(new FileInputStream(selectedFile));
-
-                    progressIndicator.setIndeterminate(false);
-                    progressIndicator.setText("Uploading blob...");
-                    progressIndicator.setText2("0% uploaded");
+                final BlobDirectory blobDirectory = directoryQueue.peekLast();
 
-                    try {
-                        final CallableSingleArg<Void, Long> callable = new CallableSingleArg<Void, Long>() {
-                            @Override
-                            public Void call(Long uploadedBytes) throws Exception {
-                                double progress = ((double) uploadedBytes) / selectedFile.length();
+                progressIndicator.setIndeterminate(false);
+                progressIndicator.setText("Uploading blob...");
+                progressIndicator.setText2("0% uploaded");
 
-                                progressIndicator.setFraction(progress);
-                                progressIndicator.setText2(String.format("%s%% uploaded", (int) (progress * 100)));
+                try {
+                    final CallableSingleArg<Void, Long> callable = new CallableSingleArg<Void, Long>() {
+                        @Override
+                        public Void call(Long uploadedBytes) throws Exception {
+                            double progress = ((double) uploadedBytes) / selectedFile.length();
 
-                                return null;
-                            }
-                        };
+                            progressIndicator.setFraction(progress);
+                            progressIndicator.setText2(String.format("%s%% uploaded", (int) (progress * 100)));
 
-                        Future<Void> future = ApplicationManager.getApplication().executeOnPooledThread(new Callable<Void>() {
-                            @Override
-                            public Void call() throws AzureCmdException {
-                                try {
-                                    StorageClientSDKManager.getManager().uploadBlobFileContent(
-                                            connectionString,
-                                            blobContainer,
-                                            path,
-                                            bufferedInputStream,
-                                            callable,
-                                            1024 * 1024,
-                                            selectedFile.length());
-                                } finally {
-                                    try {
-                                        bufferedInputStream.close();
-                                    } catch (IOException ignored) {
-                                    }
-                                }
+                            return null;
+                        }
+                    };
 
-                                return null;
-                            }
-                        });
+                    Future<Void> future = ApplicationManager.getApplication().executeOnPooledThread(new Callable<Void>() {
+                        @Override
+                        public Void call() throws AzureCmdException {
+                            StorageClientSDKManager.getManager().uploadBlobFileContent(
+                                    connectionString,
+                                    blobContainer,
+                                    path,
+                                    selectedFile,
+                                    callable,
+                                    4 * 1024 * 1024);
+
+                            return null;
+                        }
+                    });
 
-                        while (!future.isDone()) {
-                            Thread.sleep(500);
-                            progressIndicator.checkCanceled();
+                    while (!future.isDone()) {
+                        Thread.sleep(500);
+                        progressIndicator.checkCanceled();
 
-                            if (progressIndicator.isCanceled()) {
-                                future.cancel(true);
-                                bufferedInputStream.close();
+                        if (progressIndicator.isCanceled()) {
+                            future.cancel(true);
 
-                                for (BlobItem blobItem : StorageClientSDKManager.getManager().getBlobItems(connectionString, blobDirectory)) {
-                                    if (blobItem instanceof BlobFile && blobItem.getPath().equals(path)) {
-                                        StorageClientSDKManager.getManager().deleteBlobFile(connectionString, (BlobFile) blobItem);
-                                    }
+                            for (BlobItem blobItem : StorageClientSDKManager.getManager().getBlobItems(connectionString, blobDirectory)) {
+                                if (blobItem instanceof BlobFile && blobItem.getPath().equals(path)) {
+                                    StorageClientSDKManager.getManager().deleteBlobFile(connectionString, (BlobFile) blobItem);
                                 }
                             }
                         }
+                    }
 
-                        try {
-                            directoryQueue.clear();
-                            directoryQueue.addLast(StorageClientSDKManager.getManager().getRootDirectory(connectionString, blobContainer));
+                    try {
+                        directoryQueue.clear();
+                        directoryQueue.addLast(StorageClientSDKManager.getManager().getRootDirectory(connectionString, blobContainer));
 
-                            for (String pathDir : path.split("/")) {
-                                for (BlobItem blobItem : StorageClientSDKManager.getManager().getBlobItems(connectionString, directoryQueue.getLast())) {
-                                    if (blobItem instanceof BlobDirectory && blobItem.getName().equals(pathDir)) {
-                                        directoryQueue.addLast((BlobDirectory) blobItem);
-                                    }
+                        for (String pathDir : path.split("/")) {
+                            for (BlobItem blobItem : StorageClientSDKManager.getManager().getBlobItems(connectionString, directoryQueue.getLast())) {
+                                if (blobItem instanceof BlobDirectory && blobItem.getName().equals(pathDir)) {
+                                    directoryQueue.addLast((BlobDirectory) blobItem);
                                 }
                             }
-                        } catch (AzureCmdException e) {
-                            String msg = "An error occurred while attempting to show new blob." + "\n" + String.format(message("webappExpMsg"), e.getMessage());
-                            PluginUtil.displayErrorDialogAndLog(message("errTtl"), msg, e);
                         }
+                    } catch (AzureCmdException e) {
+                        String msg = "An error occurred while attempting to show new blob." + "\n" + String.format(message("webappExpMsg"), e.getMessage());
+                        PluginUtil.displayErrorDialogAndLog(message("errTtl"), msg, e);
+                    }
 
-                        ApplicationManager.getApplication().invokeLater(new Runnable() {
-                            @Override
-                            public void run() {
-                                fillGrid();
-                            }
-                        });
-                    } catch (Exception e) {
-                        Throwable connectionFault = e.getCause();
-                        Throwable realFault = null;
-
-                        if (connectionFault != null) {
-                            realFault = connectionFault.getCause();
+                    ApplicationManager.getApplication().invokeLater(new Runnable() {
+                        @Override
+                        public void run() {
+                            fillGrid();
                         }
+                    });
+                } catch (Exception e) {
+                    Throwable connectionFault = e.getCause();
+                    Throwable realFault = null;
 
-                        progressIndicator.setText("Error uploading Blob");
-                        String message = realFault == null ? null : realFault.getMessage();
+                    if (connectionFault != null) {
+                        realFault = connectionFault.getCause();
+                    }
 
-                        if (connectionFault != null && message == null) {
-                            message = "Error type " + connectionFault.getClass().getName();
-                        }
+                    progressIndicator.setText("Error uploading Blob");
+                    String message = realFault == null ? null : realFault.getMessage();
 
-                        progressIndicator.setText2((connectionFault instanceof SocketTimeoutException) ? "Connection timed out" : message);
+                    if (connectionFault != null && message == null) {
+                        message = "Error type " + connectionFault.getClass().getName();
                     }
-                } catch (IOException e) {
-                    PluginUtil.displayErrorDialogAndLog(message("errTtl"), "An error occurred while attempting to upload Blob.", e);
+
+                    progressIndicator.setText2((connectionFault instanceof SocketTimeoutException) ? "Connection timed out" : message);
                 }
             }
         });
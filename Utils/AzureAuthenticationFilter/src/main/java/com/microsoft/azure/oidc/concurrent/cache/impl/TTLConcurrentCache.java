@@ -21,22 +21,54 @@
  ******************************************************************************/
 package com.microsoft.azure.oidc.concurrent.cache.impl;
 
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCache;
 
+/**
+ * Lock free cache with a fixed time to live from the insertion and a max size.
+ *
+ * All the entries share the same TTL, so the insertion order is also the expiry order. The entries are queued in the
+ * insertion order, both the expiry and the size bounded eviction take the oldest ones from the queue head in O(1).
+ * An entry removed from the map ahead of its queue node, e.g. expired on get, leaves a stale node which is dropped
+ * when it reaches the head.
+ */
 public final class TTLConcurrentCache<K, V> implements ConcurrentCache<K, V> {
-	private final ConcurrentMap<K, V> storeMap = new ConcurrentHashMap<K, V>();
-	private final ConcurrentMap<K, Long> timestampMap = new ConcurrentHashMap<K, Long>();
-	private final ScheduledExecutorService scheduledExecutorService = Executors.newSingleThreadScheduledExecutor();
-	private final List<K> oldestKey = new LinkedList<K>();
+	private static final class Entry<K, V> {
+		private final K key;
+		private final V value;
+		private final long timestamp;
+
+		private Entry(final K key, final V value, final long timestamp) {
+			this.key = key;
+			this.value = value;
+			this.timestamp = timestamp;
+		}
+	}
+
+	private final ConcurrentMap<K, Entry<K, V>> storeMap = new ConcurrentHashMap<K, Entry<K, V>>();
+	private final Queue<Entry<K, V>> insertionQueue = new ConcurrentLinkedQueue<Entry<K, V>>();
+	private final AtomicLong size = new AtomicLong();
+	private final AtomicLong hitCount = new AtomicLong();
+	private final AtomicLong missCount = new AtomicLong();
+	private final AtomicLong evictionCount = new AtomicLong();
+	private final ScheduledExecutorService scheduledExecutorService = Executors
+			.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					final Thread thread = new Thread(runnable, "TTLConcurrentCache-sweeper");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
 	private final Long ttl;
 	private final Long maxSize;
 
@@ -46,42 +78,47 @@ public final class TTLConcurrentCache<K, V> implements ConcurrentCache<K, V> {
 		scheduledExecutorService.scheduleAtFixedRate(new Runnable() {
 			@Override
 			public void run() {
-				synchronized (timestampMap) {
-					final Iterator<K> iterator = oldestKey.iterator();
-					while (iterator.hasNext()) {
-						final K key = iterator.next();
-						if (timestampMap.get(key) < (System.currentTimeMillis() - getTtl())) {
-							timestampMap.remove(key);
-							storeMap.remove(key);
-							iterator.remove();
-						}
-						break;
-					}
-				}
+				expireOldest(System.currentTimeMillis());
 			}
 		}, 1, 1, TimeUnit.MINUTES);
 	}
 
 	@Override
 	public V get(Object key) {
-		removeIfExpired(key);
-		return storeMap.get(key);
+		final Entry<K, V> entry = storeMap.get(key);
+		if (entry == null) {
+			missCount.incrementAndGet();
+			return null;
+		}
+		if (isExpired(entry, System.currentTimeMillis())) {
+			removeEntry(entry);
+			missCount.incrementAndGet();
+			return null;
+		}
+		hitCount.incrementAndGet();
+		return entry.value;
 	}
 
 	@Override
 	public V putIfAbsent(K key, V value) {
-		synchronized (timestampMap) {
-			while (timestampMap.size() > maxSize) {
-				final K oldest = oldestKey.get(0);
-				timestampMap.remove(oldest);
-				storeMap.remove(oldest);
-				oldestKey.remove(0);
+		final long now = System.currentTimeMillis();
+		expireOldest(now);
+		while (true) {
+			final Entry<K, V> existing = storeMap.get(key);
+			if (existing != null) {
+				if (!isExpired(existing, now)) {
+					return existing.value;
+				}
+				removeEntry(existing);
+				continue;
 			}
-			if (!oldestKey.contains(key)) {
-				oldestKey.add(key);
+			final Entry<K, V> entry = new Entry<K, V>(key, value, now);
+			if (storeMap.putIfAbsent(key, entry) == null) {
+				insertionQueue.offer(entry);
+				size.incrementAndGet();
+				evictOverflow();
+				return null;
 			}
-			timestampMap.putIfAbsent(key, System.currentTimeMillis());
-			return storeMap.putIfAbsent(key, value);
 		}
 	}
 
@@ -90,16 +127,55 @@ public final class TTLConcurrentCache<K, V> implements ConcurrentCache<K, V> {
 		scheduledExecutorService.shutdownNow();
 	}
 
-	private void removeIfExpired(Object key) {
-		synchronized (timestampMap) {
-			if (timestampMap.containsKey(key) && timestampMap.get(key) < (System.currentTimeMillis() - getTtl())) {
-				timestampMap.remove(key);
-				storeMap.remove(key);
-				oldestKey.remove(key);
+	public long size() {
+		return size.get();
+	}
+
+	public long getHitCount() {
+		return hitCount.get();
+	}
+
+	public long getMissCount() {
+		return missCount.get();
+	}
+
+	public long getEvictionCount() {
+		return evictionCount.get();
+	}
+
+	private void expireOldest(final long now) {
+		Entry<K, V> oldest;
+		while ((oldest = insertionQueue.peek()) != null) {
+			if (storeMap.get(oldest.key) == oldest && !isExpired(oldest, now)) {
+				return;
+			}
+			if (insertionQueue.remove(oldest)) {
+				removeEntry(oldest);
+			}
+		}
+	}
+
+	private void evictOverflow() {
+		while (size.get() > maxSize) {
+			final Entry<K, V> oldest = insertionQueue.poll();
+			if (oldest == null) {
+				return;
 			}
+			removeEntry(oldest);
 		}
 	}
 
+	private void removeEntry(final Entry<K, V> entry) {
+		if (storeMap.remove(entry.key, entry)) {
+			size.decrementAndGet();
+			evictionCount.incrementAndGet();
+		}
+	}
+
+	private boolean isExpired(final Entry<K, V> entry, final long now) {
+		return entry.timestamp < (now - getTtl());
+	}
+
 	private long getTtl() {
 		return ttl;
 	}
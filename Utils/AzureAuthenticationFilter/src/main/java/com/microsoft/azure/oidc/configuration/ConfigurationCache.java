@@ -25,4 +25,6 @@ public interface ConfigurationCache {
 
 	Configuration load();
 
+	Configuration refresh();
+
 }
@@ -21,10 +21,8 @@
  ******************************************************************************/
 package com.microsoft.azure.oidc.configuration;
 
-import java.util.concurrent.Future;
-
 public interface ConfigurationLoader {
 
-	Future<Configuration> loadAsync();
+	Configuration load();
 
 }
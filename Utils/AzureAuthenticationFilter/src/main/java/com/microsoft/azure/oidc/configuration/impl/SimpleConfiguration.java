@@ -21,6 +21,7 @@
  ******************************************************************************/
 package com.microsoft.azure.oidc.configuration.impl;
 
+import java.security.PublicKey;
 import java.util.List;
 import java.util.Map;
 
@@ -34,15 +35,17 @@ import com.microsoft.azure.oidc.exception.PreconditionException;
 
 final class SimpleConfiguration implements Configuration {
 	private final Map<Name, Key> keys;
+	private final Map<Name, PublicKey> publicKeys;
 	private final List<Algorithm> algorithms;
 	private final Issuer issuer;
 	private final EndPoint authenticationEndPoint;
 	private final EndPoint logoutEndPoint;
 
-	SimpleConfiguration(final List<Algorithm> algorithms, final Map<Name, Key> keys, final Issuer issuer,
-			final EndPoint authenticationEndPoint, final EndPoint logoutEndPoint) {
-		if (algorithms == null || keys == null || issuer == null || authenticationEndPoint == null
-				|| logoutEndPoint == null) {
+	SimpleConfiguration(final List<Algorithm> algorithms, final Map<Name, Key> keys,
+			final Map<Name, PublicKey> publicKeys, final Issuer issuer, final EndPoint authenticationEndPoint,
+			final EndPoint logoutEndPoint) {
+		if (algorithms == null || keys == null || publicKeys == null || issuer == null
+				|| authenticationEndPoint == null || logoutEndPoint == null) {
 			throw new PreconditionException("Required parameter is null");
 		}
 		if (algorithms.isEmpty()) {
@@ -50,6 +53,7 @@ final class SimpleConfiguration implements Configuration {
 		}
 		this.algorithms = algorithms;
 		this.keys = keys;
+		this.publicKeys = publicKeys;
 		this.issuer = issuer;
 		this.authenticationEndPoint = authenticationEndPoint;
 		this.logoutEndPoint = logoutEndPoint;
@@ -75,6 +79,11 @@ final class SimpleConfiguration implements Configuration {
 		return getKeys().get(name);
 	}
 
+	@Override
+	public PublicKey getPublicKey(final Name name) {
+		return publicKeys.get(name);
+	}
+
 	@Override
 	public Issuer getIssuer() {
 		return issuer;
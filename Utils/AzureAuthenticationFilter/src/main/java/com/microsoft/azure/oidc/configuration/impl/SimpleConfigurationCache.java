@@ -21,36 +21,113 @@
  ******************************************************************************/
 package com.microsoft.azure.oidc.configuration.impl;
 
-import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheService;
-import com.microsoft.azure.oidc.concurrent.cache.impl.SimpleConcurrentCacheService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
 import com.microsoft.azure.oidc.configuration.Configuration;
 import com.microsoft.azure.oidc.configuration.ConfigurationCache;
 import com.microsoft.azure.oidc.configuration.ConfigurationLoader;
 import com.microsoft.azure.oidc.future.FutureHelper;
 import com.microsoft.azure.oidc.future.impl.SimpleFutureHelper;
 
+/**
+ * Configuration cache with single flight loading and refresh ahead.
+ *
+ * Only one load runs at a time, the concurrent callers share its result. The configuration is refreshed in the
+ * background before it gets 60 minutes old, and the stale one is served while the refresh runs or after it fails.
+ */
 public class SimpleConfigurationCache implements ConfigurationCache {
 	private static final ConfigurationCache INSTANCE = new SimpleConfigurationCache();
 
+	private static final long REFRESH_AFTER_MILLIS = TimeUnit.MINUTES.toMillis(50);
+
+	private static final long RETRY_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+	// The forced refresh, e.g. for the key rotation, runs once in the interval at most
+	private static final long FORCED_REFRESH_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
 	private final ConfigurationLoader configurationLoader = SimpleConfigurationLoader.getInstance();
 
 	private final FutureHelper futureHelper = SimpleFutureHelper.getInstance();
 
-	private final ConcurrentCacheService concurrentCacheService = SimpleConcurrentCacheService.getInstance();
+	private final ExecutorService executorService = Executors.newSingleThreadExecutor(new ThreadFactory() {
+		@Override
+		public Thread newThread(Runnable runnable) {
+			final Thread thread = new Thread(runnable, "SimpleConfigurationCache-loader");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	private final AtomicReference<FutureTask<Configuration>> loading = new AtomicReference<FutureTask<Configuration>>();
+
+	private final AtomicLong lastAttemptAt = new AtomicLong();
+
+	private final AtomicLong lastForcedRefreshAt = new AtomicLong();
+
+	private volatile Configuration configuration;
+
+	private volatile long loadedAt;
 
 	@Override
 	public Configuration load() {
-		final String key = "SINGLE";
-		final Configuration entry = concurrentCacheService.getCache(Configuration.class, "configurationCache").get(key);
-		if (entry != null) {
-			return entry;
+		final Configuration current = configuration;
+		if (current == null) {
+			return futureHelper.getResult(loadAsync());
+		}
+		final long now = System.currentTimeMillis();
+		if (now - loadedAt > REFRESH_AFTER_MILLIS && now - lastAttemptAt.get() > RETRY_INTERVAL_MILLIS) {
+			loadAsync();
 		}
-		final Configuration result = futureHelper.getResult(configurationLoader.loadAsync());
-		if (result == null) {
-			return result;
+		return current;
+	}
+
+	@Override
+	public Configuration refresh() {
+		final long now = System.currentTimeMillis();
+		final long last = lastForcedRefreshAt.get();
+		if (now - last < FORCED_REFRESH_INTERVAL_MILLIS || !lastForcedRefreshAt.compareAndSet(last, now)) {
+			return load();
+		}
+		final Configuration result = futureHelper.getResult(loadAsync());
+		return result == null ? configuration : result;
+	}
+
+	private Future<Configuration> loadAsync() {
+		while (true) {
+			final FutureTask<Configuration> running = loading.get();
+			if (running != null) {
+				return running;
+			}
+			final FutureTask<Configuration> task = new FutureTask<Configuration>(new Callable<Configuration>() {
+				@Override
+				public Configuration call() throws Exception {
+					lastAttemptAt.set(System.currentTimeMillis());
+					final Configuration result = configurationLoader.load();
+					if (result != null) {
+						loadedAt = System.currentTimeMillis();
+						configuration = result;
+					}
+					return result;
+				}
+			}) {
+				@Override
+				protected void done() {
+					loading.compareAndSet(this, null);
+				}
+			};
+			if (loading.compareAndSet(null, task)) {
+				executorService.execute(task);
+				return task;
+			}
 		}
-		concurrentCacheService.getCache(Configuration.class, "configurationCache").putIfAbsent(key, result);
-		return result;
 	}
 
 	public static ConfigurationCache getInstance() {
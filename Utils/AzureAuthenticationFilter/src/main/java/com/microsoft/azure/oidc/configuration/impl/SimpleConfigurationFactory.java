@@ -21,9 +21,21 @@
  ******************************************************************************/
 package com.microsoft.azure.oidc.configuration.impl;
 
+import java.math.BigInteger;
+import java.security.KeyFactory;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.spec.InvalidKeySpecException;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import org.apache.commons.codec.binary.Base64;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import com.microsoft.azure.oidc.common.algorithm.Algorithm;
 import com.microsoft.azure.oidc.common.issuer.Issuer;
 import com.microsoft.azure.oidc.common.name.Name;
@@ -35,6 +47,10 @@ import com.microsoft.azure.oidc.exception.PreconditionException;
 
 public final class SimpleConfigurationFactory implements ConfigurationFactory {
 	private static final ConfigurationFactory INSTANCE = new SimpleConfigurationFactory();
+	private static final Logger LOGGER = LoggerFactory.getLogger(SimpleConfigurationFactory.class);
+
+	// The key store publishes the RSA modulus and exponent of the signing keys
+	private static final String KEY_ALGORITHM = "RSA";
 
 	@Override
 	public Configuration createConfiguration(final List<Algorithm> algorithms, final Map<Name, Key> keys,
@@ -46,7 +62,29 @@ public final class SimpleConfigurationFactory implements ConfigurationFactory {
 		if (algorithms.isEmpty()) {
 			throw new PreconditionException("Algorithm list is empty");
 		}
-		return new SimpleConfiguration(algorithms, keys, issuer, authenticationEndPoint, logoutEndPoint);
+		return new SimpleConfiguration(algorithms, keys, createPublicKeys(keys), issuer, authenticationEndPoint,
+				logoutEndPoint);
+	}
+
+	private Map<Name, PublicKey> createPublicKeys(final Map<Name, Key> keys) {
+		final Map<Name, PublicKey> publicKeys = new HashMap<Name, PublicKey>();
+		try {
+			final KeyFactory keyFactory = KeyFactory.getInstance(KEY_ALGORITHM);
+			for (final Map.Entry<Name, Key> entry : keys.entrySet()) {
+				try {
+					final BigInteger exponent = new BigInteger(1,
+							Base64.decodeBase64(entry.getValue().getExponent().getValue()));
+					final BigInteger modulus = new BigInteger(1,
+							Base64.decodeBase64(entry.getValue().getSecret().getValue()));
+					publicKeys.put(entry.getKey(), keyFactory.generatePublic(new RSAPublicKeySpec(modulus, exponent)));
+				} catch (InvalidKeySpecException e) {
+					LOGGER.error(String.format("Invalid key %s: %s", entry.getKey(), e.getMessage()), e);
+				}
+			}
+		} catch (NoSuchAlgorithmException e) {
+			LOGGER.error(e.getMessage(), e);
+		}
+		return Collections.unmodifiableMap(publicKeys);
 	}
 
 	public static ConfigurationFactory getInstance() {
@@ -23,10 +23,6 @@ package com.microsoft.azure.oidc.configuration.impl;
 
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,8 +36,6 @@ import com.microsoft.azure.oidc.configuration.ConfigurationFactory;
 import com.microsoft.azure.oidc.configuration.ConfigurationLoader;
 import com.microsoft.azure.oidc.configuration.endpoint.EndPoint;
 import com.microsoft.azure.oidc.configuration.key.Key;
-import com.microsoft.azure.oidc.future.FutureHelper;
-import com.microsoft.azure.oidc.future.impl.SimpleFutureHelper;
 import com.microsoft.azure.oidc.openid.keystore.KeyStoreLoader;
 import com.microsoft.azure.oidc.openid.keystore.KeyStoreParser;
 import com.microsoft.azure.oidc.openid.keystore.impl.SimpleKeyStoreLoader;
@@ -65,23 +59,14 @@ public final class SimpleConfigurationLoader implements ConfigurationLoader {
 
 	private final ConfigurationFactory configurationFactory = SimpleConfigurationFactory.getInstance();
 
-	private final FutureHelper futureHelper = SimpleFutureHelper.getInstance();
-
+	/**
+	 * Load the metadata and the keystore one after the other on the calling thread, which is the shared loader
+	 * thread of {@link SimpleConfigurationCache}.
+	 */
 	@Override
-	public Future<Configuration> loadAsync() {
-		final ExecutorService executorService = Executors.newSingleThreadExecutor();
-		final Future<Configuration> future = executorService.submit(new Callable<Configuration>() {
-			public Configuration call() throws Exception {
-				return load();
-			}
-		});
-		executorService.shutdown();
-		return future;
-	}
-
 	public Configuration load() {
 		try {
-			final JsonNode wellKnownNode = futureHelper.getResult(wellKnownLoader.loadAsync());
+			final JsonNode wellKnownNode = wellKnownLoader.load();
 			if (wellKnownNode == null) {
 				LOGGER.error("Error loading metadata");
 				return null;
@@ -91,7 +76,7 @@ public final class SimpleConfigurationLoader implements ConfigurationLoader {
 			final EndPoint keyStoreEndPoint = wellKnownParser.getKeyStoreEndPoint(wellKnownNode);
 			final EndPoint logoutEndPoint = wellKnownParser.getLogoutEndPoint(wellKnownNode);
 			final Issuer issuer = wellKnownParser.getIssuer(wellKnownNode);
-			final JsonNode keyStoreNode = futureHelper.getResult(keyStoreLoader.loadAsync(keyStoreEndPoint));
+			final JsonNode keyStoreNode = keyStoreLoader.load(keyStoreEndPoint);
 			if (keyStoreNode == null) {
 				LOGGER.error("Error loading keystore");
 				return null;
@@ -37,4 +37,8 @@ public interface AuthenticationConfiguration {
 
 	Map<String, List<String>> getAuthorisationRoleMap();
 
+	UriPatternMatcher getExclusionMatcher();
+
+	UriPatternMatcher getAuthorisationMatcher();
+
 }
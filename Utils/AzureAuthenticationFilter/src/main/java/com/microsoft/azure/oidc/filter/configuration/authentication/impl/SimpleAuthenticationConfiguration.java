@@ -27,6 +27,7 @@ import java.util.Map;
 import java.util.regex.Pattern;
 
 import com.microsoft.azure.oidc.filter.configuration.authentication.AuthenticationConfiguration;
+import com.microsoft.azure.oidc.filter.configuration.authentication.UriPatternMatcher;
 
 final class SimpleAuthenticationConfiguration implements AuthenticationConfiguration {
 	private List<String> exclusionUriPatternList;
@@ -36,6 +37,9 @@ final class SimpleAuthenticationConfiguration implements AuthenticationConfigura
 	private List<Pattern> exclusionRegexPatternList;
 	private List<Pattern> authorisationRegexPatternList;
 
+	private UriPatternMatcher exclusionMatcher;
+	private UriPatternMatcher authorisationMatcher;
+
 	public SimpleAuthenticationConfiguration(final List<String> exclusionUriPatternList,
 			final List<String> authorisationUriPatternList, final Map<String, List<String>> authorisationRoleMap) {
 		setExclusionUriPatternList(exclusionUriPatternList);
@@ -46,11 +50,15 @@ final class SimpleAuthenticationConfiguration implements AuthenticationConfigura
 	private void setExclusionUriPatternList(List<String> exclusionUriPatternList) {
 		this.exclusionUriPatternList = exclusionUriPatternList;
 		exclusionRegexPatternList = new ArrayList<Pattern>();
+		final List<String> exclusionMatcherPatternList = new ArrayList<String>();
+		exclusionMatcherPatternList.add("/javax.faces.resource/*");
 		exclusionRegexPatternList.add(Pattern.compile(
 				"/javax.faces.resource/*".replaceAll("([^a-zA-Z0-9\\*])", "\\\\$1").replaceAll("\\*", "(\\.\\*)")));
-		if (exclusionRegexPatternList == null) {
+		exclusionMatcher = new SimpleUriPatternMatcher(exclusionMatcherPatternList, exclusionRegexPatternList);
+		if (exclusionUriPatternList == null) {
 			return;
 		}
+		exclusionMatcherPatternList.addAll(exclusionUriPatternList);
 		for (final String pattern : exclusionUriPatternList) {
 			final String localPattern = pattern.trim();
 			if (localPattern.endsWith("*")) {
@@ -64,11 +72,13 @@ final class SimpleAuthenticationConfiguration implements AuthenticationConfigura
 						.compile(localPattern.replaceAll("([^a-zA-Z0-9\\*])", "\\\\$1").replaceAll("\\*", "(\\.\\*)")));
 			}
 		}
+		exclusionMatcher = new SimpleUriPatternMatcher(exclusionMatcherPatternList, exclusionRegexPatternList);
 	}
 
 	private void setAuthorisationUriPatternList(List<String> authorisationUriPatternList) {
 		this.authorisationUriPatternList = authorisationUriPatternList;
 		authorisationRegexPatternList = new ArrayList<Pattern>();
+		authorisationMatcher = new SimpleUriPatternMatcher(new ArrayList<String>(), authorisationRegexPatternList);
 		if (authorisationUriPatternList == null) {
 			return;
 		}
@@ -85,6 +95,7 @@ final class SimpleAuthenticationConfiguration implements AuthenticationConfigura
 						.compile(localPattern.replaceAll("([^a-zA-Z0-9\\*])", "\\\\$1").replaceAll("\\*", "(\\.\\*)")));
 			}
 		}
+		authorisationMatcher = new SimpleUriPatternMatcher(authorisationUriPatternList, authorisationRegexPatternList);
 	}
 
 	private void setAuthorisationRoleMap(Map<String, List<String>> authorisationRoleMap) {
@@ -115,4 +126,14 @@ final class SimpleAuthenticationConfiguration implements AuthenticationConfigura
 	public Map<String, List<String>> getAuthorisationRoleMap() {
 		return authorisationRoleMap;
 	}
+
+	@Override
+	public UriPatternMatcher getExclusionMatcher() {
+		return exclusionMatcher;
+	}
+
+	@Override
+	public UriPatternMatcher getAuthorisationMatcher() {
+		return authorisationMatcher;
+	}
 }
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ * Copyright (c) Microsoft Corporation
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights 
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell 
+ * copies of the Software, and to permit persons to whom the Software is 
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included 
+ * in all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR 
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, 
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE 
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER 
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ ******************************************************************************/
+package com.microsoft.azure.oidc.filter.configuration.authentication.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import com.microsoft.azure.oidc.exception.PreconditionException;
+import com.microsoft.azure.oidc.filter.configuration.authentication.UriPatternMatcher;
+
+/**
+ * Matcher of the URI patterns compiled once, which returns the index of the first pattern matched.
+ *
+ * The literal prefixes of the patterns, i.e. the text before the first wildcard, are indexed in a prefix trie. A URI
+ * only walks down the trie once to collect the candidate patterns, the patterns with the wildcard at the end only
+ * are matched by the prefix, and the rest of the candidates are checked by their regular expressions.
+ */
+final class SimpleUriPatternMatcher implements UriPatternMatcher {
+	private static final class Rule {
+		private final int index;
+		private final Pattern pattern;
+		private final boolean isPrefixOnly;
+
+		private Rule(final int index, final Pattern pattern, final boolean isPrefixOnly) {
+			this.index = index;
+			this.pattern = pattern;
+			this.isPrefixOnly = isPrefixOnly;
+		}
+	}
+
+	private static final class Node {
+		private final Map<Character, Node> children = new HashMap<Character, Node>();
+		private final List<Rule> rules = new ArrayList<Rule>();
+	}
+
+	private final Node root = new Node();
+
+	SimpleUriPatternMatcher(final List<String> uriPatternList, final List<Pattern> regexPatternList) {
+		if (uriPatternList == null || regexPatternList == null) {
+			throw new PreconditionException("Required parameter is null");
+		}
+		if (uriPatternList.size() != regexPatternList.size()) {
+			throw new PreconditionException("URI pattern and regular expression lists mismatch");
+		}
+		for (int index = 0; index < uriPatternList.size(); index++) {
+			final String uriPattern = uriPatternList.get(index).trim();
+			final int wildcard = uriPattern.indexOf('*');
+			final String prefix = wildcard < 0 ? uriPattern : uriPattern.substring(0, wildcard);
+			// The trailing wildcard is compiled to (.*), which matches any rest of the URI
+			final boolean isPrefixOnly = wildcard >= 0 && wildcard == uriPattern.length() - 1;
+			Node node = root;
+			for (int i = 0; i < prefix.length(); i++) {
+				final Character ch = prefix.charAt(i);
+				Node child = node.children.get(ch);
+				if (child == null) {
+					child = new Node();
+					node.children.put(ch, child);
+				}
+				node = child;
+			}
+			node.rules.add(new Rule(index, regexPatternList.get(index), isPrefixOnly));
+		}
+	}
+
+	@Override
+	public int match(final String uri) {
+		if (uri == null) {
+			throw new PreconditionException("Required parameter is null");
+		}
+		int matched = NO_MATCH;
+		Node node = root;
+		for (int i = 0; node != null; i++) {
+			for (final Rule rule : node.rules) {
+				if ((matched == NO_MATCH || rule.index < matched)
+						&& (rule.isPrefixOnly || rule.pattern.matcher(uri).matches())) {
+					matched = rule.index;
+				}
+			}
+			node = i < uri.length() ? node.children.get(uri.charAt(i)) : null;
+		}
+		return matched;
+	}
+}
@@ -25,8 +25,6 @@ import java.io.IOException;
 import java.net.URLEncoder;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -53,7 +51,9 @@ import com.microsoft.azure.oidc.configuration.ConfigurationCache;
 import com.microsoft.azure.oidc.configuration.impl.SimpleConfigurationCache;
 import com.microsoft.azure.oidc.exception.GeneralException;
 import com.microsoft.azure.oidc.exception.PreconditionException;
+import com.microsoft.azure.oidc.filter.configuration.authentication.AuthenticationConfiguration;
 import com.microsoft.azure.oidc.filter.configuration.authentication.AuthenticationConfigurationService;
+import com.microsoft.azure.oidc.filter.configuration.authentication.UriPatternMatcher;
 import com.microsoft.azure.oidc.filter.configuration.authentication.impl.SimpleAuthenticationConfigurationService;
 import com.microsoft.azure.oidc.filter.helper.AuthenticationHelper;
 import com.microsoft.azure.oidc.filter.request.impl.AuthenticationRequestWrapper;
@@ -226,14 +226,8 @@ public final class SimpleAuthenticationHelper implements AuthenticationHelper {
 			final int length = httpRequest.getRequestURI().length();
 			uriString = httpRequest.getRequestURI().substring(length);
 		}
-		for (final Pattern pattern : authenticationConfigurationService.get().getExclusionRegexPatternList()) {
-			final Matcher matcher = pattern.matcher(uriString);
-			final Boolean isMatchFound = matcher.matches();
-			if (isMatchFound) {
-				return Boolean.TRUE;
-			}
-		}
-		return Boolean.FALSE;
+		final int matched = authenticationConfigurationService.get().getExclusionMatcher().match(uriString);
+		return matched != UriPatternMatcher.NO_MATCH;
 	}
 
 	private Boolean isAuthorised(final HttpServletRequest httpRequest, final Token token) {
@@ -245,25 +239,20 @@ public final class SimpleAuthenticationHelper implements AuthenticationHelper {
 			final int length = httpRequest.getRequestURI().length();
 			uriString = httpRequest.getRequestURI().substring(length);
 		}
-		int index = 0;
-		for (final String urlPattern : authenticationConfigurationService.get().getAuthorisationUriPatternList()) {
-			final Pattern pattern = authenticationConfigurationService.get().getAuthorisationRegexPatternList()
-					.get(index++);
-			final Matcher matcher = pattern.matcher(uriString);
-			final Boolean isMatchFound = matcher.matches();
-			if (isMatchFound) {
-				final HttpServletRequest authRequest = getAuthenticationWrapper(httpRequest, token);
-				for (final String roleName : authenticationConfigurationService.get().getAuthorisationRoleMap()
-						.get(urlPattern)) {
-					final Boolean isUserInRole = authRequest.isUserInRole(roleName);
-					if (isUserInRole) {
-						return Boolean.TRUE;
-					}
-				}
-				return Boolean.FALSE;
+		final AuthenticationConfiguration authenticationConfiguration = authenticationConfigurationService.get();
+		final int matched = authenticationConfiguration.getAuthorisationMatcher().match(uriString);
+		if (matched == UriPatternMatcher.NO_MATCH) {
+			return Boolean.TRUE;
+		}
+		final String urlPattern = authenticationConfiguration.getAuthorisationUriPatternList().get(matched);
+		final HttpServletRequest authRequest = getAuthenticationWrapper(httpRequest, token);
+		for (final String roleName : authenticationConfiguration.getAuthorisationRoleMap().get(urlPattern)) {
+			final Boolean isUserInRole = authRequest.isUserInRole(roleName);
+			if (isUserInRole) {
+				return Boolean.TRUE;
 			}
 		}
-		return Boolean.TRUE;
+		return Boolean.FALSE;
 	}
 
 	private String addCookie(final HttpServletRequest httpRequest, final HttpServletResponse httpResponse,
@@ -32,9 +32,9 @@ import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import com.microsoft.azure.oidc.common.timestamp.TimeStamp;
 import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheService;
 import com.microsoft.azure.oidc.concurrent.cache.impl.SimpleConcurrentCacheService;
-import com.microsoft.azure.oidc.configuration.Configuration;
 import com.microsoft.azure.oidc.exception.GeneralException;
 import com.microsoft.azure.oidc.exception.PreconditionException;
 import com.microsoft.azure.oidc.filter.configuration.algorithm.AlgorithmConfigurationService;
@@ -44,6 +44,7 @@ import com.microsoft.azure.oidc.filter.configuration.authentication.impl.SimpleA
 import com.microsoft.azure.oidc.filter.helper.AuthenticationHelper;
 import com.microsoft.azure.oidc.filter.helper.impl.SimpleAuthenticationHelper;
 import com.microsoft.azure.oidc.token.Token;
+import com.microsoft.azure.oidc.token.impl.SimpleTokenValidator;
 
 public final class SimpleAuthenticationFilter implements Filter {
 	private static final String ALGORITHM_CONFIGURATION = "algorithmConfiguration";
@@ -109,7 +110,11 @@ public final class SimpleAuthenticationFilter implements Filter {
 			concurrentCacheService.createCache(Boolean.class, "roleCache", 30L,
 					Long.parseLong(securityCacheSizeString));
 		}
-		concurrentCacheService.createCache(Configuration.class, "configurationCache", 60L, 1L);
+		final String verifiedTokenCacheSizeString = filterConfig.getInitParameter("verifiedTokenCacheSize");
+		if (verifiedTokenCacheSizeString != null && Long.parseLong(verifiedTokenCacheSizeString) > 0) {
+			concurrentCacheService.createCache(TimeStamp.class, SimpleTokenValidator.VERIFIED_TOKEN_CACHE, 60L,
+					Long.parseLong(verifiedTokenCacheSizeString));
+		}
 		authenticationConfigurationService.initialise(filterConfig, AUTHENTICATION_CONFIGURATION);
 		algorithmConfigurationService.initialise(filterConfig, ALGORITHM_CONFIGURATION);
 	}
@@ -21,6 +21,7 @@
  ******************************************************************************/
 package com.microsoft.azure.oidc.future.impl;
 
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
@@ -40,13 +41,12 @@ public class SimpleFutureHelper implements FutureHelper {
 			throw new PreconditionException("Required parameter is null");
 		}
 		try {
-			while (!future.isDone() && !future.isCancelled()) {
-				Thread.sleep(10);
-			}
-			if (!future.isCancelled()) {
-				return future.get();
-			}
-		} catch (InterruptedException | ExecutionException e) {
+			// Block until the future completes, rather than polling it
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			LOGGER.error(e.getMessage(), e);
+		} catch (ExecutionException | CancellationException e) {
 			LOGGER.error(e.getMessage(), e);
 		}
 		return null;
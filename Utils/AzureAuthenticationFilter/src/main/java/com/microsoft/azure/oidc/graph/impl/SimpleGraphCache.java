@@ -21,8 +21,20 @@
  ******************************************************************************/
 package com.microsoft.azure.oidc.graph.impl;
 
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+
+import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCache;
 import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheService;
 import com.microsoft.azure.oidc.concurrent.cache.impl.SimpleConcurrentCacheService;
+import com.microsoft.azure.oidc.filter.configuration.authentication.AuthenticationConfiguration;
+import com.microsoft.azure.oidc.filter.configuration.authentication.AuthenticationConfigurationService;
+import com.microsoft.azure.oidc.filter.configuration.authentication.impl.SimpleAuthenticationConfigurationService;
 import com.microsoft.azure.oidc.future.FutureHelper;
 import com.microsoft.azure.oidc.future.impl.SimpleFutureHelper;
 import com.microsoft.azure.oidc.graph.GraphCache;
@@ -37,19 +49,62 @@ public class SimpleGraphCache implements GraphCache {
 
 	private final ConcurrentCacheService concurrentCacheService = SimpleConcurrentCacheService.getInstance();
 
+	private final AuthenticationConfigurationService authenticationConfigurationService = SimpleAuthenticationConfigurationService
+			.getInstance();
+
+	// The role resolutions in flight by user, shared by the concurrent requests of the same user
+	private final ConcurrentMap<String, Future<Map<String, Boolean>>> pendingMap = new ConcurrentHashMap<String, Future<Map<String, Boolean>>>();
+
 	@Override
 	public Boolean isUserInRole(String userID, String role) {
-		final String key = String.format("%s:%s", userID, role);
-		final Boolean entry = concurrentCacheService.getCache(Boolean.class, "roleCache").get(key);
+		final ConcurrentCache<String, Boolean> roleCache = concurrentCacheService.getCache(Boolean.class, "roleCache");
+		final Boolean entry = roleCache.get(getKey(userID, role));
 		if (entry != null) {
 			return entry;
 		}
-		final Boolean result = futureHelper.getResult(springGraphService.isUserInRoleAsync(userID, role));
+		// Resolve all the configured roles of the user in one go
+		Future<Map<String, Boolean>> pending = pendingMap.get(userID);
+		if (pending == null) {
+			final Future<Map<String, Boolean>> future = springGraphService.getUserRolesAsync(userID,
+					getConfiguredRoles(role));
+			pending = pendingMap.putIfAbsent(userID, future);
+			if (pending == null) {
+				pending = future;
+			}
+		}
+		final Map<String, Boolean> result;
+		try {
+			result = futureHelper.getResult(pending);
+		} finally {
+			pendingMap.remove(userID, pending);
+		}
 		if (result == null) {
-			return result;
+			return null;
+		}
+		for (final Map.Entry<String, Boolean> roleEntry : result.entrySet()) {
+			roleCache.putIfAbsent(getKey(userID, roleEntry.getKey()), roleEntry.getValue());
 		}
-		concurrentCacheService.getCache(Boolean.class, "roleCache").putIfAbsent(key, result);
-		return result;
+		if (result.containsKey(role)) {
+			return result.get(role);
+		}
+		// Joined a resolution without the role, which isn't configured
+		return futureHelper.getResult(springGraphService.isUserInRoleAsync(userID, role));
+	}
+
+	private Set<String> getConfiguredRoles(final String role) {
+		final Set<String> roles = new LinkedHashSet<String>();
+		roles.add(role);
+		final AuthenticationConfiguration authenticationConfiguration = authenticationConfigurationService.get();
+		if (authenticationConfiguration != null && authenticationConfiguration.getAuthorisationRoleMap() != null) {
+			for (final List<String> patternRoles : authenticationConfiguration.getAuthorisationRoleMap().values()) {
+				roles.addAll(patternRoles);
+			}
+		}
+		return roles;
+	}
+
+	private String getKey(final String userID, final String role) {
+		return String.format("%s:%s", userID, role);
 	}
 
 	public static GraphCache getInstance() {
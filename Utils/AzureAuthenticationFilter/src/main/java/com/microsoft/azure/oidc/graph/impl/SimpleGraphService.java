@@ -21,15 +21,29 @@
  ******************************************************************************/
 package com.microsoft.azure.oidc.graph.impl;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URL;
 import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.net.ssl.HttpsURLConnection;
 
@@ -38,6 +52,10 @@ import org.slf4j.LoggerFactory;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.microsoft.azure.oidc.application.settings.ApplicationSettings;
 import com.microsoft.azure.oidc.application.settings.ApplicationSettingsLoader;
 import com.microsoft.azure.oidc.application.settings.Secret;
@@ -51,93 +69,150 @@ public final class SimpleGraphService implements GraphService {
 	private static final GraphService INSTANCE = new SimpleGraphService();
 	private static final Logger LOGGER = LoggerFactory.getLogger(SimpleGraphService.class);
 
+	private static final ObjectReader JSON_NODE_READER = new ObjectMapper().readerFor(JsonNode.class);
+
+	private static final int MAX_THREADS = 4;
+
+	// The checkMemberGroups API accepts 20 group IDs per request at most
+	private static final int MAX_GROUPS_PER_CHECK = 20;
+
+	// Renew the bearer token ahead of its expiry
+	private static final long TOKEN_RENEW_AHEAD_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+	private static final long GROUP_ID_TTL_MILLIS = TimeUnit.MINUTES.toMillis(60);
+
+	private static final class GroupID {
+		private final String value;
+		private final long timestamp;
+
+		private GroupID(final String value, final long timestamp) {
+			this.value = value;
+			this.timestamp = timestamp;
+		}
+	}
+
 	private final ApplicationSettingsLoader applicationSettingsLoader = SimpleApplicationSettingsLoader.getInstance();
 
+	private final ExecutorService executorService = Executors.newFixedThreadPool(MAX_THREADS, new ThreadFactory() {
+		private final AtomicInteger count = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			final Thread thread = new Thread(runnable, "SimpleGraphService-" + count.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+
+	private final ConcurrentMap<String, GroupID> groupIDMap = new ConcurrentHashMap<String, GroupID>();
+
+	private final Object bearerTokenLock = new Object();
+
+	private volatile String bearerToken;
+
+	private volatile long bearerTokenExpiration;
+
 	@Override
 	public Future<Boolean> isUserInRoleAsync(final String userID, final String role) {
-		final ExecutorService executorService = Executors.newSingleThreadExecutor();
-		final Future<Boolean> future = executorService.submit(new Callable<Boolean>() {
+		return executorService.submit(new Callable<Boolean>() {
 			public Boolean call() throws Exception {
-				return isUserInRole(userID, role);
+				final Map<String, Boolean> result = getUserRoles(userID, Collections.singleton(role));
+				return result.containsKey(role) ? result.get(role) : Boolean.FALSE;
+			}
+		});
+	}
+
+	@Override
+	public Future<Map<String, Boolean>> getUserRolesAsync(final String userID, final Collection<String> roles) {
+		return executorService.submit(new Callable<Map<String, Boolean>>() {
+			public Map<String, Boolean> call() throws Exception {
+				return getUserRoles(userID, roles);
 			}
 		});
-		executorService.shutdown();
-		return future;
 	}
 
-	private Boolean isUserInRole(final String userID, final String role) {
+	private Map<String, Boolean> getUserRoles(final String userID, final Collection<String> roles) {
+		final Map<String, Boolean> result = new HashMap<String, Boolean>();
+		for (final String role : roles) {
+			result.put(role, Boolean.FALSE);
+		}
 		try {
 			final ApplicationSettings applicationSettings = applicationSettingsLoader.load();
-			final String bearerToken = getBearerToken(applicationSettings.getTenant(),
-					applicationSettings.getPrincipalId(), applicationSettings.getPrincipalSecret());
-			final String roleID = getGroupID(applicationSettings.getTenant(), role, bearerToken);
-			if (roleID == null) {
-				return Boolean.FALSE;
+			final String token = getBearerToken(applicationSettings.getTenant(), applicationSettings.getPrincipalId(),
+					applicationSettings.getPrincipalSecret());
+			if (token == null) {
+				return result;
+			}
+			final Map<String, String> roleGroupIDs = new HashMap<String, String>();
+			for (final String role : roles) {
+				final String groupID = getGroupID(applicationSettings.getTenant(), role, token);
+				if (groupID != null) {
+					roleGroupIDs.put(role, groupID);
+				}
+			}
+			final Set<String> memberGroupIDs = getMemberGroups(applicationSettings.getTenant(), userID,
+					new LinkedHashSet<String>(roleGroupIDs.values()), token);
+			for (final Map.Entry<String, String> entry : roleGroupIDs.entrySet()) {
+				result.put(entry.getKey(), memberGroupIDs.contains(entry.getValue()));
 			}
-			return isUserInGroup(applicationSettings.getTenant(), userID, roleID, bearerToken);
+			return result;
 		} catch (GeneralException e) {
 			LOGGER.error("General Exception", e);
-			return Boolean.FALSE;
+			return result;
 		} catch (RuntimeException e) {
 			LOGGER.error(e.getMessage(), e);
-			return Boolean.FALSE;
+			return result;
 		}
 	}
 
-	private Boolean isUserInGroup(final Tenant tenant, final String userID, final String groupID,
-			final String bearerToken) {
+	private Set<String> getMemberGroups(final Tenant tenant, final String userID, final Set<String> groupIDs,
+			final String token) {
+		final Set<String> memberGroupIDs = new HashSet<String>();
+		final List<String> pending = new ArrayList<String>(groupIDs);
 		try {
-			final String urlString = String.format("https://graph.windows.net/%s/isMemberOf?api-version=1.6",
-					tenant.getName());
-			final String payload = String.format("{\"groupId\":\"%s\",\"memberId\":\"%s\"}", groupID, userID);
-			final URL url = new URL(urlString);
-			final HttpsURLConnection connection = (HttpsURLConnection) url.openConnection();
-			connection.setRequestProperty("Host", "graph.windows.net");
-			connection.setRequestProperty("Content-Type", "application/json");
-			connection.setRequestProperty("Accept", "application/json");
-			connection.setRequestProperty("Authorization", "Bearer " + bearerToken);
-			connection.setRequestMethod("POST");
-			connection.setDoOutput(true);
-			connection.getOutputStream().write(payload.getBytes());
-			connection.getOutputStream().flush();
-			final StringBuilder result = new StringBuilder();
-			try (final BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
-				for (String line = in.readLine(); line != null; line = in.readLine()) {
-					result.append(line);
+			final URL url = new URL(String.format("https://graph.windows.net/%s/users/%s/checkMemberGroups?api-version=1.6",
+					tenant.getName(), URLEncoder.encode(userID, "UTF-8")));
+			for (int start = 0; start < pending.size(); start += MAX_GROUPS_PER_CHECK) {
+				final ObjectNode payload = JsonNodeFactory.instance.objectNode();
+				final ArrayNode payloadGroupIDs = payload.putArray("groupIds");
+				for (final String groupID : pending.subList(start,
+						Math.min(start + MAX_GROUPS_PER_CHECK, pending.size()))) {
+					payloadGroupIDs.add(groupID);
+				}
+				final HttpsURLConnection connection = (HttpsURLConnection) url.openConnection();
+				connection.setRequestProperty("Content-Type", "application/json");
+				connection.setRequestProperty("Authorization", "Bearer " + token);
+				connection.setRequestMethod("POST");
+				final JsonNode node = request(connection, payload.toString());
+				for (final JsonNode groupNode : node.get("value")) {
+					memberGroupIDs.add(groupNode.asText());
 				}
 			}
-			final ObjectMapper mapper = new ObjectMapper();
-			final JsonNode node = mapper.readValue(result.toString().getBytes(), JsonNode.class);
-			return node.get("value").asBoolean();
 		} catch (IOException e) {
 			LOGGER.error("IO Exception", e);
-			return Boolean.FALSE;
 		} catch (RuntimeException e) {
 			LOGGER.error(e.getMessage(), e);
-			return Boolean.FALSE;
 		}
+		return memberGroupIDs;
 	}
 
-	private String getGroupID(final Tenant tenant, final String group, final String bearerToken) {
+	private String getGroupID(final Tenant tenant, final String group, final String token) {
+		final GroupID cached = groupIDMap.get(group);
+		if (cached != null && System.currentTimeMillis() - cached.timestamp < GROUP_ID_TTL_MILLIS) {
+			return cached.value;
+		}
 		try {
 			final String urlString = String.format(
 					"https://graph.windows.net/%s/groups?$filter=displayName%%20eq%%20'%s'&api-version=1.6",
 					tenant.getName(), URLEncoder.encode(group, "UTF-8"));
 			final URL url = new URL(urlString);
 			final HttpsURLConnection connection = (HttpsURLConnection) url.openConnection();
-			connection.setRequestProperty("Host", "graph.windows.net");
-			connection.setRequestProperty("Accept", "application/json");
-			connection.setRequestProperty("Authorization", "Bearer " + bearerToken);
-			final StringBuilder result = new StringBuilder();
-			try (final BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
-				for (String line = in.readLine(); line != null; line = in.readLine()) {
-					result.append(line);
-				}
-			}
-			final ObjectMapper mapper = new ObjectMapper();
-			final JsonNode node = mapper.readValue(result.toString().getBytes(), JsonNode.class);
+			connection.setRequestProperty("Authorization", "Bearer " + token);
+			final JsonNode node = request(connection, null);
 			for (final JsonNode groupNode : node.get("value")) {
-				return groupNode.get("objectId").asText();
+				final String groupID = groupNode.get("objectId").asText();
+				groupIDMap.put(group, new GroupID(groupID, System.currentTimeMillis()));
+				return groupID;
 			}
 			return null;
 		} catch (IOException e) {
@@ -150,36 +225,63 @@ public final class SimpleGraphService implements GraphService {
 	}
 
 	private String getBearerToken(final Tenant tenant, final ID principal, final Secret secret) {
-		try {
-			final String payload = String.format(
-					"grant_type=client_credentials&client_id=%s&client_secret=%s&resource=%s", principal.getValue(),
-					URLEncoder.encode(secret.getValue(), "UTF-8"),
-					URLEncoder.encode("https://graph.windows.net", "UTF-8"));
-			final URL url = new URL(
-					String.format("https://login.microsoftonline.com/%s/oauth2/token", tenant.getName()));
-			final HttpsURLConnection connection = (HttpsURLConnection) url.openConnection();
-			connection.setRequestMethod("POST");
-			connection.setRequestProperty("Host", "login.microsoftonline.com");
-			connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
-			connection.setRequestProperty("Accept", "application/json");
+		if (bearerToken != null && System.currentTimeMillis() < bearerTokenExpiration - TOKEN_RENEW_AHEAD_MILLIS) {
+			return bearerToken;
+		}
+		synchronized (bearerTokenLock) {
+			// Renewed by another thread while waiting for the lock
+			if (bearerToken != null && System.currentTimeMillis() < bearerTokenExpiration - TOKEN_RENEW_AHEAD_MILLIS) {
+				return bearerToken;
+			}
+			try {
+				final String payload = String.format(
+						"grant_type=client_credentials&client_id=%s&client_secret=%s&resource=%s", principal.getValue(),
+						URLEncoder.encode(secret.getValue(), "UTF-8"),
+						URLEncoder.encode("https://graph.windows.net", "UTF-8"));
+				final URL url = new URL(
+						String.format("https://login.microsoftonline.com/%s/oauth2/token", tenant.getName()));
+				final HttpsURLConnection connection = (HttpsURLConnection) url.openConnection();
+				connection.setRequestMethod("POST");
+				connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+				final long requestedAt = System.currentTimeMillis();
+				final JsonNode node = request(connection, payload);
+				final String token = node.get("access_token").asText();
+				bearerTokenExpiration = requestedAt + TimeUnit.SECONDS.toMillis(node.get("expires_in").asLong());
+				bearerToken = token;
+				return token;
+			} catch (IOException e) {
+				LOGGER.error("IO Exception", e);
+				return null;
+			} catch (RuntimeException e) {
+				LOGGER.error(e.getMessage(), e);
+				return null;
+			}
+		}
+	}
+
+	// Send the request and read the response fully, so that the keep-alive connection can be reused
+	private JsonNode request(final HttpsURLConnection connection, final String payload) throws IOException {
+		connection.setRequestProperty("Accept", "application/json");
+		if (payload != null) {
 			connection.setDoOutput(true);
-			connection.getOutputStream().write(payload.getBytes());
-			connection.getOutputStream().flush();
-			final StringBuilder result = new StringBuilder();
-			try (final BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
-				for (String line = in.readLine(); line != null; line = in.readLine()) {
-					result.append(line);
-				}
+			try (final OutputStream out = connection.getOutputStream()) {
+				out.write(payload.getBytes("UTF-8"));
 			}
-			final ObjectMapper mapper = new ObjectMapper();
-			final JsonNode node = mapper.readValue(result.toString().getBytes(), JsonNode.class);
-			return node.get("access_token").asText();
+		}
+		try (final InputStream in = connection.getInputStream()) {
+			return JSON_NODE_READER.readValue(in);
 		} catch (IOException e) {
-			LOGGER.error("IO Exception", e);
-			return null;
-		} catch (RuntimeException e) {
-			LOGGER.error(e.getMessage(), e);
-			return null;
+			final InputStream error = connection.getErrorStream();
+			if (error != null) {
+				try {
+					while (error.read() != -1) {
+						// Drain the error response
+					}
+				} finally {
+					error.close();
+				}
+			}
+			throw e;
 		}
 	}
 
@@ -21,13 +21,11 @@
  ******************************************************************************/
 package com.microsoft.azure.oidc.openid.keystore;
 
-import java.util.concurrent.Future;
-
 import com.fasterxml.jackson.databind.JsonNode;
 import com.microsoft.azure.oidc.configuration.endpoint.EndPoint;
 
 public interface KeyStoreLoader {
 
-	Future<JsonNode> loadAsync(EndPoint endPoint);
+	JsonNode load(EndPoint endPoint);
 	
 }
@@ -26,10 +26,6 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.URL;
 import java.net.URLConnection;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -45,20 +41,6 @@ public final class SimpleKeyStoreLoader implements KeyStoreLoader {
 	private static final Logger LOGGER = LoggerFactory.getLogger(SimpleKeyStoreLoader.class);
 
 	@Override
-	public Future<JsonNode> loadAsync(final EndPoint endPoint) {
-		if (endPoint == null) {
-			throw new PreconditionException("Required parameter is null");
-		}
-		final ExecutorService executorService = Executors.newSingleThreadExecutor();
-		final Future<JsonNode> future = executorService.submit(new Callable<JsonNode>() {
-			public JsonNode call() throws Exception {
-				return load(endPoint);
-			}
-		});
-		executorService.shutdown();
-		return future;
-	}
-
 	public JsonNode load(final EndPoint endPoint) {
 		if (endPoint == null) {
 			throw new PreconditionException("Required parameter is null");
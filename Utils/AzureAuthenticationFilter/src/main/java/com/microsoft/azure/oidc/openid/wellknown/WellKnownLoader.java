@@ -21,12 +21,10 @@
  ******************************************************************************/
 package com.microsoft.azure.oidc.openid.wellknown;
 
-import java.util.concurrent.Future;
-
 import com.fasterxml.jackson.databind.JsonNode;
 
 public interface WellKnownLoader {
 
-	Future<JsonNode> loadAsync();
+	JsonNode load();
 	
 }
@@ -26,10 +26,6 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.URL;
 import java.net.URLConnection;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -48,17 +44,6 @@ public final class SimpleWellKnownLoader implements WellKnownLoader {
 	private final ApplicationSettingsLoader applicationSettingsLoader = SimpleApplicationSettingsLoader.getInstance();
 
 	@Override
-	public Future<JsonNode> loadAsync() {
-		final ExecutorService executorService = Executors.newSingleThreadExecutor();
-		final Future<JsonNode> future = executorService.submit(new Callable<JsonNode>() {
-			public JsonNode call() throws Exception {
-				return load();
-			}
-		});
-		executorService.shutdown();
-		return future;
-	}
-
 	public JsonNode load() {
 		try {
 			final ApplicationSettings applicationSettings = applicationSettingsLoader.load();
@@ -22,7 +22,6 @@
 package com.microsoft.azure.oidc.token.impl;
 
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -30,6 +29,7 @@ import org.apache.commons.codec.binary.Base64;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import com.microsoft.azure.oidc.common.algorithm.Algorithm;
 import com.microsoft.azure.oidc.common.algorithm.AlgorithmFactory;
 import com.microsoft.azure.oidc.common.algorithm.impl.SimpleAlgorithmFactory;
@@ -63,6 +63,8 @@ import com.microsoft.azure.oidc.token.signature.impl.SimpleSignatureFactory;
 public final class SimpeTokenParser implements TokenParser {
 	private static final TokenParser INSTANCE = new SimpeTokenParser();
 
+	private static final ObjectReader JSON_NODE_READER = new ObjectMapper().readerFor(JsonNode.class);
+
 	private final SignatureFactory signatureFactory = SimpleSignatureFactory.getInstance();
 
 	private final TokenFactory tokenFactory = SimpleTokenFactory.getInstance();
@@ -83,11 +85,7 @@ public final class SimpeTokenParser implements TokenParser {
 
 	@Override
 	public Token getToken(String value) {
-		final String[] parts = value.split("\\.");
-		if (parts.length != 3) {
-			throw new IllegalStateException(
-					String.format("Incorrect number of parts: Expected 3 got %s", parts.length));
-		}
+		final String[] parts = splitParts(value);
 
 		final JsonNode header = parsePart(decodePart(parts[0]));
 		final JsonNode body = parsePart(decodePart(parts[1]));
@@ -167,25 +165,33 @@ public final class SimpeTokenParser implements TokenParser {
 		return signatureFactory.createSignature(value);
 	}
 
-	private String decodePart(final String part) {
+	private String[] splitParts(final String value) {
+		final int headerEnd = value.indexOf('.');
+		final int bodyEnd = headerEnd < 0 ? -1 : value.indexOf('.', headerEnd + 1);
+		if (headerEnd < 0 || bodyEnd < 0 || value.indexOf('.', bodyEnd + 1) >= 0 || bodyEnd == value.length() - 1) {
+			int count = 1;
+			for (int i = value.indexOf('.'); i >= 0; i = value.indexOf('.', i + 1)) {
+				count++;
+			}
+			throw new IllegalStateException(String.format("Incorrect number of parts: Expected 3 got %s", count));
+		}
+		return new String[] { value.substring(0, headerEnd), value.substring(headerEnd + 1, bodyEnd),
+				value.substring(bodyEnd + 1) };
+	}
+
+	private byte[] decodePart(final String part) {
 		if (part == null) {
 			throw new PreconditionException("Required parameter is null");
 		}
-		try {
-			final Base64 decoder = new Base64();
-			return new String(decoder.decode(part), "UTF-8");
-		} catch (UnsupportedEncodingException e) {
-			throw new GeneralException("Unsupported Encoding Exception", e);
-		}
+		return Base64.decodeBase64(part);
 	}
 
-	private JsonNode parsePart(final String part) {
+	private JsonNode parsePart(final byte[] part) {
 		if (part == null) {
 			throw new PreconditionException("Required parameter is null");
 		}
 		try {
-			final ObjectMapper mapper = new ObjectMapper();
-			return mapper.readValue(part, JsonNode.class);
+			return JSON_NODE_READER.readValue(part);
 		} catch (IOException e) {
 			throw new GeneralException("IO Exception", e);
 		}
@@ -21,17 +21,16 @@
  ******************************************************************************/
 package com.microsoft.azure.oidc.token.impl;
 
-import java.math.BigInteger;
 import java.security.InvalidKeyException;
-import java.security.KeyFactory;
 import java.security.NoSuchAlgorithmException;
 import java.security.PublicKey;
 import java.security.Signature;
 import java.security.SignatureException;
-import java.security.spec.InvalidKeySpecException;
-import java.security.spec.RSAPublicKeySpec;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.digest.DigestUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -41,9 +40,13 @@ import com.microsoft.azure.oidc.application.settings.impl.SimpleApplicationSetti
 import com.microsoft.azure.oidc.common.timestamp.TimeStamp;
 import com.microsoft.azure.oidc.common.timestamp.TimeStampFactory;
 import com.microsoft.azure.oidc.common.timestamp.impl.SimpleTimeStampFactory;
+import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCache;
+import com.microsoft.azure.oidc.concurrent.cache.ConcurrentCacheService;
+import com.microsoft.azure.oidc.concurrent.cache.impl.SimpleConcurrentCacheService;
 import com.microsoft.azure.oidc.configuration.Configuration;
 import com.microsoft.azure.oidc.configuration.ConfigurationCache;
 import com.microsoft.azure.oidc.configuration.impl.SimpleConfigurationCache;
+import com.microsoft.azure.oidc.configuration.key.Key;
 import com.microsoft.azure.oidc.exception.GeneralException;
 import com.microsoft.azure.oidc.exception.PreconditionException;
 import com.microsoft.azure.oidc.filter.configuration.algorithm.AlgorithmConfigurationService;
@@ -54,6 +57,7 @@ import com.microsoft.azure.oidc.token.TokenValidator;
 public class SimpleTokenValidator implements TokenValidator {
 	private static final TokenValidator INSTANCE = new SimpleTokenValidator();
 	private static final Logger LOGGER = LoggerFactory.getLogger(SimpleTokenValidator.class);
+	public static final String VERIFIED_TOKEN_CACHE = "verifiedTokenCache";
 
 	private final ApplicationSettingsLoader applicationSettingsLoader = SimpleApplicationSettingsLoader.getInstance();
 
@@ -63,6 +67,16 @@ public class SimpleTokenValidator implements TokenValidator {
 
 	private final AlgorithmConfigurationService algorithmConfigurationService = SimpleAlgorithmConfigurationService.getInstance();
 
+	private final ConcurrentCacheService concurrentCacheService = SimpleConcurrentCacheService.getInstance();
+
+	// Signature instances aren't thread safe, reuse them per thread and algorithm
+	private final ThreadLocal<Map<String, Signature>> signatures = new ThreadLocal<Map<String, Signature>>() {
+		@Override
+		protected Map<String, Signature> initialValue() {
+			return new HashMap<String, Signature>();
+		}
+	};
+
 	@Override
 	public Boolean validateSignature(final Token token) {
 		if (token == null) {
@@ -71,30 +85,50 @@ public class SimpleTokenValidator implements TokenValidator {
 		if (algorithmConfigurationService.get().getAlgorithmClassMap().get(token.getAlgorithm().getName()).equals("HMAC")) {
 			return Boolean.FALSE;
 		}
-		final Configuration configuration = configurationCache.load();
+		Configuration configuration = configurationCache.load();
 		if (configuration == null) {
 			throw new GeneralException("Error loading configuration");
 		}
 		try {
 			final TimeStamp now = timeStampFactory.createTimeStamp(System.currentTimeMillis() / 1000);
-			if (configuration.getKey(token.getKeyName()).getNotBefore().compareTo(now) > 0) {
+			Key key = configuration.getKey(token.getKeyName());
+			if (key == null) {
+				// The signing keys may be rotated, refetch the key store
+				final Configuration refreshed = configurationCache.refresh();
+				if (refreshed != null) {
+					configuration = refreshed;
+					key = configuration.getKey(token.getKeyName());
+				}
+			}
+			if (key == null || key.getNotBefore().compareTo(now) > 0) {
+				return Boolean.FALSE;
+			}
+			// The token verified before is trusted until its expiration
+			final ConcurrentCache<String, TimeStamp> verifiedTokenCache = concurrentCacheService
+					.getCache(TimeStamp.class, VERIFIED_TOKEN_CACHE);
+			String verifiedTokenKey = null;
+			if (verifiedTokenCache != null) {
+				verifiedTokenKey = DigestUtils
+						.sha256Hex(token.getPayload().getValue() + "." + token.getSignature().getValue());
+				final TimeStamp verifiedExpiration = verifiedTokenCache.get(verifiedTokenKey);
+				if (verifiedExpiration != null && verifiedExpiration.compareTo(now) > 0) {
+					return Boolean.TRUE;
+				}
+			}
+			final PublicKey pubKey = configuration.getPublicKey(token.getKeyName());
+			if (pubKey == null) {
 				return Boolean.FALSE;
 			}
-			final Base64 decoder = new Base64();
-			final BigInteger exponent = new BigInteger(1,
-					decoder.decode(configuration.getKey(token.getKeyName()).getExponent().getValue()));
-			final BigInteger modulus = new BigInteger(1,
-					decoder.decode(configuration.getKey(token.getKeyName()).getSecret().getValue()));
-			final RSAPublicKeySpec pubKeySpec = new RSAPublicKeySpec(modulus, exponent);
-			final KeyFactory keyFactory = KeyFactory
-					.getInstance(algorithmConfigurationService.get().getAlgorithmClassMap().get(token.getAlgorithm().getName()));
-			final PublicKey pubKey = keyFactory.generatePublic(pubKeySpec);
-			final Signature sig = Signature
-					.getInstance(algorithmConfigurationService.get().getAlgorithmMap().get(token.getAlgorithm().getName()));
+			final Signature sig = getSignature(
+					algorithmConfigurationService.get().getAlgorithmMap().get(token.getAlgorithm().getName()));
 			sig.initVerify(pubKey);
 			sig.update(token.getPayload().getValue().getBytes());
-			return sig.verify(decoder.decode(token.getSignature().getValue()));
-		} catch (NoSuchAlgorithmException | InvalidKeySpecException | SignatureException | InvalidKeyException e) {
+			final boolean isVerified = sig.verify(Base64.decodeBase64(token.getSignature().getValue()));
+			if (isVerified && verifiedTokenCache != null && token.getExpiration().compareTo(now) > 0) {
+				verifiedTokenCache.putIfAbsent(verifiedTokenKey, token.getExpiration());
+			}
+			return isVerified;
+		} catch (NoSuchAlgorithmException | SignatureException | InvalidKeyException e) {
 			LOGGER.error(e.getMessage(), e);
 			return Boolean.FALSE;
 		}
@@ -186,6 +220,16 @@ public class SimpleTokenValidator implements TokenValidator {
 		return Boolean.TRUE;
 	}
 
+	private Signature getSignature(final String algorithm) throws NoSuchAlgorithmException {
+		final Map<String, Signature> threadSignatures = signatures.get();
+		Signature signature = threadSignatures.get(algorithm);
+		if (signature == null) {
+			signature = Signature.getInstance(algorithm);
+			threadSignatures.put(algorithm, signature);
+		}
+		return signature;
+	}
+
 	public static TokenValidator getInstance() {
 		return INSTANCE;
 	}
@@ -0,0 +1,281 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.microsoft.azure.storage.AccessCondition;
+import com.microsoft.azure.storage.StorageException;
+import com.microsoft.azure.storage.blob.BlockEntry;
+import com.microsoft.azure.storage.blob.BlockListingFilter;
+import com.microsoft.azure.storage.blob.BlockSearchMode;
+import com.microsoft.azure.storage.blob.CloudBlob;
+import com.microsoft.azure.storage.blob.CloudBlockBlob;
+import com.microsoft.azure.storage.core.Base64;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.HttpURLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Transfers a blob with several blocks or ranges in flight.
+ *
+ * The upload reads the file with positional reads into a bounded pool of buffers. The block ids are derived from the
+ * file and the block index, so an interrupted upload resumes by skipping the blocks already in the uncommitted block
+ * list. The download fetches ranges in parallel and writes them to the output stream in order.
+ */
+final class BlobBlockTransfer {
+    static final int DEFAULT_PARALLELISM = 4;
+    static final long DEFAULT_RANGE_SIZE = 4L * 1024 * 1024;
+    static final int MAX_BLOCK_COUNT = 50000;
+
+    // 36 characters like the UUID block ids of the stream upload, as the ids of a blob must share one length:
+    // 24 hex characters of the SHA-256 fingerprint, a dash and the 11 digits block index
+    private static final String BLOCK_ID_FORMAT = "%.24s-%011d";
+
+    private final int parallelism;
+    private final long rangeSize;
+
+    BlobBlockTransfer() {
+        this(DEFAULT_PARALLELISM, DEFAULT_RANGE_SIZE);
+    }
+
+    BlobBlockTransfer(int parallelism, long rangeSize) {
+        this.parallelism = Math.max(1, parallelism);
+        this.rangeSize = Math.max(1, rangeSize);
+    }
+
+    @NotNull
+    static String getBlockId(@NotNull File file, long blockSize, int index) {
+        String fingerprint;
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(
+                    String.format("%d:%d:%d", file.length(), file.lastModified(), blockSize)
+                            .getBytes(StandardCharsets.US_ASCII));
+            fingerprint = String.format("%064x", new BigInteger(1, digest));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 isn't supported", e);
+        }
+
+        String id = String.format(BLOCK_ID_FORMAT, fingerprint, index);
+
+        return Base64.encode(id.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    void upload(@NotNull CloudBlockBlob blob,
+                @NotNull File file,
+                long blockSize,
+                @Nullable CallableSingleArg<Void, Long> processBlock) throws Exception {
+        if (blockSize <= 0 || blockSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid block size " + blockSize);
+        }
+
+        long length = file.length();
+        if (length == 0) {
+            blob.upload(new ByteArrayInputStream(new byte[0]), 0);
+            report(processBlock, new AtomicLong(), 0);
+            return;
+        }
+
+        long blockCount = (length + blockSize - 1) / blockSize;
+        if (blockCount > MAX_BLOCK_COUNT) {
+            throw new IllegalArgumentException(String.format(
+                    "The file needs %d blocks of %d bytes, more than %d blocks allowed", blockCount, blockSize,
+                    MAX_BLOCK_COUNT));
+        }
+
+        Map<String, Long> uncommitted = getUncommittedBlocks(blob);
+        List<BlockEntry> blockEntries = new ArrayList<>((int) blockCount);
+        int bufferSize = (int) Math.min(blockSize, length);
+        BlockingQueue<ByteBuffer> buffers = new ArrayBlockingQueue<>(parallelism);
+        for (int i = 0; i < parallelism; i++) {
+            buffers.add(ByteBuffer.allocate(bufferSize));
+        }
+
+        AtomicLong uploadedBytes = new AtomicLong();
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        List<Future<?>> futures = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            report(processBlock, uploadedBytes, 0);
+
+            for (int i = 0; i < blockCount && failure.get() == null; i++) {
+                long offset = i * blockSize;
+                int size = (int) Math.min(blockSize, length - offset);
+                String blockId = getBlockId(file, blockSize, i);
+                BlockEntry entry = new BlockEntry(blockId, BlockSearchMode.UNCOMMITTED);
+                entry.setSize(size);
+                blockEntries.add(entry);
+
+                if (Long.valueOf(size).equals(uncommitted.get(blockId))) {
+                    report(processBlock, uploadedBytes, size);
+                    continue;
+                }
+
+                // Waiting for a free buffer keeps at most parallelism blocks in memory and in flight
+                ByteBuffer buffer = buffers.take();
+                futures.add(executor.submit(() -> {
+                    try {
+                        buffer.clear();
+                        buffer.limit(size);
+                        while (buffer.hasRemaining()) {
+                            if (channel.read(buffer, offset + buffer.position()) < 0) {
+                                throw new EOFException("The file is truncated during uploading: " + file);
+                            }
+                        }
+
+                        blob.uploadBlock(blockId, new ByteArrayInputStream(buffer.array(), 0, size), size);
+                        report(processBlock, uploadedBytes, size);
+                    } catch (Exception e) {
+                        failure.compareAndSet(null, e);
+                        throw e;
+                    } finally {
+                        buffers.offer(buffer);
+                    }
+
+                    return null;
+                }));
+            }
+
+            for (Future<?> future : futures) {
+                await(future);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        blob.commitBlockList(blockEntries);
+    }
+
+    void download(@NotNull CloudBlob blob, @NotNull OutputStream content) throws Exception {
+        blob.downloadAttributes();
+        long length = blob.getProperties().getLength();
+        if (length <= rangeSize) {
+            blob.download(content);
+            return;
+        }
+
+        // Fail the ranges rather than mixing two versions if the blob is overwritten during downloading
+        AccessCondition unchanged = AccessCondition.generateIfMatchCondition(blob.getProperties().getEtag());
+        Deque<Future<byte[]>> window = new ArrayDeque<>(parallelism);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            long offset = 0;
+            while (offset < length || !window.isEmpty()) {
+                while (offset < length && window.size() < parallelism) {
+                    long start = offset;
+                    int size = (int) Math.min(rangeSize, length - offset);
+                    window.addLast(executor.submit(() -> downloadRange(blob, start, size, unchanged)));
+                    offset += size;
+                }
+
+                content.write(await(window.removeFirst()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @NotNull
+    private static byte[] downloadRange(@NotNull CloudBlob blob,
+                                        long offset,
+                                        int size,
+                                        @NotNull AccessCondition accessCondition) throws Exception {
+        byte[] buffer = new byte[size];
+        int read = 0;
+        while (read < size) {
+            int count = blob.downloadRangeToByteArray(
+                    offset + read, (long) (size - read), buffer, read, accessCondition, null, null);
+            if (count <= 0) {
+                throw new EOFException(String.format("Unexpected end of blob at %d", offset + read));
+            }
+
+            read += count;
+        }
+
+        return buffer;
+    }
+
+    @NotNull
+    private static Map<String, Long> getUncommittedBlocks(@NotNull CloudBlockBlob blob) throws StorageException {
+        Map<String, Long> blocks = new HashMap<>();
+        try {
+            for (BlockEntry entry : blob.downloadBlockList(BlockListingFilter.UNCOMMITTED, null, null, null)) {
+                blocks.put(entry.getId(), entry.getSize());
+            }
+        } catch (StorageException e) {
+            if (e.getHttpStatusCode() != HttpURLConnection.HTTP_NOT_FOUND) {
+                throw e;
+            }
+        }
+
+        return blocks;
+    }
+
+    // Blocks complete out of order, so the counter is advanced and reported together to keep the progress monotonic
+    private static void report(@Nullable CallableSingleArg<Void, Long> processBlock,
+                               @NotNull AtomicLong uploadedBytes,
+                               long delta) throws Exception {
+        synchronized (uploadedBytes) {
+            long bytes = uploadedBytes.addAndGet(delta);
+            if (processBlock != null) {
+                processBlock.call(bytes);
+            }
+        }
+    }
+
+    private static <T> T await(@NotNull Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+
+            throw e;
+        }
+    }
+}
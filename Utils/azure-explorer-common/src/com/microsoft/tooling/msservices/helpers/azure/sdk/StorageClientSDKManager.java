@@ -23,6 +23,8 @@ package com.microsoft.tooling.msservices.helpers.azure.sdk;
 
 import com.google.common.base.Strings;
 import com.microsoft.azure.storage.CloudStorageAccount;
+import com.microsoft.azure.storage.ResultContinuation;
+import com.microsoft.azure.storage.ResultSegment;
 import com.microsoft.azure.storage.StorageException;
 import com.microsoft.azure.storage.blob.*;
 import com.microsoft.azure.storage.core.Base64;
@@ -40,6 +42,7 @@ import com.microsoft.tooling.msservices.model.storage.BlobItem;
 import com.microsoft.tooling.msservices.model.storage.ClientStorageAccount;
 import com.microsoft.tooling.msservices.model.storage.Queue;
 import com.microsoft.tooling.msservices.model.storage.QueueMessage;
+import com.microsoft.tooling.msservices.model.storage.StoragePage;
 import com.microsoft.tooling.msservices.model.storage.Table;
 import com.microsoft.tooling.msservices.model.storage.TableEntity;
 import com.microsoft.tooling.msservices.model.storage.TableEntity.Property;
@@ -50,6 +53,7 @@ import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import com.microsoft.azuretools.utils.StorageAccoutUtils;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.URISyntaxException;
@@ -58,8 +62,13 @@ import java.util.*;
 import java.util.Map.Entry;
 
 public class StorageClientSDKManager {
+    // The most items the blob listing and the table query return per request
+    public static final int DEFAULT_PAGE_SIZE = 1000;
+
     private static StorageClientSDKManager apiManager;
 
+    private final BlobBlockTransfer blobBlockTransfer = new BlobBlockTransfer();
+
     private StorageClientSDKManager() {
     }
 
@@ -241,6 +250,30 @@ public class StorageClientSDKManager {
     public List<BlobItem> getBlobItems(@NotNull String connectionString, @NotNull BlobDirectory blobDirectory)
             throws AzureCmdException {
         List<BlobItem> biList = new ArrayList<BlobItem>();
+        ResultContinuation continuationToken = null;
+
+        do {
+            StoragePage<BlobItem> page = getBlobItemsPage(connectionString, blobDirectory, null, continuationToken,
+                    DEFAULT_PAGE_SIZE);
+            biList.addAll(page.getItems());
+            continuationToken = page.getContinuationToken();
+        } while (continuationToken != null);
+
+        return biList;
+    }
+
+    /**
+     * List one page of the blob items in the directory. The prefix is matched by the service against the item names
+     * in the directory, so searching a large container doesn't list it completely.
+     */
+    @NotNull
+    public StoragePage<BlobItem> getBlobItemsPage(@NotNull String connectionString,
+                                                  @NotNull BlobDirectory blobDirectory,
+                                                  @Nullable String prefix,
+                                                  @Nullable ResultContinuation continuationToken,
+                                                  int pageSize)
+            throws AzureCmdException {
+        List<BlobItem> biList = new ArrayList<BlobItem>();
 
         try {
             CloudBlobClient client = getCloudBlobClient(connectionString);
@@ -250,7 +283,10 @@ public class StorageClientSDKManager {
             CloudBlobContainer container = client.getContainerReference(containerName);
             CloudBlobDirectory directory = container.getDirectoryReference(blobDirectory.getPath());
 
-            for (ListBlobItem item : directory.listBlobs()) {
+            ResultSegment<ListBlobItem> segment = directory.listBlobsSegmented(Strings.nullToEmpty(prefix), false,
+                    EnumSet.noneOf(BlobListingDetails.class), pageSize, continuationToken, null, null);
+
+            for (ListBlobItem item : segment.getResults()) {
                 String uri = item.getUri() != null ? item.getUri().toString() : "";
 
                 if (item instanceof CloudBlobDirectory) {
@@ -301,7 +337,8 @@ public class StorageClientSDKManager {
                 }
             }
 
-            return biList;
+            return new StoragePage<BlobItem>(biList,
+                    segment.getHasMoreResults() ? segment.getContinuationToken() : null);
         } catch (Throwable t) {
             throw new AzureCmdException("Error retrieving the Blob Item list", t);
         }
@@ -416,6 +453,30 @@ public class StorageClientSDKManager {
         }
     }
 
+    /**
+     * Upload the file with several blocks in flight. The blocks already uploaded by an interrupted upload of the same
+     * file are not uploaded again.
+     */
+    public void uploadBlobFileContent(@NotNull String connectionString,
+                                      @NotNull BlobContainer blobContainer,
+                                      @NotNull String filePath,
+                                      @NotNull File file,
+                                      CallableSingleArg<Void, Long> processBlock,
+                                      long maxBlockSize)
+            throws AzureCmdException {
+        try {
+            CloudBlobClient client = getCloudBlobClient(connectionString);
+            String containerName = blobContainer.getName();
+
+            CloudBlobContainer container = client.getContainerReference(containerName);
+            final CloudBlockBlob blob = container.getBlockBlobReference(filePath);
+
+            blobBlockTransfer.upload(blob, file, maxBlockSize, processBlock);
+        } catch (Throwable t) {
+            throw new AzureCmdException("Error uploading the Blob File content", t);
+        }
+    }
+
     public void downloadBlobFileContent(@NotNull String connectionString,
                                         @NotNull BlobFile blobFile,
                                         @NotNull OutputStream content)
@@ -428,7 +489,7 @@ public class StorageClientSDKManager {
 
             CloudBlob blob = getCloudBlob(container, blobFile);
 
-            blob.download(content);
+            blobBlockTransfer.download(blob, content);
         } catch (Throwable t) {
             throw new AzureCmdException("Error downloading the Blob File content", t);
         }
@@ -657,13 +718,36 @@ public class StorageClientSDKManager {
                                               @NotNull String filter)
             throws AzureCmdException {
         List<TableEntity> teList = new ArrayList<TableEntity>();
+        ResultContinuation continuationToken = null;
+
+        do {
+            StoragePage<TableEntity> page = getTableEntitiesPage(storageAccount, table, filter, continuationToken,
+                    DEFAULT_PAGE_SIZE);
+            teList.addAll(page.getItems());
+            continuationToken = page.getContinuationToken();
+        } while (continuationToken != null);
+
+        return teList;
+    }
+
+    /**
+     * Query one page of the table entities. The filter is evaluated by the service.
+     */
+    @NotNull
+    public StoragePage<TableEntity> getTableEntitiesPage(@NotNull StorageAccount storageAccount,
+                                                         @NotNull Table table,
+                                                         @NotNull String filter,
+                                                         @Nullable ResultContinuation continuationToken,
+                                                         int pageSize)
+            throws AzureCmdException {
+        List<TableEntity> teList = new ArrayList<TableEntity>();
 
         try {
             CloudTableClient client = getCloudTableClient(storageAccount);
             String tableName = table.getName();
             CloudTable cloudTable = client.getTableReference(tableName);
 
-            TableQuery<DynamicTableEntity> tableQuery = TableQuery.from(DynamicTableEntity.class);
+            TableQuery<DynamicTableEntity> tableQuery = TableQuery.from(DynamicTableEntity.class).take(pageSize);
 
             if (!filter.isEmpty()) {
                 tableQuery.where(filter);
@@ -672,11 +756,15 @@ public class StorageClientSDKManager {
             TableRequestOptions tro = new TableRequestOptions();
             tro.setTablePayloadFormat(TablePayloadFormat.JsonFullMetadata);
 
-            for (DynamicTableEntity dte : cloudTable.execute(tableQuery, tro, null)) {
+            ResultSegment<DynamicTableEntity> segment =
+                    cloudTable.executeSegmented(tableQuery, continuationToken, tro, null);
+
+            for (DynamicTableEntity dte : segment.getResults()) {
                 teList.add(getTableEntity(tableName, dte));
             }
 
-            return teList;
+            return new StoragePage<TableEntity>(teList,
+                    segment.getHasMoreResults() ? segment.getContinuationToken() : null);
         } catch (Throwable t) {
             throw new AzureCmdException("Error retrieving the Table Entity list", t);
         }
@@ -0,0 +1,133 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.helpers.collections;
+
+import com.microsoft.azure.storage.ResultContinuation;
+import com.microsoft.azuretools.azurecommons.helpers.AzureCmdException;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import com.microsoft.tooling.msservices.model.storage.StoragePage;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * A bounded window over a listing paged by continuation tokens. At most maxPages pages are kept in memory; pages
+ * that fall out of the window are dropped and loaded again from their token when the window moves back.
+ */
+public class PagedWindow<T> {
+    public interface PageLoader<T> {
+        @NotNull
+        StoragePage<T> load(@Nullable ResultContinuation continuationToken) throws AzureCmdException;
+    }
+
+    private final PageLoader<T> loader;
+    private final int maxPages;
+    // The token of page i is at index i, the first page has none; a trailing null marks the end of the listing
+    private final List<ResultContinuation> pageTokens = new ArrayList<ResultContinuation>();
+    private final LinkedList<List<T>> pages = new LinkedList<List<T>>();
+    private int firstPage = 0;
+
+    public PagedWindow(@NotNull PageLoader<T> loader, int maxPages) {
+        this.loader = loader;
+        this.maxPages = Math.max(1, maxPages);
+    }
+
+    public synchronized void reset() throws AzureCmdException {
+        pageTokens.clear();
+        pages.clear();
+        firstPage = 0;
+
+        pageTokens.add(null);
+        pages.add(load(0));
+    }
+
+    public synchronized boolean hasNext() {
+        int nextPage = firstPage + pages.size();
+
+        return !pages.isEmpty() && nextPage < pageTokens.size() && pageTokens.get(nextPage) != null;
+    }
+
+    public synchronized boolean hasPrevious() {
+        return firstPage > 0;
+    }
+
+    /**
+     * Load the page after the window, dropping the first page if the window is full.
+     *
+     * @return the number of items dropped from the head of the window
+     */
+    public synchronized int loadNext() throws AzureCmdException {
+        if (!hasNext()) {
+            return 0;
+        }
+
+        pages.addLast(load(firstPage + pages.size()));
+        if (pages.size() <= maxPages) {
+            return 0;
+        }
+
+        firstPage++;
+        return pages.removeFirst().size();
+    }
+
+    /**
+     * Load the page before the window again, dropping the last page if the window is full.
+     *
+     * @return the number of items added to the head of the window
+     */
+    public synchronized int loadPrevious() throws AzureCmdException {
+        if (!hasPrevious()) {
+            return 0;
+        }
+
+        List<T> page = load(firstPage - 1);
+        firstPage--;
+        pages.addFirst(page);
+        if (pages.size() > maxPages) {
+            pages.removeLast();
+        }
+
+        return page.size();
+    }
+
+    @NotNull
+    public synchronized List<T> getItems() {
+        List<T> items = new ArrayList<T>();
+        for (List<T> page : pages) {
+            items.addAll(page);
+        }
+
+        return items;
+    }
+
+    @NotNull
+    private List<T> load(int pageIndex) throws AzureCmdException {
+        StoragePage<T> page = loader.load(pageTokens.get(pageIndex));
+        if (pageIndex + 1 == pageTokens.size()) {
+            pageTokens.add(page.getContinuationToken());
+        }
+
+        return page.getItems();
+    }
+}
@@ -28,7 +28,7 @@ import com.microsoft.azuretools.azurecommons.helpers.RedisKeyType;
 import com.microsoft.azuretools.core.mvp.model.rediscache.RedisConnectionPools;
 import com.microsoft.azuretools.core.mvp.model.rediscache.RedisExplorerMvpModel;
 import com.microsoft.azuretools.core.mvp.ui.base.MvpPresenter;
-import com.microsoft.azuretools.core.mvp.ui.rediscache.RedisScanResult;
+import com.microsoft.azuretools.core.mvp.ui.rediscache.RedisKeyInfo;
 import com.microsoft.azuretools.core.mvp.ui.rediscache.RedisValueData;
 import com.microsoft.azuretools.telemetry.TelemetryConstants;
 import com.microsoft.azuretools.telemetrywrapper.ErrorType;
@@ -39,17 +39,23 @@ import com.microsoft.tooling.msservices.components.DefaultLoader;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import redis.clients.jedis.ScanResult;
 import redis.clients.jedis.Tuple;
+import redis.clients.jedis.exceptions.JedisDataException;
 import rx.Observable;
 
 public class RedisExplorerPresenter<V extends RedisExplorerMvpView> extends MvpPresenter<V> {
 
     private String sid;
     private String id;
+    private int keyPageSize = RedisExplorerMvpModel.DEFAULT_KEY_PAGE_SIZE;
+    // Types of the keys in the latest scan result, saving a TYPE round trip when a listed key is selected
+    private final Map<String, String> scannedKeyTypes = new ConcurrentHashMap<>();
 
     private static final String DEFAULT_SCAN_PATTERN = "*";
 
@@ -112,15 +118,19 @@ public class RedisExplorerPresenter<V extends RedisExplorerMvpView> extends MvpP
         Operation operation = TelemetryManager.createOperation(TelemetryConstants.REDIS, TelemetryConstants.REDIS_SCAN);
         operation.start();
         Observable.fromCallable(() -> {
-            return RedisExplorerMvpModel.getInstance().scanKeys(sid, id, db, cursor, pattern);
+            return RedisExplorerMvpModel.getInstance().scanKeysWithInfo(sid, id, db, cursor, pattern, keyPageSize);
         })
         .subscribeOn(getSchedulerProvider().io())
         .subscribe(result -> {
+            scannedKeyTypes.clear();
+            for (RedisKeyInfo keyInfo : result.getKeyInfos()) {
+                scannedKeyTypes.put(keyInfo.getKey(), keyInfo.getType());
+            }
             DefaultLoader.getIdeHelper().invokeLater(() -> {
                 if (isViewDetached()) {
                     return;
                 }
-                getMvpView().showScanResult(new RedisScanResult(result));
+                getMvpView().showScanResult(result);
                 operation.complete();
             });
         }, e -> {
@@ -176,7 +186,16 @@ public class RedisExplorerPresenter<V extends RedisExplorerMvpView> extends MvpP
      */
     public void onkeySelect(int db, String key) {
         Observable.fromCallable(() -> {
-            return getValueByKey(db, key);
+            String scannedType = scannedKeyTypes.get(key);
+            if (scannedType == null) {
+                return getValueByKey(db, key);
+            }
+            try {
+                return getValueByKey(db, key, scannedType);
+            } catch (JedisDataException e) {
+                // The key has changed its type since scanned
+                return getValueByKey(db, key);
+            }
         })
         .subscribeOn(getSchedulerProvider().io())
         .subscribe(result -> {
@@ -210,8 +229,16 @@ public class RedisExplorerPresenter<V extends RedisExplorerMvpView> extends MvpP
         this.id = id;
     }
 
+    public void setKeyPageSize(int keyPageSize) {
+        this.keyPageSize = keyPageSize;
+    }
+
     private RedisValueData getValueByKey(int db, String key) throws Exception {
-        String type = RedisExplorerMvpModel.getInstance().getKeyType(sid, id, db, key).toUpperCase();
+        return getValueByKey(db, key, RedisExplorerMvpModel.getInstance().getKeyType(sid, id, db, key));
+    }
+
+    private RedisValueData getValueByKey(int db, String key, String keyType) throws Exception {
+        String type = keyType.toUpperCase();
         ArrayList<String[]> columnData = new ArrayList<String[]>();
         switch (RedisKeyType.valueOf(type)) {
             case STRING:
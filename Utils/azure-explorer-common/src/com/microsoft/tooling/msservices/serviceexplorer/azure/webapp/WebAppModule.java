@@ -30,21 +30,28 @@ import com.microsoft.azure.management.resources.fluentcore.arm.ResourceId;
 import com.microsoft.azuretools.azurecommons.helpers.AzureCmdException;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.core.mvp.model.ResourceEx;
+import com.microsoft.azuretools.core.mvp.model.webapp.AzureWebAppMvpModel;
 import com.microsoft.azuretools.utils.AzureUIRefreshCore;
 import com.microsoft.azuretools.utils.AzureUIRefreshEvent;
 import com.microsoft.azuretools.utils.AzureUIRefreshListener;
+import com.microsoft.azuretools.utils.ResourceSnapshot;
 import com.microsoft.azuretools.utils.WebAppUtils;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
 import com.microsoft.tooling.msservices.serviceexplorer.AzureRefreshableNode;
 import com.microsoft.tooling.msservices.serviceexplorer.Node;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 
 public class WebAppModule extends AzureRefreshableNode implements WebAppModuleView {
     private static final String REDIS_SERVICE_MODULE_ID = WebAppModule.class.getName();
     private static final String ICON_PATH = "WebApp.svg";
     private static final String BASE_MODULE_NAME = "Web Apps";
     private final WebAppModulePresenter<WebAppModule> webAppModulePresenter;
+    // The nodes rendered from the local snapshot, to be reconciled with the fresh Web Apps
+    private final Map<String, WebAppNode> snapshotNodes = new HashMap<>();
+    private final Map<String, ResourceSnapshot> renderedSnapshots = new HashMap<>();
 
     /**
      * Create the node containing all the Web App resources.
@@ -122,10 +129,42 @@ public class WebAppModule extends AzureRefreshableNode implements WebAppModuleVi
         AzureUIRefreshCore.addListener(id, listener);
     }
 
+    @Override
+    public void renderSnapshots(@NotNull final List<ResourceSnapshot> snapshots) {
+        snapshotNodes.clear();
+        renderedSnapshots.clear();
+        for (final ResourceSnapshot snapshot : snapshots) {
+            if (snapshot.getProperty(AzureWebAppMvpModel.SNAPSHOT_OPERATING_SYSTEM) == null) {
+                continue;
+            }
+            final WebAppNode node = new WebAppNode(this, snapshot.getSubscriptionId(), snapshot.getId(),
+                snapshot.getName(), snapshot.getState(),
+                snapshot.getProperty(AzureWebAppMvpModel.SNAPSHOT_DEFAULT_HOST_NAME),
+                snapshot.getProperty(AzureWebAppMvpModel.SNAPSHOT_OPERATING_SYSTEM),
+                new HashMap<String, String>() {
+                    {
+                        put("regionName", snapshot.getRegion());
+                    }
+                });
+
+            snapshotNodes.put(snapshot.getId(), node);
+            renderedSnapshots.put(snapshot.getId(), snapshot);
+            addChildNode(node);
+        }
+    }
+
     @Override
     public void renderChildren(@NotNull final List<ResourceEx<WebApp>> resourceExes) {
         for (final ResourceEx<WebApp> resourceEx : resourceExes) {
             final WebApp app = resourceEx.getResource();
+            final WebAppNode snapshotNode = snapshotNodes.remove(app.id());
+            if (snapshotNode != null) {
+                if (isUnchanged(renderedSnapshots.get(app.id()), app)) {
+                    snapshotNode.refreshItems();
+                    continue;
+                }
+                removeDirectChildNode(snapshotNode);
+            }
             final WebAppNode node = new WebAppNode(this, resourceEx.getSubscriptionId(), app.id(), app.name(),
                 app.state(), app.defaultHostName(), app.operatingSystem().toString(),
                 new HashMap<String, String>() {
@@ -137,5 +176,21 @@ public class WebAppModule extends AzureRefreshableNode implements WebAppModuleVi
             addChildNode(node);
             node.refreshItems();
         }
+
+        // The Web Apps deleted since the snapshot was taken
+        for (final WebAppNode node : snapshotNodes.values()) {
+            removeDirectChildNode(node);
+        }
+        snapshotNodes.clear();
+        renderedSnapshots.clear();
+    }
+
+    private static boolean isUnchanged(final ResourceSnapshot snapshot, final WebApp app) {
+        return snapshot != null && Objects.equals(snapshot.getName(), app.name())
+            && Objects.equals(snapshot.getState(), app.state())
+            && Objects.equals(snapshot.getProperty(AzureWebAppMvpModel.SNAPSHOT_DEFAULT_HOST_NAME),
+                app.defaultHostName())
+            && Objects.equals(snapshot.getProperty(AzureWebAppMvpModel.SNAPSHOT_OPERATING_SYSTEM),
+                app.operatingSystem().toString());
     }
 }
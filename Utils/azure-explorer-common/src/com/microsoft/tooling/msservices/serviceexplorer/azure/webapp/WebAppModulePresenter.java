@@ -1,9 +1,11 @@
 package com.microsoft.tooling.msservices.serviceexplorer.azure.webapp;
 
 import java.io.IOException;
+import java.util.List;
 
 import com.microsoft.azuretools.core.mvp.model.webapp.AzureWebAppMvpModel;
 import com.microsoft.azuretools.core.mvp.ui.base.MvpPresenter;
+import com.microsoft.azuretools.utils.ResourceSnapshot;
 
 public class WebAppModulePresenter<V extends WebAppModuleView> extends MvpPresenter<V> {
     /**
@@ -12,6 +14,10 @@ public class WebAppModulePresenter<V extends WebAppModuleView> extends MvpPresen
     public void onModuleRefresh() {
         final WebAppModuleView view = getMvpView();
         if (view != null) {
+            final List<ResourceSnapshot> snapshots = AzureWebAppMvpModel.getInstance().listAllWebAppSnapshots();
+            if (!snapshots.isEmpty()) {
+                view.renderSnapshots(snapshots);
+            }
             view.renderChildren(AzureWebAppMvpModel.getInstance().listAllWebApps(true));
         }
     }
@@ -27,7 +27,14 @@ import java.util.List;
 import com.microsoft.azure.management.appservice.WebApp;
 import com.microsoft.azuretools.core.mvp.model.ResourceEx;
 import com.microsoft.azuretools.core.mvp.ui.base.MvpView;
+import com.microsoft.azuretools.utils.ResourceSnapshot;
 
 public interface WebAppModuleView extends MvpView {
     void renderChildren(List<ResourceEx<WebApp>> resourceExes);
+
+    /**
+     * Render the Web Apps in the local snapshot before the fresh ones are listed, which replace them then.
+     */
+    default void renderSnapshots(List<ResourceSnapshot> snapshots) {
+    }
 }
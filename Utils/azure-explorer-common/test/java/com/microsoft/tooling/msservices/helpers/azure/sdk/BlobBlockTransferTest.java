@@ -0,0 +1,158 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.helpers.azure.sdk;
+
+import com.microsoft.azure.storage.blob.BlockEntry;
+import com.microsoft.azure.storage.blob.BlockListingFilter;
+import com.microsoft.azure.storage.blob.CloudBlockBlob;
+import com.microsoft.azure.storage.core.Base64;
+import com.microsoft.tooling.msservices.helpers.CallableSingleArg;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+// CloudBlockBlob is final
+@RunWith(PowerMockRunner.class)
+@PrepareForTest(CloudBlockBlob.class)
+public class BlobBlockTransferTest {
+    private static final byte[] CONTENT = "0123456789".getBytes();
+    private static final long BLOCK_SIZE = 3;
+
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private File file;
+    private CloudBlockBlob blob;
+    private Map<String, byte[]> uploadedBlocks;
+
+    @Before
+    public void setUp() throws Exception {
+        file = tempFolder.newFile("artifact.jar");
+        Files.write(file.toPath(), CONTENT);
+
+        uploadedBlocks = new ConcurrentHashMap<>();
+        blob = PowerMockito.mock(CloudBlockBlob.class);
+        when(blob.downloadBlockList(eq(BlockListingFilter.UNCOMMITTED), isNull(), isNull(), isNull()))
+                .thenReturn(new ArrayList<>());
+        doAnswer(invocation -> {
+            Object[] args = invocation.getArguments();
+            ByteArrayOutputStream block = new ByteArrayOutputStream();
+            InputStream in = (InputStream) args[1];
+            for (int b = in.read(); b >= 0; b = in.read()) {
+                block.write(b);
+            }
+
+            assertEquals(args[2], (long) block.size());
+            uploadedBlocks.put((String) args[0], block.toByteArray());
+            return null;
+        }).when(blob).uploadBlock(anyString(), any(InputStream.class), anyLong());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<BlockEntry> captureCommittedBlocks() throws Exception {
+        ArgumentCaptor<Iterable> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(blob).commitBlockList(captor.capture());
+
+        List<BlockEntry> blocks = new ArrayList<>();
+        captor.getValue().forEach(block -> blocks.add((BlockEntry) block));
+        return blocks;
+    }
+
+    @Test
+    public void testUploadCommitsBlocksInFileOrder() throws Exception {
+        List<Long> progress = new ArrayList<>();
+        new BlobBlockTransfer(2, BLOCK_SIZE).upload(blob, file, BLOCK_SIZE, new CallableSingleArg<Void, Long>() {
+            @Override
+            public Void call(Long uploadedBytes) {
+                progress.add(uploadedBytes);
+                return null;
+            }
+        });
+
+        verify(blob, times(4)).uploadBlock(anyString(), any(InputStream.class), anyLong());
+        ByteArrayOutputStream committed = new ByteArrayOutputStream();
+        List<BlockEntry> blocks = captureCommittedBlocks();
+        assertEquals(4, blocks.size());
+        for (int i = 0; i < blocks.size(); i++) {
+            assertEquals(BlobBlockTransfer.getBlockId(file, BLOCK_SIZE, i), blocks.get(i).getId());
+            committed.write(uploadedBlocks.get(blocks.get(i).getId()));
+        }
+
+        assertArrayEquals(CONTENT, committed.toByteArray());
+        assertEquals(Long.valueOf(CONTENT.length), progress.get(progress.size() - 1));
+    }
+
+    @Test
+    public void testUploadResumesFromUncommittedBlocks() throws Exception {
+        ArrayList<BlockEntry> uncommitted = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            BlockEntry entry = new BlockEntry(BlobBlockTransfer.getBlockId(file, BLOCK_SIZE, i));
+            entry.setSize(BLOCK_SIZE);
+            uncommitted.add(entry);
+        }
+        when(blob.downloadBlockList(eq(BlockListingFilter.UNCOMMITTED), isNull(), isNull(), isNull()))
+                .thenReturn(uncommitted);
+
+        new BlobBlockTransfer(2, BLOCK_SIZE).upload(blob, file, BLOCK_SIZE, null);
+
+        verify(blob, times(2)).uploadBlock(anyString(), any(InputStream.class), anyLong());
+        assertEquals(4, captureCommittedBlocks().size());
+    }
+
+    @Test
+    public void testBlockIdsHaveFixedLengthAndDependOnFile() throws Exception {
+        String first = BlobBlockTransfer.getBlockId(file, BLOCK_SIZE, 0);
+        String last = BlobBlockTransfer.getBlockId(file, BLOCK_SIZE, BlobBlockTransfer.MAX_BLOCK_COUNT - 1);
+        assertEquals(first.length(), last.length());
+        assertEquals(36, Base64.decode(first).length);
+        assertEquals(first, BlobBlockTransfer.getBlockId(file, BLOCK_SIZE, 0));
+        assertNotEquals(first, BlobBlockTransfer.getBlockId(file, BLOCK_SIZE + 1, 0));
+    }
+}
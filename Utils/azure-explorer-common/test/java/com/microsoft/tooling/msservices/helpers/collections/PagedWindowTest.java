@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.tooling.msservices.helpers.collections;
+
+import com.microsoft.azure.storage.ResultContinuation;
+import com.microsoft.tooling.msservices.model.storage.StoragePage;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PagedWindowTest {
+    private static final int PAGE_COUNT = 4;
+
+    private List<String> requestedMarkers;
+    private PagedWindow<Integer> window;
+
+    @Before
+    public void setUp() {
+        requestedMarkers = new ArrayList<String>();
+        window = new PagedWindow<Integer>(continuationToken -> {
+            int page = continuationToken == null ? 0 : Integer.parseInt(continuationToken.getNextMarker());
+            requestedMarkers.add(continuationToken == null ? null : continuationToken.getNextMarker());
+
+            ResultContinuation next = null;
+            if (page + 1 < PAGE_COUNT) {
+                next = new ResultContinuation();
+                next.setNextMarker(String.valueOf(page + 1));
+            }
+
+            return new StoragePage<Integer>(Arrays.asList(page * 10, page * 10 + 1), next);
+        }, 2);
+    }
+
+    @Test
+    public void testLoadNextDropsFirstPageWhenFull() throws Exception {
+        window.reset();
+        assertEquals(Arrays.asList(0, 1), window.getItems());
+        assertFalse(window.hasPrevious());
+
+        assertEquals(0, window.loadNext());
+        assertEquals(Arrays.asList(0, 1, 10, 11), window.getItems());
+
+        assertEquals(2, window.loadNext());
+        assertEquals(Arrays.asList(10, 11, 20, 21), window.getItems());
+        assertTrue(window.hasPrevious());
+    }
+
+    @Test
+    public void testLoadPreviousReloadsDroppedPage() throws Exception {
+        window.reset();
+        window.loadNext();
+        window.loadNext();
+
+        assertEquals(2, window.loadPrevious());
+        assertEquals(Arrays.asList(0, 1, 10, 11), window.getItems());
+        assertFalse(window.hasPrevious());
+        assertEquals(Arrays.asList(null, "1", "2", null), requestedMarkers);
+    }
+
+    @Test
+    public void testHasNextStopsAtLastPage() throws Exception {
+        window.reset();
+        for (int i = 1; i < PAGE_COUNT; i++) {
+            assertTrue(window.hasNext());
+            window.loadNext();
+        }
+
+        assertFalse(window.hasNext());
+        assertEquals(0, window.loadNext());
+        assertEquals(Arrays.asList(20, 21, 30, 31), window.getItems());
+    }
+}
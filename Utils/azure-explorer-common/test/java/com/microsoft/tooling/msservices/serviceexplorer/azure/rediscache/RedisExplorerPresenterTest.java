@@ -20,10 +20,12 @@
 
 package com.microsoft.tooling.msservices.serviceexplorer.azure.rediscache;
 
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.Map.Entry;
 
@@ -41,6 +43,7 @@ import com.microsoft.azuretools.core.mvp.model.rediscache.RedisConnectionPools;
 import com.microsoft.azuretools.core.mvp.model.rediscache.RedisExplorerMvpModel;
 import com.microsoft.azuretools.core.mvp.ui.base.SchedulerProviderFactory;
 import com.microsoft.azuretools.core.mvp.ui.base.TestSchedulerProvider;
+import com.microsoft.azuretools.core.mvp.ui.rediscache.RedisKeyInfo;
 import com.microsoft.azuretools.core.mvp.ui.rediscache.RedisScanResult;
 import com.microsoft.azuretools.core.mvp.ui.rediscache.RedisValueData;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
@@ -117,7 +120,8 @@ public class RedisExplorerPresenterTest {
 
     @Test
     public void testOnDbSelect() throws Exception {
-        when(redisExplorerMvpModelMock.scanKeys(MOCK_SUBSCRIPTION, MOCK_ID, MOCK_DB, MOCK_CURSOR, MOCK_PATTERN)).thenReturn(stringScanResultMock);
+        when(redisExplorerMvpModelMock.scanKeysWithInfo(MOCK_SUBSCRIPTION, MOCK_ID, MOCK_DB, MOCK_CURSOR, MOCK_PATTERN,
+                RedisExplorerMvpModel.DEFAULT_KEY_PAGE_SIZE)).thenReturn(redisScanResultMock);
         redisExplorerPresenter.onDbSelect(MOCK_DB);
         PowerMockito.whenNew(RedisScanResult.class).withAnyArguments().thenReturn(redisScanResultMock);
 
@@ -127,7 +131,8 @@ public class RedisExplorerPresenterTest {
 
     @Test
     public void testOnKeyList() throws Exception {
-        when(redisExplorerMvpModelMock.scanKeys(MOCK_SUBSCRIPTION, MOCK_ID, MOCK_DB, MOCK_CURSOR, MOCK_PATTERN)).thenReturn(stringScanResultMock);
+        when(redisExplorerMvpModelMock.scanKeysWithInfo(MOCK_SUBSCRIPTION, MOCK_ID, MOCK_DB, MOCK_CURSOR, MOCK_PATTERN,
+                RedisExplorerMvpModel.DEFAULT_KEY_PAGE_SIZE)).thenReturn(redisScanResultMock);
         redisExplorerPresenter.onKeyList(MOCK_DB, MOCK_CURSOR, MOCK_PATTERN);
         PowerMockito.whenNew(RedisScanResult.class).withAnyArguments().thenReturn(redisScanResultMock);
 
@@ -185,6 +190,21 @@ public class RedisExplorerPresenterTest {
         verify(redisExplorerMvpViewMock).showContent(Mockito.any(RedisValueData.class));
     }
 
+    @Test
+    public void testOnkeySelectWithScannedKey() throws Exception {
+        when(redisScanResultMock.getKeyInfos()).thenReturn(Collections.singletonList(new RedisKeyInfo(MOCK_KEY, TYPE_STRING, -1, null)));
+        when(redisExplorerMvpModelMock.scanKeysWithInfo(MOCK_SUBSCRIPTION, MOCK_ID, MOCK_DB, MOCK_CURSOR, MOCK_PATTERN,
+                RedisExplorerMvpModel.DEFAULT_KEY_PAGE_SIZE)).thenReturn(redisScanResultMock);
+        when(redisExplorerMvpModelMock.getStringValue(MOCK_SUBSCRIPTION, MOCK_ID, MOCK_DB, MOCK_KEY)).thenReturn("");
+
+        redisExplorerPresenter.onKeyList(MOCK_DB, MOCK_CURSOR, MOCK_PATTERN);
+        testSchedulerProvider.triggerActions();
+        redisExplorerPresenter.onkeySelect(MOCK_DB, MOCK_KEY);
+        testSchedulerProvider.triggerActions();
+        verify(redisExplorerMvpViewMock).showContent(Mockito.any(RedisValueData.class));
+        verify(redisExplorerMvpModelMock, never()).getKeyType(MOCK_SUBSCRIPTION, MOCK_ID, MOCK_DB, MOCK_KEY);
+    }
+
     @Test
     public void testOnGetKeyAndValue() throws Exception {
         when(redisExplorerMvpModelMock.checkKeyExistance(MOCK_SUBSCRIPTION, MOCK_ID, MOCK_DB, MOCK_KEY)).thenReturn(true);
@@ -25,11 +25,14 @@ package com.microsoft.azuretools.core.mvp.model.rediscache;
 import com.microsoft.azure.management.redis.RedisCache;
 
 import java.io.IOException;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
+import java.util.Map;
 
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.Protocol;
 
 public class RedisConnectionPools {
 
@@ -38,9 +41,12 @@ public class RedisConnectionPools {
     private static final String GANNOT_GET_RESID = "Cannot get Redis Cache from Azure.";
 
     private LinkedHashMap<String, JedisPool> pools;
+    // The pools whose connections stay on the given database, so that SELECT is not resent on each borrow
+    private Map<String, Map<Integer, JedisPool>> dbPools;
 
     private RedisConnectionPools() {
         this.pools = new LinkedHashMap<String, JedisPool>(MAX_CONNECTIONS);
+        this.dbPools = new HashMap<String, Map<Integer, JedisPool>>();
     }
 
     private static final class RedisConnectionFactoryHolder {
@@ -71,6 +77,34 @@ public class RedisConnectionPools {
         return pools.get(id).getResource();
     }
 
+    /**
+     * Get Jedis connection which has selected the given database.
+     *
+     * @param sid
+     *            subscription id of Redis Cache
+     * @param id
+     *            resource id of Redis Cache
+     * @param db
+     *            index of Redis Cache database
+     * @return jedis connection on the database
+     * @throws Exception Error getting the Redis Cache
+     */
+    public synchronized Jedis getJedis(String sid, String id, int db) throws Exception {
+        if (pools.get(id) == null) {
+            if (pools.size() == MAX_CONNECTIONS) {
+                releasePool(pools.keySet().iterator().next());
+            }
+            connect(sid, id);
+        }
+        Map<Integer, JedisPool> poolsOfDb = dbPools.computeIfAbsent(id, key -> new HashMap<Integer, JedisPool>());
+        JedisPool pool = poolsOfDb.get(db);
+        if (pool == null) {
+            pool = createPool(sid, id, db);
+            poolsOfDb.put(db, pool);
+        }
+        return pool.getResource();
+    }
+
     /**
      * Destroy the jedisPool.
      *
@@ -85,9 +119,19 @@ public class RedisConnectionPools {
             }
             pools.remove(id);
         }
+        Map<Integer, JedisPool> poolsOfDb = dbPools.remove(id);
+        if (poolsOfDb != null) {
+            for (JedisPool jedisPool : poolsOfDb.values()) {
+                jedisPool.destroy();
+            }
+        }
     }
 
     private void connect(String sid, String id) throws Exception {
+        pools.put(id, createPool(sid, id, Protocol.DEFAULT_DATABASE));
+    }
+
+    private JedisPool createPool(String sid, String id, int db) throws Exception {
         RedisCache redisCache = AzureRedisMvpModel.getInstance().getRedisCache(sid, id);
 
         if (redisCache == null) {
@@ -100,7 +144,6 @@ public class RedisConnectionPools {
         int port = redisCache.sslPort();
 
         // create connection pool according to redis setting
-        JedisPool pool = new JedisPool(new JedisPoolConfig(), hostName, port, TIMEOUT, password, true);
-        pools.put(id, pool);
+        return new JedisPool(new JedisPoolConfig(), hostName, port, TIMEOUT, password, db, true);
     }
 }
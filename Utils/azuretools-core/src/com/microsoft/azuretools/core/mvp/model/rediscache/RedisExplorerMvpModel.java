@@ -22,15 +22,27 @@
 
 package com.microsoft.azuretools.core.mvp.model.rediscache;
 
+import static redis.clients.jedis.ScanParams.SCAN_POINTER_START;
+
+import com.microsoft.azuretools.core.mvp.ui.rediscache.RedisKeyInfo;
+import com.microsoft.azuretools.core.mvp.ui.rediscache.RedisScanResult;
+
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
 
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
 import redis.clients.jedis.ScanParams;
 import redis.clients.jedis.ScanResult;
 import redis.clients.jedis.Tuple;
+import redis.clients.jedis.exceptions.JedisDataException;
 import redis.clients.jedis.exceptions.JedisException;
+import redis.clients.util.SafeEncoder;
+import rx.Observable;
+import rx.observables.SyncOnSubscribe;
 
 public class RedisExplorerMvpModel {
 
@@ -39,6 +51,11 @@ public class RedisExplorerMvpModel {
     private static final int DEFAULT_KEY_COUNT = 50;
     private static final long DEFAULT_RANGE_START = 0;
     private static final int DEFAULT_VAL_COUNT = 500;
+    public static final int DEFAULT_KEY_PAGE_SIZE = 500;
+    // Jedis 2.x has no MEMORY command, send it through a script which can be pipelined
+    // Evaluated with the binary overload, which keeps the integer reply as Long instead of decoding it as a string
+    private static final byte[] MEMORY_USAGE_SCRIPT =
+            SafeEncoder.encode("return redis.call('MEMORY', 'USAGE', KEYS[1])");
 
     private RedisExplorerMvpModel() {
     }
@@ -117,6 +134,88 @@ public class RedisExplorerMvpModel {
         }
     }
 
+    /**
+     * Scan a page of keys with the type, TTL and memory usage of each key, which are pipelined in one round trip.
+     * The connection stays on the database, so no SELECT is sent.
+     * 
+     * @param sid
+     *            subscription id of Redis Cache
+     * @param id
+     *            resource id of Redis Cache
+     * @param db
+     *            index of Redis Cache database
+     * @param cursor
+     *            cursor for Redis Scan command
+     * @param pattern
+     *            pattern for Redis Scan Param
+     * @param count
+     *            count hint for Redis Scan Param
+     * @return Scan Result with the information of the keys
+     * @throws Exception
+     */
+    public RedisScanResult scanKeysWithInfo(String sid, String id, int db, String cursor, String pattern, int count)
+            throws Exception {
+        try (Jedis jedis = RedisConnectionPools.getInstance().getJedis(sid, id, db)) {
+            ScanResult<String> scanResult = jedis.scan(cursor, new ScanParams().match(pattern).count(count));
+            List<String> keys = scanResult.getResult();
+            List<RedisKeyInfo> keyInfos = new ArrayList<RedisKeyInfo>(keys.size());
+            if (keys.isEmpty()) {
+                return new RedisScanResult(scanResult.getStringCursor(), keyInfos);
+            }
+
+            List<Response<String>> types = new ArrayList<Response<String>>(keys.size());
+            List<Response<Long>> ttls = new ArrayList<Response<Long>>(keys.size());
+            List<Response<Object>> memoryUsages = new ArrayList<Response<Object>>(keys.size());
+            Pipeline pipeline = jedis.pipelined();
+            for (String key : keys) {
+                types.add(pipeline.type(key));
+                ttls.add(pipeline.ttl(key));
+                memoryUsages.add(pipeline.eval(MEMORY_USAGE_SCRIPT, 1, SafeEncoder.encode(key)));
+            }
+            pipeline.sync();
+
+            for (int i = 0; i < keys.size(); i++) {
+                keyInfos.add(new RedisKeyInfo(keys.get(i), types.get(i).get(), ttls.get(i).get(),
+                        getMemoryUsage(memoryUsages.get(i))));
+            }
+            return new RedisScanResult(scanResult.getStringCursor(), keyInfos);
+        }
+    }
+
+    /**
+     * Scan all the keys matching the pattern page by page. The next page is scanned only when requested, and
+     * scanning stops when unsubscribed.
+     * 
+     * @param sid
+     *            subscription id of Redis Cache
+     * @param id
+     *            resource id of Redis Cache
+     * @param db
+     *            index of Redis Cache database
+     * @param pattern
+     *            pattern for Redis Scan Param
+     * @param pageSize
+     *            count hint for each Redis Scan command
+     * @return the pages of Scan Result with the information of the keys
+     */
+    public Observable<RedisScanResult> scanKeyPages(String sid, String id, int db, String pattern, int pageSize) {
+        return Observable.create(SyncOnSubscribe.<String, RedisScanResult>createStateful(
+            () -> SCAN_POINTER_START,
+            (cursor, observer) -> {
+                try {
+                    RedisScanResult page = scanKeysWithInfo(sid, id, db, cursor, pattern, pageSize);
+                    observer.onNext(page);
+                    if (SCAN_POINTER_START.equals(page.getNextCursor())) {
+                        observer.onCompleted();
+                    }
+                    return page.getNextCursor();
+                } catch (Exception e) {
+                    observer.onError(e);
+                    return cursor;
+                }
+            }));
+    }
+
     /**
      * Get the type of the given key.
      * 
@@ -252,6 +351,16 @@ public class RedisExplorerMvpModel {
         }
     }
     
+    private Long getMemoryUsage(Response<Object> memoryUsage) {
+        try {
+            Object usage = memoryUsage.get();
+            return usage instanceof Long ? (Long) usage : null;
+        } catch (JedisDataException e) {
+            // MEMORY USAGE is not supported before Redis 4.0
+            return null;
+        }
+    }
+
     private boolean canConnect(Jedis jedis, int index) {
         try {
             jedis.select(index);
@@ -34,7 +34,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 import org.apache.commons.io.IOUtils;
@@ -55,6 +55,8 @@ import com.microsoft.azuretools.authmanage.AuthMethodManager;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.core.mvp.model.AzureMvpModel;
 import com.microsoft.azuretools.core.mvp.model.ResourceEx;
+import com.microsoft.azuretools.utils.AzureResourceSnapshotStore;
+import com.microsoft.azuretools.utils.ResourceSnapshot;
 import com.microsoft.azuretools.utils.WebAppUtils;
 import rx.Observable;
 import rx.schedulers.Schedulers;
@@ -62,10 +64,12 @@ import rx.schedulers.Schedulers;
 public class AzureWebAppMvpModel {
 
     public static final String CANNOT_GET_WEB_APP_WITH_ID = "Cannot get Web App with ID: ";
-    private final Map<String, List<ResourceEx<WebApp>>> subscriptionIdToWebApps;
+    public static final String SNAPSHOT_DEFAULT_HOST_NAME = "defaultHostName";
+    public static final String SNAPSHOT_OPERATING_SYSTEM = "operatingSystem";
+    private final WebAppListCache webAppListCache;
 
     private AzureWebAppMvpModel() {
-        subscriptionIdToWebApps = new ConcurrentHashMap<>();
+        webAppListCache = new WebAppListCache();
     }
 
     public static AzureWebAppMvpModel getInstance() {
@@ -142,10 +146,12 @@ public class AzureWebAppMvpModel {
             withCreate = withExistingWindowsServicePlan(azure, model);
         }
 
-        return withCreate
+        final WebApp app = withCreate
                 .withJavaVersion(model.getJdkVersion())
                 .withWebContainer(WebContainer.fromString(model.getWebContainer()))
                 .create();
+        webAppListCache.put(model.getSubscriptionId(), app);
+        return app;
     }
 
     /**
@@ -161,7 +167,9 @@ public class AzureWebAppMvpModel {
             withCreate = withExistingLinuxServicePlan(azure, model);
         }
 
-        return withCreate.withBuiltInImage(model.getLinuxRuntime()).create();
+        final WebApp app = withCreate.withBuiltInImage(model.getLinuxRuntime()).create();
+        webAppListCache.put(model.getSubscriptionId(), app);
+        return app;
     }
 
     private AppServicePlan.DefinitionStages.WithCreate prepareWithCreate(
@@ -257,7 +265,7 @@ public class AzureWebAppMvpModel {
 
     public void deleteWebApp(String sid, String appId) throws IOException {
         AuthMethodManager.getInstance().getAzureClient(sid).webApps().deleteById(appId);
-        subscriptionIdToWebApps.remove(sid);
+        webAppListCache.remove(sid, appId);
     }
 
     /**
@@ -330,8 +338,8 @@ public class AzureWebAppMvpModel {
                         .withStartUpCommand(pr.getStartupFile()).create();
             }
         }
+        webAppListCache.put(model.getSubscriptionId(), app);
         return app;
-        // TODO: update cache
     }
 
     /**
@@ -356,6 +364,7 @@ public class AzureWebAppMvpModel {
         // status-free restart.
         stopWebApp(sid, webAppId);
         startWebApp(sid, webAppId);
+        webAppListCache.put(sid, app);
         return app;
     }
 
@@ -377,7 +386,7 @@ public class AzureWebAppMvpModel {
         for (String key : toRemove) {
             update = update.withoutAppSetting(key);
         }
-        update.apply();
+        webAppListCache.put(sid, update.apply());
     }
 
     /**
@@ -401,15 +410,21 @@ public class AzureWebAppMvpModel {
     }
 
     public void restartWebApp(String sid, String appid) throws IOException {
-        AuthMethodManager.getInstance().getAzureClient(sid).webApps().getById(appid).restart();
+        final WebApp app = AuthMethodManager.getInstance().getAzureClient(sid).webApps().getById(appid);
+        app.restart();
+        webAppListCache.put(sid, app);
     }
 
     public void startWebApp(String sid, String appid) throws IOException {
-        AuthMethodManager.getInstance().getAzureClient(sid).webApps().getById(appid).start();
+        final WebApp app = AuthMethodManager.getInstance().getAzureClient(sid).webApps().getById(appid);
+        app.start();
+        webAppListCache.put(sid, app);
     }
 
     public void stopWebApp(String sid, String appid) throws IOException {
-        AuthMethodManager.getInstance().getAzureClient(sid).webApps().getById(appid).stop();
+        final WebApp app = AuthMethodManager.getInstance().getAzureClient(sid).webApps().getById(appid);
+        app.stop();
+        webAppListCache.put(sid, app);
     }
 
     public void startDeploymentSlot(final String subscriptionId, final String appId,
@@ -527,9 +542,29 @@ public class AzureWebAppMvpModel {
                 }
                 subscriber.onCompleted();
             }).subscribeOn(Schedulers.io()), subs.size()).subscribeOn(Schedulers.io()).toBlocking().subscribe();
+        AzureResourceSnapshotStore.getInstance().update(AzureResourceSnapshotStore.KIND_WEB_APPS,
+            webApps.stream().map(AzureWebAppMvpModel::toSnapshot).collect(Collectors.toList()));
         return webApps;
     }
 
+    /**
+     * List the Web Apps in the local snapshot taken by the last listing, to render before listing from server.
+     *
+     * @return list of Web App snapshots, empty if there is no snapshot
+     */
+    @NotNull
+    public List<ResourceSnapshot> listAllWebAppSnapshots() {
+        return AzureResourceSnapshotStore.getInstance().get(AzureResourceSnapshotStore.KIND_WEB_APPS);
+    }
+
+    private static ResourceSnapshot toSnapshot(@NotNull final ResourceEx<WebApp> resourceEx) {
+        final WebApp app = resourceEx.getResource();
+        return new ResourceSnapshot(app.id(), app.name(), resourceEx.getSubscriptionId(), app.resourceGroupName(),
+            app.regionName(), app.state())
+            .withProperty(SNAPSHOT_DEFAULT_HOST_NAME, app.defaultHostName())
+            .withProperty(SNAPSHOT_OPERATING_SYSTEM, app.operatingSystem().toString());
+    }
+
     /**
      * List web apps on linux by subscription id.
      */
@@ -555,22 +590,18 @@ public class AzureWebAppMvpModel {
      */
     @NotNull
     public List<ResourceEx<WebApp>> listWebApps(final String subscriptionId, final boolean force) {
-        if (!force && subscriptionIdToWebApps.get(subscriptionId) != null) {
-            return subscriptionIdToWebApps.get(subscriptionId);
-        }
-
-        List<ResourceEx<WebApp>> webApps = new ArrayList<>();
         try {
-            final Azure azure = AuthMethodManager.getInstance().getAzureClient(subscriptionId);
-            webApps = azure.webApps().list()
-                .stream()
-                .map(app -> new ResourceEx<WebApp>(app, subscriptionId))
-                .collect(Collectors.toList());
-            subscriptionIdToWebApps.put(subscriptionId, webApps);
+            return webAppListCache.get(subscriptionId, force, sid -> {
+                final Azure azure = AuthMethodManager.getInstance().getAzureClient(sid);
+                return azure.webApps().list()
+                    .stream()
+                    .map(app -> new ResourceEx<WebApp>(app, sid))
+                    .collect(Collectors.toList());
+            });
         } catch (IOException e) {
             e.printStackTrace();
+            return new ArrayList<>();
         }
-        return webApps;
     }
 
     /**
@@ -665,7 +696,26 @@ public class AzureWebAppMvpModel {
     }
 
     public void clearWebAppsCache() {
-        subscriptionIdToWebApps.clear();
+        webAppListCache.clear();
+    }
+
+    /**
+     * Set how long the Web App list of a subscription is cached before listing again.
+     */
+    public void setWebAppsCacheTtl(final long ttl, @NotNull final TimeUnit unit) {
+        webAppListCache.setTtl(ttl, unit);
+    }
+
+    public long getWebAppsCacheHitCount() {
+        return webAppListCache.getHitCount();
+    }
+
+    public long getWebAppsCacheMissCount() {
+        return webAppListCache.getMissCount();
+    }
+
+    public double getWebAppsCacheHitRate() {
+        return webAppListCache.getHitRate();
     }
 
     /**
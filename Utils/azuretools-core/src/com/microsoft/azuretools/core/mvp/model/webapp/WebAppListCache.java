@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ *
+ * All rights reserved.
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.microsoft.azuretools.core.mvp.model.webapp;
+
+import com.microsoft.azure.management.appservice.WebApp;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.core.mvp.model.ResourceEx;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The per-subscription cache of Web App lists with TTL. Concurrent loads of the same subscription share one
+ * list request, and the create/update/delete operations write through the cached lists.
+ */
+class WebAppListCache {
+    static final long DEFAULT_TTL_MS = TimeUnit.MINUTES.toMillis(5);
+
+    interface Loader {
+        List<ResourceEx<WebApp>> load(String subscriptionId) throws IOException;
+    }
+
+    private static class Entry {
+        private final List<ResourceEx<WebApp>> webApps;
+        private final long loadedAt;
+
+        Entry(List<ResourceEx<WebApp>> webApps, long loadedAt) {
+            this.webApps = Collections.unmodifiableList(webApps);
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<List<ResourceEx<WebApp>>>> loadings = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private volatile long ttlMs = DEFAULT_TTL_MS;
+
+    /**
+     * Get the Web Apps of the subscription, loading them if not cached, expired or forced.
+     */
+    @NotNull
+    List<ResourceEx<WebApp>> get(@NotNull String subscriptionId, boolean force, @NotNull Loader loader)
+            throws IOException {
+        final Entry entry = entries.get(subscriptionId);
+        if (!force && entry != null && System.currentTimeMillis() - entry.loadedAt < ttlMs) {
+            hitCount.incrementAndGet();
+            return entry.webApps;
+        }
+
+        missCount.incrementAndGet();
+
+        // Single flight, join the loading of the same subscription in progress, which is fresh enough even forced
+        final CompletableFuture<List<ResourceEx<WebApp>>> loading = new CompletableFuture<>();
+        final CompletableFuture<List<ResourceEx<WebApp>>> inProgress = loadings.putIfAbsent(subscriptionId, loading);
+        if (inProgress != null) {
+            return join(inProgress);
+        }
+
+        try {
+            // The loading which just finished may have cached the list after the check above
+            final Entry cached = entries.get(subscriptionId);
+            if (!force && cached != null && System.currentTimeMillis() - cached.loadedAt < ttlMs) {
+                loading.complete(cached.webApps);
+                return cached.webApps;
+            }
+
+            final long loadingGeneration = generation.get();
+            final List<ResourceEx<WebApp>> webApps = loader.load(subscriptionId);
+            final Entry loaded = new Entry(webApps, System.currentTimeMillis());
+            // Don't cache the list loaded before the cache is cleared
+            if (loadingGeneration == generation.get()) {
+                entries.put(subscriptionId, loaded);
+            }
+            loading.complete(loaded.webApps);
+            return loaded.webApps;
+        } catch (IOException | RuntimeException e) {
+            loading.completeExceptionally(e);
+            throw e;
+        } finally {
+            loadings.remove(subscriptionId, loading);
+        }
+    }
+
+    /**
+     * Add or replace the Web App in the cached list of the subscription, if the list is cached.
+     */
+    void put(@NotNull String subscriptionId, WebApp webApp) {
+        if (webApp == null) {
+            return;
+        }
+        entries.computeIfPresent(subscriptionId, (sid, entry) -> {
+            final List<ResourceEx<WebApp>> webApps = new ArrayList<>(entry.webApps.size() + 1);
+            for (final ResourceEx<WebApp> resourceEx : entry.webApps) {
+                if (!Objects.equals(webApp.id(), resourceEx.getResource().id())) {
+                    webApps.add(resourceEx);
+                }
+            }
+            webApps.add(new ResourceEx<>(webApp, subscriptionId));
+            return new Entry(webApps, entry.loadedAt);
+        });
+    }
+
+    /**
+     * Remove the Web App from the cached list of the subscription, if the list is cached.
+     */
+    void remove(@NotNull String subscriptionId, @NotNull String webAppId) {
+        entries.computeIfPresent(subscriptionId, (sid, entry) -> {
+            final List<ResourceEx<WebApp>> webApps = new ArrayList<>(entry.webApps.size());
+            for (final ResourceEx<WebApp> resourceEx : entry.webApps) {
+                if (!webAppId.equals(resourceEx.getResource().id())) {
+                    webApps.add(resourceEx);
+                }
+            }
+            return new Entry(webApps, entry.loadedAt);
+        });
+    }
+
+    void invalidate(@NotNull String subscriptionId) {
+        entries.remove(subscriptionId);
+    }
+
+    void clear() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    void setTtl(long ttl, @NotNull TimeUnit unit) {
+        this.ttlMs = unit.toMillis(ttl);
+    }
+
+    long getHitCount() {
+        return hitCount.get();
+    }
+
+    long getMissCount() {
+        return missCount.get();
+    }
+
+    double getHitRate() {
+        final long hits = hitCount.get();
+        final long total = hits + missCount.get();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    private static List<ResourceEx<WebApp>> join(@NotNull CompletableFuture<List<ResourceEx<WebApp>>> loading)
+            throws IOException {
+        try {
+            return loading.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for listing Web Apps", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+}
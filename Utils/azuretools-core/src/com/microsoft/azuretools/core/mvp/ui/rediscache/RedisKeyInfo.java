@@ -0,0 +1,66 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.microsoft.azuretools.core.mvp.ui.rediscache;
+
+public class RedisKeyInfo {
+
+    private String key;
+    private String type;
+    private long ttl;
+    private Long memoryUsage;
+
+    /**
+     * Constructor for RedisKeyInfo class.
+     * 
+     * @param key
+     *            name of the key
+     * @param type
+     *            type of the key
+     * @param ttl
+     *            remaining time to live of the key in seconds, -1 if the key has no expiry
+     * @param memoryUsage
+     *            bytes used by the key and its value, null if the server cannot report it
+     */
+    public RedisKeyInfo(String key, String type, long ttl, Long memoryUsage) {
+        this.key = key;
+        this.type = type;
+        this.ttl = ttl;
+        this.memoryUsage = memoryUsage;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    public Long getMemoryUsage() {
+        return memoryUsage;
+    }
+}
@@ -22,6 +22,8 @@
 
 package com.microsoft.azuretools.core.mvp.ui.rediscache;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import redis.clients.jedis.ScanResult;
@@ -30,11 +32,30 @@ public class RedisScanResult {
     
     private List<String> keys;
     private String nextCursor;
+    private List<RedisKeyInfo> keyInfos;
     
     
     public RedisScanResult(ScanResult<String> result) {
         this.keys = result.getResult();
         this.nextCursor = result.getStringCursor();
+        this.keyInfos = Collections.emptyList();
+    }
+
+    /**
+     * Constructor for the scan result with the type, TTL and memory usage of each key.
+     * 
+     * @param nextCursor
+     *            cursor for the next Redis Scan command
+     * @param keyInfos
+     *            information of the scanned keys
+     */
+    public RedisScanResult(String nextCursor, List<RedisKeyInfo> keyInfos) {
+        this.keys = new ArrayList<String>(keyInfos.size());
+        for (RedisKeyInfo keyInfo : keyInfos) {
+            this.keys.add(keyInfo.getKey());
+        }
+        this.nextCursor = nextCursor;
+        this.keyInfos = keyInfos;
     }
 
     public String getNextCursor() {
@@ -44,4 +65,8 @@ public class RedisScanResult {
     public List<String> getKeys() {
         return keys;
     }
+
+    public List<RedisKeyInfo> getKeyInfos() {
+        return keyInfos;
+    }
 }
@@ -0,0 +1,501 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ *   <p/>
+ *  All rights reserved.
+ *   <p/>
+ *  MIT License
+ *   <p/>
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ *  to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  <p/>
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *   <p/>
+ *  THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ *  THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ *  TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package com.microsoft.azuretools.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.annotations.SerializedName;
+import com.microsoft.azure.management.appservice.PublishingProfile;
+import com.microsoft.azure.management.appservice.WebAppBase;
+import com.microsoft.azuretools.authmanage.CommonSettings;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import okhttp3.Credentials;
+import okhttp3.HttpUrl;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Deploy a folder to the wwwroot of App Service incrementally. The hashes of the deployed files are kept in a local
+ * manifest with the remote sizes and modified times listed from the Kudu VFS API after the deployment. The next
+ * deployment uploads only the changed files in a zip extracted by Kudu, and deletes the removed ones. It falls back
+ * to the full deployment without a manifest, or when too many files differ.
+ */
+public class AppServiceDeltaDeployer {
+    public static final double DEFAULT_FULL_DEPLOY_THRESHOLD = 0.5;
+    public static final int DEFAULT_MAX_TRY = 3;
+
+    private static final String MANIFEST_DIR = "DeployManifests";
+    private static final String VFS_ROOT = "api/vfs/site/wwwroot";
+    private static final String ZIP_ROOT = "api/zip/site/wwwroot";
+    private static final String DIRECTORY_MIME = "inode/directory";
+    private static final String SCM_HOST_LABEL = ".scm.";
+    private static final long RETRY_BASE_DELAY_MS = 1000;
+    private static final long READ_TIMEOUT_MS = TimeUnit.MINUTES.toMillis(3);
+    private static final MediaType ZIP_MEDIA_TYPE = MediaType.parse("application/zip");
+    private static final Logger LOGGER = Logger.getLogger(AppServiceDeltaDeployer.class.getName());
+
+    public interface FullDeployment {
+        void deploy() throws Exception;
+    }
+
+    public enum Result {
+        FULL,
+        DELTA,
+        UNCHANGED
+    }
+
+    private final String kuduBaseUrl;
+    private final String credential;
+    private final File manifestFile;
+    private final OkHttpClient client;
+    private final Gson gson = new Gson();
+    private double fullDeployThreshold = DEFAULT_FULL_DEPLOY_THRESHOLD;
+    private int maxTry = DEFAULT_MAX_TRY;
+
+    public AppServiceDeltaDeployer(@NotNull String kuduBaseUrl, @NotNull String username, @NotNull String password,
+                                   @Nullable File manifestFile) {
+        this.kuduBaseUrl = kuduBaseUrl;
+        this.credential = Credentials.basic(username, password);
+        this.manifestFile = manifestFile;
+        this.client = new OkHttpClient.Builder().readTimeout(READ_TIMEOUT_MS, TimeUnit.MILLISECONDS).build();
+    }
+
+    /**
+     * Create the deployer to the Kudu site of the web app or deployment slot, with the manifest in the settings folder.
+     */
+    public static AppServiceDeltaDeployer forApp(@NotNull WebAppBase app) {
+        String scmHost = null;
+        if (app.enabledHostNames() != null) {
+            scmHost = app.enabledHostNames().stream()
+                    .filter(host -> host.contains(SCM_HOST_LABEL))
+                    .findFirst()
+                    .orElse(null);
+        }
+        if (scmHost == null) {
+            String defaultHost = app.defaultHostName().toLowerCase();
+            int firstDot = defaultHost.indexOf('.');
+            scmHost = defaultHost.substring(0, firstDot) + ".scm" + defaultHost.substring(firstDot);
+        }
+
+        PublishingProfile profile = app.getPublishingProfile();
+        return new AppServiceDeltaDeployer("https://" + scmHost, profile.gitUsername(), profile.gitPassword(),
+                getManifestFile(app.id()));
+    }
+
+    public AppServiceDeltaDeployer withFullDeployThreshold(double fullDeployThreshold) {
+        this.fullDeployThreshold = fullDeployThreshold;
+        return this;
+    }
+
+    public AppServiceDeltaDeployer withMaxTry(int maxTry) {
+        this.maxTry = Math.max(1, maxTry);
+        return this;
+    }
+
+    /**
+     * Deploy the content of the folder to wwwroot, uploading only the files changed since the last deployment.
+     *
+     * @param contentDir the folder to deploy, whose content is the wwwroot
+     * @param fullDeployment how to deploy all the content when the delta deployment isn't applicable
+     * @param indicator the progress indicator
+     * @return how the content is deployed
+     */
+    public Result deploy(@NotNull File contentDir, @NotNull FullDeployment fullDeployment,
+                         @Nullable IProgressIndicator indicator) throws Exception {
+        Map<String, String> localHashes = hashFiles(contentDir);
+        Manifest manifest = loadManifest();
+        DeltaPlan plan = null;
+
+        if (manifest != null) {
+            setText(indicator, "Comparing with the files deployed...");
+            try {
+                plan = DeltaPlan.of(localHashes, manifest, listRemoteFiles(), fullDeployThreshold);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Failed to list the deployed files, deploy all the files", e);
+            }
+        }
+
+        Result result;
+        if (plan == null) {
+            // Drop the manifest first, it's out of date if the full deployment fails in the middle
+            deleteManifest();
+            fullDeployment.deploy();
+            result = Result.FULL;
+        } else if (plan.isEmpty()) {
+            setText(indicator, "No file changed since the last deployment.");
+            return Result.UNCHANGED;
+        } else {
+            deleteManifest();
+            setText(indicator, String.format("Deploying %d changed and %d deleted files...",
+                    plan.getChanged().size(), plan.getDeleted().size()));
+            deployDelta(contentDir, plan);
+            result = Result.DELTA;
+        }
+
+        try {
+            saveManifest(new Manifest(localHashes, listRemoteFiles()));
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to record the deployed files, the next deployment will be full", e);
+        }
+
+        return result;
+    }
+
+    private void deployDelta(@NotNull File contentDir, @NotNull DeltaPlan plan) throws Exception {
+        if (!plan.getChanged().isEmpty()) {
+            File zip = Files.createTempFile("azuretoolkitdelta", ".zip").toFile();
+            try {
+                zipFiles(contentDir, plan.getChanged(), zip);
+                withRetry(() -> execute(new Request.Builder()
+                        .url(url(ZIP_ROOT, ""))
+                        .put(RequestBody.create(ZIP_MEDIA_TYPE, zip))
+                        .build()).close());
+            } finally {
+                if (!zip.delete()) {
+                    zip.deleteOnExit();
+                }
+            }
+        }
+
+        for (String path : plan.getDeleted()) {
+            withRetry(() -> execute(new Request.Builder()
+                    .url(url(VFS_ROOT, path))
+                    .header("If-Match", "*")
+                    .delete()
+                    .build()).close());
+        }
+    }
+
+    // List the files under wwwroot recursively, keyed by the relative path
+    @NotNull
+    private Map<String, RemoteFile> listRemoteFiles() throws IOException {
+        Map<String, RemoteFile> files = new HashMap<>();
+        listRemoteFiles("", files);
+        return files;
+    }
+
+    private void listRemoteFiles(@NotNull String dir, @NotNull Map<String, RemoteFile> files) throws IOException {
+        Request request = new Request.Builder().url(directoryUrl(dir)).get().build();
+        try (Response response = client.newCall(authorize(request)).execute()) {
+            if (response.code() == 404) {
+                return;
+            }
+            ResponseBody body = response.body();
+            if (!response.isSuccessful() || body == null) {
+                throw new IOException(String.format("Failed to list %s, response code: %d", dir, response.code()));
+            }
+
+            VfsEntry[] entries;
+            try {
+                entries = gson.fromJson(body.charStream(), VfsEntry[].class);
+            } catch (JsonParseException e) {
+                throw new IOException("Unknown file listing of " + dir, e);
+            }
+
+            for (VfsEntry entry : entries == null ? new VfsEntry[0] : entries) {
+                String path = dir.isEmpty() ? entry.name : dir + "/" + entry.name;
+                if (DIRECTORY_MIME.equals(entry.mime)) {
+                    listRemoteFiles(path, files);
+                } else {
+                    files.put(path, new RemoteFile(entry.size, entry.mtime));
+                }
+            }
+        }
+    }
+
+    @NotNull
+    private Response execute(@NotNull Request request) throws IOException {
+        Response response = client.newCall(authorize(request)).execute();
+        if (!response.isSuccessful()) {
+            response.close();
+            throw new IOException(String.format("%s %s failed, response code: %d",
+                    request.method(), request.url(), response.code()));
+        }
+
+        return response;
+    }
+
+    private interface IORunnable {
+        void run() throws IOException;
+    }
+
+    // Retry with the exponential back-off, only the delta is resent
+    private void withRetry(@NotNull IORunnable action) throws Exception {
+        for (int tried = 1; ; tried++) {
+            try {
+                action.run();
+                return;
+            } catch (IOException e) {
+                if (tried >= maxTry) {
+                    throw e;
+                }
+                Thread.sleep(RETRY_BASE_DELAY_MS << (tried - 1));
+            }
+        }
+    }
+
+    private Request authorize(@NotNull Request request) {
+        return request.newBuilder().header("Authorization", credential).build();
+    }
+
+    @NotNull
+    private HttpUrl url(@NotNull String root, @NotNull String path) {
+        HttpUrl base = HttpUrl.parse(kuduBaseUrl);
+        if (base == null) {
+            throw new IllegalArgumentException("Invalid Kudu URL: " + kuduBaseUrl);
+        }
+
+        return base.newBuilder().addPathSegments(root).addPathSegments(path).build();
+    }
+
+    // The VFS URL of the directory relative to wwwroot, with exactly one trailing slash to list its entries
+    @NotNull
+    HttpUrl directoryUrl(@NotNull String dir) {
+        // An empty segment is added as the trailing slash, so the root directory mustn't add a "/" segment again
+        return url(VFS_ROOT, dir.isEmpty() ? "" : dir + "/");
+    }
+
+    // Hash the files in the folder recursively, keyed by the relative path with '/' separators
+    @NotNull
+    static Map<String, String> hashFiles(@NotNull File contentDir) throws IOException {
+        Map<String, String> hashes = new HashMap<>();
+        hashFiles(contentDir, "", hashes);
+        return hashes;
+    }
+
+    private static void hashFiles(@NotNull File dir, @NotNull String prefix, @NotNull Map<String, String> hashes)
+            throws IOException {
+        File[] children = dir.listFiles();
+        if (children == null) {
+            return;
+        }
+
+        for (File child : children) {
+            String path = prefix + child.getName();
+            if (child.isDirectory()) {
+                hashFiles(child, path + "/", hashes);
+            } else {
+                try (InputStream in = new FileInputStream(child)) {
+                    hashes.put(path, DigestUtils.sha256Hex(in));
+                }
+            }
+        }
+    }
+
+    private static void zipFiles(@NotNull File contentDir, @NotNull Collection<String> paths, @NotNull File zip)
+            throws IOException {
+        try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(zip))) {
+            for (String path : paths) {
+                out.putNextEntry(new ZipEntry(path));
+                Files.copy(new File(contentDir, path).toPath(), out);
+                out.closeEntry();
+            }
+        }
+    }
+
+    @Nullable
+    private static File getManifestFile(@NotNull String appId) {
+        String baseDir = CommonSettings.getSettingsBaseDir();
+        if (baseDir == null) {
+            return null;
+        }
+
+        return new File(new File(baseDir, MANIFEST_DIR), DigestUtils.sha256Hex(appId.toLowerCase()) + ".json");
+    }
+
+    @Nullable
+    private Manifest loadManifest() {
+        if (manifestFile == null || !manifestFile.isFile()) {
+            return null;
+        }
+
+        try (Reader reader = new InputStreamReader(new FileInputStream(manifestFile), StandardCharsets.UTF_8)) {
+            Manifest manifest = gson.fromJson(reader, Manifest.class);
+            return manifest == null || manifest.localHashes == null || manifest.remoteFiles == null ? null : manifest;
+        } catch (IOException | JsonParseException e) {
+            LOGGER.log(Level.WARNING, "Failed to load the deployment manifest " + manifestFile, e);
+            return null;
+        }
+    }
+
+    private void saveManifest(@NotNull Manifest manifest) throws IOException {
+        if (manifestFile == null) {
+            return;
+        }
+
+        Files.createDirectories(manifestFile.getParentFile().toPath());
+        File tmpFile = new File(manifestFile.getPath() + ".tmp");
+        try (Writer writer = new OutputStreamWriter(new FileOutputStream(tmpFile), StandardCharsets.UTF_8)) {
+            gson.toJson(manifest, writer);
+        }
+        Files.move(tmpFile.toPath(), manifestFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void deleteManifest() {
+        if (manifestFile != null && manifestFile.exists() && !manifestFile.delete()) {
+            LOGGER.warning("Failed to delete the deployment manifest " + manifestFile);
+        }
+    }
+
+    private static void setText(@Nullable IProgressIndicator indicator, @NotNull String text) {
+        if (indicator != null) {
+            indicator.setText(text);
+        }
+    }
+
+    /**
+     * The files to upload and to delete for the delta deployment.
+     */
+    static class DeltaPlan {
+        private final Set<String> changed;
+        private final Set<String> deleted;
+
+        DeltaPlan(@NotNull Set<String> changed, @NotNull Set<String> deleted) {
+            this.changed = changed;
+            this.deleted = deleted;
+        }
+
+        /**
+         * Plan the delta deployment, a file is changed if its hash differs from the manifest, or it's changed
+         * remotely since the last deployment.
+         *
+         * @return the plan, or null if the full deployment is preferred for too many files differ
+         */
+        @Nullable
+        static DeltaPlan of(@NotNull Map<String, String> localHashes, @NotNull Manifest manifest,
+                            @NotNull Map<String, RemoteFile> remoteFiles, double fullDeployThreshold) {
+            Set<String> changed = new TreeSet<>();
+            localHashes.forEach((path, hash) -> {
+                RemoteFile remote = remoteFiles.get(path);
+                if (!hash.equals(manifest.localHashes.get(path)) || remote == null ||
+                        !remote.equals(manifest.remoteFiles.get(path))) {
+                    changed.add(path);
+                }
+            });
+
+            Set<String> deleted = new TreeSet<>();
+            manifest.localHashes.keySet().forEach(path -> {
+                if (!localHashes.containsKey(path) && remoteFiles.containsKey(path)) {
+                    deleted.add(path);
+                }
+            });
+
+            if (changed.size() + deleted.size() > fullDeployThreshold * Math.max(1, localHashes.size())) {
+                return null;
+            }
+
+            return new DeltaPlan(changed, deleted);
+        }
+
+        Set<String> getChanged() {
+            return changed;
+        }
+
+        Set<String> getDeleted() {
+            return deleted;
+        }
+
+        boolean isEmpty() {
+            return changed.isEmpty() && deleted.isEmpty();
+        }
+    }
+
+    static class Manifest {
+        private Map<String, String> localHashes;
+        private Map<String, RemoteFile> remoteFiles;
+
+        Manifest(Map<String, String> localHashes, Map<String, RemoteFile> remoteFiles) {
+            this.localHashes = localHashes;
+            this.remoteFiles = remoteFiles;
+        }
+    }
+
+    static class RemoteFile {
+        private long size;
+        private String mtime;
+
+        RemoteFile(long size, String mtime) {
+            this.size = size;
+            this.mtime = mtime;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof RemoteFile)) {
+                return false;
+            }
+            RemoteFile that = (RemoteFile) o;
+            return size == that.size && Objects.equals(mtime, that.mtime);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(size, mtime);
+        }
+    }
+
+    // The file entry of Kudu VFS API listing
+    private static class VfsEntry {
+        @SerializedName("name")
+        private String name;
+        @SerializedName("size")
+        private long size;
+        @SerializedName("mtime")
+        private String mtime;
+        @SerializedName("mime")
+        private String mime;
+    }
+}
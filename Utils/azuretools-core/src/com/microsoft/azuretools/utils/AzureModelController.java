@@ -28,6 +28,7 @@ import com.microsoft.azure.management.appservice.WebApp;
 import com.microsoft.azure.management.resources.Location;
 import com.microsoft.azure.management.resources.ResourceGroup;
 import com.microsoft.azure.management.resources.Subscription;
+import com.microsoft.azure.management.resources.fluentcore.arm.ResourceId;
 import com.microsoft.azuretools.adauth.AuthException;
 import com.microsoft.azuretools.authmanage.AuthMethodManager;
 import com.microsoft.azuretools.authmanage.CommonSettings;
@@ -36,6 +37,7 @@ import com.microsoft.azuretools.authmanage.SubscriptionManager;
 import com.microsoft.azuretools.authmanage.models.SubscriptionDetail;
 import com.microsoft.azuretools.sdkmanage.AzureManager;
 import com.microsoft.azuretools.utils.WebAppUtils.WebAppDetails;
+import com.microsoft.rest.RestException;
 
 import java.io.IOException;
 import java.util.Collections;
@@ -45,6 +47,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -61,6 +64,11 @@ import rx.schedulers.Schedulers;
  */
 public class AzureModelController {
     private final static Logger LOGGER = Logger.getLogger(AzureModelController.class.getName());
+    // Concurrent ARM requests when loading subscriptions and resource groups, to avoid being throttled
+    public static final int DEFAULT_MAX_CONCURRENCY = 8;
+    private static final int MAX_THROTTLED_RETRIES = 5;
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static volatile int maxConcurrency = DEFAULT_MAX_CONCURRENCY;
     private static ISubscriptionSelectionListener subscriptionSelectionListener = new ISubscriptionSelectionListener() {
         @Override
         public void update(boolean isRefresh) {
@@ -101,7 +109,7 @@ public class AzureModelController {
         AzureUIRefreshCore.removeAll();
     }
 
-    private static synchronized void subscriptionSelectionChanged(IProgressIndicator progressIndicator) throws IOException, AuthException {
+    private static synchronized void subscriptionSelectionChanged(IProgressIndicator progressIndicator) throws IOException, CanceledByUserException, AuthException {
         System.out.println("AzureModelController.subscriptionSelectionChanged: starting");
         AzureManager azureManager = AuthMethodManager.getInstance().getAzureManager();
         // not signed in
@@ -134,38 +142,13 @@ public class AzureModelController {
             return;
         }
 
+        // Only the newly selected subscriptions are loaded, the loaded ones just update the selection
+        List<SubscriptionDetail> sdToLoad = new LinkedList<>();
         for (SubscriptionDetail sd : sdl) {
             if (!srgMap.containsKey(sd)) {
-                if (!sd.isSelected()) continue;
-
-                if(progressIndicator != null && progressIndicator.isCanceled()) {
-                    progressIndicator.setText("Cancelling...");
-                    clearAll();
-                    return;
-                    // FIXME: throw exception?
+                if (sd.isSelected()) {
+                    sdToLoad.add(sd);
                 }
-
-                Azure azure = azureManager.getAzure(sd.getSubscriptionId());
-                // subscription locations
-                List<Subscription> sl = azureManager.getSubscriptions();
-                System.out.println("Updating subscription locations");
-                Subscription subscription = sidToSubscriptionMap.get(sd.getSubscriptionId());
-                if(progressIndicator != null) progressIndicator.setText(String.format("Updating subscription '%s' locations...", subscription.displayName()));
-                List<Location> locl = subscription.listLocations();
-                Collections.sort(locl, new Comparator<Location>() {
-                    @Override
-                    public int compare(Location lhs, Location rhs) {
-                        return lhs.displayName().compareTo(rhs.displayName());
-                    }
-                });
-
-                Map<SubscriptionDetail, List<Location>> sdlocMap = azureModel.getSubscriptionToLocationMap();
-                sdlocMap.put(sd, locl);
-
-                // resource group maps
-                List<ResourceGroup> rgList = azure.resourceGroups().list();
-                srgMap.put(sd, rgList);
-                updateResGrDependency(azure, rgList, progressIndicator, rgwaMap, rgspMap);
             } else {
                 // find and modify the key
                 for (SubscriptionDetail sdk : srgMap.keySet()) {
@@ -175,6 +158,132 @@ public class AzureModelController {
                 }
             }
         }
+
+        Map<SubscriptionDetail, List<Location>> sdlocMap = azureModel.getSubscriptionToLocationMap();
+        awaitLoaded(loadSubscriptions(azureManager, sdToLoad, sidToSubscriptionMap, srgMap, sdlocMap, progressIndicator)
+                .doOnNext(sd -> {
+                    if (rgwaMap != null && rgspMap != null) {
+                        try {
+                            updateResGrDependency(azureManager.getAzure(sd.getSubscriptionId()), srgMap.get(sd),
+                                    progressIndicator, rgwaMap, rgspMap);
+                        } catch (IOException e) {
+                            throw Exceptions.propagate(e);
+                        }
+                    }
+                }));
+    }
+
+    public static int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    /**
+     * Set the max concurrent ARM requests to load the subscriptions and resource groups
+     */
+    public static void setMaxConcurrency(int maxConcurrency) {
+        AzureModelController.maxConcurrency = Math.max(1, maxConcurrency);
+    }
+
+    /**
+     * Load the resource groups and locations of the selected subscriptions with bounded concurrency.
+     * Each subscription is put into the maps as soon as it's loaded, so the installed maps fill in progressively.
+     *
+     * @return the observable emitting each subscription once its maps are updated
+     */
+    private static Observable<SubscriptionDetail> loadSubscriptions(AzureManager azureManager,
+            List<SubscriptionDetail> sdl,
+            Map<String, Subscription> sidToSubscriptionMap,
+            Map<SubscriptionDetail, List<ResourceGroup>> sdrgMap,
+            Map<SubscriptionDetail, List<Location>> sdlocMap,
+            IProgressIndicator progressIndicator) {
+        return Observable.from(sdl)
+                .filter(SubscriptionDetail::isSelected)
+                .flatMap(sd -> Observable.fromCallable(() -> {
+                    if (progressIndicator != null && progressIndicator.isCanceled()) {
+                        clearAll();
+                        throw new CanceledByUserException();
+                    }
+                    if (progressIndicator != null) {
+                        progressIndicator.setText("Reading subscription");
+                    }
+                    return azureManager.getAzure(sd.getSubscriptionId());
+                })
+                // Retry each throttled list request alone, rather than reloading the whole subscription
+                .flatMap(azure -> retryWhenThrottled(Observable.fromCallable(() -> azure.resourceGroups().list())))
+                .doOnNext(rgList -> sdrgMap.put(sd, rgList))
+                .flatMap(rgList -> retryWhenThrottled(Observable.fromCallable(() ->
+                        sidToSubscriptionMap.get(sd.getSubscriptionId()).listLocations())))
+                .map(locl -> {
+                    Collections.sort(locl, Comparator.comparing(Location::displayName));
+                    sdlocMap.put(sd, locl);
+                    return sd;
+                })
+                .subscribeOn(Schedulers.io()), maxConcurrency);
+    }
+
+    /**
+     * Block until all the subscriptions are loaded, rethrowing the checked exception the loading failed with
+     */
+    private static void awaitLoaded(Observable<SubscriptionDetail> loading)
+            throws IOException, CanceledByUserException {
+        try {
+            loading.toBlocking().forEach(AzureModelController::notifySubscriptionLoaded);
+        } catch (RuntimeException e) {
+            // The blocking observable wraps the checked exceptions into RuntimeException
+            for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+                if (cause instanceof CanceledByUserException) {
+                    throw (CanceledByUserException) cause;
+                }
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+            }
+
+            throw e;
+        }
+    }
+
+    private static void notifySubscriptionLoaded(SubscriptionDetail sd) {
+        // Publish the partial result for each subscription, rather than waiting for all
+        if (AzureUIRefreshCore.listeners != null) {
+            AzureUIRefreshCore.execute(new AzureUIRefreshEvent(AzureUIRefreshEvent.EventType.UPDATE, sd));
+        }
+    }
+
+    /**
+     * Retry the ARM request throttled with HTTP 429, after the delay of the Retry-After header if there is
+     */
+    private static <T> Observable<T> retryWhenThrottled(Observable<T> request) {
+        return request.retryWhen(errors -> errors
+                .zipWith(Observable.range(1, MAX_THROTTLED_RETRIES + 1), (err, retried) -> {
+                    long delaySeconds = getThrottledRetryDelaySeconds(err, retried);
+                    if (retried > MAX_THROTTLED_RETRIES || delaySeconds < 0) {
+                        throw Exceptions.propagate(err);
+                    }
+
+                    return delaySeconds;
+                })
+                .flatMap(delaySeconds -> Observable.timer(delaySeconds, TimeUnit.SECONDS)));
+    }
+
+    /**
+     * @return the seconds to wait before retrying the throttled request, or -1 if the error isn't throttling
+     */
+    private static long getThrottledRetryDelaySeconds(Throwable err, int retried) {
+        for (Throwable cause = err; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RestException && ((RestException) cause).response() != null
+                    && ((RestException) cause).response().code() == HTTP_TOO_MANY_REQUESTS) {
+                String retryAfter = ((RestException) cause).response().headers().get("Retry-After");
+                try {
+                    return Math.max(1, Long.parseLong(retryAfter.trim()));
+                } catch (NullPointerException | NumberFormatException ignored) {
+                    // No Retry-After header or it's an HTTP date, back off exponentially
+                    return 1L << Math.min(retried, 6);
+                }
+            }
+        }
+
+        return -1;
     }
 
     static class RgDepParams {
@@ -201,7 +310,7 @@ public class AzureModelController {
         Observable.from(rgList).flatMap(new Func1<ResourceGroup, Observable<? extends RgDepParams>>() {
             @Override
             public Observable<? extends RgDepParams> call(ResourceGroup rg) {
-                return Observable.create(new Observable.OnSubscribe<RgDepParams>() {
+                return retryWhenThrottled(Observable.create(new Observable.OnSubscribe<RgDepParams>() {
                     @Override
                     public void call(Subscriber<? super RgDepParams> subscriber) {
                         List<WebApp> wal = azure.webApps().listByResourceGroup(rg.name());
@@ -210,9 +319,9 @@ public class AzureModelController {
                         subscriber.onNext(new RgDepParams(rg, wal, aspl));
                         subscriber.onCompleted();
                     }
-                }).subscribeOn(Schedulers.io());
+                })).subscribeOn(Schedulers.io());
             }
-        }, tasksSize)
+        }, Math.min(tasksSize, maxConcurrency))
         .subscribeOn(Schedulers.newThread())
         .toBlocking()
         .subscribe(new Action1<RgDepParams>() {
@@ -263,40 +372,23 @@ public class AzureModelController {
         azureModel.setSidToSubscriptionMap(sidToSubscriptionMap);
         Map<SubscriptionDetail, List<Location>> sdlocMap = azureModel.createSubscriptionToRegionMap();
         Map<SubscriptionDetail, List<ResourceGroup>> sdrgMap = azureModel.createSubscriptionToResourceGroupMap();
+        // Install the concurrent maps before loading, so the readers see each subscription once it's loaded
+        azureModel.setSubscriptionToResourceGroupMap(sdrgMap);
+        azureModel.setSubscriptionToLocationMap(sdlocMap);
 
         SubscriptionManager subscriptionManager = azureManager.getSubscriptionManager();
         subscriptionManager.addListener(subscriptionSelectionListener);
 
         List<SubscriptionDetail> sdl = subscriptionManager.getSubscriptionDetails();
         if (sdl.size() > 0) {
-            Observable.from(sdl).flatMap((sd) ->
-                Observable.create((subscriber) -> {
-                    try {
-                        if (progressIndicator != null && progressIndicator.isCanceled()) {
-                            clearAll();
-                            throw new CanceledByUserException();
-                        }
-                        if (sd.isSelected()) {
-                            if (progressIndicator != null) {
-                                progressIndicator.setText("Reading subscription");
-                            }
-                            Azure azure = azureManager.getAzure(sd.getSubscriptionId());
-
-                            List<ResourceGroup> rgList = azure.resourceGroups().list();
-                            sdrgMap.put(sd, rgList);
-
-                            List<Location> locl = sidToSubscriptionMap.get(sd.getSubscriptionId()).listLocations();
-                            Collections.sort(locl, Comparator.comparing(Location::displayName));
-                            sdlocMap.put(sd, locl);
-                        }
-                        subscriber.onCompleted();
-                    } catch (Exception e) {
-                        Exceptions.propagate(e);
-                    }
-                }).subscribeOn(Schedulers.io()), sdl.size()).subscribeOn(Schedulers.io()).toBlocking().subscribe();
+            awaitLoaded(loadSubscriptions(azureManager, sdl, sidToSubscriptionMap, sdrgMap, sdlocMap, progressIndicator)
+                    .subscribeOn(Schedulers.io()));
         }
-        azureModel.setSubscriptionToResourceGroupMap(sdrgMap);
-        azureModel.setSubscriptionToLocationMap(sdlocMap);
+        AzureResourceSnapshotStore.getInstance().update(AzureResourceSnapshotStore.KIND_RESOURCE_GROUPS,
+                sdrgMap.entrySet().stream()
+                        .flatMap(entry -> entry.getValue().stream().map(rg -> new ResourceSnapshot(rg.id(), rg.name(),
+                                entry.getKey().getSubscriptionId(), rg.name(), rg.regionName(), rg.provisioningState())))
+                        .collect(Collectors.toList()));
     }
 
     public static synchronized void updateResourceGroupMaps(IProgressIndicator progressIndicator) throws IOException, CanceledByUserException, AuthException {
@@ -330,7 +422,7 @@ public class AzureModelController {
                 } finally {
                     countDownLatch.countDown();
                 }
-            }).subscribeOn(Schedulers.io()), sdSet.size()).subscribeOn(Schedulers.io()).subscribe();
+            }).subscribeOn(Schedulers.io()), Math.min(sdSet.size(), maxConcurrency)).subscribeOn(Schedulers.io()).subscribe();
 
         Thread cancelCheckThread = new Thread(() -> {
             try {
@@ -365,6 +457,14 @@ public class AzureModelController {
 
         azureModel.setResourceGroupToWebAppMap(rgwaMap);
         azureModel.setResourceGroupToAppServicePlanMap(rgspMap);
+        AzureResourceSnapshotStore.getInstance().update(AzureResourceSnapshotStore.KIND_APP_SERVICE_PLANS,
+                rgspMap.values().stream()
+                        .flatMap(List::stream)
+                        .map(asp -> new ResourceSnapshot(asp.id(), asp.name(),
+                                ResourceId.fromString(asp.id()).subscriptionId(), asp.resourceGroupName(),
+                                asp.regionName(), null)
+                                .withProperty("pricingTier", String.valueOf(asp.pricingTier())))
+                        .collect(Collectors.toList()));
     }
 
     public static void addNewResourceGroup(SubscriptionDetail sd, ResourceGroup rg) {
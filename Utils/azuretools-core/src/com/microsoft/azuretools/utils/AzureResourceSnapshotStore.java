@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ *   <p/>
+ *  All rights reserved.
+ *   <p/>
+ *  MIT License
+ *   <p/>
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ *  to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  <p/>
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *   <p/>
+ *  THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ *  THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ *  TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package com.microsoft.azuretools.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.microsoft.azuretools.authmanage.AuthMethodManager;
+import com.microsoft.azuretools.authmanage.CommonSettings;
+import com.microsoft.azuretools.sdkmanage.AzureManager;
+import org.apache.commons.codec.digest.DigestUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The local snapshot of the Azure resource lists, scoped per signed-in account and environment. The explorer
+ * renders the snapshot at once at startup, then replaces it with the fresh lists from ARM.
+ */
+public class AzureResourceSnapshotStore {
+    public static final String KIND_RESOURCE_GROUPS = "resourceGroups";
+    public static final String KIND_APP_SERVICE_PLANS = "appServicePlans";
+    public static final String KIND_WEB_APPS = "webApps";
+    public static final String KIND_HDINSIGHT_CLUSTERS = "hdinsightClusters";
+
+    // Bump when the snapshot format changes, the snapshots of other versions are discarded
+    static final int SNAPSHOT_VERSION = 1;
+    private static final long STALE_AFTER_MS = TimeUnit.HOURS.toMillis(1);
+    private static final String SNAPSHOT_DIR = "ResourceSnapshots";
+    private static final Logger LOGGER = Logger.getLogger(AzureResourceSnapshotStore.class.getName());
+
+    private final Gson gson = new Gson();
+    private String loadedScope = null;
+    private SnapshotFile loaded = null;
+
+    private AzureResourceSnapshotStore() {
+    }
+
+    public static AzureResourceSnapshotStore getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    /**
+     * Get the resources in the snapshot of the current account.
+     *
+     * @return the snapshot resources, or empty if there is no snapshot
+     */
+    public synchronized List<ResourceSnapshot> get(String kind) {
+        KindSnapshot snapshot = getKindSnapshot(kind);
+        return snapshot == null || snapshot.items == null
+                ? Collections.emptyList() : Collections.unmodifiableList(snapshot.items);
+    }
+
+    /**
+     * @return the time in milliseconds when the snapshot was taken, or 0 if there is no snapshot
+     */
+    public synchronized long getSnapshotTime(String kind) {
+        KindSnapshot snapshot = getKindSnapshot(kind);
+        return snapshot == null ? 0 : snapshot.timestamp;
+    }
+
+    /**
+     * Check whether the snapshot is missing or too old to be trusted without reconciling.
+     */
+    public synchronized boolean isStale(String kind) {
+        return System.currentTimeMillis() - getSnapshotTime(kind) > STALE_AFTER_MS;
+    }
+
+    /**
+     * Replace the snapshot with the fresh resources got from Azure. The snapshot is saved even if the resources
+     * are unchanged, so that its time stays fresh across restarts.
+     */
+    public synchronized void update(String kind, List<ResourceSnapshot> fresh) {
+        SnapshotFile file = load();
+        if (file == null) {
+            return;
+        }
+
+        KindSnapshot snapshot = new KindSnapshot();
+        snapshot.timestamp = System.currentTimeMillis();
+        snapshot.items = new ArrayList<>(fresh);
+        file.kinds.put(kind, snapshot);
+        save(file);
+    }
+
+    /**
+     * Drop all snapshots of the current account.
+     */
+    public synchronized void invalidate() {
+        String scope = getScope();
+        if (scope == null) {
+            return;
+        }
+
+        if (scope.equals(loadedScope)) {
+            loaded = null;
+            loadedScope = null;
+        }
+        File snapshotFile = getSnapshotFile(scope);
+        if (snapshotFile != null && snapshotFile.exists() && !snapshotFile.delete()) {
+            LOGGER.warning("Failed to delete the resource snapshot " + snapshotFile);
+        }
+    }
+
+    /**
+     * Drop the snapshot of the resource kind of the current account.
+     */
+    public synchronized void invalidate(String kind) {
+        SnapshotFile file = load();
+        if (file != null && file.kinds.remove(kind) != null) {
+            save(file);
+        }
+    }
+
+    private KindSnapshot getKindSnapshot(String kind) {
+        SnapshotFile file = load();
+        return file == null ? null : file.kinds.get(kind);
+    }
+
+    /**
+     * Load the snapshot file of the current account, or create an empty one.
+     *
+     * @return the snapshot, or null if not signed in
+     */
+    private SnapshotFile load() {
+        String scope = getScope();
+        if (scope == null) {
+            return null;
+        }
+        if (scope.equals(loadedScope)) {
+            return loaded;
+        }
+
+        SnapshotFile file = null;
+        File snapshotFile = getSnapshotFile(scope);
+        if (snapshotFile != null && snapshotFile.isFile()) {
+            try (Reader reader = new InputStreamReader(
+                    new GZIPInputStream(new FileInputStream(snapshotFile)), StandardCharsets.UTF_8)) {
+                file = gson.fromJson(reader, SnapshotFile.class);
+            } catch (IOException | JsonParseException e) {
+                LOGGER.log(Level.WARNING, "Discard the broken resource snapshot " + snapshotFile, e);
+            }
+        }
+
+        if (file == null || file.version != SNAPSHOT_VERSION || !scope.equals(file.scope) || file.kinds == null) {
+            file = new SnapshotFile();
+            file.version = SNAPSHOT_VERSION;
+            file.scope = scope;
+            file.kinds = new LinkedHashMap<>();
+        }
+
+        loadedScope = scope;
+        loaded = file;
+        return file;
+    }
+
+    private void save(SnapshotFile file) {
+        File snapshotFile = getSnapshotFile(file.scope);
+        if (snapshotFile == null) {
+            return;
+        }
+
+        try {
+            Files.createDirectories(snapshotFile.getParentFile().toPath());
+            // Write to a temporary file and then move, so that a crash never leaves a partial snapshot
+            File tmpFile = new File(snapshotFile.getPath() + ".tmp");
+            try (Writer writer = new OutputStreamWriter(
+                    new GZIPOutputStream(new FileOutputStream(tmpFile)), StandardCharsets.UTF_8)) {
+                gson.toJson(file, writer);
+            }
+            Files.move(tmpFile.toPath(), snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Failed to save the resource snapshot " + snapshotFile, e);
+        }
+    }
+
+    private static String getScope() {
+        try {
+            AzureManager azureManager = AuthMethodManager.getInstance().getAzureManager();
+            if (azureManager == null) {
+                return null;
+            }
+            String userId = azureManager.getCurrentUserId();
+            return userId == null ? null : userId + "@" + azureManager.getEnvironment().getName();
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private static File getSnapshotFile(String scope) {
+        String baseDir = CommonSettings.getSettingsBaseDir();
+        if (baseDir == null) {
+            return null;
+        }
+        // Hash the scope to keep the account out of the file name
+        return new File(new File(baseDir, SNAPSHOT_DIR), DigestUtils.sha256Hex(scope) + ".json.gz");
+    }
+
+    private static class SnapshotFile {
+        int version;
+        String scope;
+        Map<String, KindSnapshot> kinds;
+    }
+
+    private static class KindSnapshot {
+        long timestamp;
+        List<ResourceSnapshot> items;
+    }
+
+    private static final class SingletonHolder {
+        private static final AzureResourceSnapshotStore INSTANCE = new AzureResourceSnapshotStore();
+    }
+}
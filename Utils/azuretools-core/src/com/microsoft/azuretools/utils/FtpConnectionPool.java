@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ *   <p/>
+ *  All rights reserved.
+ *   <p/>
+ *  MIT License
+ *   <p/>
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ *  to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  <p/>
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *   <p/>
+ *  THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ *  THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ *  TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package com.microsoft.azuretools.utils;
+
+import com.microsoft.azure.management.appservice.PublishingProfile;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import org.apache.commons.net.ftp.FTPClient;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A bounded pool of FTP connections to the publishing profile endpoint. The idle connections are reused, and the
+ * broken ones are dropped, so the next borrowing reconnects.
+ */
+public class FtpConnectionPool implements Closeable {
+    public static final int DEFAULT_MAX_CONNECTIONS = 4;
+    private static final Logger LOGGER = Logger.getLogger(FtpConnectionPool.class.getName());
+
+    public interface FtpAction<T> {
+        T run(@NotNull FTPClient ftp) throws IOException;
+    }
+
+    private final PublishingProfile profile;
+    private final int maxConnections;
+    private final Semaphore permits;
+    private final ConcurrentLinkedQueue<FTPClient> idle = new ConcurrentLinkedQueue<>();
+    private volatile boolean closed = false;
+
+    public FtpConnectionPool(@NotNull PublishingProfile profile) {
+        this(profile, DEFAULT_MAX_CONNECTIONS);
+    }
+
+    public FtpConnectionPool(@NotNull PublishingProfile profile, int maxConnections) {
+        this.profile = profile;
+        this.maxConnections = Math.max(1, maxConnections);
+        this.permits = new Semaphore(this.maxConnections);
+    }
+
+    public int getMaxConnections() {
+        return maxConnections;
+    }
+
+    /**
+     * Run the action with a pooled connection. The connection is dropped if the action fails with an IOException,
+     * since the control connection state is unknown then.
+     */
+    public <T> T execute(@NotNull FtpAction<T> action) throws IOException {
+        FTPClient ftp = borrow();
+        try {
+            T result = action.run(ftp);
+            release(ftp);
+            return result;
+        } catch (IOException | RuntimeException e) {
+            invalidate(ftp);
+            throw e;
+        }
+    }
+
+    @NotNull
+    public FTPClient borrow() throws IOException {
+        if (closed) {
+            throw new IOException("The FTP connection pool is closed");
+        }
+
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for an FTP connection");
+        }
+
+        try {
+            FTPClient ftp;
+            while ((ftp = idle.poll()) != null) {
+                if (ftp.isConnected()) {
+                    return ftp;
+                }
+            }
+
+            return WebAppUtils.getFtpConnection(profile);
+        } catch (IOException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public void release(@NotNull FTPClient ftp) {
+        if (closed || !ftp.isConnected()) {
+            disconnect(ftp);
+        } else {
+            idle.offer(ftp);
+        }
+        permits.release();
+    }
+
+    public void invalidate(@NotNull FTPClient ftp) {
+        disconnect(ftp);
+        permits.release();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        FTPClient ftp;
+        while ((ftp = idle.poll()) != null) {
+            try {
+                ftp.logout();
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Failed to log out of FTP server", e);
+            }
+            disconnect(ftp);
+        }
+    }
+
+    private static void disconnect(@NotNull FTPClient ftp) {
+        if (ftp.isConnected()) {
+            try {
+                ftp.disconnect();
+            } catch (IOException e) {
+                LOGGER.log(Level.FINE, "Failed to disconnect FTP connection", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ *   <p/>
+ *  All rights reserved.
+ *   <p/>
+ *  MIT License
+ *   <p/>
+ *  Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ *  documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ *  the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ *  to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *  <p/>
+ *  The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ *  the Software.
+ *   <p/>
+ *  THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ *  THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ *  AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ *  TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ *  SOFTWARE.
+ */
+
+package com.microsoft.azuretools.utils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * The compact summary of an Azure resource kept in the local snapshot, rather than the SDK model which
+ * can't be persisted.
+ */
+public class ResourceSnapshot {
+    private String id;
+    private String name;
+    private String subscriptionId;
+    private String resourceGroup;
+    private String region;
+    private String state;
+    private Map<String, String> properties;
+
+    public ResourceSnapshot() {
+        // For deserializing
+    }
+
+    public ResourceSnapshot(String id, String name, String subscriptionId, String resourceGroup, String region,
+                            String state) {
+        this.id = id;
+        this.name = name;
+        this.subscriptionId = subscriptionId;
+        this.resourceGroup = resourceGroup;
+        this.region = region;
+        this.state = state;
+        this.properties = new HashMap<>();
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSubscriptionId() {
+        return subscriptionId;
+    }
+
+    public String getResourceGroup() {
+        return resourceGroup;
+    }
+
+    public String getRegion() {
+        return region;
+    }
+
+    public String getState() {
+        return state;
+    }
+
+    public String getProperty(String key) {
+        return properties == null ? null : properties.get(key);
+    }
+
+    public ResourceSnapshot withProperty(String key, String value) {
+        if (properties == null) {
+            properties = new HashMap<>();
+        }
+        properties.put(key, value);
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ResourceSnapshot)) {
+            return false;
+        }
+        ResourceSnapshot other = (ResourceSnapshot) obj;
+        return Objects.equals(id, other.id) && Objects.equals(name, other.name)
+                && Objects.equals(subscriptionId, other.subscriptionId)
+                && Objects.equals(resourceGroup, other.resourceGroup) && Objects.equals(region, other.region)
+                && Objects.equals(state, other.state) && Objects.equals(properties, other.properties);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, name, subscriptionId, resourceGroup, region, state, properties);
+    }
+}
@@ -55,14 +55,22 @@ import org.apache.commons.net.ftp.FTPReply;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.net.ConnectException;
 import java.net.HttpURLConnection;
 import java.net.URI;
 import java.net.URL;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class WebAppUtils {
 
@@ -101,10 +109,6 @@ public class WebAppUtils {
 
         FTPClient ftp = new FTPClient();
 
-        System.out.println("\t\t" + pp.ftpUrl());
-        System.out.println("\t\t" + pp.ftpUsername());
-        System.out.println("\t\t" + pp.ftpPassword());
-
         URI uri = URI.create("ftp://" + pp.ftpUrl());
         ftp.connect(uri.getHost(), 21);
         final int replyCode = ftp.getReplyCode();
@@ -129,45 +133,37 @@ public class WebAppUtils {
         if (!file.exists()) {
             throw new FileNotFoundException(String.format(NO_TARGET_FILE, artifactPath));
         }
-        FTPClient ftp = null;
-        InputStream input = null;
         int uploadingTryCount = 0;
-        try {
+        try (FtpConnectionPool pool = new FtpConnectionPool(pp)) {
             if (indicator != null) indicator.setText("Connecting to FTP server...");
 
-            ftp = getFtpConnection(pp);
-            ensureWebAppsFolderExist(ftp);
+            pool.execute(ftp -> {
+                ensureWebAppsFolderExist(ftp);
+                return null;
+            });
             if (indicator != null) indicator.setText("Uploading the application...");
-            input = new FileInputStream(artifactPath);
             int indexOfDot = artifactPath.lastIndexOf(".");
             String fileType = artifactPath.substring(indexOfDot + 1);
 
             switch (fileType) {
                 case TYPE_WAR:
                     if (toRoot) {
-                        WebAppUtils.removeFtpDirectory(ftp, FTP_WEB_APPS_PATH + ROOT, indicator);
-                        ftp.deleteFile(FTP_WEB_APPS_PATH + ROOT + "." + TYPE_WAR);
-                        uploadingTryCount = uploadFileToFtp(ftp, FTP_WEB_APPS_PATH + ROOT + "." + TYPE_WAR, input, indicator);
+                        WebAppUtils.removeFtpDirectory(pool, FTP_WEB_APPS_PATH + ROOT, indicator);
+                        pool.execute(ftp -> ftp.deleteFile(FTP_WEB_APPS_PATH + ROOT + "." + TYPE_WAR));
+                        uploadingTryCount = uploadFileToFtp(pool, FTP_WEB_APPS_PATH + ROOT + "." + TYPE_WAR, file, indicator);
                     } else {
-                        WebAppUtils.removeFtpDirectory(ftp, FTP_WEB_APPS_PATH + artifactName, indicator);
-                        ftp.deleteFile(artifactName + "." + TYPE_WAR);
-                        uploadingTryCount = uploadFileToFtp(ftp, FTP_WEB_APPS_PATH + artifactName + "." + TYPE_WAR, input, indicator);
+                        WebAppUtils.removeFtpDirectory(pool, FTP_WEB_APPS_PATH + artifactName, indicator);
+                        pool.execute(ftp -> ftp.deleteFile(artifactName + "." + TYPE_WAR));
+                        uploadingTryCount = uploadFileToFtp(pool, FTP_WEB_APPS_PATH + artifactName + "." + TYPE_WAR, file, indicator);
                     }
                     break;
                 case TYPE_JAR:
-                    uploadingTryCount = uploadFileToFtp(ftp, FTP_ROOT_PATH + ROOT + "." + TYPE_JAR, input, indicator);
+                    uploadingTryCount = uploadFileToFtp(pool, FTP_ROOT_PATH + ROOT + "." + TYPE_JAR, file, indicator);
                     break;
                 default:
                     break;
             }
             if (indicator != null) indicator.setText("Logging out of FTP server...");
-            ftp.logout();
-        } finally {
-            if (input != null)
-                input.close();
-            if (ftp != null && ftp.isConnected()) {
-                ftp.disconnect();
-            }
         }
         return uploadingTryCount;
     }
@@ -177,25 +173,18 @@ public class WebAppUtils {
         if (!file.exists()) {
             throw new FileNotFoundException(String.format(NO_TARGET_FILE, artifactPath));
         }
-        FTPClient ftp = null;
         int uploadingTryCount;
-        try (InputStream input = new FileInputStream(artifactPath)){
+        try (FtpConnectionPool pool = new FtpConnectionPool(pp, 1)) {
             if (indicator != null) {
                 indicator.setText("Connecting to FTP server...");
             }
-            ftp = getFtpConnection(pp);
             if (indicator != null) {
                 indicator.setText("Uploading the application...");
             }
-            uploadingTryCount = uploadFileToFtp(ftp, FTP_ROOT_PATH + JAVASE_ROOT + "." + TYPE_JAR, input, indicator);
+            uploadingTryCount = uploadFileToFtp(pool, FTP_ROOT_PATH + JAVASE_ROOT + "." + TYPE_JAR, file, indicator);
             if (indicator != null) {
                 indicator.setText("Logging out of FTP server...");
             }
-            ftp.logout();
-        } finally {
-            if (ftp != null && ftp.isConnected()) {
-                ftp.disconnect();
-            }
         }
         return uploadingTryCount;
     }
@@ -252,6 +241,96 @@ public class WebAppUtils {
         if (pi != null) pi.setText2("");
     }
 
+    /**
+     * Remove the FTP directory recursively with the pooled connections. The directories are listed level by level,
+     * then the files are deleted in parallel, and the directories are removed from the deepest level.
+     */
+    public static void removeFtpDirectory(FtpConnectionPool pool, String path, IProgressIndicator pi)
+            throws IOException {
+        String prefix = "Removing from FTP server: ";
+        ExecutorService executor = Executors.newFixedThreadPool(pool.getMaxConnections());
+        try {
+            List<String> files = Collections.synchronizedList(new ArrayList<>());
+            List<List<String>> dirLevels = new ArrayList<>();
+            List<String> level = Collections.singletonList(path);
+            while (!level.isEmpty() && !isCanceled(pi)) {
+                dirLevels.add(level);
+                List<String> subDirs = Collections.synchronizedList(new ArrayList<>());
+                runInParallel(executor, level, dir -> {
+                    FTPFile[] subFiles = pool.execute(ftp -> ftp.listFiles(dir));
+                    for (FTPFile ftpFile : subFiles) {
+                        String name = ftpFile.getName();
+                        if (name.equals(".") || name.equals("..")) {
+                            continue; // skip
+                        }
+                        (ftpFile.isDirectory() ? subDirs : files).add(dir + "/" + name);
+                    }
+                });
+                level = subDirs;
+            }
+
+            AtomicInteger removed = new AtomicInteger();
+            int total = files.size() + dirLevels.stream().mapToInt(List::size).sum();
+            runInParallel(executor, files, file -> {
+                if (isCanceled(pi)) {
+                    return;
+                }
+                if (pi != null) {
+                    pi.setText2(prefix + file);
+                    pi.setFraction((double) removed.incrementAndGet() / total);
+                }
+                pool.execute(ftp -> ftp.deleteFile(file));
+            });
+
+            for (int i = dirLevels.size() - 1; i >= 0 && !isCanceled(pi); i--) {
+                runInParallel(executor, dirLevels.get(i), dir -> {
+                    if (pi != null) {
+                        pi.setText2(prefix + dir);
+                        pi.setFraction((double) removed.incrementAndGet() / total);
+                    }
+                    pool.execute(ftp -> ftp.removeDirectory(dir));
+                });
+            }
+            if (pi != null) pi.setText2("");
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface FtpPathTask {
+        void run(String path) throws IOException;
+    }
+
+    private static void runInParallel(ExecutorService executor, List<String> paths, FtpPathTask task)
+            throws IOException {
+        List<Future<?>> futures = new ArrayList<>(paths.size());
+        for (String path : new ArrayList<>(paths)) {
+            futures.add(executor.submit(() -> {
+                task.run(path);
+                return null;
+            }));
+        }
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while removing from FTP server");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private static boolean isCanceled(IProgressIndicator pi) {
+        return pi != null && pi.isCanceled();
+    }
+
     public static boolean doesRemoteFileExist(FTPClient ftp, String path, String fileName) throws IOException {
         FTPFile[] files = ftp.listFiles(path);
         for (FTPFile file : files) {
@@ -336,26 +415,45 @@ public class WebAppUtils {
 
     public static boolean deployWebAppToJavaSERuntime(WebAppBase deployTarget
             , File artifact, IProgressIndicator progressIndicator) throws WebAppException {
+        File stagingFolder = null;
+        try {
+            stagingFolder = prepareStagingFolder(deployTarget, artifact, progressIndicator);
+            // Keep the full zip deployment, a Kudu delta extraction neither restarts the site nor replaces a
+            // locked app.jar
+            zipDeployWithRetry(deployTarget, prepareZipPackage(stagingFolder), progressIndicator);
+            return true;
+        } catch (WebAppException e) {
+            throw e;
+        } catch (Exception e) {
+            progressIndicator.setText(String.format("Deploy failed, %s", e.getMessage()));
+            throw new WebAppException(e.getMessage());
+        } finally {
+            if (stagingFolder != null) {
+                FileUtils.deleteQuietly(stagingFolder);
+            }
+        }
+    }
+
+    private static void zipDeployWithRetry(WebAppBase deployTarget, File zipPackage,
+                                           IProgressIndicator progressIndicator) throws WebAppException {
         try {
-            File zipPackage = prepareZipPackage(deployTarget, artifact, progressIndicator);
             int retryCount = 0;
             while (retryCount++ < DEPLOY_MAX_TRY) {
                 try {
                     deployTarget.zipDeploy(zipPackage);
-                    return true;
+                    return;
                 } catch (Exception e) {
                     progressIndicator.setText(String.format(RETRY_MESSAGE, e.getMessage(), retryCount, DEPLOY_MAX_TRY));
                 }
             }
             throw new WebAppException(String.format(RETRY_FAIL_MESSAGE, DEPLOY_MAX_TRY));
-        } catch (IOException e) {
-            progressIndicator.setText(String.format("Deploy failed, %s", e.getMessage()));
-            throw new WebAppException(e.getMessage());
+        } finally {
+            FileUtils.deleteQuietly(zipPackage);
         }
     }
 
-    private static File prepareZipPackage(WebAppBase deployTarget, File artifact, IProgressIndicator progressIndicator)
-            throws IOException {
+    private static File prepareStagingFolder(WebAppBase deployTarget, File artifact,
+                                             IProgressIndicator progressIndicator) throws IOException {
         try {
             final File tempFolder = Files.createTempDirectory(TEMP_FOLDER_PREFIX).toFile();
             // copying artifacts to staging folder and rename it to app.jar
@@ -366,9 +464,17 @@ public class WebAppUtils {
                 progressIndicator.setText(PREPARING_WEB_CONFIG);
                 prepareWebConfig(tempFolder);
             }
+            return tempFolder;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static File prepareZipPackage(File stagingFolder) throws IOException {
+        try {
             // package the artifacts
             final File result = Files.createTempFile(TEMP_FILE_PREFIX, ".zip").toFile();
-            FileUtil.zipFiles(tempFolder.listFiles(), result);
+            FileUtil.zipFiles(stagingFolder.listFiles(), result);
             return result;
         } catch (Exception e) {
             throw new IOException(e);
@@ -546,6 +652,106 @@ public class WebAppUtils {
         throw new IOException("FTP client can't store the artifact, reply code: " + rc);
     }
 
+    /**
+     * Upload the file with the pooled connection. A failed upload is resumed from the size already stored on the
+     * server with the REST command, rather than restarted from the beginning.
+     *
+     * @return the number of tries
+     */
+    private static int uploadFileToFtp(FtpConnectionPool pool, String path, File file, IProgressIndicator indicator)
+            throws IOException {
+        final long total = file.length();
+        int count = 0;
+        IOException lastError = null;
+        while (count++ < FTP_MAX_TRY) {
+            try {
+                final boolean resume = count > 1;
+                boolean success = pool.execute(ftp -> {
+                    long offset = resume ? Math.min(getRemoteFileSize(ftp, path), total) : 0;
+                    try (FileInputStream input = new FileInputStream(file)) {
+                        input.getChannel().position(offset);
+                        ftp.setRestartOffset(offset);
+                        return ftp.storeFile(path, new ProgressInputStream(input, offset, total, indicator));
+                    } finally {
+                        ftp.setRestartOffset(0);
+                    }
+                });
+                if (success) {
+                    if (indicator != null) {
+                        indicator.setText("Uploading successfully...");
+                    }
+                    return count;
+                }
+                lastError = new IOException("FTP client can't store the artifact");
+            } catch (IOException e) {
+                lastError = e;
+            }
+            if (count < FTP_MAX_TRY) {
+                if (indicator != null) {
+                    indicator.setText(String.format("Uploading failed, resuming (%d/%d)...", count + 1, FTP_MAX_TRY));
+                }
+                try {
+                    Thread.sleep(SLEEP_TIME);
+                } catch (InterruptedException ignore) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        throw new IOException("FTP client can't store the artifact after " + FTP_MAX_TRY + " tries", lastError);
+    }
+
+    // Get the file size by the SIZE command, 0 if the file doesn't exist or the size is unknown
+    private static long getRemoteFileSize(FTPClient ftp, String path) throws IOException {
+        if (!FTPReply.isPositiveCompletion(ftp.sendCommand("SIZE", path))) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(ftp.getReplyString().trim().substring(4).trim());
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+            return 0;
+        }
+    }
+
+    // Report the uploaded fraction of the file as the stream is read
+    private static class ProgressInputStream extends FilterInputStream {
+        private final long total;
+        private final IProgressIndicator indicator;
+        private long position;
+
+        ProgressInputStream(InputStream in, long position, long total, IProgressIndicator indicator) {
+            super(in);
+            this.position = position;
+            this.total = total;
+            this.indicator = indicator;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                advance(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                advance(read);
+            }
+            return read;
+        }
+
+        private void advance(long bytes) {
+            position += bytes;
+            if (indicator != null && total > 0) {
+                indicator.setFraction((double) position / total);
+            }
+        }
+    }
+
     public static class WebAppDetails {
         public SubscriptionDetail subscriptionDetail;
         public ResourceGroup resourceGroup;
@@ -22,11 +22,24 @@
 
 package com.microsoft.azuretools.core.mvp.model.rediscache;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.microsoft.azuretools.core.mvp.ui.rediscache.RedisKeyInfo;
+import com.microsoft.azuretools.core.mvp.ui.rediscache.RedisScanResult;
+
+import java.util.Arrays;
+import java.util.List;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -38,7 +51,12 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Response;
 import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.util.SafeEncoder;
 
 @RunWith(PowerMockRunner.class)
 @PrepareForTest({
@@ -51,6 +69,9 @@ public class RedisExplorerMvpModelTest {
     
     @Mock
     private Jedis jedisMock;
+
+    @Mock
+    private Pipeline pipelineMock;
     
     private static final String MOCK_SUBSCRIPTION = "00000000-0000-0000-0000-000000000000";
     private static final String MOCK_REDIS_ID = "test-id";
@@ -67,6 +88,7 @@ public class RedisExplorerMvpModelTest {
         PowerMockito.mockStatic(RedisConnectionPools.class);
         when(RedisConnectionPools.getInstance()).thenReturn(redisConnectionPoolsMock);
         when(redisConnectionPoolsMock.getJedis(anyString(), anyString())).thenReturn(jedisMock);
+        when(redisConnectionPoolsMock.getJedis(anyString(), anyString(), anyInt())).thenReturn(jedisMock);
     }
     
     @After
@@ -140,4 +162,83 @@ public class RedisExplorerMvpModelTest {
         verify(jedisMock, times(1)).select(Mockito.eq(MOCK_DB));
         verify(jedisMock, times(1)).exists(Mockito.eq(MOCK_KEY));
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testScanKeysWithInfo() throws Exception {
+        when(jedisMock.scan(Mockito.eq(MOCK_CURSOR), Mockito.any(ScanParams.class)))
+                .thenReturn(new ScanResult<String>("5", Arrays.asList(MOCK_KEY)));
+        when(jedisMock.pipelined()).thenReturn(pipelineMock);
+        Response<String> typeResponse = mock(Response.class);
+        when(typeResponse.get()).thenReturn("string");
+        Response<Long> ttlResponse = mock(Response.class);
+        when(ttlResponse.get()).thenReturn(-1L);
+        Response<Object> memoryResponse = mock(Response.class);
+        when(memoryResponse.get()).thenReturn(56L);
+        when(pipelineMock.type(MOCK_KEY)).thenReturn(typeResponse);
+        when(pipelineMock.ttl(MOCK_KEY)).thenReturn(ttlResponse);
+        when(pipelineMock.eval(any(byte[].class), Mockito.eq(1), aryEq(SafeEncoder.encode(MOCK_KEY))))
+                .thenReturn(memoryResponse);
+
+        RedisScanResult result = RedisExplorerMvpModel.getInstance().scanKeysWithInfo(MOCK_SUBSCRIPTION,
+                MOCK_REDIS_ID, MOCK_DB, MOCK_CURSOR, MOCK_PATTERN, 1000);
+        verify(jedisMock, never()).select(anyInt());
+        verify(jedisMock, never()).type(anyString());
+        verify(pipelineMock, times(1)).sync();
+
+        assertEquals("5", result.getNextCursor());
+        RedisKeyInfo keyInfo = result.getKeyInfos().get(0);
+        assertEquals(MOCK_KEY, keyInfo.getKey());
+        assertEquals("string", keyInfo.getType());
+        assertEquals(-1L, keyInfo.getTtl());
+        assertEquals(Long.valueOf(56L), keyInfo.getMemoryUsage());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testScanKeysWithInfoWithoutMemoryUsage() throws Exception {
+        when(jedisMock.scan(Mockito.eq(MOCK_CURSOR), Mockito.any(ScanParams.class)))
+                .thenReturn(new ScanResult<String>(MOCK_CURSOR, Arrays.asList(MOCK_KEY)));
+        when(jedisMock.pipelined()).thenReturn(pipelineMock);
+        Response<String> typeResponse = mock(Response.class);
+        Response<Long> ttlResponse = mock(Response.class);
+        when(ttlResponse.get()).thenReturn(10L);
+        Response<Object> memoryResponse = mock(Response.class);
+        when(memoryResponse.get()).thenThrow(new JedisDataException("ERR unknown command 'MEMORY'"));
+        when(pipelineMock.type(MOCK_KEY)).thenReturn(typeResponse);
+        when(pipelineMock.ttl(MOCK_KEY)).thenReturn(ttlResponse);
+        when(pipelineMock.eval(any(byte[].class), Mockito.eq(1), aryEq(SafeEncoder.encode(MOCK_KEY))))
+                .thenReturn(memoryResponse);
+
+        RedisScanResult result = RedisExplorerMvpModel.getInstance().scanKeysWithInfo(MOCK_SUBSCRIPTION,
+                MOCK_REDIS_ID, MOCK_DB, MOCK_CURSOR, MOCK_PATTERN, 1000);
+        assertEquals(10L, result.getKeyInfos().get(0).getTtl());
+        assertNull(result.getKeyInfos().get(0).getMemoryUsage());
+    }
+
+    @Test
+    public void testScanKeyPages() throws Exception {
+        when(jedisMock.scan(Mockito.eq(MOCK_CURSOR), Mockito.any(ScanParams.class)))
+                .thenReturn(new ScanResult<String>("7", Arrays.<String>asList()));
+        when(jedisMock.scan(Mockito.eq("7"), Mockito.any(ScanParams.class)))
+                .thenReturn(new ScanResult<String>(MOCK_CURSOR, Arrays.<String>asList()));
+
+        List<RedisScanResult> pages = RedisExplorerMvpModel.getInstance()
+                .scanKeyPages(MOCK_SUBSCRIPTION, MOCK_REDIS_ID, MOCK_DB, MOCK_PATTERN, 1000)
+                .toList().toBlocking().single();
+        assertEquals(2, pages.size());
+        verify(jedisMock, times(2)).scan(anyString(), Mockito.any(ScanParams.class));
+        verify(jedisMock, never()).pipelined();
+    }
+
+    @Test
+    public void testScanKeyPagesStopsWhenUnsubscribed() throws Exception {
+        when(jedisMock.scan(anyString(), Mockito.any(ScanParams.class)))
+                .thenReturn(new ScanResult<String>("7", Arrays.<String>asList()));
+
+        RedisExplorerMvpModel.getInstance()
+                .scanKeyPages(MOCK_SUBSCRIPTION, MOCK_REDIS_ID, MOCK_DB, MOCK_PATTERN, 1000)
+                .take(3).toBlocking().last();
+        verify(jedisMock, times(3)).scan(anyString(), Mockito.any(ScanParams.class));
+    }
 }
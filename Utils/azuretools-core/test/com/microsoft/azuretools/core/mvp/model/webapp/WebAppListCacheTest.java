@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ *
+ * All rights reserved.
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.microsoft.azuretools.core.mvp.model.webapp;
+
+import com.microsoft.azure.management.appservice.WebApp;
+import com.microsoft.azuretools.core.mvp.model.ResourceEx;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.*;
+
+public class WebAppListCacheTest {
+    private static final String SID = "subscriptionId";
+
+    private WebAppListCache cache;
+    private AtomicInteger loadCount;
+    private List<ResourceEx<WebApp>> webApps;
+
+    @Before
+    public void setUp() {
+        cache = new WebAppListCache();
+        loadCount = new AtomicInteger();
+        webApps = new ArrayList<>();
+        webApps.add(new ResourceEx<>(mockWebApp("app1"), SID));
+    }
+
+    private WebAppListCache.Loader loader() {
+        return subscriptionId -> {
+            loadCount.incrementAndGet();
+            return new ArrayList<>(webApps);
+        };
+    }
+
+    private static WebApp mockWebApp(String id) {
+        final WebApp webApp = mock(WebApp.class);
+        when(webApp.id()).thenReturn(id);
+        return webApp;
+    }
+
+    @Test
+    public void testGetHitsCacheWithinTtl() throws Exception {
+        assertEquals(1, cache.get(SID, false, loader()).size());
+        assertEquals(1, cache.get(SID, false, loader()).size());
+        assertEquals(1, loadCount.get());
+        assertEquals(1, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(0.5, cache.getHitRate(), 0);
+    }
+
+    @Test
+    public void testGetReloadsWhenForcedOrExpired() throws Exception {
+        cache.get(SID, false, loader());
+        cache.get(SID, true, loader());
+        assertEquals(2, loadCount.get());
+
+        cache.setTtl(0, TimeUnit.MILLISECONDS);
+        cache.get(SID, false, loader());
+        assertEquals(3, loadCount.get());
+    }
+
+    @Test
+    public void testPutAndRemoveWriteThrough() throws Exception {
+        cache.get(SID, false, loader());
+
+        cache.put(SID, mockWebApp("app2"));
+        cache.put(SID, mockWebApp("app1"));
+        assertEquals(2, cache.get(SID, false, loader()).size());
+
+        cache.remove(SID, "app1");
+        final List<ResourceEx<WebApp>> cached = cache.get(SID, false, loader());
+        assertEquals(1, cached.size());
+        assertEquals("app2", cached.get(0).getResource().id());
+        assertEquals(1, loadCount.get());
+    }
+
+    @Test
+    public void testPutIgnoredWhenNotCached() throws Exception {
+        cache.put(SID, mockWebApp("app2"));
+        cache.put(SID, null);
+        assertEquals(1, cache.get(SID, false, loader()).size());
+        assertEquals(1, loadCount.get());
+    }
+
+    @Test
+    public void testClearAndInvalidate() throws Exception {
+        cache.get(SID, false, loader());
+        cache.invalidate(SID);
+        cache.get(SID, false, loader());
+        cache.clear();
+        cache.get(SID, false, loader());
+        assertEquals(3, loadCount.get());
+    }
+
+    @Test
+    public void testConcurrentLoadsShareOneRequest() throws Exception {
+        final int callers = 4;
+        final AtomicInteger slowLoads = new AtomicInteger();
+        final CountDownLatch loading = new CountDownLatch(1);
+        final CountDownLatch ready = new CountDownLatch(callers);
+        final CountDownLatch release = new CountDownLatch(1);
+        final WebAppListCache.Loader slowLoader = subscriptionId -> {
+            slowLoads.incrementAndGet();
+            loading.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Collections.emptyList();
+        };
+
+        final List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            final Thread thread = new Thread(() -> {
+                ready.countDown();
+                try {
+                    cache.get(SID, false, slowLoader);
+                } catch (Exception ignored) {
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        // The callers arriving before the release join the running load, the later ones hit the cached list
+        assertTrue(loading.await(10, TimeUnit.SECONDS));
+        assertTrue(ready.await(10, TimeUnit.SECONDS));
+        release.countDown();
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(1, slowLoads.get());
+    }
+}
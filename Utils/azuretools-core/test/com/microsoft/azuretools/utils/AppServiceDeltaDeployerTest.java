@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ *
+ * All rights reserved.
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.microsoft.azuretools.utils;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class AppServiceDeltaDeployerTest {
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    private static Map<String, String> hashes(String... pathAndHashes) {
+        Map<String, String> result = new HashMap<>();
+        for (int i = 0; i < pathAndHashes.length; i += 2) {
+            result.put(pathAndHashes[i], pathAndHashes[i + 1]);
+        }
+        return result;
+    }
+
+    private static Map<String, AppServiceDeltaDeployer.RemoteFile> remote(String... paths) {
+        Map<String, AppServiceDeltaDeployer.RemoteFile> result = new HashMap<>();
+        for (String path : paths) {
+            result.put(path, new AppServiceDeltaDeployer.RemoteFile(1, "2019-01-01T00:00:00Z"));
+        }
+        return result;
+    }
+
+    @Test
+    public void testPlanUploadsOnlyChangedFiles() {
+        AppServiceDeltaDeployer.Manifest manifest = new AppServiceDeltaDeployer.Manifest(
+                hashes("a.dll", "1", "b.dll", "2", "c.dll", "3", "d.dll", "4"), remote("a.dll", "b.dll", "c.dll", "d.dll"));
+
+        AppServiceDeltaDeployer.DeltaPlan plan = AppServiceDeltaDeployer.DeltaPlan.of(
+                hashes("a.dll", "1", "b.dll", "20", "c.dll", "3", "d.dll", "4"),
+                manifest, remote("a.dll", "b.dll", "c.dll", "d.dll"), 0.5);
+
+        Assert.assertNotNull(plan);
+        Assert.assertEquals(Arrays.asList("b.dll"), Arrays.asList(plan.getChanged().toArray()));
+        Assert.assertTrue(plan.getDeleted().isEmpty());
+    }
+
+    @Test
+    public void testPlanUploadsRemotelyChangedAndDeletesRemovedFiles() {
+        AppServiceDeltaDeployer.Manifest manifest = new AppServiceDeltaDeployer.Manifest(
+                hashes("a.dll", "1", "b.dll", "2", "c.dll", "3", "d.dll", "4"), remote("a.dll", "b.dll", "c.dll", "d.dll"));
+        Map<String, AppServiceDeltaDeployer.RemoteFile> remoteFiles = remote("a.dll", "b.dll", "c.dll", "d.dll");
+        remoteFiles.put("c.dll", new AppServiceDeltaDeployer.RemoteFile(2, "2019-01-02T00:00:00Z"));
+
+        AppServiceDeltaDeployer.DeltaPlan plan = AppServiceDeltaDeployer.DeltaPlan.of(
+                hashes("a.dll", "1", "c.dll", "3", "d.dll", "4"), manifest, remoteFiles, 0.9);
+
+        Assert.assertNotNull(plan);
+        Assert.assertEquals(Arrays.asList("c.dll"), Arrays.asList(plan.getChanged().toArray()));
+        Assert.assertEquals(Arrays.asList("b.dll"), Arrays.asList(plan.getDeleted().toArray()));
+    }
+
+    @Test
+    public void testPlanFallsBackToFullWhenTooManyChanged() {
+        AppServiceDeltaDeployer.Manifest manifest = new AppServiceDeltaDeployer.Manifest(
+                hashes("a.dll", "1", "b.dll", "2"), remote("a.dll", "b.dll"));
+
+        Assert.assertNull(AppServiceDeltaDeployer.DeltaPlan.of(
+                hashes("a.dll", "10", "b.dll", "20"), manifest, remote("a.dll", "b.dll"), 0.5));
+    }
+
+    @Test
+    public void testPlanUnchanged() {
+        AppServiceDeltaDeployer.Manifest manifest = new AppServiceDeltaDeployer.Manifest(
+                hashes("a.dll", "1"), remote("a.dll"));
+
+        AppServiceDeltaDeployer.DeltaPlan plan = AppServiceDeltaDeployer.DeltaPlan.of(
+                hashes("a.dll", "1"), manifest, remote("a.dll"), 0.5);
+
+        Assert.assertNotNull(plan);
+        Assert.assertTrue(plan.isEmpty());
+    }
+
+    @Test
+    public void testHashFilesWithRelativePaths() throws Exception {
+        File root = tempFolder.newFolder("content");
+        File bin = new File(root, "bin");
+        Assert.assertTrue(bin.mkdirs());
+        Files.write(new File(root, "web.config").toPath(), "config".getBytes(StandardCharsets.UTF_8));
+        Files.write(new File(bin, "app.dll").toPath(), "app".getBytes(StandardCharsets.UTF_8));
+
+        Map<String, String> hashes = AppServiceDeltaDeployer.hashFiles(root);
+
+        Assert.assertEquals(2, hashes.size());
+        Assert.assertTrue(hashes.containsKey("web.config"));
+        Assert.assertTrue(hashes.containsKey("bin/app.dll"));
+        Assert.assertNotEquals(hashes.get("web.config"), hashes.get("bin/app.dll"));
+    }
+
+    @Test
+    public void testDirectoryUrlHasOneTrailingSlash() {
+        AppServiceDeltaDeployer deployer = new AppServiceDeltaDeployer(
+                "https://app.scm.azurewebsites.net", "user", "password", null);
+
+        Assert.assertEquals("https://app.scm.azurewebsites.net/api/vfs/site/wwwroot/",
+                deployer.directoryUrl("").toString());
+        Assert.assertEquals("https://app.scm.azurewebsites.net/api/vfs/site/wwwroot/bin/",
+                deployer.directoryUrl("bin").toString());
+        Assert.assertEquals("https://app.scm.azurewebsites.net/api/vfs/site/wwwroot/bin/x64/",
+                deployer.directoryUrl("bin/x64").toString());
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ *
+ * All rights reserved.
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.microsoft.azuretools.utils;
+
+import com.microsoft.azuretools.authmanage.AuthMethodManager;
+import com.microsoft.azuretools.authmanage.CommonSettings;
+import com.microsoft.azuretools.authmanage.Environment;
+import com.microsoft.azuretools.sdkmanage.AzureManager;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.mockito.Mockito.when;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({AuthMethodManager.class})
+public class AzureResourceSnapshotStoreTest {
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    @Mock
+    private AuthMethodManager authMethodManagerMock;
+
+    @Mock
+    private AzureManager azureManagerMock;
+
+    private final ResourceSnapshot app1 = new ResourceSnapshot("id1", "app1", "sid", "rg", "westus", "Running");
+    private final ResourceSnapshot app2 = new ResourceSnapshot("id2", "app2", "sid", "rg", "westus", "Running");
+
+    @Before
+    public void setUp() throws IOException {
+        CommonSettings.setUpEnvironment(tempFolder.getRoot().getPath());
+        PowerMockito.mockStatic(AuthMethodManager.class);
+        when(AuthMethodManager.getInstance()).thenReturn(authMethodManagerMock);
+        when(authMethodManagerMock.getAzureManager()).thenReturn(azureManagerMock);
+        when(azureManagerMock.getEnvironment()).thenReturn(Environment.GLOBAL);
+    }
+
+    private void signInAs(String userId) throws IOException {
+        when(azureManagerMock.getCurrentUserId()).thenReturn(userId);
+    }
+
+    @Test
+    public void testUpdateReplacesSnapshot() throws IOException {
+        AzureResourceSnapshotStore store = AzureResourceSnapshotStore.getInstance();
+        signInAs("replaced@contoso.com");
+
+        store.update(AzureResourceSnapshotStore.KIND_WEB_APPS, Arrays.asList(app1, app2));
+        store.update(AzureResourceSnapshotStore.KIND_WEB_APPS, Collections.singletonList(app2));
+
+        Assert.assertEquals(Collections.singletonList(app2), store.get(AzureResourceSnapshotStore.KIND_WEB_APPS));
+        Assert.assertFalse(store.isStale(AzureResourceSnapshotStore.KIND_WEB_APPS));
+    }
+
+    @Test
+    public void testUnchangedUpdatePersistsTime() throws Exception {
+        AzureResourceSnapshotStore store = AzureResourceSnapshotStore.getInstance();
+        signInAs("unchanged@contoso.com");
+        store.update(AzureResourceSnapshotStore.KIND_WEB_APPS, Collections.singletonList(app1));
+        long firstTime = store.getSnapshotTime(AzureResourceSnapshotStore.KIND_WEB_APPS);
+
+        Thread.sleep(10);
+        store.update(AzureResourceSnapshotStore.KIND_WEB_APPS, Collections.singletonList(app1));
+
+        // Switch to another account and back, to reload the snapshot from the disk
+        signInAs("other@contoso.com");
+        store.get(AzureResourceSnapshotStore.KIND_WEB_APPS);
+        signInAs("unchanged@contoso.com");
+
+        Assert.assertEquals(Collections.singletonList(app1), store.get(AzureResourceSnapshotStore.KIND_WEB_APPS));
+        Assert.assertTrue(store.getSnapshotTime(AzureResourceSnapshotStore.KIND_WEB_APPS) > firstTime);
+    }
+
+    @Test
+    public void testNoSnapshotWithoutSignIn() throws IOException {
+        when(authMethodManagerMock.getAzureManager()).thenReturn(null);
+        AzureResourceSnapshotStore store = AzureResourceSnapshotStore.getInstance();
+
+        store.update(AzureResourceSnapshotStore.KIND_WEB_APPS, Collections.singletonList(app1));
+
+        Assert.assertTrue(store.get(AzureResourceSnapshotStore.KIND_WEB_APPS).isEmpty());
+        Assert.assertTrue(store.isStale(AzureResourceSnapshotStore.KIND_WEB_APPS));
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * 
+ * All rights reserved.
+ * 
+ * MIT License
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.microsoft.azuretools.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.microsoft.azure.management.appservice.PublishingProfile;
+import java.io.IOException;
+import org.apache.commons.net.ftp.FTPClient;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.powermock.api.mockito.PowerMockito;
+import org.powermock.core.classloader.annotations.PrepareForTest;
+import org.powermock.modules.junit4.PowerMockRunner;
+
+@RunWith(PowerMockRunner.class)
+@PrepareForTest({WebAppUtils.class})
+public class FtpConnectionPoolTest {
+
+    private PublishingProfile profile;
+    private FTPClient first;
+    private FTPClient second;
+
+    @Before
+    public void setUp() throws Exception {
+        profile = mock(PublishingProfile.class);
+        first = mock(FTPClient.class);
+        second = mock(FTPClient.class);
+        when(first.isConnected()).thenReturn(true);
+        when(second.isConnected()).thenReturn(true);
+
+        PowerMockito.mockStatic(WebAppUtils.class);
+        when(WebAppUtils.getFtpConnection(profile)).thenReturn(first, second);
+    }
+
+    @Test
+    public void testExecuteReusesIdleConnection() throws Exception {
+        try (FtpConnectionPool pool = new FtpConnectionPool(profile, 2)) {
+            assertSame(first, pool.execute(ftp -> ftp));
+            assertSame(first, pool.execute(ftp -> ftp));
+        }
+
+        PowerMockito.verifyStatic(times(1));
+        WebAppUtils.getFtpConnection(profile);
+        verify(first).logout();
+        verify(first).disconnect();
+    }
+
+    @Test
+    public void testExecuteDropsConnectionOnFailure() throws Exception {
+        try (FtpConnectionPool pool = new FtpConnectionPool(profile, 1)) {
+            try {
+                pool.execute(ftp -> {
+                    throw new IOException("Connection reset");
+                });
+                fail("IOException expected");
+            } catch (IOException e) {
+                assertEquals("Connection reset", e.getMessage());
+            }
+            verify(first).disconnect();
+
+            assertSame(second, pool.execute(ftp -> ftp));
+        }
+
+        PowerMockito.verifyStatic(times(2));
+        WebAppUtils.getFtpConnection(profile);
+    }
+
+    @Test(expected = IOException.class)
+    public void testBorrowAfterClose() throws Exception {
+        FtpConnectionPool pool = new FtpConnectionPool(profile);
+        pool.close();
+        pool.borrow();
+    }
+}
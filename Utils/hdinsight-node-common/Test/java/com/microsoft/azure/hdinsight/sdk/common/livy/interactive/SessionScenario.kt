@@ -39,6 +39,7 @@ class SessionScenario {
     var sessionMock: Session? = null
     var code: String = ""
     var result: Map<String, String>? = null
+    var batchResult: List<Map<String, String>>? = null
     var userAgent: String? = null
 
     @Before
@@ -51,6 +52,11 @@ class SessionScenario {
         httpServerMock!!.stub(action, serviceUrl, statusCode, response)
     }
 
+    @Given("^setup a mock livy interactive statement service for (.+) request '(.+)' with body containing '(.+)' to return '(.+)' with status code (\\d+)$")
+    fun mockLivyStatementService(action: String, serviceUrl: String, bodyPart: String, response: String, statusCode: Int) {
+        httpServerMock!!.stubWithBodyContaining(action, serviceUrl, bodyPart, statusCode, response)
+    }
+
     @And("^create a livy Spark interactive session instance with name '(.+)'$")
     fun newSparkSession(name: String) {
         sessionMock = SparkSession(name, URI.create(httpServerMock!!.completeUrl("/")))
@@ -115,6 +121,24 @@ class SessionScenario {
 
     }
 
+    @And("^run the following codes in batch in livy Spark interactive session$")
+    fun runCodesInBatch(codes: List<String>) {
+        batchResult = sessionMock!!.runCodesInBatch(codes)
+                .toBlocking()
+                .single()
+    }
+
+    @Then("^check Spark interactive session batch run results stdout should be$")
+    fun checkBatchRunResultsOutput(outputExpect: List<String>) {
+        assertThat(batchResult!!.map { it["text/plain"] })
+                .containsExactlyElementsOf(outputExpect)
+    }
+
+    @Then("^check no GET request sent to '(.*)'$")
+    fun checkNoGetRequest(urlExpect: String) {
+        WireMock.verify(0, WireMock.getRequestedFor(urlEqualTo(urlExpect)))
+    }
+
     @Then("^check Spark interactive session statement run result stdout should be$")
     fun checkStatementRunResultOutput(outputExpect: List<String>) {
         assertThat(result!!["text/plain"]!!.split("\n"))
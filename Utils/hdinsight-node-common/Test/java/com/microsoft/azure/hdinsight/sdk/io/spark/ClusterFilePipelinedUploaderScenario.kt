@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.io.spark
+
+import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.Session
+import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.SparkSession
+import cucumber.api.java.Before
+import cucumber.api.java.en.And
+import cucumber.api.java.en.Given
+import cucumber.api.java.en.Then
+import org.apache.commons.codec.digest.DigestUtils
+import org.assertj.core.api.Assertions.assertThat
+import org.mockito.ArgumentMatchers
+import org.mockito.Mockito.*
+import rx.Observable
+import java.io.ByteArrayInputStream
+import java.io.File
+import java.io.IOException
+import java.net.URI
+import java.util.*
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.zip.InflaterInputStream
+
+class ClusterFilePipelinedUploaderScenario {
+    private val writePageRegex = """writePage\((\d+), Seq\((.*)\)\.mkString\)""".toRegex(RegexOption.DOT_MATCHES_ALL)
+    private val literalRegex = """"([^"]*)"""".toRegex()
+    private val finishUploadRegex = """finishUpload\((\d+), "(\w+)"\)""".toRegex()
+
+    var sessionMock: Session? = null
+    var srcFile: File? = null
+    var uploadedBytes: List<Long> = emptyList()
+    var caught: Throwable? = null
+    var elapsedMillis: Long = 0
+
+    // The fake cluster side: seq -> inflated page written, seq -> times the page was sent
+    val pagesWritten = ConcurrentHashMap<Int, ByteArray>()
+    val pageSentCounts = ConcurrentHashMap<Int, AtomicInteger>()
+    var pageFailures: Map<Int, Int> = emptyMap()
+    var isCorrupted = false
+    var sha256Got: String? = null
+    var maxLiteralLength = 0
+
+    @Before
+    fun setUp() {
+        pagesWritten.clear()
+        pageSentCounts.clear()
+        pageFailures = emptyMap()
+        isCorrupted = false
+        sha256Got = null
+        maxLiteralLength = 0
+    }
+
+    private fun textOutput(text: String): Observable<Map<String, String>> =
+            Observable.just(mapOf("text/plain" to text))
+
+    private fun writePage(seq: Int, literals: String): Observable<Map<String, String>> {
+        val parts = literalRegex.findAll(literals).map { it.groupValues[1] }.toList()
+        synchronized(this) {
+            maxLiteralLength = parts.fold(maxLiteralLength) { length, part -> maxOf(length, part.length) }
+        }
+
+        val encoded = parts.joinToString("")
+        val sent = pageSentCounts.computeIfAbsent(seq) { AtomicInteger(0) }.incrementAndGet()
+        if (sent <= (pageFailures[seq] ?: 0)) {
+            return textOutput("java.io.IOException: page $seq lost")
+        }
+
+        pagesWritten[seq] = InflaterInputStream(ByteArrayInputStream(Base64.getDecoder().decode(encoded)))
+                .use { it.readBytes() }
+
+        return textOutput("res0: String = ack:$seq")
+    }
+
+    private fun finishUpload(pages: Int, sha256: String): Observable<Map<String, String>> {
+        sha256Got = sha256
+
+        val written = (0 until pages).map { pagesWritten[it] ?: ByteArray(0) }
+                .fold(ByteArray(0)) { file, page -> file + page }
+        if (isCorrupted && written.isNotEmpty()) {
+            written[0] = written[0].inc()
+        }
+
+        val actual = DigestUtils.sha256Hex(written)
+
+        return textOutput(if (pagesWritten.size == pages && actual == sha256)
+            "res1: String = verified:$actual"
+        else
+            "java.io.IOException: Upload verification failed, SHA-256 $actual")
+    }
+
+    @Given("^create a mocked Livy session for ClusterFilePipelinedUploader$")
+    fun mockLivySessionForPipelinedUploader() {
+        sessionMock = mock(SparkSession::class.java)
+        doReturn(textOutput("")).`when`(sessionMock!!).runCodes(ArgumentMatchers.anyString())
+        doAnswer { invocation ->
+            val codes = invocation.getArgument<String>(0)
+
+            writePageRegex.matchEntire(codes)?.let { writePage(it.groupValues[1].toInt(), it.groupValues[2]) }
+                    ?: finishUploadRegex.matchEntire(codes)?.let {
+                        finishUpload(it.groupValues[1].toInt(), it.groupValues[2]) }
+                    ?: Observable.error<Map<String, String>>(IOException("Unknown codes: $codes"))
+        }.`when`(sessionMock!!).runCodesWithoutWait(ArgumentMatchers.anyString())
+    }
+
+    @And("^create a local file of (\\d+) random bytes to upload$")
+    fun createLocalFile(size: Int) {
+        val content = ByteArray(size)
+        Random(size.toLong()).nextBytes(content)
+
+        srcFile = File.createTempFile("pipelinedUpload", ".bin")
+        srcFile!!.deleteOnExit()
+        srcFile!!.writeBytes(content)
+    }
+
+    @And("^the page (\\d+) fails (\\d+) times? in the cluster$")
+    fun failPage(seq: Int, times: Int) {
+        pageFailures += seq to times
+    }
+
+    @And("^the cluster corrupts the written file$")
+    fun corruptWrittenFile() {
+        isCorrupted = true
+    }
+
+    @And("^upload the file with page size (\\d+)KB, (\\d+) pages in flight and (\\d+) retries$")
+    fun uploadFile(pageSizeKB: Int, maxInFlight: Int, maxPageRetries: Int) {
+        val uploader = ClusterFilePipelinedUploader(
+                sessionMock!!, URI.create("/tmp/upload.bin"), pageSizeKB, maxInFlight, maxPageRetries)
+        val start = System.currentTimeMillis()
+
+        caught = null
+        try {
+            uploadedBytes = uploader.upload(srcFile!!)
+                    .toList()
+                    .toBlocking()
+                    .single()
+        } catch (ex: Exception) {
+            caught = ex
+        }
+
+        elapsedMillis = System.currentTimeMillis() - start
+    }
+
+    @Then("^check the file should be written in (\\d+) pages in sequence and verified$")
+    fun checkFileWritten(pagesExpect: Int) {
+        assertThat(caught).isNull()
+        assertThat(pagesWritten.keys).containsExactlyInAnyOrderElementsOf(0 until pagesExpect)
+
+        val written = (0 until pagesExpect).map { pagesWritten[it]!! }.fold(ByteArray(0)) { file, page -> file + page }
+        assertThat(written).isEqualTo(srcFile!!.readBytes())
+        assertThat(sha256Got).isEqualTo(DigestUtils.sha256Hex(srcFile!!.readBytes()))
+    }
+
+    @Then("^check the uploaded bytes reported should end with (\\d+)$")
+    fun checkUploadedBytes(bytesExpect: Long) {
+        assertThat(uploadedBytes).isSorted()
+        assertThat(uploadedBytes.last()).isEqualTo(bytesExpect)
+    }
+
+    @Then("^check the page (\\d+) should be sent (\\d+) times?$")
+    fun checkPageSentCount(seq: Int, countExpect: Int) {
+        assertThat(pageSentCounts[seq]?.get() ?: 0).isEqualTo(countExpect)
+    }
+
+    @Then("^check the upload should take at least (\\d+) seconds?$")
+    fun checkUploadBackOff(secondsExpect: Long) {
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo(secondsExpect * 1000)
+    }
+
+    @Then("^check each page literal should be at most (\\d+) bytes$")
+    fun checkLiteralLength(lengthExpect: Int) {
+        assertThat(maxLiteralLength).isGreaterThan(0).isLessThanOrEqualTo(lengthExpect)
+    }
+
+    @Then("^check no page should be sent$")
+    fun checkNoPageSent() {
+        assertThat(pageSentCounts).isEmpty()
+    }
+
+    @Then("^check the IOException should be thrown in uploading$")
+    fun checkUploadingException() {
+        // The checked exception is wrapped by RxJava
+        assertThat(generateSequence(caught) { it.cause }.any { it is IOException }).isTrue()
+    }
+}
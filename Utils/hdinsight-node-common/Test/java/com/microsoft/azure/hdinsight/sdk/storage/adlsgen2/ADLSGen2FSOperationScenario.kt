@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ *
+ * All rights reserved.
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.azure.hdinsight.sdk.storage.adlsgen2
+
+import com.github.tomakehurst.wiremock.client.WireMock
+import com.github.tomakehurst.wiremock.client.WireMock.*
+import com.microsoft.azure.hdinsight.sdk.common.HttpObservable
+import com.microsoft.azure.hdinsight.spark.common.MockHttpService
+import cucumber.api.DataTable
+import cucumber.api.java.Before
+import cucumber.api.java.en.And
+import cucumber.api.java.en.Given
+import cucumber.api.java.en.Then
+import org.assertj.core.api.Assertions.assertThat
+
+class ADLSGen2FSOperationScenario {
+    private var httpServerMock: MockHttpService? = null
+    private var pages: List<List<String>> = emptyList()
+
+    @Before
+    fun setUp() {
+        httpServerMock = MockHttpService()
+    }
+
+    @Given("^setup a mock ADLS Gen2 file system '(.+)' to list page with continuation '(.*)' and next continuation '(.*)'$")
+    fun mockListPage(fileSystemPath: String, continuation: String, nextContinuation: String, paths: DataTable) {
+        configureFor(httpServerMock!!.port)
+
+        val body = paths.asList(String::class.java)
+                .joinToString(",", "{\"paths\":[", "]}") { "{\"name\":\"$it\",\"isDirectory\":\"false\"}" }
+        val response = aResponse().withStatus(200).withBody(body)
+        if (nextContinuation.isNotEmpty()) {
+            response.withHeader(ADLSGen2FSOperation.CONTINUATION_HEADER, nextContinuation)
+        }
+
+        val request = get(urlPathEqualTo(fileSystemPath)).withQueryParam("resource", equalTo("filesystem"))
+        if (continuation.isNotEmpty()) {
+            request.withQueryParam("continuation", equalTo(continuation))
+        }
+
+        stubFor(request.willReturn(response))
+    }
+
+    @And("^list the directory '(.+)' of the file system '(.+)' in pages$")
+    fun listInPages(directory: String, fileSystemPath: String) {
+        pages = ADLSGen2FSOperation(HttpObservable())
+                .listPages(httpServerMock!!.completeUrl(fileSystemPath), directory)
+                .map { page -> page.map { it.name } }
+                .toList()
+                .toBlocking()
+                .single()
+    }
+
+    @Then("^check the listed pages should be$")
+    fun checkListedPages(expected: DataTable) {
+        assertThat(pages.map { it.joinToString(",") }).containsExactlyElementsOf(expected.asList(String::class.java))
+    }
+
+    @Then("^check (\\d+) list requests sent to '(.+)'$")
+    fun checkListRequests(count: Int, fileSystemPath: String) {
+        WireMock.verify(count, getRequestedFor(urlPathEqualTo(fileSystemPath)))
+    }
+}
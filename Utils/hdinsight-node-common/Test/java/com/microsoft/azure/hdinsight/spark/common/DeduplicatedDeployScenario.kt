@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ *
+ * All rights reserved.
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.microsoft.azure.hdinsight.spark.common
+
+import cucumber.api.java.After
+import cucumber.api.java.Before
+import cucumber.api.java.en.And
+import cucumber.api.java.en.Given
+import cucumber.api.java.en.Then
+import org.assertj.core.api.Assertions.assertThat
+import rx.Observable
+import java.io.File
+import java.io.IOException
+import java.nio.file.Files
+
+class DeduplicatedDeployScenario {
+    // The fake storage, which records the uploads and answers whether an uploaded artifact is still there
+    private class FakeDeploy(private val root: String) : Deployable {
+        val uploads = mutableListOf<String>()
+        val existing = mutableSetOf<String>()
+        var failUploading = false
+        var failChecking = false
+
+        override fun deploy(src: File): Observable<String> = Observable.defer {
+            val uploadedPath = "$root/${uploads.size}/${src.name}"
+            uploads.add(uploadedPath)
+
+            if (failUploading) {
+                Observable.error<String>(IOException("Upload failed"))
+            } else {
+                existing.add(uploadedPath)
+                Observable.just(uploadedPath)
+            }
+        }
+
+        override fun getDestinationRoot(): String = root
+
+        override fun isDeployed(uploadedPath: String): Observable<Boolean> =
+                if (failChecking) Observable.error(IOException("Check failed"))
+                else Observable.just(existing.contains(uploadedPath))
+    }
+
+    private var workDir: File? = null
+    private var manifest: ArtifactDeploymentManifest? = null
+    private var storage: FakeDeploy? = null
+    private var artifact: File? = null
+    private val deployedPaths = mutableListOf<String>()
+    private var caught: Throwable? = null
+
+    private val manifestFile: File
+        get() = File(workDir, "deployedArtifacts.json")
+
+    @Before
+    fun setUp() {
+        workDir = Files.createTempDirectory("deduplicated-deploy").toFile()
+        manifest = ArtifactDeploymentManifest(manifestFile)
+        storage = FakeDeploy("wasbs://container@account/SparkSubmission")
+    }
+
+    @After
+    fun cleanUp() {
+        workDir?.deleteRecursively()
+    }
+
+    @Given("^create a local artifact with content '(.*)'$")
+    fun createArtifact(content: String) {
+        artifact = File(workDir, "artifact.jar").apply { writeText(content) }
+    }
+
+    @And("^record the artifact deployed to '(.+)' under root '(.+)' in the manifest$")
+    fun recordArtifact(uploadedPath: String, root: String) {
+        manifest!!.put(ArtifactDeploymentManifest.digest(artifact!!), root, uploadedPath)
+    }
+
+    @Then("^check the manifest reloaded from file should have '(.+)' under root '(.+)'$")
+    fun checkManifestReloaded(uploadedPath: String, root: String) {
+        assertThat(ArtifactDeploymentManifest(manifestFile).get(ArtifactDeploymentManifest.digest(artifact!!), root))
+                .isEqualTo(uploadedPath)
+    }
+
+    @Then("^check the manifest should have nothing under root '(.+)'$")
+    fun checkManifestMissing(root: String) {
+        assertThat(manifest!!.get(ArtifactDeploymentManifest.digest(artifact!!), root)).isNull()
+    }
+
+    @And("^remove the artifact under root '(.+)' from the manifest$")
+    fun removeArtifact(root: String) {
+        manifest!!.remove(ArtifactDeploymentManifest.digest(artifact!!), root)
+    }
+
+    @And("^fill the manifest with (\\d+) other artifacts$")
+    fun fillManifest(count: Int) {
+        for (i in 0 until count) {
+            manifest!!.put("digest$i", "root", "path$i")
+        }
+    }
+
+    @And("^deploy the artifact with deduplication$")
+    fun deployArtifact() {
+        caught = null
+
+        try {
+            deployedPaths.add(DeduplicatedDeploy(storage!!, manifest!!)
+                    .deploy(artifact!!)
+                    .toBlocking()
+                    .single())
+        } catch (ex: Exception) {
+            caught = ex
+        }
+    }
+
+    @And("^delete all uploaded artifacts from the storage$")
+    fun deleteUploaded() {
+        storage!!.existing.clear()
+    }
+
+    @And("^make the storage fail (uploading|checking)$")
+    fun makeStorageFail(operation: String) {
+        when (operation) {
+            "uploading" -> storage!!.failUploading = true
+            else -> storage!!.failChecking = true
+        }
+    }
+
+    @Then("^check the storage should have (\\d+) uploads?$")
+    fun checkUploads(count: Int) {
+        assertThat(storage!!.uploads).hasSize(count)
+    }
+
+    @Then("^check the deployments should return the same path$")
+    fun checkSamePath() {
+        assertThat(caught).isNull()
+        assertThat(deployedPaths).hasSize(2)
+        assertThat(deployedPaths[1]).isEqualTo(deployedPaths[0])
+    }
+
+    @Then("^check the last deployment should return the last upload and be recorded$")
+    fun checkLastUpload() {
+        assertThat(caught).isNull()
+        assertThat(deployedPaths.last()).isEqualTo(storage!!.uploads.last())
+        assertThat(manifest!!.get(ArtifactDeploymentManifest.digest(artifact!!), storage!!.destinationRoot))
+                .isEqualTo(storage!!.uploads.last())
+    }
+
+    @Then("^check the deployment should fail with '(.+)'$")
+    fun checkFailed(message: String) {
+        assertThat(caught).isNotNull()
+        assertThat(generateSequence(caught) { it.cause }.map { it.message }.toList()).contains(message)
+    }
+}
@@ -65,6 +65,16 @@ class MockHttpService {
                     .withBody(normalizeResponse(response))))
     }
 
+    fun stubWithBodyContaining(action: String, uri: String, bodyPart: String, statusCode: Int, response: String) {
+        WireMock.configureFor(port)
+        WireMock.stubFor(
+            WireMock.request(action, WireMock.urlEqualTo(uri))
+                .withRequestBody(WireMock.containing(bodyPart))
+                .willReturn(WireMock.aResponse()
+                    .withStatus(statusCode)
+                    .withBody(normalizeResponse(response))))
+    }
+
     fun normalizeResponse(rawResponse: String): String {
         val engine = SimpleTemplateEngine()
         return engine.createTemplate(rawResponse).make(templateProperties).toString()
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ *
+ * All rights reserved.
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.microsoft.azure.hdinsight.spark.common
+
+import com.github.tomakehurst.wiremock.client.WireMock
+import com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor
+import com.github.tomakehurst.wiremock.client.WireMock.urlEqualTo
+import cucumber.api.java.Before
+import cucumber.api.java.en.And
+import cucumber.api.java.en.Given
+import cucumber.api.java.en.Then
+import org.assertj.core.api.Assertions.assertThat
+import rx.Observable
+import java.net.URI
+
+class SparkBatchJobStateTrackerScenario {
+    private var httpServerMock: MockHttpService? = null
+    private var tracker: SparkBatchJobStateTracker? = null
+    private var statesGot: Map<Int, List<String>> = emptyMap()
+    private var caught: Throwable? = null
+
+    @Before
+    fun setUp() {
+        httpServerMock = MockHttpService()
+    }
+
+    @Given("^setup a mock livy batches service for (.+) request '(.+)' to return '(.+)' with status code (\\d+)$")
+    fun mockLivyBatchesService(action: String, serviceUrl: String, response: String, statusCode: Int) {
+        httpServerMock!!.stub(action, serviceUrl, statusCode, response)
+    }
+
+    @And("^create a Spark batch job state tracker for '(.+)'$")
+    fun createTracker(connectUrl: String) {
+        tracker = SparkBatchJobStateTracker(httpServerMock!!.completeUrl(connectUrl), SparkBatchSubmission.getInstance())
+                .setStartingIntervalMillis(10)
+                .setRunningIntervalMillis(10)
+                .setMaxConsecutiveFailures(0)
+    }
+
+    @And("^get the shared Spark batch job state tracker for '(.+)'$")
+    fun getSharedTracker(connectUrl: String) {
+        tracker = SparkBatchJobStateTracker.getInstance(
+                URI.create(httpServerMock!!.completeUrl(connectUrl)), SparkBatchSubmission())
+                .setStartingIntervalMillis(10)
+                .setRunningIntervalMillis(10)
+                .setMaxConsecutiveFailures(0)
+    }
+
+    @And("^track the states of Spark batch jobs together$")
+    fun trackStates(batchIds: List<Int>) {
+        caught = null
+
+        try {
+            statesGot = Observable.merge(batchIds.map { batchId ->
+                        tracker!!.getStateObservable(batchId).map { batchId to it.toString() } })
+                    .toList()
+                    .toBlocking()
+                    .single()
+                    .groupBy({ it.first }, { it.second })
+        } catch (ex: Exception) {
+            caught = ex
+        }
+    }
+
+    @Then("^check the tracked states of Spark batch job (\\d+) should be$")
+    fun checkTrackedStates(batchId: Int, statesExpect: List<String>) {
+        assertThat(caught).isNull()
+        assertThat(statesGot[batchId]).containsExactlyElementsOf(statesExpect)
+    }
+
+    @Then("^check getting the shared Spark batch job state tracker for '(.+)' again should reuse it with the new submission$")
+    fun checkSharedTrackerReused(connectUrl: String) {
+        val submission = SparkBatchSubmission()
+        val trackerGot = SparkBatchJobStateTracker.getInstance(
+                URI.create(httpServerMock!!.completeUrl(connectUrl)), submission)
+
+        assertThat(trackerGot).isSameAs(tracker)
+        assertThat(trackerGot.submission).isSameAs(submission)
+    }
+
+    @Then("^check the shared Spark batch job state tracker for '(.+)' should be released$")
+    fun checkSharedTrackerReleased(connectUrl: String) {
+        // The jobs are unwatched right after their completions are delivered, wait for it
+        val deadline = System.currentTimeMillis() + 5000
+        var trackerFound: SparkBatchJobStateTracker?
+
+        do {
+            trackerFound = SparkBatchJobStateTracker.find(URI.create(httpServerMock!!.completeUrl(connectUrl)))
+                    .orElse(null)
+        } while (trackerFound != null && System.currentTimeMillis() < deadline)
+
+        assertThat(trackerFound).isNull()
+    }
+
+    @Then("^check finding the shared Spark batch job state tracker for '(.+)' should not create it$")
+    fun checkFindingTrackerNotCreated(connectUrl: String) {
+        val connectUri = URI.create(httpServerMock!!.completeUrl(connectUrl))
+
+        SparkBatchJobStateTracker.find(connectUri)
+
+        assertThat(SparkBatchJobStateTracker.find(connectUri)).isEmpty()
+    }
+
+    @Then("^check the Livy batches request '(.+)' should be sent (\\d+) times?$")
+    fun checkBatchesRequestCount(url: String, countExpect: Int) {
+        WireMock.verify(countExpect, getRequestedFor(urlEqualTo(url)))
+    }
+
+    @Then("^check the SparkJobException should be thrown in tracking$")
+    fun checkTrackingException() {
+        // The checked exception is wrapped by RxJava blocking observable
+        assertThat(caught?.cause ?: caught).isInstanceOf(SparkJobException::class.java)
+    }
+}
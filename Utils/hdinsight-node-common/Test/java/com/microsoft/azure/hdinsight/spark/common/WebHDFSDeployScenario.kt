@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ *
+ * All rights reserved.
+ *
+ * MIT License
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ *
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.microsoft.azure.hdinsight.spark.common
+
+import com.github.tomakehurst.wiremock.client.WireMock
+import com.github.tomakehurst.wiremock.client.WireMock.*
+import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail
+import com.microsoft.azure.hdinsight.sdk.common.HttpObservable
+import cucumber.api.java.After
+import cucumber.api.java.Before
+import cucumber.api.java.en.And
+import cucumber.api.java.en.Given
+import cucumber.api.java.en.Then
+import org.assertj.core.api.Assertions.assertThat
+import org.mockito.Mockito.mock
+import java.io.File
+
+class WebHDFSDeployScenario {
+    private var httpServerMock: MockHttpService? = null
+    private var artifact: File? = null
+    private var uploadedPath: String? = null
+    private var caught: Throwable? = null
+
+    @Before
+    fun setUp() {
+        httpServerMock = MockHttpService()
+    }
+
+    @After
+    fun cleanUp() {
+        artifact?.delete()
+    }
+
+    @Given("^setup a mock WebHDFS service to respond (\\w+) request with status code (\\d+)$")
+    fun mockWebHdfsOperation(operation: String, statusCode: Int) {
+        configureFor(httpServerMock!!.port)
+        stubFor(put(urlPathMatching("/webhdfs/v1/.*"))
+                .withQueryParam("op", equalTo(operation))
+                .willReturn(aResponse().withStatus(statusCode)))
+    }
+
+    @And("^setup a mock WebHDFS service to redirect CREATE request to '(.+)'$")
+    fun mockWebHdfsCreate(redirectUrl: String) {
+        configureFor(httpServerMock!!.port)
+        stubFor(put(urlPathMatching("/webhdfs/v1/.*"))
+                .withQueryParam("op", equalTo("CREATE"))
+                .willReturn(aResponse()
+                        .withStatus(307)
+                        .withHeader("Location", httpServerMock!!.completeUrl(redirectUrl))))
+    }
+
+    @And("^setup a mock WebHDFS data node for '(.+)' to respond status code (\\d+)$")
+    fun mockWebHdfsDataNode(url: String, statusCode: Int) {
+        configureFor(httpServerMock!!.port)
+        stubFor(put(urlPathEqualTo(url)).willReturn(aResponse().withStatus(statusCode)))
+    }
+
+    @And("^create a local artifact with (\\d+) bytes$")
+    fun createArtifact(size: Int) {
+        artifact = File.createTempFile("webhdfs-artifact", ".jar").apply {
+            writeBytes(ByteArray(size) { (it % 127).toByte() })
+        }
+    }
+
+    @And("^deploy the artifact by WebHDFS to '(.+)'$")
+    fun deployArtifact(destinationRoot: String) {
+        caught = null
+
+        try {
+            uploadedPath = WebHDFSDeploy(
+                    mock(IClusterDetail::class.java), HttpObservable(), httpServerMock!!.completeUrl(destinationRoot))
+                    .deploy(artifact!!)
+                    .toBlocking()
+                    .single()
+        } catch (ex: Exception) {
+            caught = ex
+        }
+    }
+
+    @Then("^check the artifact should be uploaded to '(.+)' with the content length$")
+    fun checkUploaded(url: String) {
+        assertThat(caught).isNull()
+        assertThat(uploadedPath).endsWith(artifact!!.name + "?op=OPEN")
+
+        WireMock.verify(1, putRequestedFor(urlPathEqualTo(url))
+                .withHeader("Content-Length", equalTo(artifact!!.length().toString()))
+                .withRequestBody(binaryEqualTo(artifact!!.readBytes())))
+    }
+
+    @Then("^check the artifact uploading should fail$")
+    fun checkUploadingFailed() {
+        assertThat(caught).isNotNull()
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.ExecutorAddedEventLog;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.ExecutorRemovedEventLog;
+import cucumber.api.java.en.Given;
+import cucumber.api.java.en.Then;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SparkEventLogReaderScenario {
+    private String eventLogs = "";
+
+    @Given("^Spark event logs:$")
+    public void setEventLogs(String logs) throws Throwable {
+        eventLogs = logs;
+    }
+
+    private List<Object> readEvents(String types) {
+        Map<String, Class<?>> eventClasses = Arrays.stream(types.split(","))
+                .collect(Collectors.toMap(type -> type, type -> SparkEventLogReader.EVENT_CLASSES.getOrDefault(type, Object.class)));
+
+        return SparkEventLogReader.parseEvents(
+                        SparkEventLogReader.readLines(() -> new ByteArrayInputStream(eventLogs.getBytes(StandardCharsets.UTF_8))),
+                        eventClasses)
+                .toList()
+                .toBlocking()
+                .single();
+    }
+
+    @Then("^reading the Spark events of types '(.+)' should get executor IDs '(.+)'$")
+    public void checkExecutorEvents(String types, String expectIds) throws Throwable {
+        List<String> executorIds = readEvents(types).stream()
+                .map(event -> event instanceof ExecutorAddedEventLog ?
+                        ((ExecutorAddedEventLog) event).getExecutorId() :
+                        ((ExecutorRemovedEventLog) event).getExecutorId())
+                .collect(Collectors.toList());
+
+        assertThat(executorIds).containsExactly(expectIds.split(","));
+    }
+
+    @Then("^reading the Spark events of types '(.+)' should get (\\d+) events$")
+    public void checkEventsCount(String types, int expectCount) throws Throwable {
+        assertThat(readEvents(types)).hasSize(expectCount);
+    }
+
+    @Then("^the event type of Spark event log line '(.+)' should be '(.*)'$")
+    public void checkEventType(String line, String expectType) throws Throwable {
+        String actual = SparkEventLogReader.getEventType(line);
+
+        assertThat(actual == null ? "" : actual).isEqualTo(expectType);
+    }
+}
@@ -45,6 +45,25 @@ Feature: Livy Interactive Session Tests
     Then check Spark interactive session statement run result stdout should be
       | Hello World! |
 
+  Scenario: Session.runCodesInBatch() IT positive case with mocked http server
+    Given setup a mock livy interactive service for POST request '/sessions' to return '{"id":6,"appId":null,"owner":null,"proxyUser":null,"state":"starting","kind":"spark","appInfo":{"driverLogUrl":null,"sparkUiUrl":null},"log":[]}' with status code 200
+    And setup a mock livy interactive service for GET request '/sessions/6' to return '{"id":6,"appId":"application_1517029729598_0086","owner":null,"proxyUser":null,"state":"idle","kind":"spark","appInfo":{"driverLogUrl":"https://zhwe-spkdbg.azurehdinsight.net/yarnui/10.0.0.8/node/containerlogs/container_e04_1517029729598_0086_01_000001/livy","sparkUiUrl":"https://zhwe-spkdbg.azurehdinsight.net/yarnui/hn/proxy/application_1517029729598_0086/"},"log":[]}' with status code 200
+    And create a livy Spark interactive session instance with name 'testSparkREPL'
+    And create the Spark interactive session, and save the response
+    Then check the returned livy interactive session after creating should be
+      | id        | 6 |
+    Given setup a mock livy interactive statement service for POST request '/sessions/6/statements' with body containing 'Hello' to return '{"id":0,"state":"waiting","output":null}' with status code 200
+    And setup a mock livy interactive statement service for POST request '/sessions/6/statements' with body containing 'World' to return '{"id":1,"state":"waiting","output":null}' with status code 200
+    And setup a mock livy interactive service for GET request '/sessions/6/statements' to return '{"total_statements":2,"statements":[{"id":0,"code":"println(\"Hello\")","state":"available","output":{"status":"ok","execution_count":0,"data":{"text/plain":"Hello"}}},{"id":1,"code":"println(\"World\")","state":"available","output":{"status":"ok","execution_count":1,"data":{"text/plain":"World"}}}]}' with status code 200
+    And run the following codes in batch in livy Spark interactive session
+      | println("Hello") |
+      | println("World") |
+    Then check Spark interactive session batch run results stdout should be
+      | Hello |
+      | World |
+    Then check no GET request sent to '/sessions/6/statements/0'
+    Then check no GET request sent to '/sessions/6/statements/1'
+
   Scenario: Session.create() UA with random UUID IT positive case with mocked http server
     Given setup a mock livy interactive service for POST request '/sessions' to return '{"id":6,"appId":null,"owner":null,"proxyUser":null,"state":"starting","kind":"spark","appInfo":{"driverLogUrl":null,"sparkUiUrl":null},"log":[]}' with status code 200
     And create a livy Spark interactive session instance with name 'testSparkREPL1'
@@ -0,0 +1,47 @@
+Feature: ClusterFilePipelinedUploader tests
+
+  Scenario: The pages sent in flight should be written in sequence and verified
+    Given create a mocked Livy session for ClusterFilePipelinedUploader
+    And create a local file of 5500 random bytes to upload
+    And upload the file with page size 1KB, 4 pages in flight and 0 retries
+    Then check the file should be written in 6 pages in sequence and verified
+    Then check the uploaded bytes reported should end with 5500
+
+  Scenario: The failed page should be resent alone after backing off
+    Given create a mocked Livy session for ClusterFilePipelinedUploader
+    And create a local file of 5500 random bytes to upload
+    And the page 2 fails 1 time in the cluster
+    And upload the file with page size 1KB, 4 pages in flight and 1 retries
+    Then check the file should be written in 6 pages in sequence and verified
+    Then check the page 2 should be sent 2 times
+    Then check the page 3 should be sent 1 time
+    Then check the upload should take at least 1 second
+
+  Scenario: The page failed more than the retries should fail the upload
+    Given create a mocked Livy session for ClusterFilePipelinedUploader
+    And create a local file of 5500 random bytes to upload
+    And the page 1 fails 2 times in the cluster
+    And upload the file with page size 1KB, 4 pages in flight and 1 retries
+    Then check the IOException should be thrown in uploading
+    Then check the page 1 should be sent 2 times
+
+  Scenario: The corrupted file should fail the SHA-256 verification
+    Given create a mocked Livy session for ClusterFilePipelinedUploader
+    And create a local file of 5500 random bytes to upload
+    And the cluster corrupts the written file
+    And upload the file with page size 1KB, 4 pages in flight and 0 retries
+    Then check the IOException should be thrown in uploading
+
+  Scenario: The large page should be split into the literals Scala accepts
+    Given create a mocked Livy session for ClusterFilePipelinedUploader
+    And create a local file of 600000 random bytes to upload
+    And upload the file with page size 256KB, 4 pages in flight and 0 retries
+    Then check the file should be written in 3 pages in sequence and verified
+    Then check each page literal should be at most 32768 bytes
+
+  Scenario: The page statement over the length limit should fail the upload
+    Given create a mocked Livy session for ClusterFilePipelinedUploader
+    And create a local file of 3500000 random bytes to upload
+    And upload the file with page size 4096KB, 4 pages in flight and 1 retries
+    Then check the IOException should be thrown in uploading
+    Then check no page should be sent
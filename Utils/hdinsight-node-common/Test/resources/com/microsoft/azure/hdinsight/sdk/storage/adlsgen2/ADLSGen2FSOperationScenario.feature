@@ -0,0 +1,25 @@
+Feature: ADLSGen2FSOperation tests
+
+  Scenario: The directory listing should follow the continuation token page by page
+    Given setup a mock ADLS Gen2 file system '/fs' to list page with continuation '' and next continuation 'token1'
+      | dir/a |
+      | dir/b |
+    And setup a mock ADLS Gen2 file system '/fs' to list page with continuation 'token1' and next continuation 'token2'
+      | dir/c |
+    And setup a mock ADLS Gen2 file system '/fs' to list page with continuation 'token2' and next continuation ''
+      | dir/d |
+      | dir/e |
+    And list the directory 'dir' of the file system '/fs' in pages
+    Then check the listed pages should be
+      | dir/a,dir/b |
+      | dir/c       |
+      | dir/d,dir/e |
+    And check 3 list requests sent to '/fs'
+
+  Scenario: The directory listing without continuation token should be one page
+    Given setup a mock ADLS Gen2 file system '/fs' to list page with continuation '' and next continuation ''
+      | dir/a |
+    And list the directory 'dir' of the file system '/fs' in pages
+    Then check the listed pages should be
+      | dir/a |
+    And check 1 list requests sent to '/fs'
@@ -0,0 +1,47 @@
+Feature: DeduplicatedDeploy tests
+
+  Scenario: The manifest should persist the deployed artifacts
+    Given create a local artifact with content 'spark job'
+    And record the artifact deployed to 'wasbs://c@a/SparkSubmission/1/artifact.jar' under root 'wasbs://c@a/SparkSubmission' in the manifest
+    Then check the manifest reloaded from file should have 'wasbs://c@a/SparkSubmission/1/artifact.jar' under root 'wasbs://c@a/SparkSubmission'
+    And check the manifest should have nothing under root 'wasbs://c@a/Other'
+
+  Scenario: The manifest should forget the removed and the least recently used artifacts
+    Given create a local artifact with content 'spark job'
+    And record the artifact deployed to 'wasbs://c@a/SparkSubmission/1/artifact.jar' under root 'wasbs://c@a/SparkSubmission' in the manifest
+    And remove the artifact under root 'wasbs://c@a/SparkSubmission' from the manifest
+    Then check the manifest should have nothing under root 'wasbs://c@a/SparkSubmission'
+    And record the artifact deployed to 'wasbs://c@a/SparkSubmission/1/artifact.jar' under root 'wasbs://c@a/SparkSubmission' in the manifest
+    And fill the manifest with 200 other artifacts
+    Then check the manifest should have nothing under root 'wasbs://c@a/SparkSubmission'
+
+  Scenario: The artifact deployed before should be reused
+    Given create a local artifact with content 'spark job'
+    And deploy the artifact with deduplication
+    And deploy the artifact with deduplication
+    Then check the storage should have 1 upload
+    And check the deployments should return the same path
+
+  Scenario: The stale manifest entry should be uploaded again
+    Given create a local artifact with content 'spark job'
+    And deploy the artifact with deduplication
+    And delete all uploaded artifacts from the storage
+    And deploy the artifact with deduplication
+    Then check the storage should have 2 uploads
+    And check the last deployment should return the last upload and be recorded
+
+  Scenario: The uploading failure should be propagated without uploading again
+    Given create a local artifact with content 'spark job'
+    And make the storage fail uploading
+    And deploy the artifact with deduplication
+    Then check the deployment should fail with 'Upload failed'
+    And check the storage should have 1 upload
+    And check the manifest should have nothing under root 'wasbs://container@account/SparkSubmission'
+
+  Scenario: The checking failure should fall back to uploading
+    Given create a local artifact with content 'spark job'
+    And deploy the artifact with deduplication
+    And make the storage fail checking
+    And deploy the artifact with deduplication
+    Then check the storage should have 2 uploads
+    And check the last deployment should return the last upload and be recorded
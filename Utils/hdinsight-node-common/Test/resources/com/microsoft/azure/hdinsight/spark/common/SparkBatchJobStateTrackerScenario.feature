@@ -0,0 +1,41 @@
+Feature: SparkBatchJobStateTracker tests
+
+  Scenario: Jobs of the same cluster should share one GET /batches per tick
+    Given setup a mock livy batches service for GET request '/batches?from=0&size=100' to return '{"from":0,"total":2,"sessions":[{"id":1,"state":"success","appId":"application_1","log":[]},{"id":2,"state":"dead","appId":"application_2","log":["failed"]}]}' with status code 200
+    And create a Spark batch job state tracker for '/batches'
+    And track the states of Spark batch jobs together
+      | 1 |
+      | 2 |
+    Then check the tracked states of Spark batch job 1 should be
+      | success |
+    Then check the tracked states of Spark batch job 2 should be
+      | dead |
+    Then check the Livy batches request '/batches?from=0&size=100' should be sent 1 time
+
+  Scenario: The job not listed in GET /batches should be got separately
+    Given setup a mock livy batches service for GET request '/batches?from=0&size=100' to return '{"from":0,"total":0,"sessions":[]}' with status code 200
+    And setup a mock livy batches service for GET request '/batches/3' to return '{"id":3,"state":"success","appId":"application_3","log":[]}' with status code 200
+    And create a Spark batch job state tracker for '/batches'
+    And track the states of Spark batch jobs together
+      | 3 |
+    Then check the tracked states of Spark batch job 3 should be
+      | success |
+
+  Scenario: The job can't be found should be an error
+    Given setup a mock livy batches service for GET request '/batches?from=0&size=100' to return '{"from":0,"total":0,"sessions":[]}' with status code 200
+    And setup a mock livy batches service for GET request '/batches/4' to return 'Not Found' with status code 404
+    And create a Spark batch job state tracker for '/batches'
+    And track the states of Spark batch jobs together
+      | 4 |
+    Then check the SparkJobException should be thrown in tracking
+
+  Scenario: The shared tracker should take the latest submission and be released after tracking
+    Given setup a mock livy batches service for GET request '/batches?from=0&size=100' to return '{"from":0,"total":1,"sessions":[{"id":5,"state":"success","appId":"application_5","log":[]}]}' with status code 200
+    Then check finding the shared Spark batch job state tracker for '/batches' should not create it
+    And get the shared Spark batch job state tracker for '/batches'
+    Then check getting the shared Spark batch job state tracker for '/batches' again should reuse it with the new submission
+    And track the states of Spark batch jobs together
+      | 5 |
+    Then check the tracked states of Spark batch job 5 should be
+      | success |
+    Then check the shared Spark batch job state tracker for '/batches' should be released
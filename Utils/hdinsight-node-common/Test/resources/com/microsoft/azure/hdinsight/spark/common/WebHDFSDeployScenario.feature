@@ -0,0 +1,17 @@
+Feature: WebHDFSDeploy tests
+
+  Scenario: The artifact should be streamed to the redirected data node with the content length
+    Given setup a mock WebHDFS service to respond MKDIRS request with status code 200
+    And setup a mock WebHDFS service to redirect CREATE request to '/datanode/webhdfs/v1/upload'
+    And setup a mock WebHDFS data node for '/datanode/webhdfs/v1/upload' to respond status code 201
+    And create a local artifact with 3145728 bytes
+    And deploy the artifact by WebHDFS to '/webhdfs/v1/SparkSubmission/'
+    Then check the artifact should be uploaded to '/datanode/webhdfs/v1/upload' with the content length
+
+  Scenario: The data node failure should fail the artifact deployment
+    Given setup a mock WebHDFS service to respond MKDIRS request with status code 200
+    And setup a mock WebHDFS service to redirect CREATE request to '/datanode/webhdfs/v1/upload'
+    And setup a mock WebHDFS data node for '/datanode/webhdfs/v1/upload' to respond status code 500
+    And create a local artifact with 1024 bytes
+    And deploy the artifact by WebHDFS to '/webhdfs/v1/SparkSubmission/'
+    Then check the artifact uploading should fail
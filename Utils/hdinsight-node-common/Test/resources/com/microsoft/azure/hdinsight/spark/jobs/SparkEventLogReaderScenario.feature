@@ -0,0 +1,21 @@
+Feature: SparkEventLogReader Testing
+
+  Scenario: SparkEventLogReader reads the interested events only
+    Given Spark event logs:
+      """
+      {"Event":"SparkListenerLogStart","Spark Version":"2.2.0"}
+      {"Event":"SparkListenerExecutorAdded","Timestamp":1492569369011,"Executor ID":"1","Executor Info":{"Host":"wn0","Total Cores":4}}
+      {"Event":"SparkListenerJobStart","Job ID":0,"Submission Time":"1492569369011","Stage Infos":[],"Stage IDs":[0],"Properties":{}}
+      {"Event":"SparkListenerTaskEnd","Stage ID":0,"Stage Attempt ID":0,"Task Type":"ResultTask","Task End Reason":{"Reason":"Success"},"Task Info":{"Task ID":0},"Task Metrics":{}}
+      {"Event":"SparkListenerStageCompleted","Stage Info":{"Stage ID":0,"Stage Attempt ID":0,"Stage Name":"count at <console>:25","Number of Tasks":1,"Submission Time":1492569369011,"Completion Time":1492569369911,"Accumulables":[]}}
+      { "Executor ID" : "1", "Event" : "SparkListenerExecutorRemoved", "Timestamp" : 1492569379011, "Removed Reason" : "Container released" }
+      not a json line
+      """
+    Then reading the Spark events of types 'SparkListenerExecutorAdded,SparkListenerExecutorRemoved' should get executor IDs '1,1'
+    And reading the Spark events of types 'SparkListenerJobStart,SparkListenerStageCompleted,SparkListenerTaskEnd' should get 3 events
+    And reading the Spark events of types 'SparkListenerApplicationEnd' should get 0 events
+
+  Scenario: SparkEventLogReader gets event type from the event log line
+    Then the event type of Spark event log line '{"Event":"SparkListenerJobStart","Job ID":0}' should be 'SparkListenerJobStart'
+    And the event type of Spark event log line '{"Job ID":{"Event":"nested"},"Event":"SparkListenerJobEnd"}' should be 'SparkListenerJobEnd'
+    And the event type of Spark event log line '[1, 2]' should be ''
@@ -38,6 +38,8 @@ import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import com.microsoft.azuretools.azurecommons.helpers.StringHelper;
 import com.microsoft.azuretools.sdkmanage.AzureManager;
+import com.microsoft.azuretools.utils.AzureResourceSnapshotStore;
+import com.microsoft.azuretools.utils.ResourceSnapshot;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import rx.Observable;
@@ -268,6 +270,15 @@ public class ClusterManagerEx implements ILogger {
                 })
                 .collect(Collectors.toList());
 
+        AzureResourceSnapshotStore.getInstance().update(AzureResourceSnapshotStore.KIND_HDINSIGHT_CLUSTERS,
+                mergedClusters.stream()
+                        .filter(cluster -> cluster instanceof ClusterDetail)
+                        .map(cluster -> new ResourceSnapshot(cluster.getConnectionUrl(), cluster.getName(),
+                                cluster.getSubscription().getSubscriptionId(), cluster.getResourceGroup(),
+                                cluster.getLocation(), cluster.getState())
+                                .withProperty("version", cluster.getVersion()))
+                        .collect(Collectors.toList()));
+
         mergedClusters.addAll(allAdditionalClusters);
         mergedClusters.addAll(getEmulatorClusterDetails());
 
@@ -22,6 +22,7 @@
 
 package com.microsoft.azure.hdinsight.sdk.common;
 
+import com.fasterxml.jackson.databind.JavaType;
 import com.microsoft.azure.hdinsight.sdk.common.errorresponse.HttpErrorStatus;
 import com.microsoft.azuretools.authmanage.CommonSettings;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
@@ -51,18 +52,26 @@ public class AzureDataLakeHttpObservable extends AzureHttpObservable {
     @Override
     public Observable<HttpResponse> requestWithHttpResponse(HttpRequestBase httpRequest, HttpEntity entity, List<NameValuePair> parameters, List<Header> addOrReplaceHeaders) {
         return super.requestWithHttpResponse(httpRequest, entity, parameters, addOrReplaceHeaders)
-                .onErrorResumeNext(err -> {
-                    if (err instanceof HttpErrorStatus) {
-                        HttpErrorStatus status = (HttpErrorStatus) err;
-                        return Observable.error(
-                                new SparkAzureDataLakePoolServiceException(
-                                        status.getStatusCode(),
-                                        err.getMessage(),
-                                        getRequestIdFromHeaders(status.getHeaders())));
-                    } else {
-                        return Observable.error(err);
-                    }
-                });
+                .onErrorResumeNext(this::toServiceException);
+    }
+
+    @Override
+    public <T> Observable<T> requestWithObject(HttpRequestBase httpRequest, HttpEntity entity, List<NameValuePair> parameters, List<Header> addOrReplaceHeaders, JavaType type) {
+        return super.<T>requestWithObject(httpRequest, entity, parameters, addOrReplaceHeaders, type)
+                .onErrorResumeNext(this::toServiceException);
+    }
+
+    private <T> Observable<T> toServiceException(Throwable err) {
+        if (err instanceof HttpErrorStatus) {
+            HttpErrorStatus status = (HttpErrorStatus) err;
+            return Observable.error(
+                    new SparkAzureDataLakePoolServiceException(
+                            status.getStatusCode(),
+                            err.getMessage(),
+                            getRequestIdFromHeaders(status.getHeaders())));
+        } else {
+            return Observable.error(err);
+        }
     }
 
     @NotNull
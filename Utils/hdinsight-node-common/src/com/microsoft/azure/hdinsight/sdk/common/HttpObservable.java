@@ -22,6 +22,12 @@
 
 package com.microsoft.azure.hdinsight.sdk.common;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.filter.FilteringParserDelegate;
+import com.fasterxml.jackson.core.filter.JsonPointerBasedFilter;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
 import com.microsoft.azure.hdinsight.common.CommonConst;
 import com.microsoft.azure.hdinsight.common.StreamUtil;
 import com.microsoft.azure.hdinsight.common.logger.ILogger;
@@ -36,10 +42,7 @@ import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.NameValuePair;
 import org.apache.http.StatusLine;
-import org.apache.http.auth.AuthScope;
-import org.apache.http.auth.UsernamePasswordCredentials;
 import org.apache.http.client.CookieStore;
-import org.apache.http.client.CredentialsProvider;
 import org.apache.http.client.config.AuthSchemes;
 import org.apache.http.client.config.CookieSpecs;
 import org.apache.http.client.config.RequestConfig;
@@ -50,9 +53,7 @@ import org.apache.http.conn.ssl.DefaultHostnameVerifier;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.impl.client.BasicCookieStore;
-import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
 import org.apache.http.message.BasicHeader;
 import org.apache.http.message.HeaderGroup;
 import org.apache.http.protocol.BasicHttpContext;
@@ -62,9 +63,12 @@ import org.apache.http.ssl.TrustStrategy;
 import org.apache.http.util.EntityUtils;
 import rx.Observable;
 import rx.exceptions.Exceptions;
+import rx.observables.SyncOnSubscribe;
 
 import javax.net.ssl.SSLContext;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
 import java.net.UnknownServiceException;
 import java.security.KeyManagementException;
 import java.security.KeyStoreException;
@@ -92,7 +96,12 @@ public class HttpObservable implements ILogger {
     @NotNull
     private HttpContext httpContext;
 
+    // The key to get the pooled client of each endpoint
     @NotNull
+    private PooledHttpClientRegistry.PoolKey poolKey;
+
+    // The client set explicitly, rather than the pooled one of the endpoint
+    @Nullable
     private CloseableHttpClient httpClient;
 
     @NotNull
@@ -129,12 +138,7 @@ public class HttpObservable implements ILogger {
                 .setProxyPreferredAuthSchemes(Collections.singletonList(AuthSchemes.BASIC))
                 .build();
 
-        this.httpClient = HttpClients.custom()
-                .useSystemProperties()
-                .setDefaultCookieStore(getCookieStore())
-                .setDefaultRequestConfig(getDefaultRequestConfig())
-                .setSSLSocketFactory(createSSLSocketFactory())
-                .build();
+        this.poolKey = PooledHttpClientRegistry.PoolKey.anonymous(getSSLPoolName(), createSSLSocketFactory());
     }
 
     /**
@@ -146,17 +150,8 @@ public class HttpObservable implements ILogger {
     public HttpObservable(@NotNull final String username, @NotNull final String password) {
         this();
 
-        CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
-        credentialsProvider.setCredentials(
-                new AuthScope(AuthScope.ANY), new UsernamePasswordCredentials(username, password));
-
-        this.httpClient = HttpClients.custom()
-                .useSystemProperties()
-                .setDefaultCookieStore(getCookieStore())
-                .setDefaultCredentialsProvider(credentialsProvider)
-                .setDefaultRequestConfig(getDefaultRequestConfig())
-                .setSSLSocketFactory(createSSLSocketFactory())
-                .build();
+        this.poolKey = PooledHttpClientRegistry.PoolKey.basic(
+                getSSLPoolName(), username, password, createSSLSocketFactory());
     }
 
     /*
@@ -186,13 +181,27 @@ public class HttpObservable implements ILogger {
 
     public HttpObservable setCookieStore(@NotNull CookieStore cookieStore) {
         this.cookieStore = cookieStore;
+        this.httpContext.setAttribute(HttpClientContext.COOKIE_STORE, cookieStore);
 
         return this;
     }
 
     @NotNull
     public CloseableHttpClient getHttpClient() {
-        return httpClient;
+        return httpClient != null ? httpClient : PooledHttpClientRegistry.getInstance().getClient(poolKey);
+    }
+
+    /**
+     * Get the HTTP client to send the request to the URI
+     *
+     * @param uri the request URI
+     * @return the client set, or the pooled client of the URI's endpoint
+     */
+    @NotNull
+    public CloseableHttpClient getHttpClient(@NotNull URI uri) {
+        return httpClient != null
+                ? httpClient
+                : PooledHttpClientRegistry.getInstance().getClient(poolKey.forEndpoint(uri));
     }
 
     public HttpObservable setHttpClient(@NotNull CloseableHttpClient httpClient) {
@@ -263,6 +272,20 @@ public class HttpObservable implements ILogger {
         }
     }
 
+    /**
+     * Get the pooled HTTP clients name for the current SSL settings
+     *
+     * @return the pool name, which identifies the SSL socket factory created by createSSLSocketFactory()
+     */
+    @NotNull
+    private String getSSLPoolName() {
+        if (ServiceManager.getServiceProvider(TrustStrategy.class) == null) {
+            return PooledHttpClientRegistry.SYSTEM_DEFAULT_POOL;
+        }
+
+        return HttpObservable.isSSLCertificateValidationDisabled() ? "trusted-noverify" : "trusted";
+    }
+
     private SSLConnectionSocketFactory createSSLSocketFactory() {
         TrustStrategy ts = ServiceManager.getServiceProvider(TrustStrategy.class);
         SSLConnectionSocketFactory sslSocketFactory = null;
@@ -344,6 +367,141 @@ public class HttpObservable implements ILogger {
                 });
     }
 
+    /**
+     * Helper to bind the closeable stream good Http response (2xx) JSON entity to the specified type directly,
+     * without buffering the content as String.
+     * If the response is bad, propagate a HttpResponseException
+     *
+     * @param closeableHttpResponse the source closeable stream
+     * @param type the target type to convert
+     * @param <T> the target type
+     * @return the specified type instance
+     */
+    public static <T> Observable<T> toObjectOnlyOkResponse(@NotNull final CloseableHttpResponse closeableHttpResponse,
+                                                           @NotNull final JavaType type) {
+        return Observable.using(
+                // Resource factory
+                () -> closeableHttpResponse,
+                // Observable factory
+                streamResp -> {
+                    try {
+                        StatusLine status = streamResp.getStatusLine();
+
+                        if (status.getStatusCode() >= 300) {
+                            return Observable.error(classifyHttpError(streamResp));
+                        }
+
+                        HttpEntity entity = streamResp.getEntity();
+                        if (entity == null) {
+                            return Observable.error(new HDIException("Unknown HTTP server response: no content"));
+                        }
+
+                        try (InputStream content = entity.getContent()) {
+                            return ObjectConvertUtils.<T>convertJsonStreamToObject(content, type)
+                                    .map(Observable::just)
+                                    .orElseGet(() -> Observable.error(new HDIException(
+                                            "Unknown HTTP server response: null with status " + status)));
+                        }
+                    } catch (IOException e) {
+                        return Observable.error(e);
+                    }
+                },
+                // Resource dispose
+                HttpObservable::closeResponseQuietly);
+    }
+
+    /**
+     * Helper to emit the elements of a JSON array in the closeable stream good Http response (2xx) one by one,
+     * each element is bound to the specified type when it's requested by the subscriber.
+     * If the response is bad, propagate a HttpResponseException
+     *
+     * @param closeableHttpResponse the source closeable stream
+     * @param arrayPointer the JSON Pointer (RFC 6901) of the array, such as "/apps/app", empty for the root array
+     * @param clazz the array element type to convert
+     * @param <T> the array element type
+     * @return the array elements
+     */
+    public static <T> Observable<T> toArrayElementsOnlyOkResponse(@NotNull final CloseableHttpResponse closeableHttpResponse,
+                                                                  @NotNull final String arrayPointer,
+                                                                  @NotNull final Class<T> clazz) {
+        return Observable.using(
+                // Resource factory
+                () -> closeableHttpResponse,
+                // Observable factory
+                streamResp -> {
+                    try {
+                        StatusLine status = streamResp.getStatusLine();
+
+                        if (status.getStatusCode() >= 300) {
+                            return Observable.error(classifyHttpError(streamResp));
+                        }
+                    } catch (IOException e) {
+                        return Observable.error(e);
+                    }
+
+                    if (streamResp.getEntity() == null) {
+                        return Observable.empty();
+                    }
+
+                    return Observable.create(SyncOnSubscribe.<JsonParser, T>createStateful(
+                            // Seek to the array start
+                            () -> {
+                                try {
+                                    JsonParser parser = ObjectConvertUtils.createJsonParser(
+                                            streamResp.getEntity().getContent());
+
+                                    if (!arrayPointer.isEmpty()) {
+                                        parser = new FilteringParserDelegate(
+                                                parser, new JsonPointerBasedFilter(arrayPointer), false, false);
+                                    }
+
+                                    if (parser.nextToken() != JsonToken.START_ARRAY) {
+                                        parser.close();
+
+                                        throw propagate(new HDIException(
+                                                "Unknown HTTP server response: no JSON array at " + arrayPointer));
+                                    }
+
+                                    return parser;
+                                } catch (IOException e) {
+                                    throw propagate(e);
+                                }
+                            },
+                            // Read the next element
+                            (parser, observer) -> {
+                                try {
+                                    if (parser.nextToken() == JsonToken.END_ARRAY) {
+                                        observer.onCompleted();
+                                    } else {
+                                        observer.onNext(parser.readValueAs(clazz));
+                                    }
+                                } catch (IOException e) {
+                                    observer.onError(e);
+                                }
+
+                                return parser;
+                            },
+                            // Close the parser, for both completion and un-subscription
+                            parser -> {
+                                try {
+                                    parser.close();
+                                } catch (IOException ignore) {
+                                }
+                            }));
+                },
+                // Resource dispose
+                HttpObservable::closeResponseQuietly);
+    }
+
+    private static void closeResponseQuietly(@NotNull final CloseableHttpResponse response) {
+        try {
+            response.close();
+        } catch (IOException ignore) {
+            // The connection will be closed automatically after timeout,
+            // the exception in closing can be ignored.
+        }
+    }
+
     /**
      * Helper to convert the http response to a specified type
      *
@@ -382,6 +540,11 @@ public class HttpObservable implements ILogger {
 
             httpRequest.setURI(builder.build());
 
+            // The HTTP client is shared, set the request config per request
+            if (httpRequest.getConfig() == null) {
+                httpRequest.setConfig(getDefaultRequestConfig());
+            }
+
             // Set the default headers and update Headers
             httpRequest.setHeaders(getDefaultHeaders());
             Optional.ofNullable(addOrReplaceHeaders)
@@ -395,7 +558,7 @@ public class HttpObservable implements ILogger {
                 httpRequest.setHeader(entity.getContentType());
             }
 
-            return getHttpClient().execute(httpRequest, getHttpContext());
+            return getHttpClient(httpRequest.getURI()).execute(httpRequest, getHttpContext());
         });
     }
 
@@ -416,12 +579,52 @@ public class HttpObservable implements ILogger {
         return requestWithHttpResponse(new HttpHead(uri), null, parameters, addOrReplaceHeaders);
     }
 
+    /*
+     * RESTful API operations with the JSON response bound to specified type from the stream directly
+     */
+    public <T> Observable<T> requestWithObject(@NotNull final HttpRequestBase httpRequest,
+                                               @Nullable final HttpEntity entity,
+                                               @Nullable final List<NameValuePair> parameters,
+                                               @Nullable final List<Header> addOrReplaceHeaders,
+                                               @NotNull final JavaType type) {
+        return request(httpRequest, entity, parameters, addOrReplaceHeaders)
+                .flatMap(resp -> HttpObservable.<T>toObjectOnlyOkResponse(resp, type));
+    }
+
     public <T> Observable<T> get(@NotNull final String uri,
                                  @Nullable final List<NameValuePair> parameters,
                                  @Nullable final List<Header> addOrReplaceHeaders,
                                  @NotNull final Class<T> clazz) {
-        return requestWithHttpResponse(new HttpGet(uri), null, parameters, addOrReplaceHeaders)
-                .map(resp -> this.convertJsonResponseToObject(resp, clazz));
+        return requestWithObject(new HttpGet(uri), null, parameters, addOrReplaceHeaders,
+                                 ObjectConvertUtils.constructType(clazz));
+    }
+
+    public <T> Observable<T> get(@NotNull final String uri,
+                                 @Nullable final List<NameValuePair> parameters,
+                                 @Nullable final List<Header> addOrReplaceHeaders,
+                                 @NotNull final TypeReference<T> typeReference) {
+        return requestWithObject(new HttpGet(uri), null, parameters, addOrReplaceHeaders,
+                                 ObjectConvertUtils.constructType(typeReference));
+    }
+
+    /**
+     * GET a JSON response and emit the elements of an array in it one by one, for very large list responses
+     *
+     * @param uri the request URI
+     * @param parameters the request parameters
+     * @param addOrReplaceHeaders the headers to add or replace the default ones
+     * @param arrayPointer the JSON Pointer (RFC 6901) of the array, such as "/apps/app", empty for the root array
+     * @param clazz the array element type to convert
+     * @param <T> the array element type
+     * @return the array elements
+     */
+    public <T> Observable<T> getArrayElements(@NotNull final String uri,
+                                              @Nullable final List<NameValuePair> parameters,
+                                              @Nullable final List<Header> addOrReplaceHeaders,
+                                              @NotNull final String arrayPointer,
+                                              @NotNull final Class<T> clazz) {
+        return request(new HttpGet(uri), null, parameters, addOrReplaceHeaders)
+                .flatMap(resp -> toArrayElementsOnlyOkResponse(resp, arrayPointer, clazz));
     }
 
     public <T> Observable<T> put(@NotNull final String uri,
@@ -429,8 +632,17 @@ public class HttpObservable implements ILogger {
                                  @Nullable final List<NameValuePair> parameters,
                                  @Nullable final List<Header> addOrReplaceHeaders,
                                  @NotNull final Class<T> clazz) {
-        return requestWithHttpResponse(new HttpPut(uri), entity, parameters, addOrReplaceHeaders)
-                .map(resp -> this.convertJsonResponseToObject(resp, clazz));
+        return requestWithObject(new HttpPut(uri), entity, parameters, addOrReplaceHeaders,
+                                 ObjectConvertUtils.constructType(clazz));
+    }
+
+    public <T> Observable<T> put(@NotNull final String uri,
+                                 @Nullable final HttpEntity entity,
+                                 @Nullable final List<NameValuePair> parameters,
+                                 @Nullable final List<Header> addOrReplaceHeaders,
+                                 @NotNull final TypeReference<T> typeReference) {
+        return requestWithObject(new HttpPut(uri), entity, parameters, addOrReplaceHeaders,
+                                 ObjectConvertUtils.constructType(typeReference));
     }
 
     public <T> Observable<T> post(@NotNull final String uri,
@@ -438,8 +650,17 @@ public class HttpObservable implements ILogger {
                                   @Nullable final List<NameValuePair> parameters,
                                   @Nullable final List<Header> addOrReplaceHeaders,
                                   @NotNull final Class<T> clazz) {
-        return requestWithHttpResponse(new HttpPost(uri), entity, parameters, addOrReplaceHeaders)
-                .map(resp -> this.convertJsonResponseToObject(resp, clazz));
+        return requestWithObject(new HttpPost(uri), entity, parameters, addOrReplaceHeaders,
+                                 ObjectConvertUtils.constructType(clazz));
+    }
+
+    public <T> Observable<T> post(@NotNull final String uri,
+                                  @Nullable final HttpEntity entity,
+                                  @Nullable final List<NameValuePair> parameters,
+                                  @Nullable final List<Header> addOrReplaceHeaders,
+                                  @NotNull final TypeReference<T> typeReference) {
+        return requestWithObject(new HttpPost(uri), entity, parameters, addOrReplaceHeaders,
+                                 ObjectConvertUtils.constructType(typeReference));
     }
 
     public Observable<HttpResponse> delete(@NotNull final String uri,
@@ -453,8 +674,17 @@ public class HttpObservable implements ILogger {
                                    @Nullable final List<NameValuePair> parameters,
                                    @Nullable final List<Header> addOrReplaceHeaders,
                                    @NotNull final Class<T> clazz) {
-        return requestWithHttpResponse(new HttpPatch(uri), entity, parameters, addOrReplaceHeaders)
-                .map(resp -> this.convertJsonResponseToObject(resp, clazz));
+        return requestWithObject(new HttpPatch(uri), entity, parameters, addOrReplaceHeaders,
+                                 ObjectConvertUtils.constructType(clazz));
+    }
+
+    public <T> Observable<T> patch(@NotNull final String uri,
+                                   @Nullable final HttpEntity entity,
+                                   @Nullable final List<NameValuePair> parameters,
+                                   @Nullable final List<Header> addOrReplaceHeaders,
+                                   @NotNull final TypeReference<T> typeReference) {
+        return requestWithObject(new HttpPatch(uri), entity, parameters, addOrReplaceHeaders,
+                                 ObjectConvertUtils.constructType(typeReference));
     }
 
     public Observable<CloseableHttpResponse> executeReqAndCheckStatus(HttpEntityEnclosingRequestBase req, int validStatueCode, List<NameValuePair> pairs) {
@@ -463,7 +693,9 @@ public class HttpObservable implements ILogger {
                         resp -> {
                             int statusCode = resp.getStatusLine().getStatusCode();
                             if (statusCode != validStatueCode) {
-                                Exceptions.propagate(new UnknownServiceException(
+                                closeResponseQuietly(resp);
+
+                                throw Exceptions.propagate(new UnknownServiceException(
                                         String.format("Exceute request with unexpected code %s and resp %s", statusCode, resp)
                                 ));
                             }
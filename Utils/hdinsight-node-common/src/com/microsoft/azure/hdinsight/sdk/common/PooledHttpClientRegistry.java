@@ -0,0 +1,487 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.common;
+
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.http.HttpHost;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * The process-wide registry of pooled HTTP clients shared by all {@link HttpObservable} instances.
+ *
+ * The clients are keyed by the SSL socket factory flavor, the endpoint (scheme, host and port) and the hash of the
+ * credential, each client owns a {@link PoolingHttpClientConnectionManager} whose routes are the hosts it talks to,
+ * so the max-per-route limit is a per-host limit. Idle connections are evicted in background. A changed password
+ * gets a new client, the clients are never replaced since HttpObservable instances may still hold them, they are
+ * only closed by {@link #evict(PoolKey)} and {@link #shutdown()}.
+ */
+public class PooledHttpClientRegistry implements ILogger {
+    public static final int DEFAULT_MAX_TOTAL = 200;
+    public static final int DEFAULT_MAX_PER_ROUTE = 20;
+    public static final long DEFAULT_MAX_IDLE_SECONDS = 60;
+
+    // The pool name of clients with the system default SSL settings
+    public static final String SYSTEM_DEFAULT_POOL = "system";
+
+    // Lazy singleton initialization
+    private static class LazyHolder {
+        static final PooledHttpClientRegistry INSTANCE = new PooledHttpClientRegistry();
+    }
+
+    public static PooledHttpClientRegistry getInstance() {
+        return LazyHolder.INSTANCE;
+    }
+
+    /**
+     * The key of a pooled client, combined by the SSL socket factory flavor, the endpoint and the credential
+     */
+    public static final class PoolKey {
+        @NotNull
+        private final String name;
+
+        // The scheme://host:port of the endpoint, null for any endpoint
+        @Nullable
+        private final String endpoint;
+
+        @Nullable
+        private final String username;
+
+        // The SHA-256 hash of the credential to tell the passwords apart, rather than the password in plain text
+        @Nullable
+        private final String credentialHash;
+
+        @Nullable
+        private final CredentialsProvider credentialsProvider;
+
+        @Nullable
+        private final SSLConnectionSocketFactory sslSocketFactory;
+
+        private PoolKey(@NotNull String name,
+                        @Nullable String endpoint,
+                        @Nullable String username,
+                        @Nullable String credentialHash,
+                        @Nullable CredentialsProvider credentialsProvider,
+                        @Nullable SSLConnectionSocketFactory sslSocketFactory) {
+            this.name = name;
+            this.endpoint = endpoint;
+            this.username = username;
+            this.credentialHash = credentialHash;
+            this.credentialsProvider = credentialsProvider;
+            this.sslSocketFactory = sslSocketFactory;
+        }
+
+        /**
+         * Create a pool key for the anonymous (or header based authentication) requests
+         *
+         * @param name the pool name, which MUST identify the SSL settings
+         * @param sslSocketFactory the SSL socket factory, null for the system default one
+         * @return the pool key
+         */
+        public static PoolKey anonymous(@NotNull String name, @Nullable SSLConnectionSocketFactory sslSocketFactory) {
+            return new PoolKey(name, null, null, null, null, sslSocketFactory);
+        }
+
+        /**
+         * Create a pool key for the basic authentication requests
+         *
+         * @param name the pool name, which MUST identify the SSL settings
+         * @param username Basic authentication user name
+         * @param password Basic authentication password
+         * @param sslSocketFactory the SSL socket factory, null for the system default one
+         * @return the pool key
+         */
+        public static PoolKey basic(@NotNull String name,
+                                    @NotNull String username,
+                                    @NotNull String password,
+                                    @Nullable SSLConnectionSocketFactory sslSocketFactory) {
+            CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
+            credentialsProvider.setCredentials(
+                    new AuthScope(AuthScope.ANY), new UsernamePasswordCredentials(username, password));
+
+            return new PoolKey(name, null, username, DigestUtils.sha256Hex(username + ":" + password),
+                               credentialsProvider, sslSocketFactory);
+        }
+
+        /**
+         * Get the pool key of the endpoint, so the clusters sharing the user name with different passwords don't
+         * share or replace the pool. The anonymous key is returned as is, there is no credential to tell apart.
+         *
+         * @param uri the request URI
+         * @return the pool key of the URI's scheme, host and port
+         */
+        @NotNull
+        public PoolKey forEndpoint(@NotNull URI uri) {
+            if (username == null || uri.getScheme() == null || uri.getHost() == null) {
+                return this;
+            }
+
+            String scheme = uri.getScheme().toLowerCase();
+            int port = uri.getPort() >= 0 ? uri.getPort() : ("https".equals(scheme) ? 443 : 80);
+            String uriEndpoint = scheme + "://" + uri.getHost().toLowerCase() + ":" + port;
+
+            return uriEndpoint.equals(endpoint)
+                    ? this
+                    : new PoolKey(name, uriEndpoint, username, credentialHash, credentialsProvider, sslSocketFactory);
+        }
+
+        @NotNull
+        public String getName() {
+            return name;
+        }
+
+        @Nullable
+        public String getEndpoint() {
+            return endpoint;
+        }
+
+        @Nullable
+        public String getUsername() {
+            return username;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            PoolKey poolKey = (PoolKey) o;
+
+            // The SSL socket factories are created per HttpObservable, they are identified by the name.
+            return name.equals(poolKey.name) &&
+                    Objects.equals(endpoint, poolKey.endpoint) &&
+                    Objects.equals(username, poolKey.username) &&
+                    Objects.equals(credentialHash, poolKey.credentialHash);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(name, endpoint, username, credentialHash);
+        }
+
+        @Override
+        public String toString() {
+            // Leave the credential hash out of the logs
+            return (username == null ? name : name + ":" + username) + (endpoint == null ? "" : "@" + endpoint);
+        }
+    }
+
+    /**
+     * The snapshot of a connection pool statistics
+     */
+    public static final class PoolMetrics {
+        private final int leased;
+        private final int pending;
+        private final int available;
+        private final int max;
+
+        PoolMetrics(int leased, int pending, int available, int max) {
+            this.leased = leased;
+            this.pending = pending;
+            this.available = available;
+            this.max = max;
+        }
+
+        PoolMetrics(@NotNull PoolStats stats) {
+            this(stats.getLeased(), stats.getPending(), stats.getAvailable(), stats.getMax());
+        }
+
+        /**
+         * @return the number of connections being used to execute requests
+         */
+        public int getLeased() {
+            return leased;
+        }
+
+        /**
+         * @return the number of requests blocked and waiting for a free connection, a non-zero value means saturation
+         */
+        public int getPending() {
+            return pending;
+        }
+
+        /**
+         * @return the number of idle persistent connections
+         */
+        public int getAvailable() {
+            return available;
+        }
+
+        public int getMax() {
+            return max;
+        }
+
+        @NotNull
+        PoolMetrics plus(@NotNull PoolMetrics other) {
+            return new PoolMetrics(leased + other.leased,
+                                   pending + other.pending,
+                                   available + other.available,
+                                   max + other.max);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("[leased: %d; pending: %d; available: %d; max: %d]", leased, pending, available, max);
+        }
+    }
+
+    private static final class PooledClient {
+        @NotNull
+        private final PoolingHttpClientConnectionManager connectionManager;
+
+        @NotNull
+        private final CloseableHttpClient httpClient;
+
+        PooledClient(@NotNull PoolingHttpClientConnectionManager connectionManager,
+                     @NotNull CloseableHttpClient httpClient) {
+            this.connectionManager = connectionManager;
+            this.httpClient = httpClient;
+        }
+    }
+
+    @NotNull
+    private final ConcurrentMap<PoolKey, PooledClient> clients = new ConcurrentHashMap<>();
+
+    private volatile int maxTotal = Integer.getInteger(
+            "com.microsoft.azure.hdinsight.http.maxTotal", DEFAULT_MAX_TOTAL);
+
+    private volatile int maxPerRoute = Integer.getInteger(
+            "com.microsoft.azure.hdinsight.http.maxPerRoute", DEFAULT_MAX_PER_ROUTE);
+
+    private volatile long maxIdleSeconds = Long.getLong(
+            "com.microsoft.azure.hdinsight.http.maxIdleSeconds", DEFAULT_MAX_IDLE_SECONDS);
+
+    private PooledHttpClientRegistry() {
+    }
+
+    /*
+     * Getter / Setter
+     */
+
+    public int getMaxTotal() {
+        return maxTotal;
+    }
+
+    /**
+     * Set the max connections of each pool, applied to the existing pools too
+     *
+     * @param maxTotal the max connections of a pool
+     * @return current registry
+     */
+    public PooledHttpClientRegistry setMaxTotal(int maxTotal) {
+        this.maxTotal = maxTotal;
+        clients.values().forEach(client -> client.connectionManager.setMaxTotal(maxTotal));
+
+        return this;
+    }
+
+    public int getMaxPerRoute() {
+        return maxPerRoute;
+    }
+
+    /**
+     * Set the max connections of each host, applied to the existing pools too
+     *
+     * @param maxPerRoute the max connections of a host
+     * @return current registry
+     */
+    public PooledHttpClientRegistry setMaxPerRoute(int maxPerRoute) {
+        this.maxPerRoute = maxPerRoute;
+        clients.values().forEach(client -> client.connectionManager.setDefaultMaxPerRoute(maxPerRoute));
+
+        return this;
+    }
+
+    public long getMaxIdleSeconds() {
+        return maxIdleSeconds;
+    }
+
+    /**
+     * Set the max idle time before an idle connection is evicted, only applied to the pools created later
+     *
+     * @param maxIdleSeconds the max idle time in seconds
+     * @return current registry
+     */
+    public PooledHttpClientRegistry setMaxIdleSeconds(long maxIdleSeconds) {
+        this.maxIdleSeconds = maxIdleSeconds;
+
+        return this;
+    }
+
+    /*
+     * Pooled clients
+     */
+
+    /**
+     * Get or create the pooled HTTP client for the key
+     *
+     * @param key the pool key
+     * @return the shared HTTP client, the caller MUST NOT close it
+     */
+    @NotNull
+    public CloseableHttpClient getClient(@NotNull PoolKey key) {
+        return clients.computeIfAbsent(key, this::createPooledClient).httpClient;
+    }
+
+    /**
+     * Close and remove the pooled client of the key, the caller MUST make sure the client isn't used any more
+     *
+     * @param key the pool key
+     */
+    public void evict(@NotNull PoolKey key) {
+        PooledClient client = clients.remove(key);
+
+        if (client != null) {
+            close(key, client);
+        }
+    }
+
+    @NotNull
+    private PooledClient createPooledClient(@NotNull PoolKey key) {
+        Registry<ConnectionSocketFactory> socketFactoryRegistry = RegistryBuilder.<ConnectionSocketFactory>create()
+                .register("http", PlainConnectionSocketFactory.getSocketFactory())
+                .register("https", key.sslSocketFactory != null
+                        ? key.sslSocketFactory
+                        : SSLConnectionSocketFactory.getSystemSocketFactory())
+                .build();
+
+        PoolingHttpClientConnectionManager connectionManager =
+                new PoolingHttpClientConnectionManager(socketFactoryRegistry);
+        connectionManager.setMaxTotal(getMaxTotal());
+        connectionManager.setDefaultMaxPerRoute(getMaxPerRoute());
+
+        // The cookie store and the request config are per HttpObservable, which are set by the HTTP context
+        // and the request, so don't set them here.
+        CloseableHttpClient httpClient = HttpClients.custom()
+                .useSystemProperties()
+                .setConnectionManager(connectionManager)
+                .setDefaultCredentialsProvider(key.credentialsProvider)
+                .evictExpiredConnections()
+                .evictIdleConnections(getMaxIdleSeconds(), TimeUnit.SECONDS)
+                .build();
+
+        log().debug("Created pooled HTTP client for " + key);
+
+        return new PooledClient(connectionManager, httpClient);
+    }
+
+    private void close(@NotNull PoolKey key, @NotNull PooledClient client) {
+        try {
+            client.httpClient.close();
+        } catch (IOException ex) {
+            log().warn("Close the pooled HTTP client " + key + " failure", ex);
+        }
+    }
+
+    /*
+     * Metrics
+     */
+
+    /**
+     * Get the statistics of all pools
+     *
+     * @return the map of pool key and its total statistics
+     */
+    @NotNull
+    public Map<PoolKey, PoolMetrics> getPoolMetrics() {
+        return clients.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey,
+                                          entry -> new PoolMetrics(entry.getValue().connectionManager.getTotalStats())));
+    }
+
+    /**
+     * Get the statistics summed up of all pools
+     *
+     * @return the summed statistics
+     */
+    @NotNull
+    public PoolMetrics getTotalMetrics() {
+        return getPoolMetrics().values().stream()
+                .reduce(new PoolMetrics(0, 0, 0, 0), PoolMetrics::plus);
+    }
+
+    /**
+     * Get the statistics of an endpoint summed up of all pools
+     *
+     * @param host the endpoint host
+     * @return the summed statistics of the endpoint
+     */
+    @NotNull
+    public PoolMetrics getRouteMetrics(@NotNull HttpHost host) {
+        return clients.values().stream()
+                .flatMap(client -> client.connectionManager.getRoutes().stream()
+                        .filter(route -> host.equals(route.getTargetHost()))
+                        .map(route -> new PoolMetrics(client.connectionManager.getStats(route))))
+                .reduce(new PoolMetrics(0, 0, 0, 0), PoolMetrics::plus);
+    }
+
+    @NotNull
+    public Map<HttpRoute, PoolMetrics> getRouteMetrics(@NotNull PoolKey key) {
+        PooledClient client = clients.get(key);
+
+        if (client == null) {
+            return Collections.emptyMap();
+        }
+
+        return client.connectionManager.getRoutes().stream()
+                .collect(Collectors.toMap(route -> route,
+                                          route -> new PoolMetrics(client.connectionManager.getStats(route))));
+    }
+
+    /**
+     * Close and remove all pooled clients, the clients will be recreated at the next request
+     */
+    public void shutdown() {
+        clients.keySet().forEach(this::evict);
+    }
+}
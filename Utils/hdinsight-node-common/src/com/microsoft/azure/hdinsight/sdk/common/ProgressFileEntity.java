@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.common;
+
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.FileEntity;
+import rx.functions.Action1;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * The file entity streamed from disk with a known content length, which reports the bytes written for progress.
+ *
+ * Unlike BufferedHttpEntity, the file content is never held in memory, and the entity is still repeatable for
+ * the re-sending after the redirect or authentication challenge.
+ */
+public class ProgressFileEntity extends FileEntity {
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+
+    // Report the progress every 1MB at least
+    private static final long PROGRESS_STEP = 1024 * 1024;
+
+    @Nullable
+    private final Action1<Long> progressCallback;
+
+    public ProgressFileEntity(@NotNull File file,
+                              @NotNull ContentType contentType,
+                              @Nullable Action1<Long> progressCallback) {
+        super(file, contentType);
+
+        this.progressCallback = progressCallback;
+    }
+
+    @Override
+    public void writeTo(@NotNull OutputStream outStream) throws IOException {
+        long written = 0;
+        long reported = 0;
+
+        try (InputStream inStream = new FileInputStream(this.file)) {
+            byte[] buffer = new byte[OUTPUT_BUFFER_SIZE];
+            int count;
+
+            while ((count = inStream.read(buffer)) != -1) {
+                outStream.write(buffer, 0, count);
+                written += count;
+
+                if (progressCallback != null && written - reported >= PROGRESS_STEP) {
+                    progressCallback.call(written);
+                    reported = written;
+                }
+            }
+
+            outStream.flush();
+        }
+
+        if (progressCallback != null && written != reported) {
+            progressCallback.call(written);
+        }
+    }
+}
@@ -39,6 +39,7 @@ import rx.Observable;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public class SharedKeyHttpObservable extends HttpObservable {
@@ -93,19 +94,30 @@ public class SharedKeyHttpObservable extends HttpObservable {
                 ? ((HttpEntityEnclosingRequestBase) httpRequest).getEntity()
                 : null;
 
+        // Sign with a per request copy of default headers, rather than updating the shared default headers,
+        // since the requests could be sent concurrently, such as the parallel block appending
+        HeaderGroup requestHeaders = new HeaderGroup();
+        requestHeaders.setHeaders(defaultHeaders.getAllHeaders());
+        requestHeaders.updateHeader(new BasicHeader("x-ms-client-request-id", UUID.randomUUID().toString()));
+        requestHeaders.updateHeader(new BasicHeader("x-ms-date", Utility.getGMTTime()));
+
         if (entityFromRequest != null) {
             // Job deployment needs to set content-length to generate shared key
             // httpclient auto adds this header and calculates length when executing
             // so remove this header after key generation otherwise header already exists exp happens
-            // MUST follow the order when content length is needed to generate key
-            setContentLength(String.valueOf(entityFromRequest.getContentLength()));
-            this.setAuthorization(httpRequest, parameters);
-            this.removeContentLength();
-        } else {
-            this.setAuthorization(httpRequest, parameters);
+            requestHeaders.updateHeader(new BasicHeader("Content-Length", String.valueOf(entityFromRequest.getContentLength())));
+
+            // The entity content type will be sent, sign with it
+            Optional.ofNullable(entityFromRequest.getContentType())
+                    .ifPresent(contentType -> requestHeaders.updateHeader(
+                            new BasicHeader("Content-Type", contentType.getValue())));
         }
 
-        return super.request(httpRequest, entityFromRequest, parameters, null);
+        requestHeaders.updateHeader(new BasicHeader(
+                "authorization", cred.generateSharedKey(httpRequest, requestHeaders, parameters)));
+        requestHeaders.removeHeader(requestHeaders.getFirstHeader("Content-Length"));
+
+        return super.request(httpRequest, entityFromRequest, parameters, Arrays.asList(requestHeaders.getAllHeaders()));
     }
 
     @Override
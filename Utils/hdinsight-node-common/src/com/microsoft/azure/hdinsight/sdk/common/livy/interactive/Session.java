@@ -28,9 +28,12 @@ import com.microsoft.azure.hdinsight.sdk.common.HttpResponse;
 import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.exceptions.ApplicationNotStartException;
 import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.exceptions.SessionNotStartException;
 import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.exceptions.StatementExecutionError;
+import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.exceptions.StatementNotStartException;
 import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.SessionKind;
 import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.SessionState;
+import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.StatementOutput;
 import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.api.PostSessions;
+import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.api.session.GetStatementsResponse;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import com.microsoft.azuretools.telemetry.AppInsightsClient;
@@ -82,6 +85,9 @@ public abstract class Session implements AutoCloseable, Closeable {
 
     private int driverCores = 2;    // Default driver cores to create
 
+    private volatile boolean isReadyConfirmed = false;  // The session was ready to run statements,
+                                                        // only re-checked after an error
+
     /*
      * Constructor
      */
@@ -313,6 +319,7 @@ public abstract class Session implements AutoCloseable, Closeable {
         return deleteSessionRequest()
                 .map(resp -> {
                     lastState = SessionState.SHUTTING_DOWN;
+                    isReadyConfirmed = false;
                     return this;
                 })
                 .defaultIfEmpty(this);
@@ -358,17 +365,104 @@ public abstract class Session implements AutoCloseable, Closeable {
     }
 
     public Observable<Map<String, String>> runStatement(@NotNull Statement statement) {
-        return awaitReady()
-            .flatMap(session -> statement
-                    .run()
-                    .map(result -> {
-                        if (!result.getStatus().toLowerCase().equals("ok")) {
-                            throw propagate(new StatementExecutionError(
-                                    result.getEname(), result.getEvalue(), result.getTraceback()));
-                        }
+        return awaitReadyIfUnconfirmed()
+            .flatMap(session -> runStatementWithoutWait(statement))
+            .doOnError(err -> isReadyConfirmed = false);
+    }
+
+    /**
+     * Run the statements in a batch. All statements are posted in order firstly, then their states are tracked
+     * by polling the session statements list together, rather than one request per statement.
+     *
+     * @param statements the statements to run in order
+     * @return the outputs data of all statements in the same order
+     */
+    public Observable<List<Map<String, String>>> runStatements(@NotNull List<Statement> statements) {
+        return awaitReadyIfUnconfirmed()
+                .flatMap(session -> Observable.from(statements)
+                        .concatMap(Statement::submit)   // Keep the submitting order as the executing order
+                        .toList())
+                .flatMap(submitted -> submitted.stream().allMatch(Statement::isDone) ?
+                        Observable.just(submitted) :
+                        getStatementsRequest()
+                                .map(resp -> updateStatements(submitted, resp))
+                                .repeatWhen(Statement::backOffPolling)
+                                .takeUntil(updated -> updated.stream().allMatch(Statement::isDone))
+                                .filter(updated -> updated.stream().allMatch(Statement::isDone)))
+                .map(done -> done.stream()
+                        .map(statement -> {
+                            StatementOutput result = statement.getOutput();
+
+                            if (result == null || !result.getStatus().toLowerCase().equals("ok")) {
+                                throw propagate(result == null ?
+                                        new StatementExecutionError("Cancelled", "Statement is cancelled", Collections.emptyList()) :
+                                        new StatementExecutionError(
+                                                result.getEname(), result.getEvalue(), result.getTraceback()));
+                            }
+
+                            return result.getData();
+                        })
+                        .collect(Collectors.toList()))
+                .doOnError(err -> isReadyConfirmed = false);
+    }
+
+    @NotNull
+    private List<Statement> updateStatements(@NotNull List<Statement> statements,
+                                             @NotNull GetStatementsResponse resp) {
+        Map<Integer, com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.Statement> respById = new HashMap<>();
+        if (resp.getStatements() != null) {
+            resp.getStatements().forEach(statementResp -> respById.put(statementResp.getId(), statementResp));
+        }
+
+        statements.forEach(statement -> {
+            try {
+                com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.Statement statementResp =
+                        respById.get(statement.getId());
 
-                        return result.getData();
-                    }));
+                if (statementResp != null) {
+                    statement.updateWithResponse(statementResp);
+                }
+            } catch (StatementNotStartException ignored) {
+                // The submitted statements always have IDs
+            }
+        });
+
+        return statements;
+    }
+
+    private Observable<GetStatementsResponse> getStatementsRequest() {
+        URI uri;
+
+        try {
+            uri = URI.create(getUri().toString() + "/" + Statement.REST_SEGMENT_STATEMENTS);
+        } catch (SessionNotStartException e) {
+            return Observable.error(e);
+        }
+
+        return getHttp()
+                .setUserAgent(getUserAgent())
+                .get(uri.toString(), null, null, GetStatementsResponse.class);
+    }
+
+    private Observable<Session> awaitReadyIfUnconfirmed() {
+        return Observable.defer(() -> isReadyConfirmed ? Observable.just(this) : awaitReady());
+    }
+
+    /**
+     * Run the statement without waiting for the session to be idle. Livy queues the statements posted into a
+     * started session and executes them in order, so the caller can keep several of them in flight.
+     */
+    public Observable<Map<String, String>> runStatementWithoutWait(@NotNull Statement statement) {
+        return statement
+                .run()
+                .map(result -> {
+                    if (!result.getStatus().toLowerCase().equals("ok")) {
+                        throw propagate(new StatementExecutionError(
+                                result.getEname(), result.getEvalue(), result.getTraceback()));
+                    }
+
+                    return result.getData();
+                });
     }
 
     public Observable<Session> awaitReady(@Nullable Scheduler scheduler) {
@@ -376,8 +470,8 @@ public abstract class Session implements AutoCloseable, Closeable {
                 .repeatWhen(ob -> scheduler != null ?
                                 // Use specified scheduler to delay
                                 ob.doOnNext(any -> { try { sleep(1000); } catch (InterruptedException ignored) { } }) :
-                                // Use the default delay scheduler if scheduler not specified
-                                ob.delay(1, TimeUnit.SECONDS),
+                                // Use the default delay scheduler with back-off if scheduler not specified
+                                Statement.backOffPolling(ob),
                             scheduler != null ? scheduler : Schedulers.trampoline())
                 .takeUntil(Session::isStatementRunnable)
                 .reduce(new ImmutablePair<>(this, getLastLogs()), (sesLogsPair, ses) -> {
@@ -398,7 +492,8 @@ public abstract class Session implements AutoCloseable, Closeable {
                     return new ImmutablePair<>(ses, currentLogs);
                 })
                 .map(ImmutablePair::getLeft)
-                .filter(Session::isStatementRunnable);
+                .filter(Session::isStatementRunnable)
+                .doOnNext(ses -> isReadyConfirmed = true);
     }
 
     public Observable<Session> awaitReady() {
@@ -409,6 +504,17 @@ public abstract class Session implements AutoCloseable, Closeable {
         return runStatement(new Statement(this, new ByteArrayInputStream(codes.getBytes(StandardCharsets.UTF_8))));
     }
 
+    public Observable<Map<String, String>> runCodesWithoutWait(@NotNull String codes) {
+        return runStatementWithoutWait(
+                new Statement(this, new ByteArrayInputStream(codes.getBytes(StandardCharsets.UTF_8))));
+    }
+
+    public Observable<List<Map<String, String>>> runCodesInBatch(@NotNull List<String> codesList) {
+        return runStatements(codesList.stream()
+                .map(codes -> new Statement(this, new ByteArrayInputStream(codes.getBytes(StandardCharsets.UTF_8))))
+                .collect(Collectors.toList()));
+    }
+
     public Observable<String> getLog() {
         throw new UnsupportedOperationException();
     }
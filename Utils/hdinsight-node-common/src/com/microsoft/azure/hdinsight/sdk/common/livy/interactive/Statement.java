@@ -44,6 +44,9 @@ import java.util.concurrent.TimeUnit;
 public class Statement implements ILogger {
     public static final String REST_SEGMENT_STATEMENTS = "statements";
 
+    static final long POLLING_INITIAL_DELAY_MS = 20;    // The first polling delay, doubled for every next one
+    static final long POLLING_MAX_DELAY_MS = 1000;      // The polling delay upper bound
+
     @NotNull
     private Session session;            // Statement owner session
 
@@ -133,17 +136,43 @@ public class Statement implements ILogger {
      */
 
     public Observable<StatementOutput> run() {
-        return runStatementRequest()
-                .map(this::updateWithResponse)
-                .flatMap(statement -> statement.get()                    // Get statement result
-                        .repeatWhen(ob -> ob.delay(1, TimeUnit.SECONDS)) // The unmet state won't trigger retries,
+        return submit()
+                .flatMap(statement -> statement.isDone() ?
+                        Observable.just(statement) :
+                        statement.get()                                  // Get statement result
+                                .repeatWhen(Statement::backOffPolling)   // The unmet state won't trigger retries,
                                                                          // which is handled by repeatWhen()
-                        .takeUntil(Statement::isDone)
-                        .filter(Statement::isDone)
+                                .takeUntil(Statement::isDone)
+                                .filter(Statement::isDone)
                 )
                 .map(Statement::getOutput);
     }
 
+    /**
+     * Post the statement codes to the session without waiting for the result
+     *
+     * @return the statement with the ID and state assigned by the server
+     */
+    public Observable<Statement> submit() {
+        return runStatementRequest()
+                .map(this::updateWithResponse);
+    }
+
+    /**
+     * The repeatWhen() handler to poll with exponential back-off delays, which start at tens of milliseconds
+     * for the short statements and are capped at one second for the long ones
+     */
+    static Observable<Long> backOffPolling(@NotNull Observable<?> completions) {
+        return completions
+                .zipWith(Observable.range(0, Integer.MAX_VALUE), (any, polled) -> polled)
+                .flatMap(polled -> Observable.timer(getPollingDelayMillis(polled), TimeUnit.MILLISECONDS));
+    }
+
+    static long getPollingDelayMillis(int polled) {
+        // Limit the shift to avoid overflow, the delay reaches the upper bound long before
+        return Math.min(POLLING_INITIAL_DELAY_MS << Math.min(polled, 16), POLLING_MAX_DELAY_MS);
+    }
+
     public boolean isDoneWithError()
     {
         return getLastState() == StatementState.ERROR || getLastState() == StatementState.CANCELLED;
@@ -157,7 +186,7 @@ public class Statement implements ILogger {
         return isDoneWithError() || isDoneWithSuccess();
     }
 
-    private Statement updateWithResponse(com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.Statement statementResp) {
+    Statement updateWithResponse(com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.Statement statementResp) {
         this.setId(statementResp.getId());
         this.setLastState(statementResp.getState());
         this.setOutput(statementResp.getOutput());
@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.microsoft.azure.hdinsight.sdk.io.spark;
+
+import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.Session;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.commons.codec.binary.Base64;
+import org.apache.commons.codec.digest.DigestUtils;
+import rx.Observable;
+import rx.exceptions.Exceptions;
+import rx.schedulers.Schedulers;
+
+import java.io.*;
+import java.net.URI;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Upload a local file into the cluster file system through a Livy interactive session.
+ *
+ * The file is split into large pages, which are deflated and BASE64 encoded as statement codes. Several page
+ * statements are kept in flight without waiting for the session to be idle between them. Each page carries its
+ * sequence number, the cluster side buffers the out-of-order pages and writes them in sequence, so a failed page
+ * can be retried without corrupting the file. The SHA-256 digest of the written file is verified at the end.
+ */
+public class ClusterFilePipelinedUploader {
+    public static final int DEFAULT_PAGE_SIZE_KB = 2048;      // 2MB raw bytes per page
+    public static final int DEFAULT_MAX_IN_FLIGHT = 4;
+    public static final int DEFAULT_MAX_PAGE_RETRIES = 3;
+
+    // Scala rejects a string constant over 65535 UTF-8 bytes, the encoded page is split into literals of 32KB
+    static final int MAX_LITERAL_LENGTH = 32 * 1024;
+    static final int MAX_STATEMENT_LENGTH = 4 * 1024 * 1024;
+
+    private static final String ACK_PREFIX = "ack:";
+    private static final String VERIFIED_PREFIX = "verified:";
+
+    private static final String PRELOADED_CODES = String.join("\n",
+            "import java.io._",
+            "import java.security.MessageDigest",
+            "import java.util.Base64",
+            "import java.util.zip.InflaterInputStream",
+            "",
+            "val uploadOutput = \"%s\"",
+            "val uploadFs = org.apache.hadoop.fs.FileSystem.get(sc.hadoopConfiguration)",
+            "val uploadPath = new org.apache.hadoop.fs.Path(uploadOutput)",
+            "val uploadOut = new BufferedOutputStream(uploadFs.create(uploadPath, true))",
+            "val uploadDigest = MessageDigest.getInstance(\"SHA-256\")",
+            "val uploadPending = new java.util.HashMap[Int, Array[Byte]]()",
+            "var uploadNextSeq = 0",
+            "",
+            "def inflatePage(encoded: String): Array[Byte] = {",
+            "    val in = new InflaterInputStream(new ByteArrayInputStream(Base64.getDecoder.decode(encoded)))",
+            "    val pageOut = new ByteArrayOutputStream()",
+            "    val buf = new Array[Byte](65536)",
+            "    var n = in.read(buf)",
+            "    while (n >= 0) { pageOut.write(buf, 0, n); n = in.read(buf) }",
+            "    in.close()",
+            "    pageOut.toByteArray",
+            "}",
+            "",
+            "def writePage(seq: Int, encoded: String): String = uploadPending.synchronized {",
+            "    if (seq >= uploadNextSeq && !uploadPending.containsKey(seq)) {",
+            "        uploadPending.put(seq, inflatePage(encoded))",
+            "    }",
+            "    while (uploadPending.containsKey(uploadNextSeq)) {",
+            "        val page = uploadPending.remove(uploadNextSeq)",
+            "        uploadOut.write(page)",
+            "        uploadDigest.update(page)",
+            "        uploadNextSeq += 1",
+            "    }",
+            "    \"" + ACK_PREFIX + "\" + seq",
+            "}",
+            "",
+            "def finishUpload(pages: Int, sha256: String): String = uploadPending.synchronized {",
+            "    uploadOut.close()",
+            "    val actual = uploadDigest.digest().map(\"%%02x\".format(_)).mkString",
+            "    if (uploadNextSeq != pages || actual != sha256) {",
+            "        uploadFs.delete(uploadPath, false)",
+            "        throw new IOException(s\"Upload verification failed: $uploadNextSeq of $pages pages written, " +
+                    "SHA-256 $actual\")",
+            "    }",
+            "    \"" + VERIFIED_PREFIX + "\" + actual",
+            "}");
+
+    @NotNull
+    private final Session session;
+
+    @NotNull
+    private final URI destination;
+
+    private final int pageSizeKB;
+
+    private final int maxInFlight;
+
+    private final int maxPageRetries;
+
+    public ClusterFilePipelinedUploader(@NotNull Session session,
+                                        @NotNull URI destination,
+                                        int pageSizeKB,
+                                        int maxInFlight,
+                                        int maxPageRetries) {
+        this.session = session;
+        this.destination = destination;
+        this.pageSizeKB = pageSizeKB;
+        this.maxInFlight = maxInFlight;
+        this.maxPageRetries = maxPageRetries;
+    }
+
+    public ClusterFilePipelinedUploader(@NotNull Session session, @NotNull URI destination) {
+        this(session, destination, DEFAULT_PAGE_SIZE_KB, DEFAULT_MAX_IN_FLIGHT, DEFAULT_MAX_PAGE_RETRIES);
+    }
+
+    /**
+     * Upload the source file
+     *
+     * @param src the local file to upload
+     * @return the observable of the accumulated uploaded raw bytes, completed once the cluster side verified
+     *         the SHA-256 digest of the written file
+     */
+    @NotNull
+    public Observable<Long> upload(@NotNull File src) {
+        final long pageSize = pageSizeKB * 1024L;
+        final int pages = (int) ((src.length() + pageSize - 1) / pageSize);
+
+        return Observable
+                .fromCallable(() -> {
+                    try (InputStream in = new BufferedInputStream(new FileInputStream(src))) {
+                        return DigestUtils.sha256Hex(in);
+                    }
+                })
+                .subscribeOn(Schedulers.io())
+                // Pre-load with the session ready check, the pages following are queued without waiting
+                .flatMap(sha256 -> session.runCodes(String.format(PRELOADED_CODES, destination.toString()))
+                        .flatMap(preloaded -> Observable.range(0, pages)
+                                .flatMap(seq -> uploadPage(src, seq, pageSize), maxInFlight)
+                                .scan(0L, Long::sum)
+                                .skip(1)
+                                .concatWith(verify(pages, sha256))));
+    }
+
+    @NotNull
+    private Observable<Long> uploadPage(@NotNull File src, int seq, long pageSize) {
+        return Observable
+                .fromCallable(() -> {
+                    SimpleImmutableEntry<Integer, String> page = readCompressedPage(src, seq, pageSize);
+
+                    return new SimpleImmutableEntry<>(page.getKey(), buildWritePageCodes(seq, page.getValue()));
+                })
+                .subscribeOn(Schedulers.io())
+                .flatMap(page -> session
+                        .runCodesWithoutWait(page.getValue())
+                        .map(output -> {
+                            if (!getTextOutput(output).endsWith(ACK_PREFIX + seq)) {
+                                throw Exceptions.propagate(new IOException(String.format(
+                                        "Page %d of %s isn't acknowledged: %s", seq, src, getTextOutput(output))));
+                            }
+
+                            return page.getKey().longValue();
+                        })
+                        .retryWhen(errors -> errors
+                                .zipWith(Observable.range(1, maxPageRetries + 1), (err, retried) -> {
+                                    if (retried > maxPageRetries) {
+                                        throw Exceptions.propagate(err);
+                                    }
+
+                                    return retried;
+                                })
+                                .flatMap(retried -> Observable.timer(retried, TimeUnit.SECONDS))));
+    }
+
+    /**
+     * Build the statement to write the page, with the encoded page split into the string literals Scala accepts
+     *
+     * @return the codes of writePage(seq, Seq("...", "...").mkString)
+     */
+    @NotNull
+    static String buildWritePageCodes(int seq, @NotNull String encoded) throws IOException {
+        StringBuilder codes = new StringBuilder(encoded.length() + 64)
+                .append("writePage(").append(seq).append(", Seq(");
+
+        for (int start = 0; start < encoded.length(); start += MAX_LITERAL_LENGTH) {
+            codes.append(start == 0 ? "\"" : ", \"")
+                 .append(encoded, start, Math.min(encoded.length(), start + MAX_LITERAL_LENGTH))
+                 .append('"');
+        }
+
+        codes.append(").mkString)");
+
+        if (codes.length() > MAX_STATEMENT_LENGTH) {
+            throw new IOException(String.format("The statement of page %d has %d characters, over the limit %d, " +
+                    "try a smaller page size", seq, codes.length(), MAX_STATEMENT_LENGTH));
+        }
+
+        return codes.toString();
+    }
+
+    @NotNull
+    private Observable<Long> verify(int pages, @NotNull String sha256) {
+        return Observable.defer(() -> session
+                .runCodesWithoutWait(String.format("finishUpload(%d, \"%s\")", pages, sha256))
+                .map(output -> {
+                    if (!getTextOutput(output).endsWith(VERIFIED_PREFIX + sha256)) {
+                        throw Exceptions.propagate(new IOException(String.format(
+                                "Failed to verify the uploaded file %s: %s", destination, getTextOutput(output))));
+                    }
+
+                    return output;
+                })
+                .ignoreElements()
+                .map(any -> 0L));
+    }
+
+    /**
+     * Read the page from the file and deflate it
+     *
+     * @return the pair of the raw page length and the BASE64 encoded deflated page
+     */
+    @NotNull
+    private static SimpleImmutableEntry<Integer, String> readCompressedPage(@NotNull File src, int seq, long pageSize)
+            throws IOException {
+        byte[] raw = new byte[(int) Math.min(pageSize, src.length() - seq * pageSize)];
+
+        try (RandomAccessFile file = new RandomAccessFile(src, "r")) {
+            file.seek(seq * pageSize);
+            file.readFully(raw);
+        }
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(raw.length / 2);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DeflaterOutputStream deflaterOut = new DeflaterOutputStream(compressed, deflater, 64 * 1024)) {
+            deflaterOut.write(raw);
+        } finally {
+            // The given deflater isn't ended by the stream, release its native memory here
+            deflater.end();
+        }
+
+        return new SimpleImmutableEntry<>(raw.length, Base64.encodeBase64String(compressed.toByteArray()));
+    }
+
+    @NotNull
+    private static String getTextOutput(@Nullable Map<String, String> output) {
+        String text = output == null ? null : output.get("text/plain");
+
+        return text == null ? "" : text.trim();
+    }
+}
@@ -22,8 +22,10 @@
 package com.microsoft.azure.hdinsight.sdk.rest;
 
 import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.type.TypeFactory;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
@@ -32,6 +34,7 @@ import org.apache.http.HttpEntity;
 import org.apache.http.util.EntityUtils;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -46,6 +49,59 @@ public final class ObjectConvertUtils {
         return Optional.ofNullable(objectMapper.readValue(jsonString, tClass));
     }
 
+    /**
+     * Bind the JSON stream to the specified type directly, without buffering the content as String
+     *
+     * @param jsonStream the JSON content stream, closed by the method after the value is bound
+     * @param type the target type to convert
+     * @param <T> the target type
+     * @return the converted instance, or empty if the content is JSON null
+     * @throws IOException for stream reading or JSON parsing failure
+     */
+    public static <T> Optional<T> convertJsonStreamToObject(@NotNull InputStream jsonStream, @NotNull JavaType type) throws IOException {
+        try (JsonParser parser = createJsonParser(jsonStream)) {
+            return Optional.ofNullable(objectMapper.readValue(parser, type));
+        }
+    }
+
+    public static <T> Optional<T> convertJsonStreamToObject(@NotNull InputStream jsonStream, @NotNull Class<T> tClass) throws IOException {
+        return convertJsonStreamToObject(jsonStream, constructType(tClass));
+    }
+
+    /**
+     * Create a streaming JSON parser bound with the shared object mapper, which can read values by
+     * {@link JsonParser#readValueAs(Class)} at any token
+     *
+     * @param jsonStream the JSON content stream, closed when the parser is closed
+     * @return the JSON parser
+     * @throws IOException for parser creation failure
+     */
+    @NotNull
+    public static JsonParser createJsonParser(@NotNull InputStream jsonStream) throws IOException {
+        JsonParser parser = jsonFactory.createParser(jsonStream);
+        parser.setCodec(objectMapper);
+
+        return parser;
+    }
+
+    @NotNull
+    public static JsonParser createJsonParser(@NotNull String jsonString) throws IOException {
+        JsonParser parser = jsonFactory.createParser(jsonString);
+        parser.setCodec(objectMapper);
+
+        return parser;
+    }
+
+    @NotNull
+    public static JavaType constructType(@NotNull Class<?> tClass) {
+        return objectMapper.getTypeFactory().constructType(tClass);
+    }
+
+    @NotNull
+    public static JavaType constructType(@NotNull TypeReference<?> typeReference) {
+        return objectMapper.getTypeFactory().constructType(typeReference);
+    }
+
     public static <T> T convertToObjectQuietly(@NotNull String jsonString, @NotNull Class<T> tClass) {
         try {
             return objectMapper.readValue(jsonString, tClass);
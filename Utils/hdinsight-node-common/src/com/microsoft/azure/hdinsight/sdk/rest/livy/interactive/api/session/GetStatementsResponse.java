@@ -22,6 +22,7 @@
 
 package com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.api.session;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.microsoft.azure.hdinsight.sdk.rest.IConvertible;
 import com.microsoft.azure.hdinsight.sdk.rest.livy.interactive.Statement;
 
@@ -42,6 +43,7 @@ import java.util.List;
  *   None
  */
 
+@JsonIgnoreProperties(ignoreUnknown = true)
 public class GetStatementsResponse implements IConvertible {
     private List<Statement> statements;     // statement list
 
@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package com.microsoft.azure.hdinsight.sdk.rest.spark.event;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Map;
+
+/**
+ * Spark event log SparkListenerTaskEnd, the task details are kept as maps since they vary among Spark versions
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class TaskEndEventLog {
+    @JsonProperty("Event")
+    private String event;
+
+    @JsonProperty("Stage ID")
+    private int stageId;
+
+    @JsonProperty("Stage Attempt ID")
+    private int stageAttemptId;
+
+    @JsonProperty("Task Type")
+    private String taskType;
+
+    @JsonProperty("Task End Reason")
+    private Map<String, Object> taskEndReason;
+
+    @JsonProperty("Task Info")
+    private Map<String, Object> taskInfo;
+
+    @JsonProperty("Task Metrics")
+    private Map<String, Object> taskMetrics;
+
+    public String getEvent() {
+        return event;
+    }
+
+    public void setEvent(String event) {
+        this.event = event;
+    }
+
+    public int getStageId() {
+        return stageId;
+    }
+
+    public void setStageId(int stageId) {
+        this.stageId = stageId;
+    }
+
+    public int getStageAttemptId() {
+        return stageAttemptId;
+    }
+
+    public void setStageAttemptId(int stageAttemptId) {
+        this.stageAttemptId = stageAttemptId;
+    }
+
+    public String getTaskType() {
+        return taskType;
+    }
+
+    public void setTaskType(String taskType) {
+        this.taskType = taskType;
+    }
+
+    public Map<String, Object> getTaskEndReason() {
+        return taskEndReason;
+    }
+
+    public void setTaskEndReason(Map<String, Object> taskEndReason) {
+        this.taskEndReason = taskEndReason;
+    }
+
+    public Map<String, Object> getTaskInfo() {
+        return taskInfo;
+    }
+
+    public void setTaskInfo(Map<String, Object> taskInfo) {
+        this.taskInfo = taskInfo;
+    }
+
+    public Map<String, Object> getTaskMetrics() {
+        return taskMetrics;
+    }
+
+    public void setTaskMetrics(Map<String, Object> taskMetrics) {
+        this.taskMetrics = taskMetrics;
+    }
+}
@@ -61,4 +61,14 @@ public class ADLSGen2ParamsBuilder extends WebHdfsParamsBuilder {
         params.add(new BasicNameValuePair("recursive", String.valueOf(value)));
         return this;
     }
+
+    public ADLSGen2ParamsBuilder setContinuation(@NotNull String value) {
+        params.add(new BasicNameValuePair("continuation", value));
+        return this;
+    }
+
+    public ADLSGen2ParamsBuilder setMaxResults(@NotNull int value) {
+        params.add(new BasicNameValuePair("maxResults", String.valueOf(value)));
+        return this;
+    }
 }
@@ -29,9 +29,11 @@ package com.microsoft.azure.hdinsight.spark.common;
 import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
 import com.microsoft.azure.hdinsight.sdk.common.HDIException;
 import com.microsoft.azure.hdinsight.sdk.common.HttpObservable;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import org.apache.http.client.utils.URIBuilder;
 
+import java.net.URI;
 import java.net.URISyntaxException;
 
 // for cluster with adls account to deploy using webhdfs storage account type
@@ -48,4 +50,14 @@ public class ADLSGen1HDFSDeploy extends WebHDFSDeploy {
         builder.setScheme(cluster.getStorageAccount().getDefaultStorageSchema());
         return builder.build().toString();
     }
+
+    @NotNull
+    @Override
+    protected String getWebHdfsFilePath(@NotNull String uploadedPath) throws URISyntaxException {
+        // convert adl://xx/hdi-root/SparkSubmission/artifact.jar back to https://xx/webhdfs/v1/hdi-root/SparkSubmission/artifact.jar
+        URIBuilder builder = new URIBuilder(uploadedPath);
+        builder.setScheme(URI.create(destinationRootPath).getScheme());
+        builder.setPath("/webhdfs/v1" + builder.getPath());
+        return builder.build().toString();
+    }
 }
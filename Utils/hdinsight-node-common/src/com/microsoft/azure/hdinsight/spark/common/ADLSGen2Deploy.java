@@ -39,6 +39,7 @@ import rx.exceptions.Exceptions;
 import java.io.File;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Collections;
 
 public class ADLSGen2Deploy implements Deployable, ILogger {
     @NotNull
@@ -84,7 +85,8 @@ public class ADLSGen2Deploy implements Deployable, ILogger {
                 })
                 .doOnNext(ignore -> log().info(String.format("Create filesystem %s successfully.", dirPath)))
                 .flatMap(ignore -> op.createFile(filePath))
-                .flatMap(ignore -> op.uploadData(filePath, src))
+                .flatMap(ignore -> op.uploadData(filePath, src, uploaded -> log().info(String.format(
+                        "Uploaded %d of %d bytes to file %s.", uploaded, src.length(), filePath))))
                 .doOnNext(ignore -> log().info(String.format("Append data to file %s successfully.", filePath)))
                 .map(ignored -> {
                     try {
@@ -95,6 +97,32 @@ public class ADLSGen2Deploy implements Deployable, ILogger {
                 });
     }
 
+    @Nullable
+    @Override
+    public String getDestinationRoot() {
+        return destinationRootPath;
+    }
+
+    @NotNull
+    @Override
+    public Observable<Boolean> isDeployed(@NotNull String uploadedPath) {
+        // The upload path is relative to the file system, such as /SparkSubmission/xxxx
+        int index = destinationRootPath.indexOf("SparkSubmission");
+        if (index < 0 || !uploadedPath.startsWith("/")) {
+            return Observable.just(false);
+        }
+
+        String filePath = destinationRootPath.substring(0, index) + uploadedPath.substring(1);
+
+        return http.head(filePath, Collections.emptyList(), Collections.emptyList())
+                .map(resp -> true)
+                .onErrorReturn(err -> {
+                    log().debug("The deployed artifact " + filePath + " isn't available: " + err);
+
+                    return false;
+                });
+    }
+
     @Nullable
     private String getArtifactUploadedPath(String rootPath) throws URISyntaxException {
         //convert https://fullAccountName/fileSystem/sparksubmission/guid/artifact.jar to /SparkSubmission/xxxx
@@ -22,8 +22,10 @@
 
 package com.microsoft.azure.hdinsight.spark.common;
 
+import com.microsoft.azure.datalake.store.ADLStoreClient;
 import com.microsoft.azure.hdinsight.spark.jobs.JobUtils;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import rx.Observable;
 
 import java.io.File;
@@ -47,4 +49,21 @@ public class AdlsDeploy implements Deployable {
     public Observable<String> deploy(@NotNull File src)  {
         return JobUtils.deployArtifactToADLS(src.getAbsolutePath(), adlsRootPath, accessToken);
     }
+
+    @Nullable
+    @Override
+    public String getDestinationRoot() {
+        return adlsRootPath;
+    }
+
+    @NotNull
+    @Override
+    public Observable<Boolean> isDeployed(@NotNull String uploadedPath) {
+        return Observable.fromCallable(() -> {
+            URI remote = URI.create(uploadedPath);
+
+            return ADLStoreClient.createClient(remote.getHost(), accessToken).checkExists(remote.getPath());
+        })
+                .onErrorReturn(err -> false);
+    }
 }
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.microsoft.azure.hdinsight.spark.common;
+
+import com.microsoft.azure.hdinsight.common.HDInsightHelper;
+import com.microsoft.azure.hdinsight.common.HDInsightLoader;
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azure.hdinsight.sdk.rest.ObjectConvertUtils;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * The local manifest of the deployed Spark job artifacts, keyed by the artifact content SHA-256 digest and the
+ * destination storage root. The least recently used entries are dropped when exceeding the max entries.
+ */
+public class ArtifactDeploymentManifest implements ILogger {
+    public static final int MAX_ENTRIES = 200;
+
+    private static final String MANIFEST_FILE_NAME = "deployedArtifacts.json";
+
+    // Lazy singleton initialization
+    private static class LazyHolder {
+        static final ArtifactDeploymentManifest INSTANCE = new ArtifactDeploymentManifest(new File(
+                new File(Optional.ofNullable(HDInsightLoader.getHDInsightHelper())
+                                 .map(HDInsightHelper::getPluginRootPath)
+                                 .orElse(System.getProperty("java.io.tmpdir")),
+                         "SparkSubmission"),
+                MANIFEST_FILE_NAME));
+    }
+
+    public static ArtifactDeploymentManifest getInstance() {
+        return LazyHolder.INSTANCE;
+    }
+
+    @NotNull
+    private final File manifestFile;
+
+    // Deployment key -> upload path, in access order
+    @Nullable
+    private LinkedHashMap<String, String> deployedArtifacts;
+
+    ArtifactDeploymentManifest(@NotNull File manifestFile) {
+        this.manifestFile = manifestFile;
+    }
+
+    /**
+     * Get the SHA-256 digest of the artifact content
+     *
+     * @param artifact the artifact file
+     * @return the digest hex string
+     * @throws IOException for reading the artifact failure
+     */
+    @NotNull
+    public static String digest(@NotNull File artifact) throws IOException {
+        try (InputStream in = new FileInputStream(artifact)) {
+            return DigestUtils.sha256Hex(in);
+        }
+    }
+
+    @NotNull
+    private static String getDeploymentKey(@NotNull String digest, @NotNull String destinationRoot) {
+        return digest + "@" + destinationRoot;
+    }
+
+    /**
+     * Get the upload path of the artifact deployed before
+     *
+     * @param digest the artifact digest
+     * @param destinationRoot the destination storage root
+     * @return the upload path, null for not found
+     */
+    @Nullable
+    public synchronized String get(@NotNull String digest, @NotNull String destinationRoot) {
+        return getDeployedArtifacts().get(getDeploymentKey(digest, destinationRoot));
+    }
+
+    public synchronized void put(@NotNull String digest, @NotNull String destinationRoot, @NotNull String uploadedPath) {
+        getDeployedArtifacts().put(getDeploymentKey(digest, destinationRoot), uploadedPath);
+        save();
+    }
+
+    public synchronized void remove(@NotNull String digest, @NotNull String destinationRoot) {
+        if (getDeployedArtifacts().remove(getDeploymentKey(digest, destinationRoot)) != null) {
+            save();
+        }
+    }
+
+    @NotNull
+    private LinkedHashMap<String, String> getDeployedArtifacts() {
+        if (deployedArtifacts == null) {
+            deployedArtifacts = new LinkedHashMap<String, String>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                    return size() > MAX_ENTRIES;
+                }
+            };
+
+            if (manifestFile.isFile()) {
+                try {
+                    ObjectConvertUtils.<String, String>convertJsonToMap(
+                            FileUtils.readFileToString(manifestFile, StandardCharsets.UTF_8))
+                            .ifPresent(deployedArtifacts::putAll);
+                } catch (IOException e) {
+                    log().warn("Can't read the deployed artifacts manifest " + manifestFile, e);
+                }
+            }
+        }
+
+        return deployedArtifacts;
+    }
+
+    private void save() {
+        try {
+            String manifest = ObjectConvertUtils.convertObjectToJsonString(getDeployedArtifacts())
+                    .orElseThrow(() -> new IOException("Can't serialize the deployed artifacts manifest"));
+
+            // Write to a temporary file and then move, not to leave a broken manifest
+            File tempFile = new File(manifestFile.getPath() + ".tmp");
+            FileUtils.writeStringToFile(tempFile, manifest, StandardCharsets.UTF_8);
+            Files.move(tempFile.toPath(), manifestFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log().warn("Can't save the deployed artifacts manifest " + manifestFile, e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.microsoft.azure.hdinsight.spark.common;
+
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import rx.Observable;
+import rx.schedulers.Schedulers;
+
+import java.io.File;
+import java.util.Optional;
+
+/**
+ * The job artifact deployment which skips uploading the artifact deployed before into the same destination root,
+ * if it's still there. The deployed artifacts are recorded in {@link ArtifactDeploymentManifest} by content digest.
+ */
+public class DeduplicatedDeploy implements Deployable, ILogger {
+    @NotNull
+    private final Deployable delegate;
+
+    @NotNull
+    private final ArtifactDeploymentManifest manifest;
+
+    public DeduplicatedDeploy(@NotNull Deployable delegate) {
+        this(delegate, ArtifactDeploymentManifest.getInstance());
+    }
+
+    public DeduplicatedDeploy(@NotNull Deployable delegate, @NotNull ArtifactDeploymentManifest manifest) {
+        this.delegate = delegate;
+        this.manifest = manifest;
+    }
+
+    @NotNull
+    public Deployable getDelegate() {
+        return delegate;
+    }
+
+    @NotNull
+    @Override
+    public Observable<String> deploy(@NotNull File src) {
+        String destinationRoot = delegate.getDestinationRoot();
+
+        if (destinationRoot == null) {
+            return delegate.deploy(src);
+        }
+
+        return Observable.fromCallable(() -> Optional.of(ArtifactDeploymentManifest.digest(src)))
+                .subscribeOn(Schedulers.io())
+                .onErrorReturn(err -> {
+                    log().warn("Failed to get the digest of the artifact " + src + ", upload it.", err);
+
+                    return Optional.empty();
+                })
+                .flatMap(digest -> digest.isPresent()
+                                   ? deployOrReuse(src, digest.get(), destinationRoot)
+                                   : delegate.deploy(src), 1);
+    }
+
+    @NotNull
+    private Observable<String> deployOrReuse(@NotNull File src,
+                                             @NotNull String digest,
+                                             @NotNull String destinationRoot) {
+        Observable<String> upload = delegate.deploy(src)
+                .doOnNext(uploadedPath -> manifest.put(digest, destinationRoot, uploadedPath));
+
+        // Only the lookup failures fall back to uploading, the uploading failures are propagated as they are
+        return Observable.fromCallable(() -> Optional.ofNullable(manifest.get(digest, destinationRoot)))
+                .flatMap(deployedPath -> {
+                    if (!deployedPath.isPresent()) {
+                        return Observable.just(deployedPath);
+                    }
+
+                    return delegate.isDeployed(deployedPath.get())
+                            .map(isDeployed -> {
+                                if (isDeployed) {
+                                    log().info(String.format("Reuse the artifact %s deployed before at %s.",
+                                                             src.getName(), deployedPath.get()));
+
+                                    return deployedPath;
+                                }
+
+                                manifest.remove(digest, destinationRoot);
+
+                                return Optional.<String>empty();
+                            });
+                })
+                .onErrorReturn(err -> {
+                    log().warn("Failed to check the artifact " + src + " deployed before, upload it.", err);
+
+                    return Optional.empty();
+                })
+                .flatMap(deployedPath -> deployedPath.map(Observable::just).orElse(upload));
+    }
+
+    @Nullable
+    @Override
+    public String getDestinationRoot() {
+        return delegate.getDestinationRoot();
+    }
+
+    @NotNull
+    @Override
+    public Observable<Boolean> isDeployed(@NotNull String uploadedPath) {
+        return delegate.isDeployed(uploadedPath);
+    }
+}
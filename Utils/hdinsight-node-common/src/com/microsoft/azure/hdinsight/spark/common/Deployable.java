@@ -23,6 +23,7 @@
 package com.microsoft.azure.hdinsight.spark.common;
 
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import rx.Observable;
 
 import java.io.File;
@@ -37,4 +38,26 @@ public interface Deployable {
      */
     @NotNull
     Observable<String> deploy(@NotNull File src);
+
+    /**
+     * Get the destination storage root which the artifacts are deployed into, the artifacts deployed into the same
+     * root can be reused by the later deployments.
+     *
+     * @return the destination root, null for the deployed artifacts not reusable
+     */
+    @Nullable
+    default String getDestinationRoot() {
+        return null;
+    }
+
+    /**
+     * Check whether the artifact deployed before is still there
+     *
+     * @param uploadedPath the upload path got from deploy()
+     * @return Observable: true for the artifact existing, false for not existing or unknown
+     */
+    @NotNull
+    default Observable<Boolean> isDeployed(@NotNull String uploadedPath) {
+        return Observable.just(false);
+    }
 }
\ No newline at end of file
@@ -22,7 +22,6 @@
 
 package com.microsoft.azure.hdinsight.spark.common;
 
-import com.gargoylesoftware.htmlunit.Cache;
 import com.microsoft.azure.hdinsight.common.ClusterManagerEx;
 import com.microsoft.azure.hdinsight.common.MessageInfoType;
 import com.microsoft.azure.hdinsight.common.logger.ILogger;
@@ -45,7 +44,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.exception.ExceptionUtils;
 import rx.Observable;
 import rx.Observer;
-import rx.Subscriber;
+import rx.Subscription;
 
 import java.io.File;
 import java.io.IOException;
@@ -140,11 +139,6 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
      */
     private int delaySeconds = 10;
 
-    /**
-     * The global cache for fetched Yarn UI page by browser
-     */
-    private Cache globalCache = JobUtils.getGlobalCache();
-
     /**
      * The driver log conversion mode
      */
@@ -492,6 +486,12 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
                     "please configure Spark cluster which the Spark job will be submitted.");
         }
 
+        // Use the state polled by the shared tracker if the job is being tracked
+        Optional<SparkSubmitResponse> trackedStatus = getTrackedStatus();
+        if (trackedStatus.isPresent()) {
+            return trackedStatus.get().getState();
+        }
+
         int retries = 0;
 
         do {
@@ -796,6 +796,11 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
                 "yarn diagnostics:"));
 
         return Observable.create(ob -> {
+            // Keep the job tracked during the submission, so that the job state is got from the shared tracker
+            Subscription trackingSubscription = getStateTracker()
+                    .getStatusObservable(batchId)
+                    .subscribe(status -> {}, err -> log().debug("Track Spark job state failure", err));
+
             try {
                 int start = 0;
                 final int maxLinesPerGet = 128;
@@ -833,6 +838,7 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
                 ob.onNext(new SimpleImmutableEntry<>(Error, ex.getMessage()));
             } catch (InterruptedException ignored) {
             } finally {
+                trackingSubscription.unsubscribe();
                 ob.onCompleted();
             }
         });
@@ -844,6 +850,12 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
                     "please configure Spark cluster which the Spark job will be submitted.");
         }
 
+        // Use the state polled by the shared tracker if the job is being tracked
+        Optional<SparkSubmitResponse> trackedStatus = getTrackedStatus();
+        if (trackedStatus.isPresent()) {
+            return trackedStatus.get().isAlive();
+        }
+
         int retries = 0;
 
         do {
@@ -874,49 +886,39 @@ public class SparkBatchJob implements ISparkBatchJob, ILogger {
         throw new UnknownServiceException("Failed to detect job activity: Unknown service error after " + --retries + " retries");
     }
 
+    /**
+     * Get the shared Livy batches state tracker of the cluster which the job is submitted to
+     *
+     * @return the state tracker
+     */
+    @NotNull
+    protected SparkBatchJobStateTracker getStateTracker() {
+        return SparkBatchJobStateTracker.getInstance(getConnectUri(), getSubmission());
+    }
+
+    /**
+     * Peek the status polled by the shared tracker, without creating a tracker which nothing watches
+     *
+     * @return the latest status polled, or empty if no tracker of the cluster is polling the job
+     */
+    @NotNull
+    private Optional<SparkSubmitResponse> getTrackedStatus() {
+        return SparkBatchJobStateTracker.find(getConnectUri())
+                .flatMap(tracker -> tracker.getLatestStatus(batchId));
+    }
+
     protected Observable<SimpleImmutableEntry<String, String>> getJobDoneObservable() {
         if (getConnectUri() == null) {
             return Observable.error(new SparkJobNotConfiguredException("Can't get Spark job connection URI, " +
                     "please configure Spark cluster which the Spark job will be submitted."));
         }
 
-        return Observable.create((Subscriber<? super SimpleImmutableEntry<String, String>> ob) -> {
-            try {
-                boolean isJobActive;
-                SparkBatchJobState state = SparkBatchJobState.NOT_STARTED;
-                String diagnostics = "";
-
-                do {
-                    HttpResponse httpResponse = this.getSubmission().getBatchSparkJobStatus(
-                            this.getConnectUri().toString(), batchId);
-
-                    if (httpResponse.getCode() >= 200 && httpResponse.getCode() < 300) {
-                        SparkSubmitResponse jobResp = ObjectConvertUtils.convertJsonToObject(
-                                httpResponse.getMessage(), SparkSubmitResponse.class)
-                                .orElseThrow(() -> new UnknownServiceException(
-                                        "Bad spark job response: " + httpResponse.getMessage()));
-
-                        state = SparkBatchJobState.valueOf(jobResp.getState().toUpperCase());
-                        diagnostics = String.join("\n", jobResp.getLog());
-
-                        isJobActive = !isDone(state.toString());
-                    } else {
-                        isJobActive = false;
-                    }
-
-
-                    // Retry interval
-                    sleep(1000);
-                } while (isJobActive);
-
-                ob.onNext(new SimpleImmutableEntry<>(state.toString(), diagnostics));
-                ob.onCompleted();
-            } catch (IOException ex) {
-                ob.onError(ex);
-            } catch (InterruptedException ignored) {
-                ob.onCompleted();
-            }
-        });
+        return getStateTracker()
+                .getStatusObservable(getBatchId())
+                .last()
+                .map(jobResp -> new SimpleImmutableEntry<>(
+                        SparkBatchJobState.valueOf(jobResp.getState().toUpperCase()).toString(),
+                        jobResp.getLog() == null ? "" : String.join("\n", jobResp.getLog())));
     }
 
     protected Observable<String> getJobLogAggregationDoneObservable() {
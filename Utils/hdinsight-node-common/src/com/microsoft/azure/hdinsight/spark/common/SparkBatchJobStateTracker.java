@@ -0,0 +1,396 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.microsoft.azure.hdinsight.spark.common;
+
+import com.microsoft.azure.hdinsight.common.logger.ILogger;
+import com.microsoft.azure.hdinsight.sdk.common.HttpResponse;
+import com.microsoft.azure.hdinsight.sdk.rest.ObjectConvertUtils;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import rx.Observable;
+import rx.schedulers.Schedulers;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.UnknownServiceException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The shared Livy batch job states poller of a cluster.
+ *
+ * All Spark batch jobs submitted to the same Livy endpoint subscribe the same tracker, which fetches
+ * GET /batches once per tick and multicasts the state changes to the subscribed jobs. The polling starts
+ * with the first subscription, stops when all subscriptions are gone, and its interval adapts to the
+ * states of the watched jobs: fast while any of them is starting, slow while all of them are running.
+ * The shared tracker is released once its last watched job is unwatched.
+ */
+public class SparkBatchJobStateTracker implements ILogger {
+    public static final long DEFAULT_STARTING_INTERVAL_MILLIS = 1000;
+    public static final long DEFAULT_RUNNING_INTERVAL_MILLIS = 5000;
+    public static final long DEFAULT_MAX_ERROR_BACKOFF_MILLIS = 30000;
+    public static final int DEFAULT_MAX_CONSECUTIVE_FAILURES = 10;
+
+    // The Livy batches page size per GET /batches
+    private static final int PAGE_SIZE = 100;
+
+    private static final ConcurrentMap<String, SparkBatchJobStateTracker> trackers = new ConcurrentHashMap<>();
+
+    /**
+     * Get the shared tracker of the Livy batches endpoint
+     *
+     * @param connectUri the Livy batches endpoint, eg http://localhost:8998/batches
+     * @param submission the submission to send requests, which carries the cluster credential. It replaces the
+     *                   submission of the existing tracker, since it carries the latest credential
+     * @return the shared tracker
+     */
+    @NotNull
+    public static SparkBatchJobStateTracker getInstance(@NotNull URI connectUri,
+                                                        @NotNull SparkBatchSubmission submission) {
+        return trackers.compute(getTrackerKey(connectUri),
+                                (uri, tracker) -> tracker == null
+                                        ? new SparkBatchJobStateTracker(uri, submission)
+                                        : tracker.setSubmission(submission));
+    }
+
+    /**
+     * Find the shared tracker of the Livy batches endpoint without creating one
+     *
+     * @param connectUri the Livy batches endpoint, eg http://localhost:8998/batches
+     * @return the shared tracker, or empty if there isn't
+     */
+    @NotNull
+    public static Optional<SparkBatchJobStateTracker> find(@NotNull URI connectUri) {
+        return Optional.ofNullable(trackers.get(getTrackerKey(connectUri)));
+    }
+
+    @NotNull
+    private static String getTrackerKey(@NotNull URI connectUri) {
+        return connectUri.toString().replaceAll("/+$", "");
+    }
+
+    /**
+     * The batch states got in a polling tick
+     */
+    static final class BatchesSnapshot {
+        @NotNull
+        private final Map<Integer, SparkSubmitResponse> batches;
+
+        // The watched batch IDs which can't be found in Livy
+        @NotNull
+        private final Set<Integer> missing;
+
+        BatchesSnapshot(@NotNull Map<Integer, SparkSubmitResponse> batches, @NotNull Set<Integer> missing) {
+            this.batches = batches;
+            this.missing = missing;
+        }
+    }
+
+    @NotNull
+    private final String connectUrl;
+
+    @NotNull
+    private volatile SparkBatchSubmission submission;
+
+    // Batch ID -> subscription count
+    @NotNull
+    private final ConcurrentMap<Integer, AtomicInteger> watchedBatches = new ConcurrentHashMap<>();
+
+    @NotNull
+    private final AtomicInteger consecutiveFailures = new AtomicInteger(0);
+
+    @Nullable
+    private volatile BatchesSnapshot latestSnapshot = null;
+
+    @NotNull
+    private final Observable<BatchesSnapshot> snapshots;
+
+    private volatile long startingIntervalMillis = DEFAULT_STARTING_INTERVAL_MILLIS;
+    private volatile long runningIntervalMillis = DEFAULT_RUNNING_INTERVAL_MILLIS;
+    private volatile long maxErrorBackoffMillis = DEFAULT_MAX_ERROR_BACKOFF_MILLIS;
+    private volatile int maxConsecutiveFailures = DEFAULT_MAX_CONSECUTIVE_FAILURES;
+
+    SparkBatchJobStateTracker(@NotNull String connectUrl, @NotNull SparkBatchSubmission submission) {
+        this.connectUrl = connectUrl;
+        this.submission = submission;
+
+        this.snapshots = Observable.fromCallable(this::fetchSnapshot)
+                .subscribeOn(Schedulers.io())
+                .doOnNext(snapshot -> {
+                    consecutiveFailures.set(0);
+                    latestSnapshot = snapshot;
+                })
+                .retryWhen(errors -> errors.flatMap(err -> {
+                    int failures = consecutiveFailures.incrementAndGet();
+
+                    if (failures > getMaxConsecutiveFailures()) {
+                        return Observable.error(err);
+                    }
+
+                    log().debug("Got exception " + err.toString() + " in polling " + connectUrl +
+                                        ", waiting for a while to try", err);
+
+                    return Observable.timer(getErrorBackoffMillis(failures), TimeUnit.MILLISECONDS);
+                }))
+                .repeatWhen(ticks -> ticks.flatMap(ignored ->
+                        Observable.timer(getNextIntervalMillis(), TimeUnit.MILLISECONDS)))
+                .doOnUnsubscribe(() -> {
+                    latestSnapshot = null;
+                    consecutiveFailures.set(0);
+                })
+                .replay(1)
+                .refCount();
+    }
+
+    /*
+     * Getter / Setter
+     */
+
+    @NotNull
+    public String getConnectUrl() {
+        return connectUrl;
+    }
+
+    @NotNull
+    public SparkBatchSubmission getSubmission() {
+        return submission;
+    }
+
+    private SparkBatchJobStateTracker setSubmission(@NotNull SparkBatchSubmission submission) {
+        this.submission = submission;
+
+        return this;
+    }
+
+    public long getStartingIntervalMillis() {
+        return startingIntervalMillis;
+    }
+
+    public SparkBatchJobStateTracker setStartingIntervalMillis(long startingIntervalMillis) {
+        this.startingIntervalMillis = startingIntervalMillis;
+
+        return this;
+    }
+
+    public long getRunningIntervalMillis() {
+        return runningIntervalMillis;
+    }
+
+    public SparkBatchJobStateTracker setRunningIntervalMillis(long runningIntervalMillis) {
+        this.runningIntervalMillis = runningIntervalMillis;
+
+        return this;
+    }
+
+    public long getMaxErrorBackoffMillis() {
+        return maxErrorBackoffMillis;
+    }
+
+    public SparkBatchJobStateTracker setMaxErrorBackoffMillis(long maxErrorBackoffMillis) {
+        this.maxErrorBackoffMillis = maxErrorBackoffMillis;
+
+        return this;
+    }
+
+    public int getMaxConsecutiveFailures() {
+        return maxConsecutiveFailures;
+    }
+
+    public SparkBatchJobStateTracker setMaxConsecutiveFailures(int maxConsecutiveFailures) {
+        this.maxConsecutiveFailures = maxConsecutiveFailures;
+
+        return this;
+    }
+
+    /*
+     * Polling
+     */
+
+    /**
+     * Get the polling interval by the latest states of watched batches
+     *
+     * @return fast interval if any watched batch is starting or unknown, slow interval otherwise
+     */
+    long getNextIntervalMillis() {
+        BatchesSnapshot snapshot = latestSnapshot;
+
+        boolean isAnyStarting = snapshot == null || watchedBatches.keySet().stream()
+                .map(snapshot.batches::get)
+                .anyMatch(batch -> batch == null || batch.getState() == null || isStarting(batch.getState()));
+
+        return isAnyStarting ? getStartingIntervalMillis() : getRunningIntervalMillis();
+    }
+
+    long getErrorBackoffMillis(int failures) {
+        long backoff = getStartingIntervalMillis() << Math.min(failures, 16);
+
+        return Math.min(backoff, getMaxErrorBackoffMillis());
+    }
+
+    private static boolean isStarting(@NotNull String state) {
+        return state.equalsIgnoreCase(SparkBatchJobState.NOT_STARTED.toString()) ||
+                state.equalsIgnoreCase(SparkBatchJobState.STARTING.toString()) ||
+                state.equalsIgnoreCase(SparkBatchJobState.RECOVERING.toString());
+    }
+
+    private static boolean isDone(@NotNull SparkSubmitResponse batch) {
+        return batch.getState() != null && !batch.isAlive();
+    }
+
+    @NotNull
+    BatchesSnapshot fetchSnapshot() throws IOException {
+        Map<Integer, SparkSubmitResponse> batches = new HashMap<>();
+        int from = 0;
+        int total;
+
+        // Fetch all Livy batches page by page
+        do {
+            SparkBatchesResponse page = getResponse(
+                    String.format("%s?from=%d&size=%d", connectUrl, from, PAGE_SIZE), SparkBatchesResponse.class);
+
+            page.getSessions().forEach(batch -> batches.put(batch.getId(), batch));
+
+            total = page.getTotal();
+            from += page.getSessions().size();
+
+            if (page.getSessions().isEmpty()) {
+                break;
+            }
+        } while (from < total);
+
+        // The watched batches not listed, such as the ones out of Livy recovery list, query them one by one
+        Set<Integer> missing = new HashSet<>();
+        for (Integer batchId : watchedBatches.keySet()) {
+            if (!batches.containsKey(batchId)) {
+                HttpResponse httpResponse = submission.getBatchSparkJobStatus(connectUrl, batchId);
+
+                if (httpResponse.getCode() == 404) {
+                    missing.add(batchId);
+                } else {
+                    batches.put(batchId, convertResponse(httpResponse, SparkSubmitResponse.class));
+                }
+            }
+        }
+
+        return new BatchesSnapshot(batches, missing);
+    }
+
+    @NotNull
+    private <T> T getResponse(@NotNull String url, @NotNull Class<T> clazz) throws IOException {
+        return convertResponse(submission.getHttpResponseViaGet(url), clazz);
+    }
+
+    @NotNull
+    private <T> T convertResponse(@NotNull HttpResponse httpResponse, @NotNull Class<T> clazz) throws IOException {
+        if (httpResponse.getCode() < 200 || httpResponse.getCode() >= 300) {
+            throw new UnknownServiceException(String.format(
+                    "Bad Livy batches response (%d): %s", httpResponse.getCode(), httpResponse.getMessage()));
+        }
+
+        return ObjectConvertUtils.convertJsonToObject(httpResponse.getMessage(), clazz)
+                .orElseThrow(() -> new UnknownServiceException(
+                        "Bad Livy batches response: " + httpResponse.getMessage()));
+    }
+
+    /*
+     * Subscriptions
+     */
+
+    // The watch counts are changed while computing on the tracker key, so they are atomic with getInstance() and
+    // the release of the shared tracker.
+
+    private void watch(int batchId) {
+        trackers.compute(connectUrl, (uri, tracker) -> {
+            watchedBatches.computeIfAbsent(batchId, id -> new AtomicInteger(0)).incrementAndGet();
+
+            // Register the tracker again if it was released after getInstance() returned it
+            return tracker == null ? this : tracker;
+        });
+    }
+
+    private void unwatch(int batchId) {
+        trackers.compute(connectUrl, (uri, tracker) -> {
+            watchedBatches.computeIfPresent(batchId, (id, count) -> count.decrementAndGet() > 0 ? count : null);
+
+            // Release the shared tracker with its submission once nothing is watched, a later getInstance()
+            // creates a new one
+            return tracker == this && watchedBatches.isEmpty() ? null : tracker;
+        });
+    }
+
+    /**
+     * Get the Livy batch status changes, the polling starts if it's the first subscription
+     *
+     * @param batchId the Livy batch ID
+     * @return the batch status observable which emits the status once its state changed and completes after
+     * the batch is done, or an error if the batch can't be found
+     */
+    @NotNull
+    public Observable<SparkSubmitResponse> getStatusObservable(int batchId) {
+        return snapshots
+                .flatMap(snapshot -> {
+                    if (snapshot.missing.contains(batchId)) {
+                        return Observable.<SparkSubmitResponse>error(new SparkJobException(
+                                "Can't find the Spark batch job " + batchId + " in " + connectUrl));
+                    }
+
+                    SparkSubmitResponse batch = snapshot.batches.get(batchId);
+
+                    return batch == null || batch.getState() == null
+                            ? Observable.<SparkSubmitResponse>empty()
+                            : Observable.just(batch);
+                })
+                .distinctUntilChanged(SparkSubmitResponse::getState)
+                .takeUntil(SparkBatchJobStateTracker::isDone)
+                .doOnSubscribe(() -> watch(batchId))
+                .doOnUnsubscribe(() -> unwatch(batchId));
+    }
+
+    /**
+     * Get the Livy batch state changes, the polling starts if it's the first subscription
+     *
+     * @param batchId the Livy batch ID
+     * @return the batch state observable which completes after the batch is done
+     */
+    @NotNull
+    public Observable<SparkBatchJobState> getStateObservable(int batchId) {
+        return getStatusObservable(batchId)
+                .map(batch -> SparkBatchJobState.valueOf(batch.getState().toUpperCase()));
+    }
+
+    /**
+     * Get the latest polled status of the batch without any request
+     *
+     * @param batchId the Livy batch ID
+     * @return the latest status, or empty if the tracker isn't polling or the batch is not found
+     */
+    @NotNull
+    public Optional<SparkSubmitResponse> getLatestStatus(int batchId) {
+        BatchesSnapshot snapshot = latestSnapshot;
+
+        return snapshot == null ? Optional.empty() : Optional.ofNullable(snapshot.batches.get(batchId));
+    }
+}
@@ -23,41 +23,58 @@
 package com.microsoft.azure.hdinsight.sdk.storage.adlsgen2;
 
 import com.microsoft.azure.hdinsight.sdk.common.HttpObservable;
+import com.microsoft.azure.hdinsight.sdk.rest.ObjectConvertUtils;
 import com.microsoft.azure.hdinsight.sdk.rest.azure.storageaccounts.RemoteFile;
 import com.microsoft.azure.hdinsight.sdk.rest.azure.storageaccounts.api.GetRemoteFilesResponse;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.input.BoundedInputStream;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.http.Header;
 import org.apache.http.NameValuePair;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPatch;
 import org.apache.http.client.methods.HttpPut;
-import org.apache.http.entity.BufferedHttpEntity;
 import org.apache.http.entity.ContentType;
 import org.apache.http.entity.InputStreamEntity;
 import rx.Observable;
+import rx.exceptions.Exceptions;
+import rx.functions.Action1;
+import rx.schedulers.Schedulers;
 
 import java.io.File;
 import java.io.FileInputStream;
-import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.List;
 import java.net.URI;
+import java.util.concurrent.TimeUnit;
 
 public class ADLSGen2FSOperation {
+    public static final int DEFAULT_BLOCK_SIZE = 8 * 1024 * 1024;
+    public static final int DEFAULT_PARALLELISM = 4;
+    public static final int DEFAULT_MAX_BLOCK_RETRIES = 3;
+    public static final int DEFAULT_LIST_PAGE_SIZE = 5000;
+    public static final String CONTINUATION_HEADER = "x-ms-continuation";
+
     private HttpObservable http;
 
-    @NotNull
-    private List<NameValuePair> createDirReqParams;
+    private int blockSize = DEFAULT_BLOCK_SIZE;
 
-    @NotNull
-    private List<NameValuePair> createFileReqParams;
+    private int parallelism = DEFAULT_PARALLELISM;
 
-    @NotNull
-    private List<NameValuePair> appendReqParams;
+    private int maxBlockRetries = DEFAULT_MAX_BLOCK_RETRIES;
+
+    private int listPageSize = DEFAULT_LIST_PAGE_SIZE;
 
     @NotNull
-    private ADLSGen2ParamsBuilder listReqBuilder;
+    private List<NameValuePair> createDirReqParams;
 
     @NotNull
-    private ADLSGen2ParamsBuilder flushReqParamsBuilder;
+    private List<NameValuePair> createFileReqParams;
 
     public ADLSGen2FSOperation(@NotNull HttpObservable http) {
         this.http = http;
@@ -68,71 +85,220 @@ public class ADLSGen2FSOperation {
         this.createFileReqParams = new ADLSGen2ParamsBuilder()
                 .setResource("file")
                 .build();
-
-        this.appendReqParams = new ADLSGen2ParamsBuilder()
-                .setAction("append")
-                .setPosition(0)
-                .build();
-
-        this.flushReqParamsBuilder = new ADLSGen2ParamsBuilder()
-                .setAction("flush");
     }
 
     public Observable<Boolean> createDir(String dirpath) {
         HttpPut req = new HttpPut(dirpath);
         return http.executeReqAndCheckStatus(req, 201, this.createDirReqParams)
-                .map(ignore -> true);
+                .map(ADLSGen2FSOperation::closeResponse);
     }
 
     public Observable<Boolean> createFile(String filePath) {
         HttpPut req = new HttpPut(filePath);
         return http.executeReqAndCheckStatus(req, 201, this.createFileReqParams)
-                .map(ignore -> true);
+                .map(ADLSGen2FSOperation::closeResponse);
+    }
+
+    public int getBlockSize() {
+        return blockSize;
+    }
+
+    public ADLSGen2FSOperation setBlockSize(int blockSize) {
+        this.blockSize = blockSize;
+        return this;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public ADLSGen2FSOperation setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    public int getMaxBlockRetries() {
+        return maxBlockRetries;
+    }
+
+    public ADLSGen2FSOperation setMaxBlockRetries(int maxBlockRetries) {
+        this.maxBlockRetries = maxBlockRetries;
+        return this;
+    }
+
+    public int getListPageSize() {
+        return listPageSize;
+    }
+
+    public ADLSGen2FSOperation setListPageSize(int listPageSize) {
+        this.listPageSize = listPageSize;
+        return this;
     }
 
     public Observable<Boolean> uploadData(String destFilePath, File src) {
+        return uploadData(destFilePath, src, null);
+    }
+
+    /**
+     * Upload the file content by appending blocks in parallel, then flush them all at the file length
+     *
+     * @param destFilePath the destination file path, which should be created
+     * @param src the source file
+     * @param progressCallback the callback with the uploaded bytes, invoked each time a block is appended
+     * @return true for success
+     */
+    public Observable<Boolean> uploadData(String destFilePath, File src, @Nullable Action1<Long> progressCallback) {
         return appendData(destFilePath, src)
+                .scan(0L, (uploaded, blockLen) -> uploaded + blockLen)
+                .doOnNext(uploaded -> {
+                    if (progressCallback != null) {
+                        progressCallback.call(uploaded);
+                    }
+                })
+                .last()
                 .flatMap(len -> flushData(destFilePath, len));
     }
 
     public Observable<RemoteFile> list(String rootPath, String relativePath) {
-        this.listReqBuilder = new ADLSGen2ParamsBuilder()
+        return listPages(rootPath, relativePath).concatMap(Observable::from);
+    }
+
+    /**
+     * List the directory page by page, following the continuation token of each page. The next page is requested
+     * after the previous one is consumed, so the first entries are available without waiting for the whole listing.
+     *
+     * @param rootPath the file system REST API root path
+     * @param relativePath the directory path relative to the file system root
+     * @return the pages of the directory entries
+     */
+    public Observable<List<RemoteFile>> listPages(String rootPath, String relativePath) {
+        return listPagesFrom(rootPath, relativePath, null);
+    }
+
+    private Observable<List<RemoteFile>> listPagesFrom(String rootPath,
+                                                       String relativePath,
+                                                       @Nullable String continuation) {
+        return listPage(rootPath, relativePath, continuation)
+                .concatMap(page -> {
+                    Observable<List<RemoteFile>> current = Observable.just(page.getLeft());
+
+                    return page.getRight() == null
+                            ? current
+                            : current.concatWith(Observable.defer(() ->
+                                    listPagesFrom(rootPath, relativePath, page.getRight())));
+                });
+    }
+
+    // Emit the entries of one page with the continuation token of the next page, null for the last page
+    private Observable<Pair<List<RemoteFile>, String>> listPage(String rootPath,
+                                                                String relativePath,
+                                                                @Nullable String continuation) {
+        ADLSGen2ParamsBuilder listReqBuilder = new ADLSGen2ParamsBuilder()
                 .enableRecursive(false)
-                .setResource("filesystem");
+                .setResource("filesystem")
+                .setDirectory(relativePath)
+                .setMaxResults(listPageSize);
+
+        if (StringUtils.isNotEmpty(continuation)) {
+            listReqBuilder.setContinuation(continuation);
+        }
 
-        return http.get(rootPath, listReqBuilder.setDirectory(relativePath).build(), null, GetRemoteFilesResponse.class)
-                .flatMap(pathList -> Observable.from(pathList.getRemoteFiles()));
+        return http.request(new HttpGet(rootPath), null, listReqBuilder.build(), null)
+                .flatMap(resp -> {
+                    Header continuationHeader = resp.getFirstHeader(CONTINUATION_HEADER);
+                    String nextContinuation = continuationHeader == null ||
+                            StringUtils.isEmpty(continuationHeader.getValue())
+                            ? null
+                            : continuationHeader.getValue();
+
+                    return HttpObservable.<GetRemoteFilesResponse>toObjectOnlyOkResponse(
+                                    resp, ObjectConvertUtils.constructType(GetRemoteFilesResponse.class))
+                            .map(pathList -> Pair.of(
+                                    pathList.getRemoteFiles() == null
+                                            ? Collections.<RemoteFile>emptyList()
+                                            : pathList.getRemoteFiles(),
+                                    nextContinuation));
+                });
     }
 
+    // Append the file blocks with the explicit positions, emit the length of each block appended
     private Observable<Long> appendData(String filePath, File src) {
-        try {
-            InputStreamEntity reqEntity = new InputStreamEntity(
-                    new FileInputStream(src),
-                    -1,
-                    ContentType.APPLICATION_OCTET_STREAM);
-            BufferedHttpEntity entity = new BufferedHttpEntity(reqEntity);
-            long len = entity.getContentLength();
-
-            HttpPatch req = new HttpPatch(filePath);
-            req.setEntity(entity);
-            http.setContentType("application/octet-stream");
-
-            return http.executeReqAndCheckStatus(req, 202, this.appendReqParams)
-                    .map(ignore -> len);
-        } catch (FileNotFoundException e) {
-            throw new RuntimeException(new IllegalArgumentException("Can not find the aritifact"));
-        } catch (IOException e) {
-            throw new RuntimeException(new IllegalArgumentException("Can not read the aritfact"));
+        if (!src.isFile()) {
+            return Observable.error(new IllegalArgumentException("Can not find the aritifact"));
         }
+
+        final long fileLen = src.length();
+        final int blockLen = Math.max(1, blockSize);
+        final long blockCount = (fileLen + blockLen - 1) / blockLen;
+
+        return Observable.range(0, (int) blockCount)
+                .flatMap(index -> {
+                    long position = (long) index * blockLen;
+
+                    return appendBlock(filePath, src, position, (int) Math.min(blockLen, fileLen - position))
+                            .subscribeOn(Schedulers.io());
+                }, Math.max(1, parallelism));
+    }
+
+    private Observable<Long> appendBlock(String filePath, File src, long position, int len) {
+        List<NameValuePair> appendReqParams = new ADLSGen2ParamsBuilder()
+                .setAction("append")
+                .setPosition(position)
+                .build();
+
+        // Read the block from the file for each trial, rather than holding it in memory
+        return Observable.using(
+                () -> {
+                    try {
+                        FileInputStream in = new FileInputStream(src);
+                        in.getChannel().position(position);
+
+                        return in;
+                    } catch (IOException e) {
+                        throw new RuntimeException(new IllegalArgumentException("Can not read the aritfact"));
+                    }
+                },
+                in -> {
+                    HttpPatch req = new HttpPatch(filePath);
+                    req.setEntity(new InputStreamEntity(
+                            new BoundedInputStream(in, len), len, ContentType.APPLICATION_OCTET_STREAM));
+
+                    return http.executeReqAndCheckStatus(req, 202, appendReqParams)
+                            .map(resp -> {
+                                closeResponse(resp);
+
+                                return (long) len;
+                            });
+                },
+                IOUtils::closeQuietly)
+                .retryWhen(errors -> errors
+                        .zipWith(Observable.range(1, maxBlockRetries + 1), (err, retried) -> {
+                            if (retried > maxBlockRetries || err instanceof IllegalArgumentException ||
+                                    err.getCause() instanceof IllegalArgumentException) {
+                                throw Exceptions.propagate(err);
+                            }
+
+                            return retried;
+                        })
+                        .flatMap(retried -> Observable.timer(retried, TimeUnit.SECONDS)));
+    }
+
+    private static boolean closeResponse(CloseableHttpResponse resp) {
+        // Release the connection back to the pool
+        IOUtils.closeQuietly(resp);
+
+        return true;
     }
 
     private Observable<Boolean> flushData(String filePath, long flushLen) {
         HttpPatch req = new HttpPatch(filePath);
-        List<NameValuePair> flushReqParams = this.flushReqParamsBuilder.setPosition(flushLen).build();
-        http.setContentType("application/json");
+        List<NameValuePair> flushReqParams = new ADLSGen2ParamsBuilder()
+                .setAction("flush")
+                .setPosition(flushLen)
+                .build();
 
         return http.executeReqAndCheckStatus(req, 200, flushReqParams)
-                .map(ignore -> true);
+                .map(ADLSGen2FSOperation::closeResponse);
     }
 
 
@@ -29,6 +29,7 @@ package com.microsoft.azure.hdinsight.spark.common;
 import com.microsoft.azure.hdinsight.common.logger.ILogger;
 import com.microsoft.azure.hdinsight.sdk.cluster.IClusterDetail;
 import com.microsoft.azure.hdinsight.sdk.common.HttpObservable;
+import com.microsoft.azure.hdinsight.sdk.common.ProgressFileEntity;
 import com.microsoft.azure.hdinsight.sdk.storage.webhdfs.WebHdfsParamsBuilder;
 import com.microsoft.azure.hdinsight.spark.jobs.JobUtils;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
@@ -36,18 +37,16 @@ import com.microsoft.azuretools.azurecommons.helpers.Nullable;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPut;
+import org.apache.http.client.utils.HttpClientUtils;
 import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.client.utils.URLEncodedUtils;
-import org.apache.http.entity.BufferedHttpEntity;
 import org.apache.http.entity.ContentType;
-import org.apache.http.entity.InputStreamEntity;
 import rx.Observable;
 import rx.exceptions.Exceptions;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.IOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.UnknownServiceException;
@@ -101,6 +100,8 @@ public class WebHDFSDeploy implements Deployable, ILogger {
         return http.request(req, null, this.createDirReqParams, null)
                 .doOnNext(
                         resp -> {
+                            HttpClientUtils.closeQuietly(resp);
+
                             if (resp.getStatusLine().getStatusCode() != 200) {
                                 Exceptions.propagate(new UnknownServiceException("Can not create directory to save artifact using webHDFS storage type"));
                             }
@@ -108,7 +109,11 @@ public class WebHDFSDeploy implements Deployable, ILogger {
                 )
                 .map(ignored -> new HttpPut(dest.resolve(src.getName()).toString()))
                 .flatMap(put -> http.request(put, null, this.uploadReqParams, null))
-                .map(resp -> resp.getFirstHeader("Location").getValue())
+                .map(resp -> {
+                    HttpClientUtils.closeQuietly(resp);
+
+                    return resp.getFirstHeader("Location").getValue();
+                })
                 .doOnNext(redirectedUri -> {
                     if (StringUtils.isBlank(redirectedUri)) {
                         Exceptions.propagate(new UnknownServiceException("Can not get valid redirect uri using webHDFS storage type"));
@@ -116,16 +121,25 @@ public class WebHDFSDeploy implements Deployable, ILogger {
                 })
                 .map(redirectedUri -> new HttpPut(redirectedUri))
                 .flatMap(put -> {
-                    try {
-                        InputStreamEntity reqEntity = new InputStreamEntity(
-                                new FileInputStream(src),
-                                -1,
-                                ContentType.APPLICATION_OCTET_STREAM);
-                        reqEntity.setChunked(true);
-
-                        return http.request(put, new BufferedHttpEntity(reqEntity), URLEncodedUtils.parse(put.getURI(), "UTF-8"), null);
-                    } catch (IOException ex) {
-                        throw new RuntimeException(new IllegalArgumentException("Can not get local artifact when uploading" + ex.toString()));
+                    if (!src.isFile()) {
+                        throw new IllegalArgumentException("Can not get local artifact when uploading " + src);
+                    }
+
+                    // Stream the artifact from disk with Expect: 100-continue, rather than buffer it in memory
+                    ProgressFileEntity reqEntity = new ProgressFileEntity(
+                            src,
+                            ContentType.APPLICATION_OCTET_STREAM,
+                            uploaded -> log().info(String.format(
+                                    "Uploaded %d of %d bytes to %s.", uploaded, src.length(), src.getName())));
+
+                    return http.request(put, reqEntity, URLEncodedUtils.parse(put.getURI(), "UTF-8"), null);
+                })
+                .doOnNext(resp -> {
+                    // Release the pooled connection
+                    HttpClientUtils.closeQuietly(resp);
+
+                    if (resp.getStatusLine().getStatusCode() >= 300) {
+                        Exceptions.propagate(new UnknownServiceException("Can not upload artifact using webHDFS storage type: " + resp.getStatusLine()));
                     }
                 })
                 .map(ignored -> {
@@ -137,6 +151,38 @@ public class WebHDFSDeploy implements Deployable, ILogger {
                 });
     }
 
+    @Nullable
+    @Override
+    public String getDestinationRoot() {
+        return destinationRootPath;
+    }
+
+    @NotNull
+    @Override
+    public Observable<Boolean> isDeployed(@NotNull String uploadedPath) {
+        return Observable.fromCallable(() -> new HttpGet(getWebHdfsFilePath(uploadedPath)))
+                .flatMap(get -> http.requestWithHttpResponse(
+                        get, null, new WebHdfsParamsBuilder("GETFILESTATUS").build(), null))
+                .map(resp -> true)
+                .onErrorReturn(err -> {
+                    log().debug("The deployed artifact " + uploadedPath + " isn't available: " + err);
+
+                    return false;
+                });
+    }
+
+    /**
+     * Convert the upload path back to the WebHDFS file path without query parameters
+     *
+     * @param uploadedPath the upload path got from getArtifactUploadedPath()
+     * @return the WebHDFS file path
+     * @throws URISyntaxException for the invalid upload path
+     */
+    @NotNull
+    protected String getWebHdfsFilePath(@NotNull String uploadedPath) throws URISyntaxException {
+        return new URIBuilder(uploadedPath).removeQuery().build().toString();
+    }
+
     @Nullable
     public String getArtifactUploadedPath(String rootPath) throws URISyntaxException {
         List<NameValuePair> params = new WebHdfsParamsBuilder("OPEN").build();
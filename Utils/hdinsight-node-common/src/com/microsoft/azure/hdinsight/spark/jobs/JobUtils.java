@@ -21,11 +21,6 @@
  */
 package com.microsoft.azure.hdinsight.spark.jobs;
 
-import com.gargoylesoftware.htmlunit.BrowserVersion;
-import com.gargoylesoftware.htmlunit.Cache;
-import com.gargoylesoftware.htmlunit.FailingHttpStatusCodeException;
-import com.gargoylesoftware.htmlunit.WebClient;
-import com.gargoylesoftware.htmlunit.html.*;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.reflect.TypeToken;
@@ -42,8 +37,10 @@ import com.microsoft.azure.hdinsight.sdk.cluster.LivyCluster;
 import com.microsoft.azure.hdinsight.sdk.common.AuthenticationException;
 import com.microsoft.azure.hdinsight.sdk.common.HDIException;
 import com.microsoft.azure.hdinsight.sdk.common.HttpObservable;
+import com.microsoft.azure.hdinsight.sdk.common.ProgressFileEntity;
 import com.microsoft.azure.hdinsight.sdk.common.livy.interactive.SparkSession;
-import com.microsoft.azure.hdinsight.sdk.io.spark.ClusterFileBase64BufferedOutputStream;
+import com.microsoft.azure.hdinsight.sdk.io.spark.ClusterFilePipelinedUploader;
+import com.microsoft.azure.hdinsight.sdk.rest.ObjectConvertUtils;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.App;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.ApplicationMasterLogs;
 import com.microsoft.azure.hdinsight.sdk.storage.HDStorageAccount;
@@ -63,7 +60,6 @@ import com.microsoft.tooling.msservices.helpers.azure.sdk.StorageClientSDKManage
 import com.microsoft.tooling.msservices.model.storage.BlobContainer;
 import com.microsoft.tooling.msservices.model.storage.ClientStorageAccount;
 import com.sun.net.httpserver.HttpExchange;
-import org.apache.commons.codec.binary.Base64OutputStream;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.HttpEntity;
@@ -80,9 +76,7 @@ import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpUriRequest;
 import org.apache.http.client.methods.RequestBuilder;
 import org.apache.http.client.utils.URIBuilder;
-import org.apache.http.entity.BufferedHttpEntity;
 import org.apache.http.entity.ContentType;
-import org.apache.http.entity.InputStreamEntity;
 import org.apache.http.impl.client.BasicCredentialsProvider;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
@@ -92,22 +86,20 @@ import rx.Observable;
 import rx.Observer;
 import rx.Single;
 import rx.Subscription;
+import rx.functions.Action1;
 import rx.schedulers.Schedulers;
 
 import java.awt.*;
 import java.io.*;
 import java.lang.reflect.Type;
 import java.net.URI;
-import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.UnknownServiceException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 import java.util.List;
 import java.util.AbstractMap.SimpleImmutableEntry;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.atomic.AtomicReference;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 import static com.microsoft.azure.hdinsight.common.MessageInfoType.Info;
 import static rx.exceptions.Exceptions.propagate;
@@ -137,6 +129,58 @@ public class JobUtils {
         }
     }
 
+    /**
+     * Send the JSON array response by writing out the elements batch by batch, with chunked transfer encoding.
+     * The status 500 is responded if the elements Observable fails before any element is written.
+     *
+     * @param httpExchange the HTTP exchange to respond
+     * @param elementBatches the Observable of array element batches
+     */
+    public static void setStreamingResponse(@NotNull HttpExchange httpExchange,
+                                            @NotNull Observable<? extends List<?>> elementBatches) {
+        OutputStream stream = null;
+
+        try {
+            for (List<?> batch : elementBatches.toBlocking().toIterable()) {
+                for (Object element : batch) {
+                    if (stream == null) {
+                        // Response length 0 for the chunked encoding
+                        httpExchange.sendResponseHeaders(200, 0);
+                        stream = httpExchange.getResponseBody();
+                        stream.write('[');
+                    } else {
+                        stream.write(',');
+                    }
+
+                    stream.write(ObjectConvertUtils.convertObjectToJsonString(element)
+                            .orElseThrow(IOException::new)
+                            .getBytes(StandardCharsets.UTF_8));
+                }
+
+                if (stream != null) {
+                    stream.flush();
+                }
+            }
+
+            if (stream == null) {
+                setResponse(httpExchange, "[]");
+                return;
+            }
+
+            stream.write(']');
+            stream.flush();
+            httpExchange.close();
+        } catch (Exception e) {
+            LOGGER.error("JobUtils set streaming Response error", e);
+
+            if (stream == null) {
+                setResponse(httpExchange, String.valueOf(e.getMessage()), 500);
+            } else {
+                httpExchange.close();
+            }
+        }
+    }
+
     public static URI getLivyLogPath(@NotNull String rootPath, @NotNull String applicationId) {
         String path = StringHelper.concat(rootPath, File.separator, JobLogFolderName, File.separator, applicationId);
         File file = new File(path);
@@ -209,8 +253,6 @@ public class JobUtils {
         }
     }
 
-    private static final Cache globalCache = new Cache();
-
     private static final String DRIVER_LOG_INFO_URL = "%s/yarnui/jobhistory/logs/%s/port/%s/%s/%s/livy";
 
     public static ApplicationMasterLogs getYarnLogs(@NotNull ApplicationKey key) throws IOException, ExecutionException, HDIException {
@@ -257,77 +299,7 @@ public class JobUtils {
                                                       @NotNull String type,
                                                       long start,
                                                       int size) {
-        final WebClient HTTP_WEB_CLIENT = new WebClient(BrowserVersion.CHROME);
-        HTTP_WEB_CLIENT.getOptions().setUseInsecureSSL(HttpObservable.isSSLCertificateValidationDisabled());
-        HTTP_WEB_CLIENT.setCache(globalCache);
-
-        if (credentialsProvider != null) {
-            HTTP_WEB_CLIENT.setCredentialsProvider(credentialsProvider);
-        }
-
-        URI url = null;
-
-        try {
-            url = new URI(baseUrl + "/").resolve(
-                    String.format("%s?start=%d", type, start) +
-                            (size <= 0 ? "" : String.format("&&end=%d", start + size)));
-            HtmlPage htmlPage = HTTP_WEB_CLIENT.getPage(url.toString());
-
-            Iterator<DomElement> iterator = htmlPage.getElementById("navcell").getNextElementSibling().getChildElements().iterator();
-
-            HashMap<String, String> logTypeMap = new HashMap<>();
-            final AtomicReference<String> logType = new AtomicReference<>();
-            String logs = "";
-
-            while (iterator.hasNext()) {
-                DomElement node = iterator.next();
-
-                if (node instanceof HtmlParagraph) {
-                    // In history server, need to read log type paragraph in page
-                    final Pattern logTypePattern = Pattern.compile("Log Type:\\s+(\\S+)");
-
-                    Optional.ofNullable(node.getFirstChild())
-                            .map(DomNode::getTextContent)
-                            .map(String::trim)
-                            .map(logTypePattern::matcher)
-                            .filter(Matcher::matches)
-                            .map(matcher -> matcher.group(1))
-                            .ifPresent(logType::set);
-                } else if (node instanceof HtmlPreformattedText) {
-                    // In running, no log type paragraph in page
-                    logs = Optional.ofNullable(node.getFirstChild())
-                                .map(DomNode::getTextContent)
-                                .orElse("");
-
-                    if (logType.get() != null) {
-                        // Only get the first <pre>...</pre>
-                        logTypeMap.put(logType.get(), logs);
-
-                        logType.set(null);
-                    }
-                }
-            }
-
-            return logTypeMap.getOrDefault(type, logs);
-        } catch (FailingHttpStatusCodeException httpError) {
-            // If the URL is wrong, will get 200 response with content:
-            //      Unable to locate 'xxx' log for container
-            //  OR
-            //      Logs not available for <user>. Aggregation may not be complete, Check back later or try the nodemanager at...
-            //  OR
-            //      Cannot get container logs without ...
-            //
-            // if fetching Yarn log hits the gap between the job running and stop, will get the status 403
-            // the log is moving to job history server, just wait and retry.
-            if (httpError.getStatusCode() != HttpStatus.SC_FORBIDDEN) {
-                LOGGER.warn("The GET request to " + url + " responded error: " + httpError.getMessage());
-            }
-        } catch (URISyntaxException e) {
-            LOGGER.error("baseUrl has syntax error: " + baseUrl);
-        } catch (Exception e) {
-            LOGGER.warn("get Spark job log Error", e);
-        }
-        return "";
+        return YarnContainerLogFetcher.getInstance(credentialsProvider, baseUrl).fetch(baseUrl, type, start, size);
     }
 
     /**
@@ -362,10 +334,13 @@ public class JobUtils {
             Optional<Subscription> stopSubscriptionOptional = Optional.ofNullable(stop).map(stopOb ->
                     stopOb.subscribe(any -> currentThread.interrupt()));
 
+            // Share the HTTP connections and cookies among the incremental fetches
+            final YarnContainerLogFetcher fetcher =
+                    YarnContainerLogFetcher.getInstance(credentialsProvider, containerLogUrl);
+
             try {
                 while (!ob.isUnsubscribed()) {
-                    logs = JobUtils.getInformationFromYarnLogDom(
-                            credentialsProvider, containerLogUrl, type, nextStart, blockSize);
+                    logs = fetcher.fetch(containerLogUrl, type, nextStart, blockSize);
                     int lastLineBreak = logs.lastIndexOf('\n');
 
                     if (lastLineBreak < 0) {
@@ -402,7 +377,7 @@ public class JobUtils {
             } finally {
                 // Get the rest logs from history server
                 // Don't worry about the log is moved to history server, the YarnUI can do URL redirect by itself
-                logs = JobUtils.getInformationFromYarnLogDom(credentialsProvider, containerLogUrl, type, nextStart, 0);
+                logs = fetcher.fetch(containerLogUrl, type, nextStart, 0);
 
                 new BufferedReader(new StringReader(remainedLine + logs)).lines().forEach(ob::onNext);
             }
@@ -448,36 +423,31 @@ public class JobUtils {
                                            @NotNull Observer<SimpleImmutableEntry<MessageInfoType, String>> logSubject,
                                            @Nullable CallableSingleArg<Void, Long> uploadInProcessCallback) throws Exception {
         if(storageAccount.getAccountType() == StorageAccountType.BLOB) {
-            try (FileInputStream fileInputStream = new FileInputStream(file)) {
-                try (BufferedInputStream bufferedInputStream = new BufferedInputStream(fileInputStream)) {
-                    HDStorageAccount blobStorageAccount = (HDStorageAccount) storageAccount;
-                    BlobContainer container = getSparkClusterContainer(blobStorageAccount, containerName);
-                    if (container == null) {
-                        throw new IllegalArgumentException("Can't get the valid container.");
-                    }
+            HDStorageAccount blobStorageAccount = (HDStorageAccount) storageAccount;
+            BlobContainer container = getSparkClusterContainer(blobStorageAccount, containerName);
+            if (container == null) {
+                throw new IllegalArgumentException("Can't get the valid container.");
+            }
 
-                    String path = String.format("SparkSubmission/%s/%s", uploadFolderPath, file.getName());
-                    String uploadedPath = String.format("wasbs://%s@%s/%s", containerName, blobStorageAccount.getFullStorageBlobName(), path);
+            String path = String.format("SparkSubmission/%s/%s", uploadFolderPath, file.getName());
+            String uploadedPath = String.format("wasbs://%s@%s/%s", containerName, blobStorageAccount.getFullStorageBlobName(), path);
 
-                    logSubject.onNext(new SimpleImmutableEntry<>(Info,
-                            String.format("Begin uploading file %s to Azure Blob Storage Account %s ...",
-                                          file.getPath(), uploadedPath)));
+            logSubject.onNext(new SimpleImmutableEntry<>(Info,
+                    String.format("Begin uploading file %s to Azure Blob Storage Account %s ...",
+                                  file.getPath(), uploadedPath)));
 
-                    StorageClientSDKManager.getManager().uploadBlobFileContent(
-                            blobStorageAccount.getConnectionString(),
-                            container,
-                            path,
-                            bufferedInputStream,
-                            uploadInProcessCallback,
-                            1024 * 1024,
-                            file.length());
+            StorageClientSDKManager.getManager().uploadBlobFileContent(
+                    blobStorageAccount.getConnectionString(),
+                    container,
+                    path,
+                    file,
+                    uploadInProcessCallback,
+                    4 * 1024 * 1024);
 
-                    logSubject.onNext(new SimpleImmutableEntry<>(Info,
-                            String.format("Submit file to azure blob '%s' successfully.", uploadedPath)));
+            logSubject.onNext(new SimpleImmutableEntry<>(Info,
+                    String.format("Submit file to azure blob '%s' successfully.", uploadedPath)));
 
-                    return uploadedPath;
-                }
-            }
+            return uploadedPath;
         } else if(storageAccount.getAccountType() == StorageAccountType.ADLS) {
             String uploadPath = String.format("adl://%s.azuredatalakestore.net%s%s", storageAccount.getName(), storageAccount.getDefaultContainerOrRootPath(), "SparkSubmission");
             logSubject.onNext(new SimpleImmutableEntry<>(Info,
@@ -579,29 +549,27 @@ public class JobUtils {
             return Observable.using(() -> new SparkSession(sessionName, livyUri, username, password),
                     SparkSession::create,
                     SparkSession::close)
-                    .map(sparkSession -> {
-                        ClusterFileBase64BufferedOutputStream clusterFileBase64Out = new ClusterFileBase64BufferedOutputStream(
-                                sparkSession, destUri);
-                        Base64OutputStream base64Enc = new Base64OutputStream(clusterFileBase64Out, true);
-                        InputStream inFile;
-
-                        try {
-                            inFile = new BufferedInputStream(new FileInputStream(srcJarFile));
-
-                            logSubject.onNext(new SimpleImmutableEntry<>(Info, String.format("Uploading %s...", srcJarFile)));
-                            IOUtils.copy(inFile, base64Enc);
-
-                            inFile.close();
-                            base64Enc.close();
-                        } catch (FileNotFoundException fnfEx) {
-                            throw propagate(new HDIException(String.format("Source file %s not found.", srcJarFile), fnfEx));
-                        } catch (IOException ioEx) {
-                            throw propagate(new HDIException(String.format("Failed to upload file %s.", destUri), ioEx));
+                    .flatMap(sparkSession -> {
+                        if (!srcJarFile.isFile()) {
+                            return Observable.<String>error(new HDIException(
+                                    String.format("Source file %s not found.", srcJarFile)));
                         }
 
-                        logSubject.onNext(new SimpleImmutableEntry<>(Info, String.format("Uploaded to %s.", destUri)));
-
-                        return destUri.toString();
+                        logSubject.onNext(new SimpleImmutableEntry<>(Info, String.format("Uploading %s...", srcJarFile)));
+
+                        return new ClusterFilePipelinedUploader(sparkSession, destUri)
+                                .upload(srcJarFile)
+                                .doOnNext(uploaded -> logSubject.onNext(new SimpleImmutableEntry<>(Info, String.format(
+                                        "Uploaded %d of %d bytes.", uploaded, srcJarFile.length()))))
+                                .lastOrDefault(0L)
+                                .onErrorResumeNext(err -> Observable.<Long>error(err instanceof HDIException ?
+                                        err :
+                                        new HDIException(String.format("Failed to upload file %s.", destUri), err)))
+                                .map(uploaded -> {
+                                    logSubject.onNext(new SimpleImmutableEntry<>(Info, String.format("Uploaded to %s.", destUri)));
+
+                                    return destUri.toString();
+                                });
                     })
                     .toBlocking()
                     .single();
@@ -693,6 +661,22 @@ public class JobUtils {
     public static Observable<String> deployArtifact(@NotNull SparkBatchSubmission submission,
                                                     @NotNull String destinationRootPath,
                                                     @NotNull String artifactPath) {
+        return deployArtifact(submission, destinationRootPath, artifactPath, null);
+    }
+
+    /**
+     * Deploy the artifact by WebHDFS, the artifact is streamed from disk rather than buffered in memory
+     *
+     * @param submission the Spark batch submission with HTTP client and credential
+     * @param destinationRootPath the WebHDFS destination root path
+     * @param artifactPath the local artifact path
+     * @param progressCallback the callback with the bytes uploaded, null for no progress reported
+     * @return the WebHDFS file path to open the deployed artifact
+     */
+    public static Observable<String> deployArtifact(@NotNull SparkBatchSubmission submission,
+                                                    @NotNull String destinationRootPath,
+                                                    @NotNull String artifactPath,
+                                                    @Nullable Action1<Long> progressCallback) {
         return Observable.fromCallable(() -> {
             File file = new File(artifactPath);
             String webHdfsUploadPath = destinationRootPath.concat(file.getName());
@@ -725,22 +709,25 @@ public class JobUtils {
                 throw new UnknownServiceException("using webhdfs encounter problem:".concat(ex.toString()));
             }
 
-            InputStreamEntity reqEntity = new InputStreamEntity(
-                    new FileInputStream(file),
-                    -1,
-                    ContentType.APPLICATION_OCTET_STREAM);
-            reqEntity.setChunked(true);
-            BufferedHttpEntity reqEntityBuf = new BufferedHttpEntity(reqEntity);
+            // Stream the file with the known length, the entity is repeatable without buffering the whole file
+            ProgressFileEntity reqEntity = new ProgressFileEntity(
+                    file,
+                    ContentType.APPLICATION_OCTET_STREAM,
+                    progressCallback);
 
             //setup url with redirect url and entity ,config 100 continue to header
             req = RequestBuilder
                     .put(redirectUri)
-                    .setEntity(reqEntityBuf)
+                    .setEntity(reqEntity)
                     .setConfig(RequestConfig.custom().setExpectContinueEnabled(true).build())
                     .build();
 
             // execute put request
             try (CloseableHttpResponse putResp = httpclient.execute(req)) {
+                if (putResp.getStatusLine().getStatusCode() >= 300) {
+                    throw new UnknownServiceException("using webhdfs to upload artifact failed: " + putResp.getStatusLine());
+                }
+
                 params = new WebHdfsParamsBuilder("OPEN")
                         .build();
                 uriBuilder = new URIBuilder(webHdfsUploadPath);
@@ -752,10 +739,6 @@ public class JobUtils {
         });
     }
 
-    public static Cache getGlobalCache() {
-        return globalCache;
-    }
-
     public static AbstractMap.SimpleImmutableEntry<Integer, Map<String, List<String>>>
     authenticate(IClusterDetail clusterDetail) throws HDIException, IOException {
         SparkBatchSubmission submission = SparkBatchSubmission.getInstance();
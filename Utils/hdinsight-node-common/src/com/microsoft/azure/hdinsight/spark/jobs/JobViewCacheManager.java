@@ -21,6 +21,7 @@
  */
 package com.microsoft.azure.hdinsight.spark.jobs;
 
+import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
@@ -35,10 +36,12 @@ import com.microsoft.azure.hdinsight.sdk.rest.spark.task.Task;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.App;
 import com.microsoft.azure.hdinsight.sdk.rest.yarn.rm.ApplicationMasterLogs;
 import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import rx.Observable;
+import rx.schedulers.Schedulers;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 public class JobViewCacheManager {
     private static final LoadingCache<ApplicationKey, List<Job>> sparkJobLocalCache = CacheBuilder.newBuilder()
@@ -81,21 +84,40 @@ public class JobViewCacheManager {
                 }
             });
 
+    public static final int DEFAULT_TASKS_FETCH_PARALLELISM = 8;
+    public static final long DEFAULT_TASKS_FETCH_TIMEOUT_SECONDS = 60;
+
+    private static volatile int tasksFetchParallelism = Integer.getInteger(
+            "com.microsoft.azure.hdinsight.spark.tasks.fetchParallelism", DEFAULT_TASKS_FETCH_PARALLELISM);
+    private static volatile long tasksFetchTimeoutSeconds = Long.getLong(
+            "com.microsoft.azure.hdinsight.spark.tasks.fetchTimeoutSeconds", DEFAULT_TASKS_FETCH_TIMEOUT_SECONDS);
+
+    private static final Set<String> FINISHED_STAGE_STATUSES = new HashSet<>(Arrays.asList("COMPLETE", "FAILED", "SKIPPED"));
+
+    // The tasks of a finished stage attempt never change, keep them by the stage attempt to skip the re-fetching
+    private static final Cache<String, List<Task>> sparkFinishedStageTasksLocalCache = CacheBuilder.newBuilder()
+            .maximumWeight(1000000)
+            .weigher((String stageAttempt, List<Task> tasks) -> tasks.size() + 1)
+            .build();
+
     private static final LoadingCache<ApplicationKey, List<Task>> sparkTasksSummaryLocalCache = CacheBuilder.newBuilder()
             .maximumSize(100)
             .initialCapacity(20)
             .build(new CacheLoader<ApplicationKey, List<Task>>() {
                 @Override
                 public List<Task> load(ApplicationKey key) throws Exception {
-                    List<Task> allTasks = new ArrayList<>();
-                    List<Stage> stages = sparkStageLocalCache.get(key);
-                    for (Stage stage: stages) {
-                        int stageId = stage.getStageId();
-                        int attemptedId = stage.getAttemptId();
-                        List<Task> tasks = SparkRestUtil.getSparkTasks(key, stageId, attemptedId);
-                        allTasks.addAll(tasks);
+                    try {
+                        return getAllStageTasksObservable(key)
+                                .reduce(new ArrayList<Task>(), (allTasks, tasks) -> {
+                                    allTasks.addAll(tasks);
+                                    return allTasks;
+                                })
+                                .toBlocking()
+                                .single();
+                    } catch (RuntimeException ex) {
+                        // Unwrap the checked exception propagated by the blocking observable
+                        throw ex.getCause() instanceof Exception ? (Exception) ex.getCause() : ex;
                     }
-                    return allTasks;
                 }
             });
 
@@ -166,6 +188,91 @@ public class JobViewCacheManager {
     public static List<Task> getTasks(@NotNull ApplicationKey key) throws ExecutionException {
         return sparkTasksSummaryLocalCache.get(key);
     }
+
+    /**
+     * Get the tasks of all stages as an Observable, which emits the task list of each stage in the stage order,
+     * as soon as it and all its ahead stages are fetched. The merged result is put into the tasks summary cache
+     * at completion.
+     *
+     * @param key the application key
+     * @return the stage task lists Observable
+     */
+    public static Observable<List<Task>> getTasksObservable(@NotNull ApplicationKey key) {
+        List<Task> loaded = sparkTasksSummaryLocalCache.getIfPresent(key);
+        if (loaded != null) {
+            return Observable.just(loaded);
+        }
+
+        return Observable.defer(() -> {
+            List<Task> allTasks = new ArrayList<>();
+
+            return getAllStageTasksObservable(key)
+                    .doOnNext(allTasks::addAll)
+                    .doOnCompleted(() -> sparkTasksSummaryLocalCache.put(key, allTasks));
+        });
+    }
+
+    private static Observable<List<Task>> getAllStageTasksObservable(@NotNull ApplicationKey key) {
+        final int parallelism = Math.max(1, tasksFetchParallelism);
+
+        // Fetch the stages concurrently with bounded parallelism and keep the results in the stage order
+        return Observable.fromCallable(() -> sparkStageLocalCache.get(key))
+                .flatMapIterable(stages -> stages)
+                .concatMapEager(stage -> getStageTasksObservable(key, stage), parallelism, parallelism);
+    }
+
+    private static Observable<List<Task>> getStageTasksObservable(@NotNull ApplicationKey key, @NotNull Stage stage) {
+        final int stageId = stage.getStageId();
+        final int attemptId = stage.getAttemptId();
+        final String stageAttempt = String.format("%s/%s/%d/%d",
+                key.getClusterConnString().toLowerCase(), key.getAppId().toLowerCase(), stageId, attemptId);
+
+        List<Task> finishedStageTasks = sparkFinishedStageTasksLocalCache.getIfPresent(stageAttempt);
+        if (finishedStageTasks != null) {
+            return Observable.just(finishedStageTasks);
+        }
+
+        return Observable.fromCallable(() -> SparkRestUtil.getSparkTasks(key, stageId, attemptId))
+                .subscribeOn(Schedulers.io())
+                .timeout(tasksFetchTimeoutSeconds, TimeUnit.SECONDS)
+                .doOnNext(tasks -> {
+                    if (isStageFinished(stage)) {
+                        sparkFinishedStageTasksLocalCache.put(stageAttempt, tasks);
+                    }
+                });
+    }
+
+    private static boolean isStageFinished(@NotNull Stage stage) {
+        String status = stage.getStatus();
+
+        return status != null && FINISHED_STAGE_STATUSES.contains(status.toUpperCase());
+    }
+
+    public static int getTasksFetchParallelism() {
+        return tasksFetchParallelism;
+    }
+
+    /**
+     * Set the max concurrent stage task list requests for one application
+     *
+     * @param parallelism the max concurrent requests
+     */
+    public static void setTasksFetchParallelism(int parallelism) {
+        tasksFetchParallelism = parallelism;
+    }
+
+    public static long getTasksFetchTimeoutSeconds() {
+        return tasksFetchTimeoutSeconds;
+    }
+
+    /**
+     * Set the timeout for one stage task list request
+     *
+     * @param timeoutSeconds the timeout in seconds
+     */
+    public static void setTasksFetchTimeoutSeconds(long timeoutSeconds) {
+        tasksFetchTimeoutSeconds = timeoutSeconds;
+    }
     
     public static List<Stage> getStages(@NotNull ApplicationKey key) throws ExecutionException {
         return sparkStageLocalCache.get(key);
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.microsoft.azure.hdinsight.sdk.rest.ObjectConvertUtils;
+import com.microsoft.azure.hdinsight.sdk.rest.spark.event.*;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import rx.Observable;
+import rx.observables.SyncOnSubscribe;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+
+import static rx.exceptions.Exceptions.propagate;
+
+/**
+ * The Spark event log reader, which reads the event log line by line and only binds the events interested.
+ *
+ * Each line of Spark event log is a JSON object of one event, with the event type in the field `Event`.
+ */
+public class SparkEventLogReader {
+    public static final String JOB_START = "SparkListenerJobStart";
+    public static final String STAGE_COMPLETED = "SparkListenerStageCompleted";
+    public static final String TASK_END = "SparkListenerTaskEnd";
+    public static final String EXECUTOR_ADDED = "SparkListenerExecutorAdded";
+    public static final String EXECUTOR_REMOVED = "SparkListenerExecutorRemoved";
+
+    /**
+     * The supported event types and their classes to bind
+     */
+    public static final Map<String, Class<?>> EVENT_CLASSES;
+
+    static {
+        Map<String, Class<?>> eventClasses = new HashMap<>();
+        eventClasses.put(JOB_START, JobStartEventLog.class);
+        eventClasses.put(STAGE_COMPLETED, StageCompletedEventLog.class);
+        eventClasses.put(TASK_END, TaskEndEventLog.class);
+        eventClasses.put(EXECUTOR_ADDED, ExecutorAddedEventLog.class);
+        eventClasses.put(EXECUTOR_REMOVED, ExecutorRemovedEventLog.class);
+
+        EVENT_CLASSES = Collections.unmodifiableMap(eventClasses);
+    }
+
+    private static final String EVENT_FIELD = "Event";
+
+    // Spark JsonProtocol writes the event type as the first field
+    private static final String EVENT_FIELD_PREFIX = "{\"" + EVENT_FIELD + "\":\"";
+
+    /**
+     * Read the event log lines from the stream on demand
+     *
+     * @param eventLogStreamFactory the event log stream factory, the stream is closed at completion or un-subscription
+     * @return the event log lines
+     */
+    @NotNull
+    public static Observable<String> readLines(@NotNull final Callable<InputStream> eventLogStreamFactory) {
+        return Observable.create(SyncOnSubscribe.<BufferedReader, String>createStateful(
+                // Open the event log
+                () -> {
+                    try {
+                        return new BufferedReader(new InputStreamReader(
+                                eventLogStreamFactory.call(), StandardCharsets.UTF_8));
+                    } catch (Exception e) {
+                        throw propagate(e);
+                    }
+                },
+                // Read the next line
+                (reader, observer) -> {
+                    try {
+                        String line = reader.readLine();
+
+                        if (line == null) {
+                            observer.onCompleted();
+                        } else {
+                            observer.onNext(line);
+                        }
+                    } catch (IOException e) {
+                        observer.onError(e);
+                    }
+
+                    return reader;
+                },
+                // Close the reader, for both completion and un-subscription
+                reader -> {
+                    try {
+                        reader.close();
+                    } catch (IOException ignore) {
+                    }
+                }));
+    }
+
+    /**
+     * Bind the event log lines of the specified types
+     *
+     * @param lines the event log lines
+     * @param eventClasses the event type and its class to bind, refer to {@link #EVENT_CLASSES}
+     * @return the events bound, the lines failed to bind are skipped
+     */
+    @NotNull
+    public static Observable<Object> parseEvents(@NotNull final Observable<String> lines,
+                                                 @NotNull final Map<String, Class<?>> eventClasses) {
+        return lines
+                .map(line -> {
+                    String eventType = getEventType(line);
+                    Class<?> eventClass = eventType == null ? null : eventClasses.get(eventType);
+
+                    return eventClass == null ?
+                            null :
+                            (Object) ObjectConvertUtils.convertToObjectQuietly(line, eventClass);
+                })
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     * Bind the event log lines of the specified type
+     *
+     * @param lines the event log lines
+     * @param eventType the event type, such as {@link #JOB_START}
+     * @param eventClass the class to bind
+     * @param <T> the event class type
+     * @return the events bound, the lines failed to bind are skipped
+     */
+    @NotNull
+    public static <T> Observable<T> parseEvents(@NotNull final Observable<String> lines,
+                                                @NotNull final String eventType,
+                                                @NotNull final Class<T> eventClass) {
+        return parseEvents(lines, Collections.<String, Class<?>>singletonMap(eventType, eventClass))
+                .map(eventClass::cast);
+    }
+
+    /**
+     * Get the event type of an event log line without binding the whole line
+     *
+     * @param line the event log line
+     * @return the event type, null for no event type found
+     */
+    @Nullable
+    public static String getEventType(@NotNull String line) {
+        // Fast path for the event type written as the first field
+        if (line.startsWith(EVENT_FIELD_PREFIX)) {
+            int end = line.indexOf('"', EVENT_FIELD_PREFIX.length());
+
+            if (end > 0) {
+                return line.substring(EVENT_FIELD_PREFIX.length(), end);
+            }
+        }
+
+        // Scan the top level fields
+        try (JsonParser parser = ObjectConvertUtils.createJsonParser(line)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken valueToken = parser.nextToken();
+
+                if (EVENT_FIELD.equals(fieldName)) {
+                    return valueToken == JsonToken.VALUE_STRING ? parser.getText() : null;
+                }
+
+                parser.skipChildren();
+            }
+        } catch (IOException ignore) {
+        }
+
+        return null;
+    }
+}
@@ -35,6 +35,7 @@ import com.microsoft.azure.hdinsight.spark.jobs.framework.JobRequestDetails;
 import com.microsoft.tooling.msservices.components.DefaultLoader;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
+import rx.Observable;
 
 import java.io.IOException;
 import java.util.List;
@@ -74,9 +75,10 @@ public class SparkJobHttpHandler implements HttpHandler {
                 Optional<String> responseString = ObjectConvertUtils.convertObjectToJsonString(executors);
                 JobUtils.setResponse(httpExchange, responseString.orElseThrow(IOException::new));
             } else if (path.contains("tasks_summary")) {
-                List<Task> tasks = JobViewCacheManager.getTasks(new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId()));
-                Optional<String> responseString = ObjectConvertUtils.convertObjectToJsonString(tasks);
-                JobUtils.setResponse(httpExchange, responseString.orElseThrow(IOException::new));
+                // Stream the tasks out stage by stage since there could be thousands of stages to fetch
+                Observable<List<Task>> stageTasks = JobViewCacheManager.getTasksObservable(
+                        new ApplicationKey(requestDetail.getCluster(), requestDetail.getAppId()));
+                JobUtils.setStreamingResponse(httpExchange, stageTasks);
             }
         } catch (ExecutionException e) {
             JobUtils.setResponse(httpExchange, e.getMessage(), 500);
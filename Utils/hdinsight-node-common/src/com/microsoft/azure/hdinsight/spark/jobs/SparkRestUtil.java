@@ -37,19 +37,20 @@ import com.microsoft.azuretools.azurecommons.helpers.NotNull;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.apache.http.HttpEntity;
-import org.json.JSONObject;
+import rx.Observable;
 
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.Charset;
 import java.util.*;
 import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
 
+import static rx.exceptions.Exceptions.propagate;
+
 public class SparkRestUtil {
     public static final String SPARK_REST_API_ENDPOINT = "%s/sparkhistory/api/v1/applications/%s";
 
@@ -100,6 +101,57 @@ public class SparkRestUtil {
     }
     
     public static List<JobStartEventLog> getSparkEventLogs(@NotNull ApplicationKey key) throws HDIException, IOException {
+        try {
+            return getSparkEventLogsObservable(key, SparkEventLogReader.JOB_START, JobStartEventLog.class)
+                    .toList()
+                    .toBlocking()
+                    .single();
+        } catch (RuntimeException ex) {
+            // Unwrap the checked exception propagated by the blocking observable
+            if (ex.getCause() instanceof HDIException) {
+                throw (HDIException) ex.getCause();
+            }
+
+            if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            }
+
+            throw ex;
+        }
+    }
+
+    public static <T> Observable<T> getSparkEventLogsObservable(@NotNull ApplicationKey key,
+                                                                @NotNull String eventType,
+                                                                @NotNull Class<T> eventClass) {
+        return getSparkEventLogsObservable(key, Collections.<String, Class<?>>singletonMap(eventType, eventClass))
+                .map(eventClass::cast);
+    }
+
+    /**
+     * Get the Spark events of the last attempt from the event logs, the events are read from the downloaded event
+     * logs file line by line, so that the memory usage doesn't depend on the event logs size.
+     *
+     * @param key the application key
+     * @param eventClasses the event type and its class to bind, refer to {@link SparkEventLogReader#EVENT_CLASSES}
+     * @return the events Observable
+     */
+    public static Observable<Object> getSparkEventLogsObservable(@NotNull ApplicationKey key,
+                                                                 @NotNull Map<String, Class<?>> eventClasses) {
+        return Observable.using(
+                () -> {
+                    try {
+                        return downloadSparkEventLogs(key);
+                    } catch (Exception e) {
+                        throw propagate(e);
+                    }
+                },
+                zipFile -> Observable.fromCallable(() -> getLastAttemptEventLogEntry(zipFile, key))
+                        .flatMap(entry -> SparkEventLogReader.parseEvents(
+                                SparkEventLogReader.readLines(() -> zipFile.getInputStream(entry)), eventClasses)),
+                IOUtils::closeQuietly);
+    }
+
+    private static ZipFile downloadSparkEventLogs(@NotNull ApplicationKey key) throws HDIException, IOException {
         String url = String.format("%s/logs", key.getAppId());
         String eventLogsPath = String.format("%s/SparkEventLogs/%s/eventLogs.zip", HDInsightLoader.getHDInsightHelper().getPluginRootPath(), key.getAppId());
         File file = new File(eventLogsPath);
@@ -108,30 +160,19 @@ public class SparkRestUtil {
         FileUtils.copyInputStreamToFile(inputStream, file);
         IOUtils.closeQuietly(inputStream);
 
-        ZipFile zipFile = new ZipFile(file);
-        List<? extends ZipEntry> entities =  Collections.list(zipFile.entries());
+        return new ZipFile(file);
+    }
+
+    private static ZipEntry getLastAttemptEventLogEntry(@NotNull ZipFile zipFile, @NotNull ApplicationKey key) throws HDIException {
         // every application has an attempt in event log
         // and the entity name should be in formation "{appId}_{attemptId}"
-        String entityName = String.format("%s_%s", key.getAppId(), entities.size());
+        String entityName = String.format("%s_%s", key.getAppId(), zipFile.size());
         ZipEntry lastEntity = zipFile.getEntry(entityName);
         if (lastEntity == null) {
             throw new HDIException(String.format("No Spark event log entity found for app: %s", key.getAppId()));
         }
-        InputStream zipFileInputStream = zipFile.getInputStream(lastEntity);
-        String entityContent = IOUtils.toString(zipFileInputStream, Charset.forName("utf-8"));
-
-        String[] lines = entityContent.split("\n");
-        List<JobStartEventLog> jobStartEvents = Arrays.stream(lines)
-                .filter(line -> {
-                    JSONObject jsonObject = new JSONObject(line);
-                    String eventName = jsonObject.getString("Event");
-                    return eventName.equalsIgnoreCase("SparkListenerJobStart");
-                    })
-                .map(oneLine -> ObjectConvertUtils.convertToObjectQuietly(oneLine, JobStartEventLog.class))
-                .filter(Objects::nonNull)
-                .collect(Collectors.toList());
 
-        return jobStartEvents;
+        return lastEntity;
     }
 
     private static AttemptWithAppId getLastAttemptFromLocalCache(@NotNull ApplicationKey key) throws ExecutionException, HDIException {
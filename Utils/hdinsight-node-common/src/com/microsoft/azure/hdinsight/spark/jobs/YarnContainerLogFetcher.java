@@ -0,0 +1,374 @@
+/*
+ * Copyright (c) Microsoft Corporation
+ * <p/>
+ * All rights reserved.
+ * <p/>
+ * MIT License
+ * <p/>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated
+ * documentation files (the "Software"), to deal in the Software without restriction, including without limitation
+ * the rights to use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of the Software, and
+ * to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * <p/>
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of
+ * the Software.
+ * <p/>
+ * THE SOFTWARE IS PROVIDED *AS IS*, WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO
+ * THE WARRANTIES OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY, WHETHER IN AN ACTION OF CONTRACT,
+ * TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package com.microsoft.azure.hdinsight.spark.jobs;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.microsoft.azure.hdinsight.sdk.common.HttpObservable;
+import com.microsoft.azuretools.azurecommons.helpers.NotNull;
+import com.microsoft.azuretools.azurecommons.helpers.Nullable;
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.lang3.StringEscapeUtils;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpStatus;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.Credentials;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.entity.ContentType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The Yarn container log page fetcher.
+ *
+ * Yarn UI and Job History server serve the container log as an HTML page with the log content in <pre> blocks,
+ * the requested byte range is specified by the query parameters `start` and `end`. Rather than loading the whole
+ * page into a headless browser, the fetcher gets the page by the shared pooled HTTP client and scans the response
+ * stream for the "Log Type:" paragraphs and <pre> blocks in the content cell only.
+ */
+public class YarnContainerLogFetcher {
+    private static final Logger LOGGER = LoggerFactory.getLogger(YarnContainerLogFetcher.class);
+
+    private static final Pattern LOG_TYPE_PATTERN = Pattern.compile("Log Type:\\s+(\\S+)");
+
+    private static final YarnContainerLogFetcher ANONYMOUS = new YarnContainerLogFetcher(null);
+
+    // Fetchers keyed by the endpoint and the credential hash to share the cookies and HTTP connections,
+    // the ones not used for a while are dropped
+    private static final Cache<String, YarnContainerLogFetcher> fetchers = CacheBuilder.newBuilder()
+            .maximumSize(64)
+            .expireAfterAccess(30, TimeUnit.MINUTES)
+            .build();
+
+    @Nullable
+    private final UsernamePasswordCredentials credentials;
+
+    @Nullable
+    private volatile HttpObservable http;
+
+    private YarnContainerLogFetcher(@Nullable UsernamePasswordCredentials credentials) {
+        this.credentials = credentials;
+    }
+
+    /**
+     * Get the fetcher for the credential provided, the basic authentication credential is used if there is
+     *
+     * @param credentialsProvider credential provider for HDInsight, null for anonymous access
+     * @param baseUrl the container log URL to fetch
+     * @return the shared log fetcher
+     */
+    @NotNull
+    public static YarnContainerLogFetcher getInstance(@Nullable CredentialsProvider credentialsProvider,
+                                                      @NotNull String baseUrl) {
+        Credentials credentials = credentialsProvider == null ? null : credentialsProvider.getCredentials(AuthScope.ANY);
+
+        if (!(credentials instanceof UsernamePasswordCredentials)) {
+            return ANONYMOUS;
+        }
+
+        UsernamePasswordCredentials basic = (UsernamePasswordCredentials) credentials;
+
+        // Only the hash of the credential is kept in the key, rather than the password in plain text
+        String key = getEndpoint(baseUrl) + "#" +
+                DigestUtils.sha256Hex(basic.getUserName() + ":" + basic.getPassword());
+
+        return fetchers.asMap().computeIfAbsent(key, k -> new YarnContainerLogFetcher(basic));
+    }
+
+    @NotNull
+    private static String getEndpoint(@NotNull String baseUrl) {
+        try {
+            URI uri = new URI(baseUrl);
+
+            if (uri.getScheme() != null && uri.getHost() != null) {
+                return uri.getScheme().toLowerCase() + "://" + uri.getHost().toLowerCase() + ":" + uri.getPort();
+            }
+        } catch (URISyntaxException ignored) {
+            // Key the malformed URL as it is, the fetch will report it
+        }
+
+        return baseUrl;
+    }
+
+    @NotNull
+    private HttpObservable getHttp() {
+        HttpObservable current = http;
+
+        if (current == null) {
+            synchronized (this) {
+                current = http;
+
+                if (current == null) {
+                    current = credentials == null ?
+                            new HttpObservable() :
+                            new HttpObservable(credentials.getUserName(), credentials.getPassword());
+                    http = current;
+                }
+            }
+        }
+
+        return current;
+    }
+
+    /**
+     * Fetch the specified range of container log
+     *
+     * @param baseUrl the container log URL
+     * @param type the log type, such as stderr, stdout
+     * @param start the start offset
+     * @param size the size to fetch, the value 0 or negative for all the rest
+     * @return the log content got, or empty string for any failure
+     */
+    @NotNull
+    public String fetch(@NotNull String baseUrl, @NotNull String type, long start, int size) {
+        URI url = null;
+
+        try {
+            url = new URI(baseUrl + "/").resolve(
+                    String.format("%s?start=%d", type, start) +
+                            (size <= 0 ? "" : String.format("&&end=%d", start + size)));
+
+            // Go to HTTP client directly to keep the query string as it is,
+            // the HttpObservable.request() rebuilds it with default parameters
+            HttpObservable httpObservable = getHttp();
+            HttpGet get = new HttpGet(url);
+            get.setConfig(httpObservable.getDefaultRequestConfig());
+            get.setHeader("User-Agent", httpObservable.getUserAgent());
+
+            try (CloseableHttpResponse response = httpObservable.getHttpClient(url).execute(get, httpObservable.getHttpContext())) {
+                int statusCode = response.getStatusLine().getStatusCode();
+
+                if (statusCode >= 300) {
+                    // If the URL is wrong, will get 200 response with content:
+                    //      Unable to locate 'xxx' log for container
+                    //  OR
+                    //      Logs not available for <user>. Aggregation may not be complete, Check back later or try the nodemanager at...
+                    //  OR
+                    //      Cannot get container logs without ...
+                    //
+                    // if fetching Yarn log hits the gap between the job running and stop, will get the status 403
+                    // the log is moving to job history server, just wait and retry.
+                    if (statusCode != HttpStatus.SC_FORBIDDEN) {
+                        LOGGER.warn("The GET request to " + url + " responded error: " + response.getStatusLine());
+                    }
+
+                    return "";
+                }
+
+                HttpEntity entity = response.getEntity();
+                if (entity == null) {
+                    return "";
+                }
+
+                Charset charset = Optional.ofNullable(ContentType.get(entity))
+                        .map(ContentType::getCharset)
+                        .orElse(StandardCharsets.UTF_8);
+
+                try (Reader reader = new BufferedReader(new InputStreamReader(entity.getContent(), charset))) {
+                    return extractLog(reader, type);
+                }
+            }
+        } catch (URISyntaxException e) {
+            LOGGER.error("baseUrl has syntax error: " + baseUrl);
+        } catch (Exception e) {
+            LOGGER.warn("get Spark job log Error", e);
+        }
+
+        return "";
+    }
+
+    /**
+     * Scan the container log page for the log of specified type
+     *
+     * The log content is in the cell next to the navigation cell `navcell`:
+     *   - In running, the log is in the <pre> block without log type paragraph
+     *   - In history server, the log type paragraph "Log Type: xxx" is ahead of the <pre> block
+     *
+     * @param html the page reader
+     * @param type the log type
+     * @return the first <pre> block following the log type paragraph, otherwise the last <pre> block
+     * @throws IOException for the page reading failure
+     */
+    @NotNull
+    static String extractLog(@NotNull Reader page, @NotNull String type) throws IOException {
+        PushbackReader html = new PushbackReader(page);
+
+        // Skip the navigation cell, the content cell is its next sibling
+        if (!skipTo(html, "id=\"navcell\"") || !skipTo(html, "</td") || !skipTo(html, "<td") || !skipTo(html, ">")) {
+            return "";
+        }
+
+        Map<String, String> logTypeMap = new HashMap<>();
+        String logType = null;
+        String logs = "";
+        StringBuilder text = new StringBuilder();
+
+        // Each turn starts after a '<'
+        boolean atTag = readUntil(html, '<', null);
+        while (atTag) {
+            String tag = readTagName(html);
+
+            if (!skipTo(html, ">")) {
+                break;
+            }
+
+            if (tag.equals("/td")) {
+                // The end of content cell
+                break;
+            } else if (tag.equals("p")) {
+                // In history server, need to read log type paragraph in page
+                text.setLength(0);
+                atTag = readUntil(html, '<', text);
+
+                Matcher matcher = LOG_TYPE_PATTERN.matcher(StringEscapeUtils.unescapeHtml4(text.toString()).trim());
+                if (matcher.matches()) {
+                    logType = matcher.group(1);
+                }
+
+                continue;
+            } else if (tag.equals("pre")) {
+                // In running, no log type paragraph in page
+                text.setLength(0);
+                readUntil(html, '<', text);
+
+                // Only the first text node is taken, skip the rest of <pre> block
+                if (!readTagName(html).equals("/pre") && !skipTo(html, "</pre")) {
+                    break;
+                }
+
+                if (!skipTo(html, ">")) {
+                    break;
+                }
+
+                logs = StringEscapeUtils.unescapeHtml4(stripLeadingLineBreak(text.toString()));
+
+                if (logType != null) {
+                    // Only get the first <pre>...</pre>
+                    logTypeMap.putIfAbsent(logType, logs);
+
+                    logType = null;
+                }
+            }
+
+            atTag = readUntil(html, '<', null);
+        }
+
+        return logTypeMap.getOrDefault(type, logs);
+    }
+
+    // A line break immediately following the <pre> start tag is ignored by HTML
+    @NotNull
+    private static String stripLeadingLineBreak(@NotNull String preText) {
+        if (preText.startsWith("\r\n")) {
+            return preText.substring(2);
+        }
+
+        return preText.startsWith("\n") ? preText.substring(1) : preText;
+    }
+
+    // Read chars until the stop char, which is consumed and not appended. Return false for the end of stream
+    private static boolean readUntil(@NotNull Reader reader, char stop, @Nullable StringBuilder sink) throws IOException {
+        int ch;
+
+        while ((ch = reader.read()) != -1) {
+            if (ch == stop) {
+                return true;
+            }
+
+            if (sink != null) {
+                sink.append((char) ch);
+            }
+        }
+
+        return false;
+    }
+
+    // Read the lower case tag name after '<', the '>' following is pushed back for the caller to skip
+    @NotNull
+    private static String readTagName(@NotNull PushbackReader reader) throws IOException {
+        StringBuilder name = new StringBuilder();
+        int ch;
+
+        while ((ch = reader.read()) != -1) {
+            if (ch == '>') {
+                reader.unread(ch);
+                break;
+            }
+
+            if (Character.isWhitespace(ch) || (ch == '/' && name.length() > 0)) {
+                break;
+            }
+
+            name.append(Character.toLowerCase((char) ch));
+        }
+
+        return name.toString();
+    }
+
+    // Skip chars until the case-insensitive marker (consumed) is found. Return false for the end of stream
+    private static boolean skipTo(@NotNull Reader reader, @NotNull String marker) throws IOException {
+        String lowerMarker = marker.toLowerCase();
+        int length = lowerMarker.length();
+        char[] window = new char[length];
+        int count = 0;
+        int ch;
+
+        while ((ch = reader.read()) != -1) {
+            window[count % length] = Character.toLowerCase((char) ch);
+            count++;
+
+            if (count >= length && matchesWindow(window, count, lowerMarker)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean matchesWindow(@NotNull char[] window, int count, @NotNull String marker) {
+        int length = marker.length();
+
+        for (int i = 0; i < length; i++) {
+            if (window[(count + i) % length] != marker.charAt(i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}